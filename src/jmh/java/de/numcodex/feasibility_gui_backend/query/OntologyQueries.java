@@ -0,0 +1,61 @@
+package de.numcodex.feasibility_gui_backend.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.common.api.Criterion;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds realistic {@link StructuredQuery structured queries} for benchmarks out of the ontology files located in
+ * {@code ontology/}.
+ * <p>
+ * Benchmarks are run from the project root, so all paths are relative to it.
+ */
+public final class OntologyQueries {
+
+    public static final String MAPPINGS_FILE = "ontology/codex-term-code-mapping.json";
+    public static final String CONCEPT_TREE_FILE = "ontology/codex-code-tree.json";
+    public static final String UI_PROFILES_FOLDER = "ontology/ui_profiles";
+
+    private static final URI QUERY_VERSION = URI.create("http://to_be_decided.com/draft-2/schema#");
+
+    private OntologyQueries() {
+    }
+
+    /**
+     * Creates a query that requires each of the first {@code criteriaCount} mapped conditions of the term code mapping
+     * file, i.e. every criterion forms its own inclusion group.
+     *
+     * @param jsonUtil      Object mapper used for reading the mapping file.
+     * @param criteriaCount The number of criteria the query shall consist of.
+     * @return The created query.
+     * @throws IOException If the mapping file cannot be read.
+     */
+    public static StructuredQuery createConditionQuery(ObjectMapper jsonUtil, int criteriaCount) throws IOException {
+        var mappings = jsonUtil.readTree(new File(MAPPINGS_FILE));
+        var inclusionCriteria = new ArrayList<List<Criterion>>();
+        for (JsonNode mapping : mappings) {
+            if (inclusionCriteria.size() == criteriaCount) {
+                break;
+            }
+            if (!"Condition".equals(mapping.path("fhirResourceType").asText())) {
+                continue;
+            }
+            var termCode = jsonUtil.treeToValue(mapping.get("key"), TermCode.class);
+            inclusionCriteria.add(List.of(new Criterion(List.of(termCode), null, null, null)));
+        }
+
+        if (inclusionCriteria.size() < criteriaCount) {
+            throw new IllegalArgumentException("the mapping file only contains %d conditions"
+                    .formatted(inclusionCriteria.size()));
+        }
+        return new StructuredQuery(QUERY_VERSION, inclusionCriteria, null, "Benchmark Query");
+    }
+}
@@ -0,0 +1,55 @@
+package de.numcodex.feasibility_gui_backend.query.api.validation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.query.OntologyQueries;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating a {@link StructuredQuery} against the JSON schema, which is done for every submitted query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredQueryValidatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int criteriaCount;
+
+    private StructuredQueryValidator validator;
+
+    private StructuredQuery query;
+
+    @Setup
+    public void setUp() throws IOException {
+        var jsonUtil = new ObjectMapper();
+        validator = new StructuredQueryValidator(
+                new StructuredQueryValidatorSpringConfig().createQueryValidatorJsonSchema(), jsonUtil, 0);
+        query = OntologyQueries.createConditionQuery(jsonUtil, criteriaCount);
+
+        if (!validator.isValid(query, null)) {
+            throw new IllegalStateException("benchmark query does not conform to the query schema");
+        }
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(query, null);
+    }
+}
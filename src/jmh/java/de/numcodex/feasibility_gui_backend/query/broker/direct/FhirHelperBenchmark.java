@@ -0,0 +1,74 @@
+package de.numcodex.feasibility_gui_backend.query.broker.direct;
+
+import ca.uhn.fhir.context.FhirContext;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Library;
+import org.hl7.fhir.r4.model.Measure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hl7.fhir.r4.model.Bundle.BundleType.TRANSACTION;
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.POST;
+
+/**
+ * Measures creating the bundle of a direct CQL query from the pre-parsed library and measure templates compared to
+ * reading and parsing the templates for every query, as {@link FhirHelper} used to do.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per published query as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FhirHelperBenchmark {
+
+    private static final String CQL = "library Retrieve\nusing FHIR version '4.0.0'\ncontext Patient\n"
+            + "define InInitialPopulation: exists [Condition: Code 'I10' from icd10]\n";
+    private static final String LIBRARY_URI = "urn:uuid:library";
+    private static final String MEASURE_URI = "urn:uuid:measure";
+
+    private FhirContext fhirContext;
+
+    private FhirHelper fhirHelper;
+
+    @Setup
+    public void setUp() throws IOException {
+        fhirContext = FhirContext.forR4();
+        fhirHelper = new FhirHelper(fhirContext);
+    }
+
+    @Benchmark
+    public Bundle copyTemplates() {
+        return fhirHelper.createBundle(CQL, LIBRARY_URI, MEASURE_URI);
+    }
+
+    @Benchmark
+    public Bundle parseTemplates() throws IOException {
+        var library = (Library) fhirContext.newJsonParser()
+                .parseResource(FhirHelper.getResourceFileAsString("Library.json"));
+        library.setUrl(LIBRARY_URI);
+        library.getContentFirstRep().setContentType("text/cql").setData(CQL.getBytes(UTF_8));
+        var measure = (Measure) fhirContext.newJsonParser()
+                .parseResource(FhirHelper.getResourceFileAsString("Measure.json"));
+        measure.setUrl(MEASURE_URI).addLibrary(LIBRARY_URI);
+
+        var bundle = new Bundle().setType(TRANSACTION);
+        bundle.addEntry().setResource(library).getRequest().setMethod(POST).setUrl("Library");
+        bundle.addEntry().setResource(measure).getRequest().setMethod(POST).setUrl("Measure");
+        return bundle;
+    }
+}
@@ -0,0 +1,298 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import org.hl7.fhir.r4.model.Attachment;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryRequestComponent;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Expression;
+import org.hl7.fhir.r4.model.Library;
+import org.hl7.fhir.r4.model.Measure;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hl7.fhir.r4.model.Bundle.BundleType.TRANSACTION;
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.POST;
+import static org.hl7.fhir.r4.model.Enumerations.PublicationStatus.ACTIVE;
+import static org.hl7.fhir.r4.model.Task.TaskIntent.ORDER;
+import static org.hl7.fhir.r4.model.Task.TaskStatus.REQUESTED;
+
+/**
+ * Measures building the transaction bundle of a published DSF query in a single pass compared to copying the bundle
+ * when adding the library and when adding the measure, as {@link DSFQueryManager} used to do.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per published query as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DSFQueryBundleFactoryBenchmark {
+
+    private static final URI MEASURE_BASE_URL = URI.create("https://zars/fhir/");
+
+    @Param({"1", "100"})
+    private int cqlKilobytes;
+
+    private DSFQueryBundleFactory bundleFactory;
+
+    private CopyingQueryBundleBuilder copyingBundleBuilder;
+
+    private Map<String, String> queryContents;
+
+    @Setup
+    public void setUp() {
+        bundleFactory = new DSFQueryBundleFactory("ZARS");
+        copyingBundleBuilder = new CopyingQueryBundleBuilder("ZARS");
+        var cqlLine = "define InInitialPopulation: exists [Condition: Code 'I10' from icd10]\n";
+        queryContents = Map.of("text/cql", cqlLine.repeat(cqlKilobytes * 1024 / cqlLine.length()),
+                "application/json", "{\"version\": \"http://to_be_decided.com/draft-2/schema#\"}");
+    }
+
+    @Benchmark
+    public Bundle singlePass() {
+        return bundleFactory.createQueryBundle("query-id", queryContents, MEASURE_BASE_URL);
+    }
+
+    @Benchmark
+    public Bundle withBundleCopies() {
+        return copyingBundleBuilder.createQueryBundle("query-id", queryContents, MEASURE_BASE_URL);
+    }
+
+    /**
+     * Builds query bundles the way {@link DSFQueryManager} used to, i.e. copying the task only bundle when adding the
+     * library and copying the task and library bundle when adding the measure.
+     */
+    private static final class CopyingQueryBundleBuilder {
+
+        private static final String INSTANTIATE_URI = "http://medizininformatik-initiative.de/bpe/Process/feasibilityRequest/0.6.2";
+        private static final String REQUEST_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-task-request";
+        private static final String MEASURE_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-measure";
+        private static final String LIBRARY_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-library";
+        private static final String REQUEST_URL_TASK = "Task";
+        private static final String REQUEST_URL_LIBRARY = "Library";
+        private static final String REQUEST_URL_MEASURE = "Measure";
+        private static final String MEASURE_CRITERIA_LANGUAGE = "text/cql";
+        private static final String MEASURE_CRITERIA_EXPRESSION = "InInitialPopulation";
+        private static final String BPMN_FEASIBILITY_REQUEST_MESSAGE = "feasibilityRequestMessage";
+        private static final String REQUESTER_TYPE = "Organization";
+        private static final String RECIPIENT_TYPE = "Organization";
+
+        private static final String LIBRARY_NAME = "Retrieve";
+        private static final String LIBRARY_VERSION = "1.0.0";
+
+        private static final String CODE_SYSTEM_FEASIBILITY = "http://medizininformatik-initiative.de/fhir/CodeSystem/feasibility";
+        private static final String CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE = "measure-reference";
+        private static final String CODE_SYSTEM_ORGANIZATION = "http://highmed.org/sid/organization-identifier";
+        private static final String CODE_SYSTEM_BPMN_MESSAGE = "http://highmed.org/fhir/CodeSystem/bpmn-message";
+        private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME = "message-name";
+        private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY = "business-key";
+        private static final String CODE_SYSTEM_LIBRARY_TYPE = "http://terminology.hl7.org/CodeSystem/library-type";
+        private static final String CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY = "logic-library";
+        private static final String CODE_SYSTEM_READ_ACCESS_TAG = "http://highmed.org/fhir/CodeSystem/read-access-tag";
+        private static final String CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL = "ALL";
+        private static final String CODE_SYSTEM_MEASURE_SCORING = "http://terminology.hl7.org/CodeSystem/measure-scoring";
+        private static final String CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT = "cohort";
+        private static final String CODE_SYSTEM_MEASURE_POPULATION = "http://terminology.hl7.org/CodeSystem/measure-population";
+        private static final String CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION = "initial-population";
+
+        private final String organizationId;
+
+        private CopyingQueryBundleBuilder(String organizationId) {
+            this.organizationId = organizationId;
+        }
+
+        private Bundle createQueryBundle(String queryId, Map<String, String> queryContents, URI measureBaseUrl) {
+            var queryBundle = createQueryBundleWithTask(queryId);
+            var libraryId = UUID.randomUUID();
+            queryBundle = addLibrary(queryBundle, queryContents, libraryId);
+            return addMeasure(queryBundle, libraryId, measureBaseUrl);
+        }
+
+        /**
+         * Creates a canonical url for a {@link UUID} to be used in a FHIR context.
+         *
+         * @param uuid The UUID to be used.
+         * @return The canonical url for the given UUID.
+         */
+        private String createCanonicalUUIDUrn(UUID uuid) {
+            return "urn:uuid:" + uuid;
+        }
+
+        /**
+         * Creates a query bundle with a task attached to it.
+         * <p>
+         * The task will make sure that the query gets distributed within the DSF context.
+         *
+         * @param queryId Identifies the query for later use.
+         * @return A {@link Bundle} with a task attached to it.
+         */
+        private Bundle createQueryBundleWithTask(String queryId) {
+            Bundle queryBundle = new Bundle().setType(TRANSACTION);
+
+            Task task = new Task()
+                    .setStatus(REQUESTED)
+                    .setIntent(ORDER)
+                    .setAuthoredOn(new Date())
+                    .setInstantiatesUri(INSTANTIATE_URI);
+
+            task.getRequester()
+                    .setType(REQUESTER_TYPE)
+                    .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
+
+            task.getRestriction().getRecipientFirstRep()
+                    .setType(RECIPIENT_TYPE)
+                    .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
+
+            task.addInput()
+                    .setType(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_BPMN_MESSAGE)
+                                    .setCode(CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME)))
+                    .setValue(new StringType(BPMN_FEASIBILITY_REQUEST_MESSAGE));
+            task.addInput()
+                    .setType(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_BPMN_MESSAGE)
+                                    .setCode(CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY)))
+                    .setValue(new StringType(queryId));
+            task.setMeta(new Meta().addProfile(REQUEST_PROFILE));
+
+            queryBundle.addEntry()
+                    .setRequest(new BundleEntryRequestComponent()
+                            .setMethod(POST)
+                            .setUrl(REQUEST_URL_TASK))
+                    .setResource(task)
+                    .setFullUrl(createCanonicalUUIDUrn(UUID.randomUUID()));
+
+            return queryBundle;
+        }
+
+        /**
+         * Given a query bundle adds a library resource to it.
+         * <p>
+         * Adds the library with the given content associated with it using the given media type.
+         *
+         * @param queryBundle   The library is added to this query bundle.
+         * @param queryContents Contents of the library mapped by their corresponding media types.
+         * @param libraryId     Identifies the library for referential usage.
+         * @return A copy of the given {@link Bundle} with the library added.
+         */
+        private Bundle addLibrary(Bundle queryBundle, Map<String, String> queryContents, UUID libraryId) {
+            Bundle bundle = queryBundle.copy();
+            Library library = new Library()
+                    .setName(LIBRARY_NAME)
+                    .setVersion(LIBRARY_VERSION)
+                    .setStatus(ACTIVE)
+                    .setType(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_LIBRARY_TYPE)
+                                    .setCode(CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY)))
+                    .setUrl(createCanonicalUUIDUrn(libraryId));
+
+            library.getMeta()
+                    .addTag(new Coding()
+                            .setSystem(CODE_SYSTEM_READ_ACCESS_TAG)
+                            .setCode(CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL))
+                    .addProfile(LIBRARY_PROFILE);
+
+            var attachments = queryContents.entrySet()
+                    .stream()
+                    .map(qc -> new Attachment().setContentType(qc.getKey()).setData(
+                            qc.getValue().getBytes(StandardCharsets.UTF_8)))
+                    .collect(Collectors.toList());
+
+            library.setContent(attachments);
+
+            bundle.addEntry()
+                    .setRequest(new BundleEntryRequestComponent()
+                            .setMethod(POST)
+                            .setUrl(REQUEST_URL_LIBRARY))
+                    .setResource(library)
+                    .setFullUrl(createCanonicalUUIDUrn(UUID.randomUUID()));
+
+            return bundle;
+        }
+
+        /**
+         * Given a query bundle adds a measure resource to it.
+         * <p>
+         * Adds a measure resource that references a library using the given library Id.
+         *
+         * @param queryBundle    The measure is added to this query bundle.
+         * @param libraryId      Identifies a library that this measure is going to use.
+         * @param measureBaseUrl Base URL the URL of the measure is resolved against.
+         * @return A copy of the given {@link Bundle} with the measure added.
+         */
+        private Bundle addMeasure(Bundle queryBundle, UUID libraryId, URI measureBaseUrl) {
+            Bundle bundle = queryBundle.copy();
+
+            var measureId = UUID.randomUUID();
+            var measureUrl = measureBaseUrl.resolve("./Measure/" + measureId);
+
+            Task task = (Task) bundle.getEntryFirstRep().getResource();
+            task.addInput()
+                    .setType(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_FEASIBILITY)
+                                    .setCode(CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE)))
+                    .setValue(new Reference()
+                            .setReference(createCanonicalUUIDUrn(measureId)));
+
+            Measure measure = new Measure()
+                    .setUrl(measureUrl.toString())
+                    .setStatus(ACTIVE)
+                    .setScoring(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_MEASURE_SCORING)
+                                    .setCode(CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT)))
+                    .addLibrary(createCanonicalUUIDUrn(libraryId));
+
+            measure.addGroup().addPopulation()
+                    .setCode(new CodeableConcept()
+                            .addCoding(new Coding()
+                                    .setSystem(CODE_SYSTEM_MEASURE_POPULATION)
+                                    .setCode(CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION)))
+                    .setCriteria(new Expression()
+                            .setLanguage(MEASURE_CRITERIA_LANGUAGE)
+                            .setExpression(MEASURE_CRITERIA_EXPRESSION));
+
+            measure.getMeta()
+                    .addTag(new Coding()
+                            .setSystem(CODE_SYSTEM_READ_ACCESS_TAG)
+                            .setCode(CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL))
+                    .addProfile(MEASURE_PROFILE);
+
+            bundle.addEntry()
+                    .setRequest(new BundleEntryRequestComponent()
+                            .setMethod(POST)
+                            .setUrl(REQUEST_URL_MEASURE))
+                    .setResource(measure)
+                    .setFullUrl(createCanonicalUUIDUrn(measureId));
+            return bundle;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.numcodex.feasibility_gui_backend.query.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import de.numcodex.feasibility_gui_backend.query.OntologyQueries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing a serialized query body the way it is done for every enqueued query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryHashCalculatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int criteriaCount;
+
+    private QueryHashCalculator queryHashCalculator;
+
+    private String serializedQueryBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        var jsonUtil = new ObjectMapper();
+        queryHashCalculator = new QueryHashCalculator(Hashing.sha256());
+        serializedQueryBody = jsonUtil.writeValueAsString(OntologyQueries.createConditionQuery(jsonUtil,
+                criteriaCount));
+    }
+
+    @Benchmark
+    public String calculateSerializedQueryBodyHash() {
+        return queryHashCalculator.calculateSerializedQueryBodyHash(serializedQueryBody);
+    }
+}
@@ -0,0 +1,59 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.ResultType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding results of sites to queries while several threads report results concurrently, just like the broker
+ * clients do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ResultServiceBenchmark {
+
+    @Param({"10", "1000"})
+    private int queryCount;
+
+    @Param({"40"})
+    private int siteCount;
+
+    private ResultService resultService;
+
+    private ResultLine[] resultLines;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        resultService = new ResultService(Duration.ofMinutes(10), null, null);
+        resultLines = new ResultLine[siteCount];
+        for (int i = 0; i < siteCount; i++) {
+            resultLines[i] = new ResultLine("site-" + i, ResultType.SUCCESS, i * 10L);
+        }
+    }
+
+    @Benchmark
+    public void addResultLine() {
+        var random = ThreadLocalRandom.current();
+        resultService.addResultLine((long) random.nextInt(queryCount), resultLines[random.nextInt(siteCount)]);
+    }
+}
@@ -0,0 +1,57 @@
+package de.numcodex.feasibility_gui_backend.query.translation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting a {@link StructuredQuery} into the sq2cql model by writing it to and parsing it from a string
+ * with the conversion via Jackson's token buffer used by {@link CqlQueryTranslator}.
+ * <p>
+ * Run with {@code -prof gc} to see the allocation rate per conversion as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CqlModelConversionBenchmark {
+
+    private ObjectMapper jsonUtil;
+
+    private StructuredQuery query;
+
+    @Setup
+    public void setUp() throws IOException {
+        jsonUtil = new ObjectMapper();
+        try (var queryFile = CqlModelConversionBenchmark.class.getResourceAsStream(
+                "/2021_10_18_StructuredQueryV2Example.json")) {
+            query = jsonUtil.readValue(queryFile, StructuredQuery.class);
+        }
+    }
+
+    @Benchmark
+    public de.numcodex.sq2cql.model.structured_query.StructuredQuery stringRoundTrip() throws JsonProcessingException {
+        return jsonUtil.readValue(jsonUtil.writeValueAsString(query),
+                de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
+    }
+
+    @Benchmark
+    public de.numcodex.sq2cql.model.structured_query.StructuredQuery tokenBufferConversion() {
+        return jsonUtil.convertValue(query, de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
+    }
+}
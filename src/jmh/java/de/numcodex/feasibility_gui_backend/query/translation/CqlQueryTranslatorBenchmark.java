@@ -0,0 +1,56 @@
+package de.numcodex.feasibility_gui_backend.query.translation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.query.OntologyQueries;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures translating a {@link StructuredQuery} into CQL using the mappings and the concept tree of the
+ * {@code ontology/} folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CqlQueryTranslatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int criteriaCount;
+
+    private CqlQueryTranslator cqlQueryTranslator;
+
+    private StructuredQuery query;
+
+    @Setup
+    public void setUp() throws IOException, QueryTranslationException {
+        var jsonUtil = new ObjectMapper();
+        cqlQueryTranslator = new CqlQueryTranslator(QueryTranslatorSpringConfig.loadCqlTranslator(jsonUtil,
+                new File(OntologyQueries.MAPPINGS_FILE), new File(OntologyQueries.CONCEPT_TREE_FILE)), jsonUtil);
+        query = OntologyQueries.createConditionQuery(jsonUtil, criteriaCount);
+
+        // Fail early instead of measuring the error path.
+        cqlQueryTranslator.translate(query);
+    }
+
+    @Benchmark
+    public String translate() throws QueryTranslationException {
+        return cqlQueryTranslator.translate(query);
+    }
+}
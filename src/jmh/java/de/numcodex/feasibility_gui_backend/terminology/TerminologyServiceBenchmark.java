@@ -0,0 +1,79 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+import de.numcodex.feasibility_gui_backend.query.OntologyQueries;
+import de.numcodex.feasibility_gui_backend.terminology.api.TerminologyEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the terminology search over the UI profiles of the {@code ontology/} folder.
+ * <p>
+ * The search terms cover a single character, a common word prefix and a longer multi word term. Searching within a
+ * single category uses the GECCO category, which holds nearly all selectable entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TerminologyServiceBenchmark {
+
+    private static final String GECCO_CATEGORY = "GECCO";
+
+    @Param({"a", "diab", "chronische virushepatitis"})
+    private String searchTerm;
+
+    private TerminologyService terminologyService;
+
+    private UUID geccoCategoryId;
+
+    // Display of the best fuzzy match for the search term, compared against the search term by the dice coefficient.
+    private String display;
+
+    @Setup
+    public void setUp() {
+        terminologyService = new TerminologyService(OntologyQueries.UI_PROFILES_FOLDER);
+
+        geccoCategoryId = terminologyService.getCategories().stream()
+                .filter(category -> GECCO_CATEGORY.equals(category.getDisplay()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("missing category '%s'".formatted(GECCO_CATEGORY)))
+                .getCatId();
+        display = terminologyService.getSelectableEntries(searchTerm, geccoCategoryId, TerminologySearchMode.FUZZY)
+                .get(0).getDisplay();
+    }
+
+    @Benchmark
+    public List<TerminologyEntry> getSelectableEntriesOfAllCategories() {
+        return terminologyService.getSelectableEntries(searchTerm, null);
+    }
+
+    @Benchmark
+    public List<TerminologyEntry> getSelectableEntriesOfGeccoCategory() {
+        return terminologyService.getSelectableEntries(searchTerm, geccoCategoryId);
+    }
+
+    @Benchmark
+    public List<TerminologyEntry> getFuzzySelectableEntriesOfAllCategories() {
+        return terminologyService.getSelectableEntries(searchTerm, null, TerminologySearchMode.FUZZY);
+    }
+
+    @Benchmark
+    public double diceCoefficientOptimized() {
+        return TerminologyService.diceCoefficientOptimized(display, searchTerm);
+    }
+}
@@ -24,6 +24,7 @@ public class RateLimitingConfig implements WebMvcConfigurer {
   public void addInterceptors(InterceptorRegistry registry) {
     registry.addInterceptor(interceptor)
         .addPathPatterns(PATH_API_V2 + PATH_QUERY + PATH_ID_MATCHER + PATH_SUMMARY_RESULT)
+        .addPathPatterns(PATH_API_V2 + PATH_QUERY + PATH_SUMMARY_RESULT)
         .addPathPatterns(PATH_API_V2 + PATH_QUERY + PATH_ID_MATCHER + PATH_DETAILED_OBFUSCATED_RESULT);
   }
 }
@@ -42,10 +42,12 @@ public class WebSecurityConfig {
   public static final String PATH_SAVED = "/saved";
   public static final String PATH_CONTENT = "/content";
   public static final String PATH_SUMMARY_RESULT = "/summary-result";
+  public static final String PATH_STREAM = "/stream";
   public static final String PATH_DETAILED_OBFUSCATED_RESULT = "/detailed-obfuscated-result";
   public static final String PATH_DETAILED_RESULT = "/detailed-result";
   public static final String PATH_TERMINOLOGY = "/terminology";
   public static final String PATH_TEMPLATE = "/template";
+  public static final String PATH_INVALID_STORED = "/invalid-stored";
   public static final String PATH_SWAGGER_UI = "/swagger-ui/**";
   public static final String PATH_SWAGGER_CONFIG = "/v3/api-docs/**";
   @Value("${app.keycloakAllowedRole}")
@@ -101,6 +103,7 @@ public class WebSecurityConfig {
                     .requestMatchers(PATH_API_V2 + PATH_QUERY + PATH_ID_MATCHER + PATH_DETAILED_RESULT).hasAuthority(keycloakAdminRole)
                     .requestMatchers(PATH_API_V2 + PATH_QUERY + PATH_TEMPLATE).hasAuthority(keycloakAllowedRole)
                     .requestMatchers(PATH_API_V2 + PATH_QUERY + PATH_TEMPLATE + "/*").hasAuthority(keycloakAllowedRole)
+                    .requestMatchers(PATH_API_V2 + PATH_QUERY + PATH_INVALID_STORED).hasAuthority(keycloakAdminRole)
                     .requestMatchers(PATH_API_V2 + "/**").hasAnyAuthority(keycloakAdminRole, keycloakAllowedRole)
                     .requestMatchers(PATH_API_V1 + "/**").hasAuthority(keycloakAllowedRole)
                     .requestMatchers(PATH_ACTUATOR_HEALTH).anonymous()
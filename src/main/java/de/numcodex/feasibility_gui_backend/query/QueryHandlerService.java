@@ -7,11 +7,13 @@ import de.numcodex.feasibility_gui_backend.query.api.QueryTemplate;
 import de.numcodex.feasibility_gui_backend.query.api.SavedQuery;
 import de.numcodex.feasibility_gui_backend.query.api.*;
 import de.numcodex.feasibility_gui_backend.query.dispatch.QueryDispatchException;
+import de.numcodex.feasibility_gui_backend.query.dispatch.QueryDispatchOutbox;
 import de.numcodex.feasibility_gui_backend.query.dispatch.QueryDispatcher;
 import de.numcodex.feasibility_gui_backend.query.obfuscation.QueryResultObfuscator;
 import de.numcodex.feasibility_gui_backend.query.persistence.*;
 import de.numcodex.feasibility_gui_backend.query.result.ResultLine;
 import de.numcodex.feasibility_gui_backend.query.result.ResultService;
+import de.numcodex.feasibility_gui_backend.query.result.ResultSummary;
 import de.numcodex.feasibility_gui_backend.query.templates.QueryTemplateException;
 import de.numcodex.feasibility_gui_backend.query.templates.QueryTemplateHandler;
 import lombok.NonNull;
@@ -21,8 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -37,6 +42,9 @@ public class QueryHandlerService {
     @NonNull
     private final QueryDispatcher queryDispatcher;
 
+    @NonNull
+    private final QueryDispatchOutbox queryDispatchOutbox;
+
     @NonNull
     private final QueryTemplateHandler queryTemplateHandler;
 
@@ -63,6 +71,9 @@ public class QueryHandlerService {
 
     public Mono<Long> runQuery(StructuredQuery structuredQuery, String userId) {
         try {
+            if (queryDispatchOutbox.isEnabled()) {
+                return Mono.just(queryDispatchOutbox.enqueueNewQuery(structuredQuery, userId));
+            }
             var queryId = queryDispatcher.enqueueNewQuery(structuredQuery, userId);
             return queryDispatcher.dispatchEnqueuedQuery(queryId)
                     .thenReturn(queryId);
@@ -73,18 +84,19 @@ public class QueryHandlerService {
 
     @Transactional
     public QueryResult getQueryResult(Long queryId, ResultDetail resultDetail) {
-        var singleSiteResults = resultService.findSuccessfulByQuery(queryId);
-        List<QueryResultLine> resultLines = new ArrayList<>();
-
-        if (resultDetail != ResultDetail.SUMMARY) {
-            resultLines = singleSiteResults.stream()
-                .map(ssr -> QueryResultLine.builder()
-                    .siteName(resultDetail == ResultDetail.DETAILED_OBFUSCATED ? queryResultObfuscator.tokenizeSiteName(queryId, ssr.siteName()) : ssr.siteName())
-                    .numberOfPatients(ssr.result())
-                    .build())
-                .toList();
+        if (resultDetail == ResultDetail.SUMMARY) {
+            return toSummaryQueryResult(queryId, resultService.getSummaryByQuery(queryId));
         }
 
+        // Detailed results sum up the listed lines themselves, so lines and total always match.
+        var singleSiteResults = resultService.findSuccessfulByQuery(queryId);
+        List<QueryResultLine> resultLines = singleSiteResults.stream()
+            .map(ssr -> QueryResultLine.builder()
+                .siteName(resultDetail == ResultDetail.DETAILED_OBFUSCATED ? queryResultObfuscator.tokenizeSiteName(queryId, ssr.siteName()) : ssr.siteName())
+                .numberOfPatients(ssr.result())
+                .build())
+            .toList();
+
         var totalMatchesInPopulation = singleSiteResults.stream()
             .mapToLong(ResultLine::result).sum();
 
@@ -95,6 +107,27 @@ public class QueryHandlerService {
             .build();
     }
 
+    /**
+     * Gets the summary results of several queries at once.
+     *
+     * @param queryIds the query ids
+     * @return the summary results in the order of the given query ids
+     */
+    public List<QueryResult> getSummaryQueryResults(List<Long> queryIds) {
+        var summaries = resultService.getSummariesByQueries(queryIds);
+        return queryIds.stream()
+            .map(queryId -> toSummaryQueryResult(queryId, summaries.get(queryId)))
+            .toList();
+    }
+
+    private static QueryResult toSummaryQueryResult(Long queryId, ResultSummary summary) {
+        return QueryResult.builder()
+            .queryId(queryId)
+            .resultLines(List.of())
+            .totalNumberOfPatients(summary.totalNumberOfPatients())
+            .build();
+    }
+
     public Query getQuery(Long queryId) throws JsonProcessingException {
         var query = queryRepository.findById(queryId);
         var savedQuery = savedQueryRepository.findByQueryId(queryId);
@@ -139,6 +172,14 @@ public class QueryHandlerService {
         return queryTemplateRepository.findByAuthor(authorId);
     }
 
+    public List<QueryTemplate> validateQueryTemplatesForAuthor(String authorId) {
+        return queryTemplateHandler.validateTemplates(authorId);
+    }
+
+    public List<InvalidStoredQuery> findInvalidStoredQueries() {
+        return queryTemplateHandler.findInvalidStoredQueries();
+    }
+
     public QueryTemplate convertTemplatePersistenceToApi(
             de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplate in)
             throws JsonProcessingException {
@@ -182,6 +223,17 @@ public class QueryHandlerService {
         return queryRepository.getAuthor(queryId).orElseThrow(QueryNotFoundException::new);
     }
 
+    /**
+     * Gets the IDs of the users who created the given queries.
+     *
+     * @param queryIds the query ids
+     * @return the author ids mapped by their query id, not containing unknown queries
+     */
+    public Map<Long, String> getAuthorIds(Collection<Long> queryIds) {
+        return queryRepository.getAuthors(queryIds).stream()
+            .collect(Collectors.toMap(QueryAuthor::queryId, QueryAuthor::authorId));
+    }
+
     public List<QueryListEntry> convertQueriesToQueryListEntries(List<de.numcodex.feasibility_gui_backend.query.persistence.Query> queryList) {
         var ret = new ArrayList<QueryListEntry>();
 
@@ -0,0 +1,23 @@
+package de.numcodex.feasibility_gui_backend.query.api;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import java.util.List;
+
+/**
+ * A stored query (query template or saved query) of any author that contains term codes which are not valid with
+ * respect to the current ontology.
+ */
+public record InvalidStoredQuery(
+    @JsonProperty Type type,
+    @JsonProperty long id,
+    @JsonProperty String label,
+    @JsonProperty String createdBy,
+    @JsonProperty List<TermCode> invalidTerms
+) {
+
+  public enum Type {
+    TEMPLATE,
+    SAVED_QUERY
+  }
+}
@@ -0,0 +1,17 @@
+package de.numcodex.feasibility_gui_backend.query.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import de.numcodex.feasibility_gui_backend.query.api.status.FeasibilityIssue;
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+@JsonInclude(Include.NON_NULL)
+public record QuerySummaryResult(
+    Long queryId,
+    Long totalNumberOfPatients,
+    List<FeasibilityIssue> issues
+) {
+
+}
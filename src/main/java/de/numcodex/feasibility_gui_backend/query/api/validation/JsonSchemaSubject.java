@@ -0,0 +1,53 @@
+package de.numcodex.feasibility_gui_backend.query.api.validation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Converts Jackson trees into subjects that can be validated against an everit JSON {@link org.everit.json.schema.Schema
+ * Schema}.
+ * <p>
+ * Walking the tree directly avoids writing the subject into a string just to parse it again using org.json.
+ */
+final class JsonSchemaSubject {
+
+  private JsonSchemaSubject() {
+  }
+
+  /**
+   * Converts a Jackson tree into its org.json representation.
+   *
+   * @param node the tree to convert
+   * @return a {@link JSONObject}, {@link JSONArray}, {@link Number}, {@link String}, {@link Boolean} or
+   * {@link JSONObject#NULL} depending on the type of the given node
+   */
+  static Object of(JsonNode node) {
+    if (node == null || node.isNull() || node.isMissingNode()) {
+      return JSONObject.NULL;
+    }
+    if (node.isObject()) {
+      var jsonObject = new JSONObject();
+      var fields = node.fields();
+      while (fields.hasNext()) {
+        var field = fields.next();
+        jsonObject.put(field.getKey(), of(field.getValue()));
+      }
+      return jsonObject;
+    }
+    if (node.isArray()) {
+      var jsonArray = new JSONArray();
+      for (var element : node) {
+        jsonArray.put(of(element));
+      }
+      return jsonArray;
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    return node.asText();
+  }
+}
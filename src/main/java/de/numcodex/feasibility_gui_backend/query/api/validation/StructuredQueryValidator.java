@@ -1,20 +1,29 @@
 package de.numcodex.feasibility_gui_backend.query.api.validation;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
-import org.json.JSONObject;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 
 /**
  * Validator for {@link StructuredQuery} that does an actual check based on a JSON schema.
+ * <p>
+ * The query is validated against its Jackson tree instead of being written into a string and parsed again. Validation
+ * results are cached by the query itself, so that repeatedly submitted queries are only validated once. Since the query
+ * and all its parts are records, looking up a query compares its content without serializing it.
+ * <p>
+ * Instances are created by the bean validation provider through the Spring bean factory, which requires a single
+ * constructor.
  */
 @Slf4j
 public class StructuredQueryValidator implements ConstraintValidator<StructuredQueryValidation, StructuredQuery> {
@@ -25,14 +34,22 @@ public class StructuredQueryValidator implements ConstraintValidator<StructuredQ
   @NonNull
   private ObjectMapper jsonUtil;
 
+  // Null if validation results are not cached.
+  private Cache<StructuredQuery, Boolean> validationResults;
+
   /**
-   * Required args constructor.
+   * Creates a validator that caches the validation results of up to {@code cacheSize} distinct queries. A
+   * {@code cacheSize} of {@code 0} disables caching.
    *
    * Lombok annotation had to be removed since it could not take the necessary Schema Qualifier
    */
-  public StructuredQueryValidator(@Qualifier(value = "validation") Schema jsonSchema, ObjectMapper jsonUtil) {
+  public StructuredQueryValidator(@Qualifier(value = "validation") Schema jsonSchema, ObjectMapper jsonUtil,
+      @Value("${app.queryValidationCache.maximumSize:1000}") long cacheSize) {
     this.jsonSchema = jsonSchema;
     this.jsonUtil = jsonUtil;
+    this.validationResults = cacheSize > 0
+        ? Caffeine.newBuilder().maximumSize(cacheSize).build()
+        : null;
   }
 
   /**
@@ -43,11 +60,18 @@ public class StructuredQueryValidator implements ConstraintValidator<StructuredQ
   @Override
   public boolean isValid(StructuredQuery structuredQuery,
       ConstraintValidatorContext constraintValidatorContext) {
+    if (validationResults == null) {
+      return validate(structuredQuery);
+    }
+    return validationResults.get(structuredQuery, this::validate);
+  }
+
+  private boolean validate(StructuredQuery structuredQuery) {
     try {
-      var jsonSubject = new JSONObject(jsonUtil.writeValueAsString(structuredQuery));
-      jsonSchema.validate(jsonSubject);
+      JsonNode jsonTree = jsonUtil.valueToTree(structuredQuery);
+      jsonSchema.validate(JsonSchemaSubject.of(jsonTree));
       return true;
-    } catch (ValidationException | JsonProcessingException e) {
+    } catch (IllegalArgumentException | ValidationException e) {
       log.debug("Structured query is invalid", e);
       return false;
     }
@@ -24,11 +24,14 @@ public class StructuredQueryValidatorSpringConfig {
   @Value("${app.enableQueryValidation}")
   private boolean enabled;
 
+  @Value("${app.queryValidationCache.maximumSize:1000}")
+  private long validationCacheMaximumSize;
+
   @Bean
   public ConstraintValidator<StructuredQueryValidation, StructuredQuery> createQueryValidator(
           @Qualifier("validation") Schema schema) {
     return enabled
-            ? new StructuredQueryValidator(schema, new ObjectMapper())
+            ? new StructuredQueryValidator(schema, new ObjectMapper(), validationCacheMaximumSize)
             : new StructuredQueryPassValidator();
   }
 
@@ -3,7 +3,10 @@ package de.numcodex.feasibility_gui_backend.query.broker;
 import ca.uhn.fhir.context.FhirContext;
 import de.numcodex.feasibility_gui_backend.query.broker.mock.MockBrokerClient;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +15,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import org.springframework.context.annotation.Lazy;
@@ -32,6 +36,12 @@ public class BrokerSpringConfig {
   @Value("${app.broker.dsf.enabled}")
   private boolean dsfClientEnabled;
 
+  @Value("${app.broker.queryState.timeToLiveMinutes:1440}")
+  private int queryStateTimeToLiveMinutes;
+
+  @Value("${app.broker.queryState.maximumSize:10000}")
+  private long queryStateMaximumSize;
+
   private final ApplicationContext ctx;
 
   public BrokerSpringConfig(ApplicationContext ctx) {
@@ -47,13 +57,20 @@ public class BrokerSpringConfig {
     return FhirContext.forR4();
   }
 
+  @Bean
+  QueryStateCacheSpec queryStateCacheSpec(ObjectProvider<MeterRegistry> meterRegistry) {
+    return new QueryStateCacheSpec(Duration.ofMinutes(queryStateTimeToLiveMinutes), queryStateMaximumSize,
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+  }
+
   @Qualifier("brokerClients")
   @Bean
-  public List<BrokerClient> createBrokerClients(QueryStatusListener statusListener) throws IOException {
+  public List<BrokerClient> createBrokerClients(QueryStatusListener statusListener,
+      QueryStateCacheSpec queryStateCacheSpec) throws IOException {
     List<BrokerClient> brokerClients = new ArrayList<>();
     if (mockClientEnabled) {
       log.info("Enable mock client");
-      brokerClients.add(new MockBrokerClient());
+      brokerClients.add(new MockBrokerClient(queryStateCacheSpec));
     }
     if (directClientEnabled) {
       log.info("Enable direct client");
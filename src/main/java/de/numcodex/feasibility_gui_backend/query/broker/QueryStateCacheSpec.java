@@ -0,0 +1,46 @@
+package de.numcodex.feasibility_gui_backend.query.broker;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Specification of the caches broker clients keep their per query state in.
+ * <p>
+ * Broker clients are called from dispatch threads as well as from the threads delivering results (e.g. websocket or
+ * HTTP client threads). Hence, all built caches are safe for concurrent use. Entries expire once they were not
+ * accessed for the given time to live, and the number of entries of each cache is bounded. This keeps the memory
+ * consumption flat even if queries are never closed. Hit, miss and eviction counts of every cache are published to
+ * the given meter registry, tagged with the name of the cache.
+ *
+ * @param timeToLive    Time after the last access of an entry until it expires.
+ * @param maximumSize   Maximum number of entries of a single cache.
+ * @param meterRegistry Registry that cache metrics are published to.
+ */
+public record QueryStateCacheSpec(Duration timeToLive, long maximumSize, MeterRegistry meterRegistry) {
+
+  public QueryStateCacheSpec {
+    Objects.requireNonNull(timeToLive);
+    Objects.requireNonNull(meterRegistry);
+  }
+
+  /**
+   * Builds a new, empty cache following this specification.
+   *
+   * @param cacheName Name used for tagging the metrics of the cache, e.g. {@code aktin.backendQueryIds}.
+   * @param <K>       Type of the keys.
+   * @param <V>       Type of the values.
+   * @return The cache.
+   */
+  public <K, V> Cache<K, V> build(String cacheName) {
+    Cache<K, V> cache = Caffeine.newBuilder()
+        .expireAfterAccess(timeToLive)
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+    return CaffeineCacheMetrics.monitor(meterRegistry, cache, cacheName);
+  }
+}
@@ -1,8 +1,10 @@
 package de.numcodex.feasibility_gui_backend.query.broker.aktin;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.UnsupportedMediaTypeException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
@@ -13,9 +15,7 @@ import org.aktin.broker.xml.Node;
 import org.aktin.broker.xml.RequestStatusInfo;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.AKTIN;
@@ -29,11 +29,12 @@ import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClient
 @Slf4j
 public class AktinBrokerClient implements BrokerClient {
 	private final BrokerAdmin2 delegate;
-	private final Map<String, Long> brokerToBackendQueryIdMapping;
+	private final Cache<String, Long> brokerToBackendQueryIdMapping;
 
-    public AktinBrokerClient(BrokerAdmin2 delegate) {
+    public AktinBrokerClient(BrokerAdmin2 delegate, QueryStateCacheSpec queryStateCacheSpec) {
         this.delegate = Objects.requireNonNull(delegate);
-        this.brokerToBackendQueryIdMapping = new HashMap<>();
+        // read by the websocket thread of the delegate while new queries get created
+        this.brokerToBackendQueryIdMapping = queryStateCacheSpec.<String, Long>build("aktin.backendQueryIds");
     }
 
     @Override
@@ -127,6 +128,6 @@ public class AktinBrokerClient implements BrokerClient {
 	}
 
     Long getBackendQueryId(String brokerQueryId) {
-        return brokerToBackendQueryIdMapping.get(brokerQueryId);
+        return brokerToBackendQueryIdMapping.getIfPresent(brokerQueryId);
     }
 }
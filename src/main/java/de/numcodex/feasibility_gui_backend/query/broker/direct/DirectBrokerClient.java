@@ -2,10 +2,12 @@ package de.numcodex.feasibility_gui_backend.query.broker.direct;
 
 import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DIRECT;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatus;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
@@ -17,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 import lombok.Getter;
 import lombok.Setter;
@@ -27,14 +30,22 @@ public abstract class DirectBrokerClient implements BrokerClient {
 
   private static final String SITE_NAME_LOCAL = "Local Server";
 
-  protected List<QueryStatusListener> listeners;
-  protected Map<String, DirectQuery> brokerQueries;
+  protected final List<QueryStatusListener> listeners;
+  protected final Cache<String, DirectQuery> brokerQueries;
 
 
   protected boolean obfuscateResultCount;
 
-  protected DirectBrokerClient(boolean obfuscateResultCount) {
+  /**
+   * Creates a new {@link DirectBrokerClient}.
+   *
+   * @param obfuscateResultCount Whether result counts get obfuscated.
+   * @param queryStateCacheSpec  Specification of the cache holding the queries of this broker.
+   */
+  protected DirectBrokerClient(boolean obfuscateResultCount, QueryStateCacheSpec queryStateCacheSpec) {
     this.obfuscateResultCount = obfuscateResultCount;
+    this.listeners = new CopyOnWriteArrayList<>();
+    this.brokerQueries = queryStateCacheSpec.<String, DirectQuery>build("direct.brokerQueries");
   }
 
   @Override
@@ -63,7 +74,7 @@ public abstract class DirectBrokerClient implements BrokerClient {
 
   @Override
   public void closeQuery(String brokerQueryId) throws QueryNotFoundException {
-    if (brokerQueries.remove(brokerQueryId) == null) {
+    if (brokerQueries.asMap().remove(brokerQueryId) == null) {
       throw new QueryNotFoundException(brokerQueryId);
     }
   }
@@ -96,7 +107,7 @@ public abstract class DirectBrokerClient implements BrokerClient {
    * @throws QueryNotFoundException If the ID does not identify a known query.
    */
   protected DirectQuery findQuery(String queryId) throws QueryNotFoundException {
-    return Optional.ofNullable(brokerQueries.get(queryId))
+    return Optional.ofNullable(brokerQueries.getIfPresent(queryId))
         .orElseThrow(() -> new QueryNotFoundException(queryId));
   }
 
@@ -137,13 +148,14 @@ public abstract class DirectBrokerClient implements BrokerClient {
     @Getter
     private final Long backendQueryId;
     private final Map<QueryMediaType, String> queryDefinitions;
+    // Results are set by the threads receiving them, so they need to be visible to all other threads.
     @Setter
-    private Integer result;
+    private volatile Integer result;
 
     private DirectQuery(String queryId, Long backendQueryId) {
       this.queryId = queryId;
       this.backendQueryId = backendQueryId;
-      queryDefinitions = new EnumMap<>(QueryMediaType.class);
+      queryDefinitions = Collections.synchronizedMap(new EnumMap<>(QueryMediaType.class));
     }
 
     /**
@@ -4,6 +4,7 @@ import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatus;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import lombok.extern.slf4j.Slf4j;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.MeasureReport;
@@ -30,15 +31,15 @@ public class DirectBrokerClientCql extends DirectBrokerClient {
      *
      * @param fhirConnector A FHIR connector.
      * @param fhirHelper
+     * @param queryStateCacheSpec Specification of the cache holding the queries of this broker.
      */
     public DirectBrokerClientCql(FhirConnector fhirConnector,
         boolean obfuscateResultCount,
-        FhirHelper fhirHelper) {
-        super(obfuscateResultCount);
+        FhirHelper fhirHelper,
+        QueryStateCacheSpec queryStateCacheSpec) {
+        super(obfuscateResultCount, queryStateCacheSpec);
         this.fhirConnector = Objects.requireNonNull(fhirConnector);
         this.fhirHelper = fhirHelper;
-        listeners = new ArrayList<>();
-        brokerQueries = new HashMap<>();
     }
 
     @Override
@@ -3,6 +3,7 @@ package de.numcodex.feasibility_gui_backend.query.broker.direct;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -28,12 +29,12 @@ public class DirectBrokerClientFlare extends DirectBrokerClient {
    * instance.
    *
    * @param webClient A web client to communicate with a Flare instance.
+   * @param queryStateCacheSpec Specification of the cache holding the queries of this broker.
    */
-  public DirectBrokerClientFlare(WebClient webClient, boolean obfuscateResultCount) {
-    super(obfuscateResultCount);
+  public DirectBrokerClientFlare(WebClient webClient, boolean obfuscateResultCount,
+      QueryStateCacheSpec queryStateCacheSpec) {
+    super(obfuscateResultCount, queryStateCacheSpec);
     this.webClient = Objects.requireNonNull(webClient);
-    listeners = new ArrayList<>();
-    brokerQueries = new HashMap<>();
   }
 
   @Override
@@ -3,6 +3,7 @@ package de.numcodex.feasibility_gui_backend.query.broker.direct;
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -30,13 +31,13 @@ public class DirectSpringConfig {
     @Qualifier("direct")
     @Bean
     public BrokerClient directBrokerClient(WebClient directWebClientFlare, @Value("${app.broker.direct.obfuscateResultCount:false}") boolean obfuscateResultCount,
-        FhirConnector fhirConnector, FhirHelper fhirHelper) {
+        FhirConnector fhirConnector, FhirHelper fhirHelper, QueryStateCacheSpec queryStateCacheSpec) {
         if (useCql) {
 
             return new DirectBrokerClientCql(fhirConnector, obfuscateResultCount,
-                fhirHelper);
+                fhirHelper, queryStateCacheSpec);
         } else {
-            return new DirectBrokerClientFlare(directWebClientFlare, obfuscateResultCount);
+            return new DirectBrokerClientFlare(directWebClientFlare, obfuscateResultCount, queryStateCacheSpec);
         }
     }
 
@@ -18,9 +18,19 @@ import org.springframework.stereotype.Component;
 public class FhirHelper {
 
   private final FhirContext context;
+  private final Library libraryTemplate;
+  private final Measure measureTemplate;
 
-  public FhirHelper(FhirContext context) {
+  /**
+   * Create a {@link FhirHelper}, parsing the {@link Library} and {@link Measure} templates once so
+   * that creating a {@link Bundle} only needs to copy them
+   * @param context the {@link FhirContext} used to parse the templates
+   * @throws IOException if the templates can not be read from the classpath
+   */
+  public FhirHelper(FhirContext context) throws IOException {
     this.context = context;
+    this.libraryTemplate = parseResource(Library.class, getResourceFileAsString("Library.json"));
+    this.measureTemplate = parseResource(Measure.class, getResourceFileAsString("Measure.json"));
   }
 
 
@@ -31,11 +41,9 @@ public class FhirHelper {
    * @param measureUri a measure uri {@link String} to be included in the {@link Bundle}
    * @return the {@link Bundle}, consisting of a {@link Library} and {@link Measure}, containing the submitted values
    */
-  public Bundle createBundle(String cql, String libraryUri, String measureUri) throws IOException {
-    var library = appendCql(parseResource(Library.class,
-        getResourceFileAsString("Library.json")).setUrl(libraryUri), cql);
-    var measure = parseResource(Measure.class,
-        getResourceFileAsString("Measure.json"))
+  public Bundle createBundle(String cql, String libraryUri, String measureUri) {
+    var library = appendCql(libraryTemplate.copy().setUrl(libraryUri), cql);
+    var measure = measureTemplate.copy()
         .setUrl(measureUri)
         .addLibrary(libraryUri);
     return bundleLibraryAndMeasure(library, measure);
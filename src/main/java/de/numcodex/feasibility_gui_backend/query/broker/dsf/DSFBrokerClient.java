@@ -1,19 +1,19 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.UnsupportedMediaTypeException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
 import de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DSF;
 
@@ -23,18 +23,20 @@ import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClient
 public final class DSFBrokerClient implements BrokerClient {
     private final QueryManager queryManager;
     private final QueryResultCollector queryResultCollector;
-    private final Map<String, Long> brokerToBackendQueryIdMapping;
+    private final Cache<String, Long> brokerToBackendQueryIdMapping;
 
     /**
      * Creates a new {@link DSFBrokerClient} instance.
      *
      * @param queryManager         Manager capable of setting up queries and managing them throughout their lifecycle.
      * @param queryResultCollector Collector for collecting results of running feasibility queries.
+     * @param queryStateCacheSpec  Specification of the cache associating broker query IDs with backend query IDs.
      */
-    public DSFBrokerClient(QueryManager queryManager, QueryResultCollector queryResultCollector) {
+    public DSFBrokerClient(QueryManager queryManager, QueryResultCollector queryResultCollector,
+                           QueryStateCacheSpec queryStateCacheSpec) {
         this.queryManager = queryManager;
         this.queryResultCollector = queryResultCollector;
-        brokerToBackendQueryIdMapping = new HashMap<>();
+        brokerToBackendQueryIdMapping = queryStateCacheSpec.<String, Long>build("dsf.backendQueryIds");
     }
 
     @Override
@@ -93,6 +95,6 @@ public final class DSFBrokerClient implements BrokerClient {
     }
 
     Long getBackendQueryId(String brokerQueryId) {
-        return brokerToBackendQueryIdMapping.get(brokerQueryId);
+        return brokerToBackendQueryIdMapping.getIfPresent(brokerQueryId);
     }
 }
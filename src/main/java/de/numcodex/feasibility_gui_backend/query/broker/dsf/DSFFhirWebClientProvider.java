@@ -22,6 +22,11 @@ import static org.hl7.fhir.r4.model.Task.TaskStatus.COMPLETED;
 
 /**
  * An entity that can provide different kinds of web clients to communicate with a FHIR server.
+ * <p>
+ * All callers share a single webservice client. The client holds the TLS context as well as the pool of kept-alive
+ * connections, so reusing it avoids building a new client and performing a new TLS handshake for every request. Its
+ * underlying HTTP client is safe for concurrent use. The number of idle connections kept alive per host is governed by
+ * the {@code http.maxConnections} system property of the JVM.
  */
 class DSFFhirWebClientProvider implements FhirWebClientProvider {
 
@@ -38,6 +43,7 @@ class DSFFhirWebClientProvider implements FhirWebClientProvider {
     private final FhirSecurityContextProvider securityContextProvider;
     private FhirSecurityContext securityContext;
     private final FhirProxyContext proxyContext;
+    private volatile FhirWebserviceClient webserviceClient;
 
 
     public DSFFhirWebClientProvider(FhirContext fhirContext, String webserviceBaseUrl, int webserviceReadTimeout,
@@ -55,14 +61,20 @@ class DSFFhirWebClientProvider implements FhirWebClientProvider {
 
     @Override
     public FhirWebserviceClient provideFhirWebserviceClient() throws FhirWebClientProvisionException {
-        if (securityContext == null) {
-            try {
-                securityContext = securityContextProvider.provideSecurityContext();
-            } catch (FhirSecurityContextProvisionException e) {
-                throw new FhirWebClientProvisionException(e);
+        var client = webserviceClient;
+        if (client == null) {
+            synchronized (this) {
+                if (webserviceClient == null) {
+                    webserviceClient = createFhirWebserviceClient();
+                }
+                client = webserviceClient;
             }
         }
+        return client;
+    }
 
+    private FhirWebserviceClient createFhirWebserviceClient() throws FhirWebClientProvisionException {
+        var securityContext = provideSecurityContext();
         ReferenceExtractorImpl extractor = new ReferenceExtractorImpl();
         ReferenceCleanerImpl cleaner = new ReferenceCleanerImpl(extractor);
 
@@ -83,24 +95,15 @@ class DSFFhirWebClientProvider implements FhirWebClientProvider {
     }
 
     @Override
-    public WebsocketClient provideFhirWebsocketClient() throws FhirWebClientProvisionException {
-        if (securityContext == null) {
-            try {
-                securityContext = securityContextProvider.provideSecurityContext();
-            } catch (FhirSecurityContextProvisionException e) {
-                throw new FhirWebClientProvisionException(e);
-            }
-        }
-
+    public WebsocketClient provideFhirWebsocketClient(Runnable reconnector) throws FhirWebClientProvisionException {
+        var securityContext = provideSecurityContext();
         FhirWebserviceClient fhirClient = provideFhirWebserviceClient();
 
         String subscriptionId = searchForExistingQueryResultSubscription(fhirClient)
                 .orElseGet(createQueryResultSubscription(fhirClient))
                 .getIdElement().getIdPart();
 
-        // TODO: implement reconnector
-        return new WebsocketClientTyrus(() -> {
-        },
+        return new WebsocketClientTyrus(reconnector,
                 URI.create(websocketUrl),
                 securityContext.getTrustStore(),
                 securityContext.getKeyStore(),
@@ -111,6 +114,17 @@ class DSFFhirWebClientProvider implements FhirWebClientProvider {
                 subscriptionId);
     }
 
+    private synchronized FhirSecurityContext provideSecurityContext() throws FhirWebClientProvisionException {
+        if (securityContext == null) {
+            try {
+                securityContext = securityContextProvider.provideSecurityContext();
+            } catch (FhirSecurityContextProvisionException e) {
+                throw new FhirWebClientProvisionException(e);
+            }
+        }
+        return securityContext;
+    }
+
     /**
      * Searches for an existing feasibility query result subscription and returns it if there is any.
      *
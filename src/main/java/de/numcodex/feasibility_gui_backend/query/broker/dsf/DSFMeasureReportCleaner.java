@@ -0,0 +1,180 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.MeasureReport;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.DELETE;
+
+/**
+ * Deletes measure reports of received query results from the FHIR server in the background.
+ * <p>
+ * Measure reports are only needed until their measure count has been read. Hence, their deletion does not have to
+ * delay the handling of query results. Measure reports scheduled for deletion are collected and deleted in batches,
+ * each using a single batch bundle followed by a permanent deletion of each deleted measure report. A batch is deleted
+ * once it is full or the flush interval has passed. Since the entries of a batch bundle succeed or fail independently,
+ * only the failed deletions of a batch are scheduled again. They are retried with the next flush until they ran out of
+ * attempts. The background worker runs between {@link #start()} and {@link #close()}.
+ */
+@Slf4j
+class DSFMeasureReportCleaner implements AutoCloseable {
+
+    static final int MAX_DELETION_ATTEMPTS = 3;
+
+    private final FhirWebClientProvider fhirWebClientProvider;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final ConcurrentLinkedQueue<PendingDeletion> pendingDeletions;
+    private volatile ScheduledExecutorService cleanupWorker;
+
+    /**
+     * Creates a new {@link DSFMeasureReportCleaner}.
+     *
+     * @param fhirWebClientProvider Provider capable of providing a FHIR webservice client for communicating with a
+     *                              FHIR server via HTTP.
+     * @param batchSize             Maximum number of measure reports deleted using a single batch bundle.
+     * @param flushInterval         Interval in which pending measure reports get deleted even if the batch is not
+     *                              full.
+     */
+    public DSFMeasureReportCleaner(FhirWebClientProvider fhirWebClientProvider, int batchSize,
+                                   Duration flushInterval) {
+        this.fhirWebClientProvider = fhirWebClientProvider;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.pendingDeletions = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Schedules the deletion of a measure report.
+     *
+     * @param measureReportId Identifies the measure report that shall be deleted.
+     */
+    public void scheduleDeletion(String measureReportId) {
+        pendingDeletions.add(new PendingDeletion(measureReportId, 0));
+        if (cleanupWorker != null && pendingDeletions.size() >= batchSize) {
+            cleanupWorker.execute(this::flush);
+        }
+    }
+
+    /**
+     * Deletes all measure reports whose deletion is pending. Failed deletions are scheduled again unless they ran out
+     * of attempts.
+     */
+    public synchronized void flush() {
+        var failedDeletions = new ArrayList<PendingDeletion>();
+        List<PendingDeletion> batch;
+        while (!(batch = nextBatch()).isEmpty()) {
+            try {
+                failedDeletions.addAll(deleteMeasureReports(batch));
+            } catch (Exception e) {
+                // Never let an exception escape since this cancels all subsequent executions of the worker.
+                log.error("failed to delete {} measure reports of received query results: {}", batch.size(),
+                        e.getMessage(), e);
+                failedDeletions.addAll(batch);
+            }
+        }
+        // Only scheduled again after the loop, so failing deletions are not retried right away within this flush.
+        for (var failedDeletion : failedDeletions) {
+            if (failedDeletion.attempts() + 1 < MAX_DELETION_ATTEMPTS) {
+                pendingDeletions.add(failedDeletion.nextAttempt());
+            } else {
+                log.error("giving up deleting measure report with ID '{}' after {} attempts",
+                        failedDeletion.measureReportId(), MAX_DELETION_ATTEMPTS);
+            }
+        }
+    }
+
+    public void start() {
+        cleanupWorker = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "dsf-measure-report-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanupWorker.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (cleanupWorker != null) {
+            cleanupWorker.shutdown();
+        }
+        flush();
+    }
+
+    private List<PendingDeletion> nextBatch() {
+        var batch = new ArrayList<PendingDeletion>(batchSize);
+        PendingDeletion pendingDeletion;
+        while (batch.size() < batchSize && (pendingDeletion = pendingDeletions.poll()) != null) {
+            batch.add(pendingDeletion);
+        }
+        return batch;
+    }
+
+    /**
+     * Deletes the measure reports of a batch.
+     *
+     * @param batch The pending deletions of the batch.
+     * @return The pending deletions that failed.
+     */
+    private List<PendingDeletion> deleteMeasureReports(List<PendingDeletion> batch)
+            throws FhirWebClientProvisionException {
+        var fhirWebserviceClient = fhirWebClientProvider.provideFhirWebserviceClient();
+
+        var batchBundle = new Bundle().setType(Bundle.BundleType.BATCH);
+        for (var pendingDeletion : batch) {
+            batchBundle.addEntry().getRequest()
+                    .setMethod(DELETE)
+                    .setUrl("MeasureReport/" + pendingDeletion.measureReportId());
+        }
+        var response = fhirWebserviceClient.postBundle(batchBundle);
+        if (response == null || response.getEntry().size() != batch.size()) {
+            log.error("failed to delete {} measure reports of received query results: unexpected batch response",
+                    batch.size());
+            return batch;
+        }
+
+        var failedDeletions = new ArrayList<PendingDeletion>();
+        for (int i = 0; i < batch.size(); i++) {
+            var pendingDeletion = batch.get(i);
+            var status = response.getEntry().get(i).getResponse().getStatus();
+            if (!isDeleted(status)) {
+                log.warn("failed to delete measure report with ID '{}': {}", pendingDeletion.measureReportId(),
+                        status);
+                failedDeletions.add(pendingDeletion);
+                continue;
+            }
+
+            // Permanent deletion is a DSF specific operation that can not be part of a batch bundle.
+            try {
+                fhirWebserviceClient.deletePermanently(MeasureReport.class, pendingDeletion.measureReportId());
+            } catch (Exception e) {
+                log.warn("failed to permanently delete measure report with ID '{}': {}",
+                        pendingDeletion.measureReportId(), e.getMessage());
+            }
+        }
+        return failedDeletions;
+    }
+
+    /**
+     * A measure report counts as deleted if the server either deleted it or does not know it (anymore).
+     */
+    private static boolean isDeleted(String status) {
+        return status != null && (status.startsWith("2") || status.startsWith("404") || status.startsWith("410"));
+    }
+
+    private record PendingDeletion(String measureReportId, int attempts) {
+
+        PendingDeletion nextAttempt() {
+            return new PendingDeletion(measureReportId, attempts + 1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntry;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntry.DSFQueryResultEntryId;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import jakarta.validation.constraints.NotNull;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages {@link DSFQueryResult}s within the database.
+ * <p>
+ * Results survive a restart of the backend and are shared by all instances using the same database. A background
+ * worker regularly deletes results that were received longer ago than the configured time to live, so that the table
+ * does not grow forever. The worker runs between {@link #start()} and {@link #close()}.
+ */
+@Slf4j
+class DSFPersistentQueryResultStore implements QueryResultStore, AutoCloseable {
+
+    private final DSFQueryResultEntryRepository resultRepository;
+    private final Duration timeToLive;
+    private final Duration purgeInterval;
+    private ScheduledExecutorService purgeWorker;
+
+    /**
+     * Creates a new {@link DSFPersistentQueryResultStore}.
+     *
+     * @param resultRepository Repository holding the results.
+     * @param timeToLive       Time after receiving a result until it gets deleted.
+     * @param purgeInterval    Interval in which expired results get deleted.
+     */
+    public DSFPersistentQueryResultStore(DSFQueryResultEntryRepository resultRepository, Duration timeToLive,
+                                         Duration purgeInterval) {
+        this.resultRepository = resultRepository;
+        this.timeToLive = timeToLive;
+        this.purgeInterval = purgeInterval;
+    }
+
+    @Override
+    public void storeResult(@NotNull DSFQueryResult result) {
+        var entry = new DSFQueryResultEntry();
+        entry.setId(new DSFQueryResultEntryId(result.getQueryId(), result.getSiteId()));
+        entry.setMeasureCount(result.getMeasureCount());
+        entry.setReceivedAt(Timestamp.from(Instant.now()));
+        resultRepository.save(entry);
+    }
+
+    @Override
+    public int getMeasureCount(String queryId, String siteId) throws QueryNotFoundException, SiteNotFoundException {
+        var entry = resultRepository.findById(new DSFQueryResultEntryId(queryId, siteId));
+        if (entry.isPresent()) {
+            return entry.get().getMeasureCount();
+        }
+
+        if (!resultRepository.existsByBrokerQueryId(queryId)) {
+            throw new QueryNotFoundException(queryId);
+        }
+        throw new SiteNotFoundException(queryId, siteId);
+    }
+
+    @Override
+    public List<String> getSiteIdsWithResult(String queryId) throws QueryNotFoundException {
+        var siteIds = resultRepository.findSiteIdsByBrokerQueryId(queryId);
+        if (siteIds.isEmpty()) {
+            throw new QueryNotFoundException(queryId);
+        }
+        return siteIds;
+    }
+
+    @Override
+    public void removeResult(String queryId) throws QueryNotFoundException {
+        if (resultRepository.deleteByBrokerQueryId(queryId) == 0) {
+            throw new QueryNotFoundException(queryId);
+        }
+    }
+
+    /**
+     * Deletes all results that were received longer ago than the configured time to live.
+     *
+     * @return The number of deleted results.
+     */
+    public int purgeExpiredResults() {
+        return resultRepository.deleteReceivedBefore(Timestamp.from(Instant.now().minus(timeToLive)));
+    }
+
+    public void start() {
+        purgeWorker = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "dsf-query-result-purge"));
+        purgeWorker.scheduleWithFixedDelay(this::purge, 0, purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (purgeWorker != null) {
+            purgeWorker.shutdownNow();
+        }
+    }
+
+    private void purge() {
+        try {
+            var purgedResults = purgeExpiredResults();
+            if (purgedResults > 0) {
+                log.info("purged {} expired DSF query results", purgedResults);
+            }
+        } catch (Exception e) {
+            // Never let an exception escape since this cancels all subsequent executions of the worker.
+            log.error("failed to purge expired DSF query results", e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import org.hl7.fhir.r4.model.Attachment;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.Coding;
+import org.hl7.fhir.r4.model.Expression;
+import org.hl7.fhir.r4.model.Library;
+import org.hl7.fhir.r4.model.Measure;
+import org.hl7.fhir.r4.model.Meta;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hl7.fhir.r4.model.Bundle.BundleType.TRANSACTION;
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.POST;
+import static org.hl7.fhir.r4.model.Enumerations.PublicationStatus.ACTIVE;
+import static org.hl7.fhir.r4.model.Task.TaskIntent.ORDER;
+import static org.hl7.fhir.r4.model.Task.TaskStatus.REQUESTED;
+
+/**
+ * Creates the transaction bundles that publish feasibility queries to the DSF.
+ * <p>
+ * A bundle consists of a task distributing the query, a library holding the query contents and a measure referencing
+ * the library. All three resources are built in a single pass and added to the bundle as they are, so that the query
+ * contents are neither copied nor converted more than once.
+ */
+final class DSFQueryBundleFactory {
+
+    private static final String INSTANTIATE_URI = "http://medizininformatik-initiative.de/bpe/Process/feasibilityRequest/0.6.2";
+    private static final String REQUEST_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-task-request";
+    private static final String MEASURE_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-measure";
+    private static final String LIBRARY_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-library";
+    private static final String REQUEST_URL_TASK = "Task";
+    private static final String REQUEST_URL_LIBRARY = "Library";
+    private static final String REQUEST_URL_MEASURE = "Measure";
+    private static final String MEASURE_CRITERIA_LANGUAGE = "text/cql";
+    private static final String MEASURE_CRITERIA_EXPRESSION = "InInitialPopulation";
+    private static final String BPMN_FEASIBILITY_REQUEST_MESSAGE = "feasibilityRequestMessage";
+    private static final String REQUESTER_TYPE = "Organization";
+    private static final String RECIPIENT_TYPE = "Organization";
+
+    private static final String LIBRARY_NAME = "Retrieve";
+    private static final String LIBRARY_VERSION = "1.0.0";
+
+    private static final String CODE_SYSTEM_FEASIBILITY = "http://medizininformatik-initiative.de/fhir/CodeSystem/feasibility";
+    private static final String CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE = "measure-reference";
+    private static final String CODE_SYSTEM_ORGANIZATION = "http://highmed.org/sid/organization-identifier";
+    private static final String CODE_SYSTEM_BPMN_MESSAGE = "http://highmed.org/fhir/CodeSystem/bpmn-message";
+    private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME = "message-name";
+    private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY = "business-key";
+    private static final String CODE_SYSTEM_LIBRARY_TYPE = "http://terminology.hl7.org/CodeSystem/library-type";
+    private static final String CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY = "logic-library";
+    private static final String CODE_SYSTEM_READ_ACCESS_TAG = "http://highmed.org/fhir/CodeSystem/read-access-tag";
+    private static final String CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL = "ALL";
+    private static final String CODE_SYSTEM_MEASURE_SCORING = "http://terminology.hl7.org/CodeSystem/measure-scoring";
+    private static final String CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT = "cohort";
+    private static final String CODE_SYSTEM_MEASURE_POPULATION = "http://terminology.hl7.org/CodeSystem/measure-population";
+    private static final String CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION = "initial-population";
+
+    private final String organizationId;
+
+    /**
+     * Creates a new {@link DSFQueryBundleFactory}.
+     *
+     * @param organizationId Identifies the local FHIR server instance (ZARS) that queries get published to.
+     */
+    DSFQueryBundleFactory(String organizationId) {
+        this.organizationId = organizationId;
+    }
+
+    /**
+     * Creates a transaction bundle publishing a query.
+     *
+     * @param queryId        Identifies the query for later use.
+     * @param queryContents  Contents of the query mapped by their corresponding media types.
+     * @param measureBaseUrl Base URL of the FHIR server the measure gets published to.
+     * @return The transaction bundle.
+     */
+    Bundle createQueryBundle(String queryId, Map<String, String> queryContents, URI measureBaseUrl) {
+        var libraryId = UUID.randomUUID();
+        var measureId = UUID.randomUUID();
+
+        var bundle = new Bundle().setType(TRANSACTION);
+        addEntry(bundle, createTask(queryId, measureId), REQUEST_URL_TASK, createCanonicalUUIDUrn(UUID.randomUUID()));
+        addEntry(bundle, createLibrary(queryContents, libraryId), REQUEST_URL_LIBRARY,
+                createCanonicalUUIDUrn(UUID.randomUUID()));
+        addEntry(bundle, createMeasure(measureBaseUrl, measureId, libraryId), REQUEST_URL_MEASURE,
+                createCanonicalUUIDUrn(measureId));
+        return bundle;
+    }
+
+    /**
+     * Creates the task that makes sure that the query gets distributed within the DSF context.
+     *
+     * @param queryId   Identifies the query for later use.
+     * @param measureId Identifies the measure of the query.
+     * @return The task.
+     */
+    private Task createTask(String queryId, UUID measureId) {
+        Task task = new Task()
+                .setStatus(REQUESTED)
+                .setIntent(ORDER)
+                .setAuthoredOn(new Date())
+                .setInstantiatesUri(INSTANTIATE_URI);
+
+        task.getRequester()
+                .setType(REQUESTER_TYPE)
+                .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
+
+        task.getRestriction().getRecipientFirstRep()
+                .setType(RECIPIENT_TYPE)
+                .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
+
+        task.addInput()
+                .setType(codeableConcept(CODE_SYSTEM_BPMN_MESSAGE, CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME))
+                .setValue(new StringType(BPMN_FEASIBILITY_REQUEST_MESSAGE));
+        task.addInput()
+                .setType(codeableConcept(CODE_SYSTEM_BPMN_MESSAGE, CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY))
+                .setValue(new StringType(queryId));
+        task.addInput()
+                .setType(codeableConcept(CODE_SYSTEM_FEASIBILITY, CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE))
+                .setValue(new Reference().setReference(createCanonicalUUIDUrn(measureId)));
+        task.setMeta(new Meta().addProfile(REQUEST_PROFILE));
+        return task;
+    }
+
+    /**
+     * Creates the library holding the given contents using their media types.
+     *
+     * @param queryContents Contents of the library mapped by their corresponding media types.
+     * @param libraryId     Identifies the library for referential usage.
+     * @return The library.
+     */
+    private Library createLibrary(Map<String, String> queryContents, UUID libraryId) {
+        var attachments = new ArrayList<Attachment>(queryContents.size());
+        queryContents.forEach((mediaType, content) -> attachments.add(new Attachment()
+                .setContentType(mediaType)
+                .setData(content.getBytes(StandardCharsets.UTF_8))));
+
+        Library library = new Library()
+                .setName(LIBRARY_NAME)
+                .setVersion(LIBRARY_VERSION)
+                .setStatus(ACTIVE)
+                .setType(codeableConcept(CODE_SYSTEM_LIBRARY_TYPE, CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY))
+                .setUrl(createCanonicalUUIDUrn(libraryId))
+                .setContent(attachments);
+        library.setMeta(readableByAll(LIBRARY_PROFILE));
+        return library;
+    }
+
+    /**
+     * Creates a measure that references the library with the given ID.
+     *
+     * @param measureBaseUrl Base URL of the FHIR server the measure gets published to.
+     * @param measureId      Identifies the measure.
+     * @param libraryId      Identifies the library that this measure is going to use.
+     * @return The measure.
+     */
+    private Measure createMeasure(URI measureBaseUrl, UUID measureId, UUID libraryId) {
+        Measure measure = new Measure()
+                .setUrl(measureBaseUrl.resolve("./Measure/" + measureId).toString())
+                .setStatus(ACTIVE)
+                .setScoring(codeableConcept(CODE_SYSTEM_MEASURE_SCORING, CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT))
+                .addLibrary(createCanonicalUUIDUrn(libraryId));
+
+        measure.addGroup().addPopulation()
+                .setCode(codeableConcept(CODE_SYSTEM_MEASURE_POPULATION,
+                        CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION))
+                .setCriteria(new Expression()
+                        .setLanguage(MEASURE_CRITERIA_LANGUAGE)
+                        .setExpression(MEASURE_CRITERIA_EXPRESSION));
+        measure.setMeta(readableByAll(MEASURE_PROFILE));
+        return measure;
+    }
+
+    private static void addEntry(Bundle bundle, Resource resource, String requestUrl, String fullUrl) {
+        var entry = bundle.addEntry()
+                .setResource(resource)
+                .setFullUrl(fullUrl);
+        entry.getRequest()
+                .setMethod(POST)
+                .setUrl(requestUrl);
+    }
+
+    private static CodeableConcept codeableConcept(String system, String code) {
+        return new CodeableConcept().addCoding(new Coding().setSystem(system).setCode(code));
+    }
+
+    private static Meta readableByAll(String profile) {
+        var meta = new Meta().addProfile(profile);
+        meta.addTag()
+                .setSystem(CODE_SYSTEM_READ_ACCESS_TAG)
+                .setCode(CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL);
+        return meta;
+    }
+
+    /**
+     * Creates a canonical url for a {@link UUID} to be used in a FHIR context.
+     *
+     * @param uuid The UUID to be used.
+     * @return The canonical url for the given UUID.
+     */
+    private static String createCanonicalUUIDUrn(UUID uuid) {
+        return "urn:uuid:" + uuid;
+    }
+}
@@ -1,8 +1,8 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Wrapper for different DSF query library information separated by different mime types.
@@ -11,7 +11,7 @@ final class DSFQueryData {
     private final Map<String, String> contentByType;
 
     public DSFQueryData() {
-        contentByType = new HashMap<>();
+        contentByType = new ConcurrentHashMap<>();
     }
 
     public void addQueryContent(String mediaType, String content) {
@@ -1,37 +1,16 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.UnsupportedMediaTypeException;
 import org.highmed.fhir.client.FhirWebserviceClient;
-import org.hl7.fhir.r4.model.Attachment;
-import org.hl7.fhir.r4.model.Bundle;
-import org.hl7.fhir.r4.model.Bundle.BundleEntryRequestComponent;
-import org.hl7.fhir.r4.model.CodeableConcept;
-import org.hl7.fhir.r4.model.Coding;
-import org.hl7.fhir.r4.model.Expression;
-import org.hl7.fhir.r4.model.Library;
-import org.hl7.fhir.r4.model.Measure;
-import org.hl7.fhir.r4.model.Meta;
-import org.hl7.fhir.r4.model.Reference;
-import org.hl7.fhir.r4.model.StringType;
-import org.hl7.fhir.r4.model.Task;
 
 import java.io.IOException;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
-
-import static org.hl7.fhir.r4.model.Bundle.BundleType.TRANSACTION;
-import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.POST;
-import static org.hl7.fhir.r4.model.Enumerations.PublicationStatus.ACTIVE;
-import static org.hl7.fhir.r4.model.Task.TaskIntent.ORDER;
-import static org.hl7.fhir.r4.model.Task.TaskStatus.REQUESTED;
 
 /**
  * Manager for feasibility queries.
@@ -40,42 +19,10 @@ import static org.hl7.fhir.r4.model.Task.TaskStatus.REQUESTED;
  */
 class DSFQueryManager implements QueryManager {
 
-    private static final String INSTANTIATE_URI = "http://medizininformatik-initiative.de/bpe/Process/feasibilityRequest/0.6.2";
-    private static final String REQUEST_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-task-request";
-    private static final String MEASURE_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-measure";
-    private static final String LIBRARY_PROFILE = "http://medizininformatik-initiative.de/fhir/StructureDefinition/feasibility-library";
-    private static final String REQUEST_URL_TASK = "Task";
-    private static final String REQUEST_URL_LIBRARY = "Library";
-    private static final String REQUEST_URL_MEASURE = "Measure";
-    private static final String MEASURE_CRITERIA_LANGUAGE = "text/cql";
-    private static final String MEASURE_CRITERIA_EXPRESSION = "InInitialPopulation";
-    private static final String BPMN_FEASIBILITY_REQUEST_MESSAGE = "feasibilityRequestMessage";
-    private static final String REQUESTER_TYPE = "Organization";
-    private static final String RECIPIENT_TYPE = "Organization";
-
-    private static final String LIBRARY_NAME = "Retrieve";
-    private static final String LIBRARY_VERSION = "1.0.0";
-
-    private static final String CODE_SYSTEM_FEASIBILITY = "http://medizininformatik-initiative.de/fhir/CodeSystem/feasibility";
-    private static final String CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE = "measure-reference";
-    private static final String CODE_SYSTEM_ORGANIZATION = "http://highmed.org/sid/organization-identifier";
-    private static final String CODE_SYSTEM_BPMN_MESSAGE = "http://highmed.org/fhir/CodeSystem/bpmn-message";
-    private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME = "message-name";
-    private static final String CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY = "business-key";
-    private static final String CODE_SYSTEM_LIBRARY_TYPE = "http://terminology.hl7.org/CodeSystem/library-type";
-    private static final String CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY = "logic-library";
-    private static final String CODE_SYSTEM_READ_ACCESS_TAG = "http://highmed.org/fhir/CodeSystem/read-access-tag";
-    private static final String CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL = "ALL";
-    private static final String CODE_SYSTEM_MEASURE_SCORING = "http://terminology.hl7.org/CodeSystem/measure-scoring";
-    private static final String CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT = "cohort";
-    private static final String CODE_SYSTEM_MEASURE_POPULATION = "http://terminology.hl7.org/CodeSystem/measure-population";
-    private static final String CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION = "initial-population";
-
     private final FhirWebClientProvider fhirWebClientProvider;
     private final DSFMediaTypeTranslator mediaTypeTranslator;
-    private final String organizationId;
-    private final Map<String, DSFQueryData> queryHeap;
-    private FhirWebserviceClient fhirWebserviceClient;
+    private final DSFQueryBundleFactory bundleFactory;
+    private final Cache<String, DSFQueryData> queryHeap;
 
     /**
      * Creates a new {@link DSFQueryManager} instance.
@@ -83,13 +30,16 @@ class DSFQueryManager implements QueryManager {
      * @param fhirWebClientProvider Provider capable of providing a client to communicate with a FHIR server via HTTP.
      * @param mediaTypeTranslator   Translates different media types so that they can be sent to the ZARS.
      * @param organizationId        Identifies the local FHIR server instance (ZARS) that queries get published to.
+     * @param queryStateCacheSpec   Specification of the cache holding the handled queries. Queries are only needed
+     *                              until they are published, so its time to live bounds the time between creating
+     *                              and publishing a query.
      */
     DSFQueryManager(FhirWebClientProvider fhirWebClientProvider, DSFMediaTypeTranslator mediaTypeTranslator,
-                    String organizationId) {
+                    String organizationId, QueryStateCacheSpec queryStateCacheSpec) {
         this.fhirWebClientProvider = fhirWebClientProvider;
         this.mediaTypeTranslator = mediaTypeTranslator;
-        this.organizationId = organizationId;
-        this.queryHeap = new HashMap<>();
+        this.bundleFactory = new DSFQueryBundleFactory(organizationId);
+        this.queryHeap = queryStateCacheSpec.build("dsf.queries");
     }
 
     @Override
@@ -105,7 +55,7 @@ class DSFQueryManager implements QueryManager {
             UnsupportedMediaTypeException {
         var translatedMediaType = mediaTypeTranslator.translate(queryMediaType);
 
-        var query = queryHeap.get(queryId);
+        var query = queryHeap.getIfPresent(queryId);
         if (query == null) {
             throw new QueryNotFoundException(queryId);
         }
@@ -115,7 +65,7 @@ class DSFQueryManager implements QueryManager {
 
     @Override
     public void publishQuery(String queryId) throws QueryNotFoundException, QueryDefinitionNotFoundException, IOException {
-        var query = queryHeap.get(queryId);
+        var query = queryHeap.getIfPresent(queryId);
         if (query == null) {
             throw new QueryNotFoundException(queryId);
         }
@@ -125,18 +75,15 @@ class DSFQueryManager implements QueryManager {
             throw new QueryDefinitionNotFoundException(queryId);
         }
 
-        if (fhirWebserviceClient == null) {
-            try {
-                fhirWebserviceClient = fhirWebClientProvider.provideFhirWebserviceClient();
-            } catch (Exception e) {
-                throw new IOException("could not provide fhir webservice client", e);
-            }
+        FhirWebserviceClient fhirWebserviceClient;
+        try {
+            fhirWebserviceClient = fhirWebClientProvider.provideFhirWebserviceClient();
+        } catch (Exception e) {
+            throw new IOException("could not provide fhir webservice client", e);
         }
 
-        var queryBundle = createQueryBundleWithTask(queryId);
-        var libraryId = UUID.randomUUID();
-        queryBundle = addLibrary(queryBundle, queryContents, libraryId);
-        queryBundle = addMeasure(queryBundle, libraryId);
+        var queryBundle = bundleFactory.createQueryBundle(queryId, queryContents,
+                URI.create(fhirWebserviceClient.getBaseUrl()));
 
         try {
             fhirWebserviceClient.postBundle(queryBundle);
@@ -147,171 +94,8 @@ class DSFQueryManager implements QueryManager {
 
     @Override
     public void removeQuery(String queryId) throws QueryNotFoundException {
-        if (!queryHeap.containsKey(queryId)) {
+        if (queryHeap.asMap().remove(queryId) == null) {
             throw new QueryNotFoundException(queryId);
         }
-        queryHeap.remove(queryId);
-    }
-
-    /**
-     * Creates a canonical url for a {@link UUID} to be used in a FHIR context.
-     *
-     * @param uuid The UUID to be used.
-     * @return The canonical url for the given UUID.
-     */
-    private String createCanonicalUUIDUrn(UUID uuid) {
-        return "urn:uuid:" + uuid;
-    }
-
-    /**
-     * Creates a query bundle with a task attached to it.
-     * <p>
-     * The task will make sure that the query gets distributed within the DSF context.
-     *
-     * @param queryId Identifies the query for later use.
-     * @return A {@link Bundle} with a task attached to it.
-     */
-    private Bundle createQueryBundleWithTask(String queryId) {
-        Bundle queryBundle = new Bundle().setType(TRANSACTION);
-
-        Task task = new Task()
-                .setStatus(REQUESTED)
-                .setIntent(ORDER)
-                .setAuthoredOn(new Date())
-                .setInstantiatesUri(INSTANTIATE_URI);
-
-        task.getRequester()
-                .setType(REQUESTER_TYPE)
-                .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
-
-        task.getRestriction().getRecipientFirstRep()
-                .setType(RECIPIENT_TYPE)
-                .getIdentifier().setSystem(CODE_SYSTEM_ORGANIZATION).setValue(organizationId);
-
-        task.addInput()
-                .setType(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_BPMN_MESSAGE)
-                                .setCode(CODE_SYSTEM_BPMN_MESSAGE_VALUE_MESSAGE_NAME)))
-                .setValue(new StringType(BPMN_FEASIBILITY_REQUEST_MESSAGE));
-        task.addInput()
-                .setType(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_BPMN_MESSAGE)
-                                .setCode(CODE_SYSTEM_BPMN_MESSAGE_VALUE_BUSINESS_KEY)))
-                .setValue(new StringType(queryId));
-        task.setMeta(new Meta().addProfile(REQUEST_PROFILE));
-
-        queryBundle.addEntry()
-                .setRequest(new BundleEntryRequestComponent()
-                        .setMethod(POST)
-                        .setUrl(REQUEST_URL_TASK))
-                .setResource(task)
-                .setFullUrl(createCanonicalUUIDUrn(UUID.randomUUID()));
-
-        return queryBundle;
-    }
-
-    /**
-     * Given a query bundle adds a library resource to it.
-     * <p>
-     * Adds the library with the given content associated with it using the given media type.
-     *
-     * @param queryBundle   The library is added to this query bundle.
-     * @param queryContents Contents of the library mapped by their corresponding media types.
-     * @param libraryId     Identifies the library for referential usage.
-     * @return A copy of the given {@link Bundle} with the library added.
-     */
-    private Bundle addLibrary(Bundle queryBundle, Map<String, String> queryContents, UUID libraryId) {
-        Bundle bundle = queryBundle.copy();
-        Library library = new Library()
-                .setName(LIBRARY_NAME)
-                .setVersion(LIBRARY_VERSION)
-                .setStatus(ACTIVE)
-                .setType(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_LIBRARY_TYPE)
-                                .setCode(CODE_SYSTEM_LIBRARY_TYPE_VALUE_LOGIC_LIBRARY)))
-                .setUrl(createCanonicalUUIDUrn(libraryId));
-
-        library.getMeta()
-                .addTag(new Coding()
-                        .setSystem(CODE_SYSTEM_READ_ACCESS_TAG)
-                        .setCode(CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL))
-                .addProfile(LIBRARY_PROFILE);
-
-        var attachments = queryContents.entrySet()
-                .stream()
-                .map(qc -> new Attachment().setContentType(qc.getKey()).setData(
-                        qc.getValue().getBytes(StandardCharsets.UTF_8)))
-                .collect(Collectors.toList());
-
-        library.setContent(attachments);
-
-        bundle.addEntry()
-                .setRequest(new BundleEntryRequestComponent()
-                        .setMethod(POST)
-                        .setUrl(REQUEST_URL_LIBRARY))
-                .setResource(library)
-                .setFullUrl(createCanonicalUUIDUrn(UUID.randomUUID()));
-
-        return bundle;
-    }
-
-    /**
-     * Given a query bundle adds a measure resource to it.
-     * <p>
-     * Adds a measure resource that references a library using the given library Id.
-     *
-     * @param queryBundle The measure is added to this query bundle.
-     * @param libraryId   Identifies a library that this measure is going to use.
-     * @return A copy of the given {@link Bundle} with the measure added.
-     */
-    private Bundle addMeasure(Bundle queryBundle, UUID libraryId) {
-        Bundle bundle = queryBundle.copy();
-
-        var measureId = UUID.randomUUID();
-        var measureUrl = URI.create(fhirWebserviceClient.getBaseUrl()).resolve("./Measure/" + measureId);
-
-        Task task = (Task) bundle.getEntryFirstRep().getResource();
-        task.addInput()
-                .setType(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_FEASIBILITY)
-                                .setCode(CODE_SYSTEM_FEASIBILITY_VALUE_MEASURE_REFERENCE)))
-                .setValue(new Reference()
-                        .setReference(createCanonicalUUIDUrn(measureId)));
-
-        Measure measure = new Measure()
-                .setUrl(measureUrl.toString())
-                .setStatus(ACTIVE)
-                .setScoring(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_MEASURE_SCORING)
-                                .setCode(CODE_SYSTEM_MEASURE_SCORING_VALUE_COHORT)))
-                .addLibrary(createCanonicalUUIDUrn(libraryId));
-
-        measure.addGroup().addPopulation()
-                .setCode(new CodeableConcept()
-                        .addCoding(new Coding()
-                                .setSystem(CODE_SYSTEM_MEASURE_POPULATION)
-                                .setCode(CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION)))
-                .setCriteria(new Expression()
-                        .setLanguage(MEASURE_CRITERIA_LANGUAGE)
-                        .setExpression(MEASURE_CRITERIA_EXPRESSION));
-
-        measure.getMeta()
-                .addTag(new Coding()
-                        .setSystem(CODE_SYSTEM_READ_ACCESS_TAG)
-                        .setCode(CODE_SYSTEM_READ_ACCESS_TAG_VALUE_ALL))
-                .addProfile(MEASURE_PROFILE);
-
-        bundle.addEntry()
-                .setRequest(new BundleEntryRequestComponent()
-                        .setMethod(POST)
-                        .setUrl(REQUEST_URL_MEASURE))
-                .setResource(measure)
-                .setFullUrl(createCanonicalUUIDUrn(measureId));
-        return bundle;
     }
 }
@@ -7,64 +7,208 @@ import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatus;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
+import lombok.extern.slf4j.Slf4j;
 import org.highmed.fhir.client.WebsocketClient;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
 import org.hl7.fhir.r4.model.DomainResource;
+import org.hl7.fhir.r4.model.Task;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hl7.fhir.r4.model.Task.TaskStatus.COMPLETED;
 
 /**
  * Collector for collecting the results of feasibility queries that are running in a distributed fashion.
  * <p>
  * The collector gathers query results from a single FHIR server. Communication with this FHIR server
  * happens using a websocket. The FHIR server sends all task resources that are associated with a subscription.
+ * <p>
+ * Once the websocket connection is lost, the collector reconnects using an exponential backoff. After reconnecting,
+ * it searches for all completed tasks that were updated during the outage and handles them like tasks received via
+ * the websocket. Hence, results do not get lost due to network failures.
+ * <p>
+ * Received tasks are handled by a separate executor, so that a burst of results from many sites does not stall the
+ * websocket.
  */
+@Slf4j
 class DSFQueryResultCollector implements QueryResultCollector {
 
+    // Used if no result was received before the outage. Covers clock differences between this and the FHIR server.
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+    private static final int CATCH_UP_PAGE_SIZE = 100;
+
     private final QueryResultStore store;
     private final FhirContext fhirContext;
     private final FhirWebClientProvider fhirWebClientProvider;
     private final DSFQueryResultHandler resultHandler;
+    private final WebsocketReconnectBackoff reconnectBackoff;
+    private final Executor resultHandlingExecutor;
     private final Map<DSFBrokerClient, QueryStatusListener> listeners;
-    private boolean websocketConnectionEstablished;
+    private final ScheduledExecutorService reconnectScheduler;
+    private final AtomicReference<Instant> lastResultUpdatedAt;
+    private WebsocketClient websocketClient;
+    private long connectionGeneration;
+    private int failedReconnectAttempts;
+    private Instant disconnectedAt;
 
     /**
      * Creates a new {@link DSFQueryResultCollector}.
      *
-     * @param store                 Storage facility for storing collected results.
-     * @param fhirContext           The FHIR context used for communication purposes with the FHIR server results are
-     *                              gathered from.
-     * @param fhirWebClientProvider Provider capable of providing a websocket client.
-     * @param resultHandler         Handler able to process query results received from the FHIR server.
+     * @param store                  Storage facility for storing collected results.
+     * @param fhirContext            The FHIR context used for communication purposes with the FHIR server results are
+     *                               gathered from.
+     * @param fhirWebClientProvider  Provider capable of providing a websocket client.
+     * @param resultHandler          Handler able to process query results received from the FHIR server.
+     * @param reconnectBackoff       Backoff used for reconnecting a lost websocket connection.
+     * @param resultHandlingExecutor Executor handling received tasks.
      */
     public DSFQueryResultCollector(QueryResultStore store, FhirContext fhirContext,
-                                   FhirWebClientProvider fhirWebClientProvider, DSFQueryResultHandler resultHandler) {
+                                   FhirWebClientProvider fhirWebClientProvider, DSFQueryResultHandler resultHandler,
+                                   WebsocketReconnectBackoff reconnectBackoff, Executor resultHandlingExecutor) {
         this.store = store;
         this.fhirContext = fhirContext;
         this.fhirWebClientProvider = fhirWebClientProvider;
         this.resultHandler = resultHandler;
-        this.websocketConnectionEstablished = false;
-        this.listeners = new HashMap<>();
+        this.reconnectBackoff = reconnectBackoff;
+        this.resultHandlingExecutor = resultHandlingExecutor;
+        this.listeners = new ConcurrentHashMap<>();
+        this.reconnectScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "dsf-websocket-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.lastResultUpdatedAt = new AtomicReference<>();
+    }
+
+    // Synchronized so that concurrently added listeners do not open more than a single websocket connection.
+    private synchronized void listenForQueryResults() throws FhirWebClientProvisionException {
+        if (websocketClient == null && disconnectedAt == null) {
+            connect();
+        }
+    }
+
+    private synchronized void connect() throws FhirWebClientProvisionException {
+        var generation = ++connectionGeneration;
+        WebsocketClient fhirWebsocketClient = fhirWebClientProvider.provideFhirWebsocketClient(
+                () -> onConnectionLost(generation));
+        fhirWebsocketClient.setDomainResourceHandler(this::setUpQueryResultHandler, this::setUpResourceParser);
+
+        fhirWebsocketClient.connect();
+        websocketClient = fhirWebsocketClient;
+    }
+
+    private synchronized void onConnectionLost(long generation) {
+        // Clients of earlier connections may report their loss late, e.g. when being disconnected after a reconnect.
+        if (generation != connectionGeneration || websocketClient == null) {
+            return;
+        }
+        log.warn("lost websocket connection for receiving DSF query results");
+        disconnectQuietly(websocketClient);
+        websocketClient = null;
+        disconnectedAt = Instant.now();
+        failedReconnectAttempts = 0;
+        scheduleReconnect();
+    }
+
+    private synchronized void scheduleReconnect() {
+        var delay = reconnectBackoff.delayOf(failedReconnectAttempts);
+        log.info("trying to reconnect websocket for receiving DSF query results in {}", delay);
+        reconnectScheduler.schedule(this::reconnect, delay.toMillis(), TimeUnit.MILLISECONDS);
     }
 
-    private void listenForQueryResults() throws FhirWebClientProvisionException {
-        if (!websocketConnectionEstablished) {
-            WebsocketClient fhirWebsocketClient = fhirWebClientProvider.provideFhirWebsocketClient();
-            fhirWebsocketClient.setDomainResourceHandler(this::setUpQueryResultHandler, this::setUpResourceParser);
+    private void reconnect() {
+        Instant missedResultsSince;
+        synchronized (this) {
+            try {
+                connect();
+            } catch (Exception e) {
+                log.warn("failed to reconnect websocket for receiving DSF query results: {}", e.getMessage());
+                failedReconnectAttempts++;
+                scheduleReconnect();
+                return;
+            }
+            var lastResult = lastResultUpdatedAt.get();
+            missedResultsSince = lastResult != null && lastResult.isAfter(disconnectedAt.minus(CATCH_UP_MARGIN))
+                    ? lastResult
+                    : disconnectedAt.minus(CATCH_UP_MARGIN);
+            disconnectedAt = null;
+        }
+        log.info("reconnected websocket for receiving DSF query results");
+        catchUpOnMissedResults(missedResultsSince);
+    }
+
+    /**
+     * Handles all completed tasks that were updated after the given point in time. Tasks that were updated at exactly
+     * this point in time are left out, since they were already received via the websocket.
+     *
+     * @param since Point in time after which tasks were missed.
+     */
+    private void catchUpOnMissedResults(Instant since) {
+        try {
+            var fhirClient = fhirWebClientProvider.provideFhirWebserviceClient();
+            var caughtUpTasks = 0;
+            for (int page = 1; ; page++) {
+                Bundle bundle = fhirClient.searchWithStrictHandling(Task.class,
+                        Map.of("status", List.of(COMPLETED.toCode()),
+                                "_lastUpdated", List.of("gt" + since),
+                                "_sort", List.of("_lastUpdated"),
+                                "_count", List.of(String.valueOf(CATCH_UP_PAGE_SIZE)),
+                                "_page", List.of(String.valueOf(page))));
+                var tasks = bundle.getEntry().stream()
+                        .map(BundleEntryComponent::getResource)
+                        .filter(Task.class::isInstance)
+                        .map(Task.class::cast)
+                        .toList();
+                tasks.forEach(this::setUpQueryResultHandler);
+                caughtUpTasks += tasks.size();
+                if (tasks.size() < CATCH_UP_PAGE_SIZE) {
+                    break;
+                }
+            }
+            log.info("caught up on {} completed tasks missed while the websocket was disconnected", caughtUpTasks);
+        } catch (Exception e) {
+            log.error("failed to catch up on DSF query results missed while the websocket was disconnected", e);
+        }
+    }
 
-            fhirWebsocketClient.connect();
-            websocketConnectionEstablished = true;
+    private void disconnectQuietly(WebsocketClient client) {
+        try {
+            client.disconnect();
+        } catch (Exception e) {
+            log.debug("failed to disconnect lost websocket connection", e);
         }
     }
 
     private void setUpQueryResultHandler(DomainResource resource) {
-        resultHandler.onResult(resource).ifPresent((res) -> {
-            store.storeResult(res);
-            notifyResultListeners(res);
-        });
+        var lastUpdated = resource.getMeta().getLastUpdated();
+        if (lastUpdated != null) {
+            lastResultUpdatedAt.accumulateAndGet(lastUpdated.toInstant(),
+                    (previous, current) -> previous == null || current.isAfter(previous) ? current : previous);
+        }
+        resultHandlingExecutor.execute(() -> handleResult(resource));
+    }
+
+    private void handleResult(DomainResource resource) {
+        try {
+            resultHandler.onResult(resource).ifPresent((res) -> {
+                store.storeResult(res);
+                notifyResultListeners(res);
+            });
+        } catch (Exception e) {
+            log.error("failed to handle received DSF query result", e);
+        }
     }
 
     private IParser setUpResourceParser() {
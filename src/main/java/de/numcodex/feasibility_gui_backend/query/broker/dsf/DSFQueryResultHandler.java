@@ -1,7 +1,6 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 import lombok.extern.slf4j.Slf4j;
-import org.highmed.fhir.client.FhirWebserviceClient;
 import org.hl7.fhir.r4.model.DomainResource;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.MeasureReport;
@@ -27,16 +26,19 @@ class DSFQueryResultHandler {
     private static final String CODE_SYSTEM_MEASURE_POPULATION_VALUE_INITIAL_POPULATION = "initial-population";
 
     private final FhirWebClientProvider fhirWebClientProvider;
-    private FhirWebserviceClient fhirWebserviceClient;
+    private final DSFMeasureReportCleaner measureReportCleaner;
 
     /**
      * Creates a new {@link DSFQueryResultHandler} instance for processing FHIR Task resources.
      *
      * @param fhirWebClientProvider Provider capable of providing a FHIR webservice client for communicating with a
      *                              FHIR server via HTTP.
+     * @param measureReportCleaner  Cleaner deleting measure reports once their measure count has been read.
      */
-    public DSFQueryResultHandler(FhirWebClientProvider fhirWebClientProvider) {
+    public DSFQueryResultHandler(FhirWebClientProvider fhirWebClientProvider,
+                                 DSFMeasureReportCleaner measureReportCleaner) {
         this.fhirWebClientProvider = fhirWebClientProvider;
+        this.measureReportCleaner = measureReportCleaner;
     }
 
     /**
@@ -44,6 +46,8 @@ class DSFQueryResultHandler {
      * <p>
      * Only {@link DomainResource}s that resemble a {@link Task} will be taken into account. Such a task itself has to
      * have a profile indicating that it carries information regarding a feasibility query result of a single DIC.
+     * <p>
+     * The referenced measure report is read right away, whereas its deletion happens later in the background.
      *
      * @param resource An arbitrary FHIR resource.
      * @return The feasibility query result if there is any.
@@ -64,7 +68,7 @@ class DSFQueryResultHandler {
 
             try {
                 MeasureReport report = fetchMeasureReport(measureReportUrl.getIdPart());
-                deleteMeasureReport(measureReportUrl.getIdPart());
+                measureReportCleaner.scheduleDeletion(measureReportUrl.getIdPart());
                 int measureCount = extractMeasureCount(report);
                 return Optional.of(new DSFQueryResult(queryId, siteId, measureCount));
             } catch (Exception e) {
@@ -125,23 +129,7 @@ class DSFQueryResultHandler {
      * @return The fetched measure report.
      */
     private MeasureReport fetchMeasureReport(String measureReportId) throws FhirWebClientProvisionException {
-        if (fhirWebserviceClient == null) {
-            fhirWebserviceClient = fhirWebClientProvider.provideFhirWebserviceClient();
-        }
-        return fhirWebserviceClient.read(MeasureReport.class, measureReportId);
-    }
-
-    /**
-     * Deletes a specific measure report in DSF.
-     *
-     * @param measureReportId Identifies the measure report that shall be deleted.
-     */
-    private void deleteMeasureReport(String measureReportId) throws FhirWebClientProvisionException {
-        if (fhirWebserviceClient == null) {
-            fhirWebserviceClient = fhirWebClientProvider.provideFhirWebserviceClient();
-        }
-        fhirWebserviceClient.delete(MeasureReport.class, measureReportId);
-        fhirWebserviceClient.deletePermanently(MeasureReport.class, measureReportId);
+        return fhirWebClientProvider.provideFhirWebserviceClient().read(MeasureReport.class, measureReportId);
     }
 
     /**
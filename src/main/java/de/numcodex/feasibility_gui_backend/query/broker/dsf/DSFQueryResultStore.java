@@ -1,40 +1,49 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 
 import jakarta.validation.constraints.NotNull;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages {@link DSFQueryResult}s.
+ * Manages {@link DSFQueryResult}s in memory.
+ * <p>
+ * Results of a query expire once they have not been accessed for the configured time to live. Additionally, the
+ * number of queries whose results are kept is bounded. Hence, memory consumption stays flat even if results are never
+ * removed explicitly. Results do not survive a restart though (see {@link DSFPersistentQueryResultStore}).
  */
 class DSFQueryResultStore implements QueryResultStore {
 
-    private final Map<String, Map<String, Integer>> results;
+    private final Cache<String, Map<String, Integer>> results;
 
-    public DSFQueryResultStore() {
-        this.results = new HashMap<>();
+    /**
+     * Creates a new {@link DSFQueryResultStore}.
+     *
+     * @param queryStateCacheSpec Specification of the cache holding the results.
+     */
+    public DSFQueryResultStore(QueryStateCacheSpec queryStateCacheSpec) {
+        this.results = queryStateCacheSpec.build("dsf.results");
     }
 
-
     @Override
     public void storeResult(@NotNull DSFQueryResult result) {
-        Map<String, Integer> resultsPerClient = results.get(result.getQueryId());
-        if (resultsPerClient == null) {
-            resultsPerClient = new HashMap<>();
-            resultsPerClient.put(result.getSiteId(), result.getMeasureCount());
-            results.put(result.getQueryId(), resultsPerClient);
-        } else {
-            resultsPerClient.put(result.getSiteId(), result.getMeasureCount());
-        }
+        results.asMap().compute(result.getQueryId(), (queryId, resultsPerClient) -> {
+            var updatedResultsPerClient = (resultsPerClient == null)
+                    ? new ConcurrentHashMap<String, Integer>()
+                    : resultsPerClient;
+            updatedResultsPerClient.put(result.getSiteId(), result.getMeasureCount());
+            return updatedResultsPerClient;
+        });
     }
 
     @Override
     public int getMeasureCount(String queryId, String siteId) throws QueryNotFoundException, SiteNotFoundException {
-        Map<String, Integer> resultsPerClient = results.get(queryId);
+        Map<String, Integer> resultsPerClient = results.getIfPresent(queryId);
         if (resultsPerClient == null) {
             throw new QueryNotFoundException(queryId);
         }
@@ -49,7 +58,7 @@ class DSFQueryResultStore implements QueryResultStore {
 
     @Override
     public List<String> getSiteIdsWithResult(String queryId) throws QueryNotFoundException {
-        Map<String, Integer> resultsPerClient = results.get(queryId);
+        Map<String, Integer> resultsPerClient = results.getIfPresent(queryId);
         if (resultsPerClient == null) {
             throw new QueryNotFoundException(queryId);
         }
@@ -59,11 +68,8 @@ class DSFQueryResultStore implements QueryResultStore {
 
     @Override
     public void removeResult(String queryId) throws QueryNotFoundException {
-        Map<String, Integer> resultsPerClient = results.get(queryId);
-        if (resultsPerClient == null) {
+        if (results.asMap().remove(queryId) == null) {
             throw new QueryNotFoundException(queryId);
         }
-
-        results.remove(queryId);
     }
 }
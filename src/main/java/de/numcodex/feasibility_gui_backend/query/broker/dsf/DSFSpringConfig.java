@@ -2,12 +2,20 @@ package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 import ca.uhn.fhir.context.FhirContext;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Spring configuration for providing a {@link DSFBrokerClient} instance.
@@ -16,6 +24,10 @@ import org.springframework.context.annotation.Lazy;
 @Configuration
 public class DSFSpringConfig {
 
+    private static final Duration PERSISTENT_RESULT_PURGE_INTERVAL = Duration.ofMinutes(10);
+    private static final int MEASURE_REPORT_DELETION_BATCH_SIZE = 50;
+    private static final Duration MEASURE_REPORT_DELETION_INTERVAL = Duration.ofSeconds(10);
+
     @Value("${app.broker.dsf.security.keystore.p12file}")
     private String keyStoreFile;
 
@@ -46,19 +58,45 @@ public class DSFSpringConfig {
     @Value("${app.broker.dsf.websocket.url}")
     private String websocketUrl;
 
+    @Value("${app.broker.dsf.websocket.reconnect.initialDelaySeconds:1}")
+    private int websocketReconnectInitialDelaySeconds;
+
+    @Value("${app.broker.dsf.websocket.reconnect.maximumDelaySeconds:300}")
+    private int websocketReconnectMaximumDelaySeconds;
+
+    @Value("${app.broker.dsf.resultHandlerThreads:4}")
+    private int resultHandlerThreads;
+
     @Value("${app.broker.dsf.organizationId}")
     private String organizationId;
 
+    @Value("${app.broker.dsf.queryState.store:memory}")
+    private String queryStateStore;
+
+    @Value("${app.broker.dsf.queryState.timeToLiveMinutes:1440}")
+    private int queryStateTimeToLiveMinutes;
+
+    @Value("${app.broker.dsf.queryState.maximumSize:10000}")
+    private long queryStateMaximumSize;
+
     @Qualifier("dsf")
     @Bean
-    public BrokerClient dsfBrokerClient(QueryManager queryManager, QueryResultCollector queryResultCollector) {
-        return new DSFBrokerClient(queryManager, queryResultCollector);
+    public BrokerClient dsfBrokerClient(QueryManager queryManager, QueryResultCollector queryResultCollector,
+                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DSFBrokerClient(queryManager, queryResultCollector, dsfQueryStateCacheSpec(meterRegistry));
     }
 
     @Bean
-    QueryManager dsfQueryManager(FhirWebClientProvider fhirWebClientProvider, DSFMediaTypeTranslator dsfMediaTypeTranslator) {
+    QueryManager dsfQueryManager(FhirWebClientProvider fhirWebClientProvider, DSFMediaTypeTranslator dsfMediaTypeTranslator,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
         return new DSFQueryManager(fhirWebClientProvider, dsfMediaTypeTranslator,
-                organizationId.replace(' ', '_'));
+                organizationId.replace(' ', '_'), dsfQueryStateCacheSpec(meterRegistry));
+    }
+
+    // DSF results may arrive a lot later than results of other brokers, so DSF has its own query state settings.
+    private QueryStateCacheSpec dsfQueryStateCacheSpec(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryStateCacheSpec(Duration.ofMinutes(queryStateTimeToLiveMinutes), queryStateMaximumSize,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     @Bean
@@ -69,17 +107,45 @@ public class DSFSpringConfig {
     @Bean
     QueryResultCollector queryResultCollector(QueryResultStore resultStore, FhirContext fhirContext,
                                               FhirWebClientProvider webClientProvider, DSFQueryResultHandler resultHandler) {
-        return new DSFQueryResultCollector(resultStore, fhirContext, webClientProvider, resultHandler);
+        var resultHandlerThreadCount = new AtomicInteger();
+        var resultHandlingExecutor = Executors.newFixedThreadPool(resultHandlerThreads, r -> {
+            var thread = new Thread(r, "dsf-result-handler-" + resultHandlerThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new DSFQueryResultCollector(resultStore, fhirContext, webClientProvider, resultHandler,
+                new WebsocketReconnectBackoff(Duration.ofSeconds(websocketReconnectInitialDelaySeconds),
+                        Duration.ofSeconds(websocketReconnectMaximumDelaySeconds)),
+                resultHandlingExecutor);
     }
 
     @Bean
-    QueryResultStore queryResultStore() {
-        return new DSFQueryResultStore();
+    QueryResultStore queryResultStore(DSFQueryResultEntryRepository resultRepository,
+                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return switch (queryStateStore) {
+            case "memory" -> new DSFQueryResultStore(dsfQueryStateCacheSpec(meterRegistry));
+            case "persistent" -> {
+                var store = new DSFPersistentQueryResultStore(resultRepository,
+                        Duration.ofMinutes(queryStateTimeToLiveMinutes),
+                        PERSISTENT_RESULT_PURGE_INTERVAL);
+                store.start();
+                yield store;
+            }
+            default -> throw new IllegalArgumentException("unknown DSF query state store '%s'. Possible values are 'memory' and 'persistent'"
+                    .formatted(queryStateStore));
+        };
     }
 
     @Bean
-    DSFQueryResultHandler queryResultHandler(FhirWebClientProvider webClientProvider) {
-        return new DSFQueryResultHandler(webClientProvider);
+    DSFQueryResultHandler queryResultHandler(FhirWebClientProvider webClientProvider,
+                                             DSFMeasureReportCleaner measureReportCleaner) {
+        return new DSFQueryResultHandler(webClientProvider, measureReportCleaner);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    DSFMeasureReportCleaner measureReportCleaner(FhirWebClientProvider webClientProvider) {
+        return new DSFMeasureReportCleaner(webClientProvider, MEASURE_REPORT_DELETION_BATCH_SIZE,
+                MEASURE_REPORT_DELETION_INTERVAL);
     }
 
 
@@ -20,9 +20,10 @@ public interface FhirWebClientProvider {
     /**
      * Provides a {@link WebsocketClient} to communicate with a FHIR server via a websocket.
      *
+     * @param reconnector Callback that gets run once the connection of the provided client is lost.
      * @return A {@link WebsocketClient}.
      * @throws FhirWebClientProvisionException If the websocket client can not be provisioned.
      */
-    WebsocketClient provideFhirWebsocketClient() throws FhirWebClientProvisionException;
+    WebsocketClient provideFhirWebsocketClient(Runnable reconnector) throws FhirWebClientProvisionException;
 
 }
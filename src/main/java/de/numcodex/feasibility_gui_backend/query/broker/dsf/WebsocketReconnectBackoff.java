@@ -0,0 +1,28 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import java.time.Duration;
+
+/**
+ * Exponential backoff for reconnecting a lost websocket connection.
+ * <p>
+ * The delay doubles with every failed attempt, starting at the initial delay, and never exceeds the maximum delay.
+ *
+ * @param initialDelay Delay before the first reconnect attempt.
+ * @param maximumDelay Upper bound of the delay between two reconnect attempts.
+ */
+record WebsocketReconnectBackoff(Duration initialDelay, Duration maximumDelay) {
+
+    // Doubling more often than this overflows long durations while being far beyond any sensible maximum delay.
+    private static final int MAXIMUM_DOUBLINGS = 30;
+
+    /**
+     * Gets the delay before a reconnect attempt.
+     *
+     * @param attempt Number of preceding failed attempts, i.e. {@code 0} for the first attempt.
+     * @return The delay before the attempt.
+     */
+    Duration delayOf(int attempt) {
+        var delay = initialDelay.multipliedBy(1L << Math.min(Math.max(attempt, 0), MAXIMUM_DOUBLINGS));
+        return delay.compareTo(maximumDelay) > 0 ? maximumDelay : delay;
+    }
+}
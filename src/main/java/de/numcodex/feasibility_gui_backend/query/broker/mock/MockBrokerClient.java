@@ -1,7 +1,9 @@
 package de.numcodex.feasibility_gui_backend.query.broker.mock;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusUpdate;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
@@ -12,6 +14,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import static de.numcodex.feasibility_gui_backend.query.collect.QueryStatus.COMPLETED;
@@ -28,23 +32,28 @@ import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClient
 public class MockBrokerClient implements BrokerClient {
 
     private final List<QueryStatusListener> listeners;
-    private final Map<String, MockQuery> brokerQueries;
-    private final Map<String, Long> brokerToBackendQueryIdMapping;
+    private final Cache<String, MockQuery> brokerQueries;
+    private final Cache<String, Long> brokerToBackendQueryIdMapping;
     private final Map<String, String> siteNames;
 
-    private final Map<String, List<CompletableFuture<Void>>> runningMocks;
+    private final Cache<String, List<CompletableFuture<Void>>> runningMocks;
 
-    public MockBrokerClient() {
-        listeners = new ArrayList<>();
-        brokerQueries = new HashMap<>();
-        brokerToBackendQueryIdMapping = new HashMap<>();
+    /**
+     * Creates a new {@link MockBrokerClient} instance.
+     *
+     * @param queryStateCacheSpec Specification of the caches holding the state of mocked queries.
+     */
+    public MockBrokerClient(QueryStateCacheSpec queryStateCacheSpec) {
+        listeners = new CopyOnWriteArrayList<>();
+        brokerQueries = queryStateCacheSpec.<String, MockQuery>build("mock.brokerQueries");
+        brokerToBackendQueryIdMapping = queryStateCacheSpec.<String, Long>build("mock.backendQueryIds");
         siteNames = Map.of(
                 "2", "Lübeck",
                 "3", "Erlangen",
                 "4", "Frankfurt",
                 "5", "Leipzig"
         );
-        runningMocks = new HashMap<>();
+        runningMocks = queryStateCacheSpec.<String, List<CompletableFuture<Void>>>build("mock.runningMocks");
     }
 
     @Override
@@ -83,12 +92,12 @@ public class MockBrokerClient implements BrokerClient {
                         Thread.sleep(Math.round(2000 + 6000 * Math.random()));
                         query.registerSiteResults(siteId, (int) Math.round(10 + 500 * Math.random()));
                         var statusUpdate = new QueryStatusUpdate(this, brokerQueryId, siteId, COMPLETED);
-                        var associatedBackendQueryId = brokerToBackendQueryIdMapping.get(brokerQueryId);
+                        var associatedBackendQueryId = brokerToBackendQueryIdMapping.getIfPresent(brokerQueryId);
                         listeners.forEach(l -> l.onClientUpdate(associatedBackendQueryId, statusUpdate));
                     } catch (InterruptedException e) {
                         log.error(e.getMessage(), e);
                         var statusUpdate = new QueryStatusUpdate(this, brokerQueryId, siteId, FAILED);
-                        var associatedBackendQueryId = brokerToBackendQueryIdMapping.get(brokerQueryId);
+                        var associatedBackendQueryId = brokerToBackendQueryIdMapping.getIfPresent(brokerQueryId);
                         listeners.forEach(l -> l.onClientUpdate(associatedBackendQueryId, statusUpdate));
                     }
                 }))
@@ -98,7 +107,7 @@ public class MockBrokerClient implements BrokerClient {
 
     @Override
     public void closeQuery(String brokerQueryId) throws QueryNotFoundException {
-        Optional.ofNullable(runningMocks.get(brokerQueryId))
+        Optional.ofNullable(runningMocks.getIfPresent(brokerQueryId))
                 .orElseThrow(() -> new QueryNotFoundException(brokerQueryId))
                 .forEach(rm -> rm.complete(null));
     }
@@ -126,7 +135,7 @@ public class MockBrokerClient implements BrokerClient {
      * @throws QueryNotFoundException If the ID does not identify a known query.
      */
     private MockQuery findQuery(String queryId) throws QueryNotFoundException {
-        return Optional.ofNullable(brokerQueries.get(queryId))
+        return Optional.ofNullable(brokerQueries.getIfPresent(queryId))
                 .orElseThrow(() -> new QueryNotFoundException(queryId));
     }
 
@@ -140,7 +149,7 @@ public class MockBrokerClient implements BrokerClient {
 
         private MockQuery(String queryId) {
             this.queryId = queryId;
-            resultsBySite = new HashMap<>();
+            resultsBySite = new ConcurrentHashMap<>();
         }
 
         /**
@@ -1,7 +1,9 @@
 package de.numcodex.feasibility_gui_backend.query.collect;
 
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
 import de.numcodex.feasibility_gui_backend.query.result.ResultService;
+import de.numcodex.feasibility_gui_backend.query.result.ResultUpdatePublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,7 +12,10 @@ public class QueryCollectSpringConfig {
 
     @Bean
     public QueryStatusListener createQueryStatusListener(QueryRepository queryRepository,
-                                                         ResultService resultService) {
-        return new QueryStatusListenerImpl(queryRepository, resultService);
+                                                         ResultService resultService,
+                                                         QueryDispatchRepository queryDispatchRepository,
+                                                         ResultUpdatePublisher resultUpdatePublisher) {
+        return new QueryStatusListenerImpl(queryRepository, resultService, queryDispatchRepository,
+                resultUpdatePublisher);
     }
 }
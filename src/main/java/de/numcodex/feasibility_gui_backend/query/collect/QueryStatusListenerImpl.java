@@ -6,6 +6,7 @@ import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.persistence.*;
 import de.numcodex.feasibility_gui_backend.query.result.ResultLine;
 import de.numcodex.feasibility_gui_backend.query.result.ResultService;
+import de.numcodex.feasibility_gui_backend.query.result.ResultUpdatePublisher;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +34,12 @@ public class QueryStatusListenerImpl implements QueryStatusListener {
     @NonNull
     private final ResultService resultService;
 
+    @NonNull
+    private final QueryDispatchRepository queryDispatchRepository;
+
+    @NonNull
+    private final ResultUpdatePublisher resultUpdatePublisher;
+
     @Override
     public void onClientUpdate(Long backendQueryId, QueryStatusUpdate statusUpdate) {
         logQueryStatusChange(statusUpdate.brokerQueryId(), statusUpdate.brokerSiteId(),
@@ -44,7 +51,7 @@ public class QueryStatusListenerImpl implements QueryStatusListener {
                     : Optional.empty();
 
             if (statusUpdate.status() == COMPLETED || statusUpdate.status() == FAILED) {
-                var internalQuery = lookupAssociatedBackendQuery(backendQueryId);
+                var internalQuery = lookupAssociatedBackendQuery(backendQueryId, statusUpdate);
                 var siteName = resolveSiteName(statusUpdate.brokerSiteId(), statusUpdate.source());
                 persistResult(internalQuery, siteName, matchesInPopulation.orElse(null));
             }
@@ -74,7 +81,17 @@ public class QueryStatusListenerImpl implements QueryStatusListener {
         }
     }
 
-    private Query lookupAssociatedBackendQuery(Long backendQueryId) throws QueryResultCollectException {
+    private Query lookupAssociatedBackendQuery(Long backendQueryId, QueryStatusUpdate statusUpdate)
+            throws QueryResultCollectException {
+        if (backendQueryId == null) {
+            // Broker clients keep the association in memory only, so it is lost if a result arrives after a restart.
+            // The dispatch of the query is persisted though.
+            return queryDispatchRepository.findByExternalQueryIdAndBrokerType(statusUpdate.brokerQueryId(),
+                            statusUpdate.source().getBrokerType())
+                    .map(QueryDispatch::getQuery)
+                    .orElseThrow(() -> new QueryResultCollectException("cannot find dispatch of broker query with id '%s'"
+                            .formatted(statusUpdate.brokerQueryId())));
+        }
         return queryRepository.findById(backendQueryId)
                 .orElseThrow(() -> new QueryResultCollectException("cannot find backend query with id '%s'"
                         .formatted(backendQueryId)));
@@ -94,5 +111,6 @@ public class QueryStatusListenerImpl implements QueryStatusListener {
             (matchesInPopulation == null) ? 0 : matchesInPopulation);
 
         resultService.addResultLine(internalQuery.getId(), resultLine);
+        resultUpdatePublisher.publish(internalQuery.getId());
     }
 }
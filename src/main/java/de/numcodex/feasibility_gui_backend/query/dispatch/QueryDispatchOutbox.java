@@ -0,0 +1,154 @@
+package de.numcodex.feasibility_gui_backend.query.dispatch;
+
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxEntry;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxEntryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxStatus;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable dispatch queue (outbox) for enqueued queries.
+ * <p>
+ * Enqueuing a query stores the query together with a single outbox entry per configured broker type within the same
+ * transaction. A background worker claims due entries in batches and dispatches them using the {@link QueryDispatcher}.
+ * Failed dispatches are retried with an exponential backoff until the maximum amount of attempts is reached. Since
+ * entries are only removed after a successful dispatch, queries that were enqueued but not yet dispatched survive a
+ * restart of the backend.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class QueryDispatchOutbox {
+
+    @NonNull
+    private final QueryDispatcher queryDispatcher;
+
+    @NonNull
+    private final QueryDispatchOutboxEntryRepository outboxEntryRepository;
+
+    @NonNull
+    private final List<BrokerClientType> brokerTypes;
+
+    @Getter
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    @NonNull
+    private final Duration pollInterval;
+
+    @NonNull
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    @NonNull
+    private final Duration backoffBase;
+
+    @NonNull
+    private final Duration backoffMax;
+
+    private ScheduledExecutorService worker;
+
+    /**
+     * Enqueues a {@link StructuredQuery} and schedules its dispatch for every configured broker type.
+     *
+     * @param query  The query that shall be enqueued.
+     * @param userId keycloak auth id of the author of the query
+     * @return Identifier of the enqueued query.
+     * @throws QueryDispatchException If an error occurs while enqueueing the query.
+     */
+    @Transactional(rollbackFor = QueryDispatchException.class)
+    public Long enqueueNewQuery(StructuredQuery query, String userId) throws QueryDispatchException {
+        var queryId = queryDispatcher.enqueueNewQuery(query, userId);
+        var now = Timestamp.from(Instant.now());
+        outboxEntryRepository.saveAll(brokerTypes.stream()
+                .map(brokerType -> {
+                    var entry = new QueryDispatchOutboxEntry();
+                    entry.setQueryId(queryId);
+                    entry.setBrokerType(brokerType);
+                    entry.setStatus(QueryDispatchOutboxStatus.PENDING);
+                    entry.setNextAttemptAt(now);
+                    return entry;
+                })
+                .toList());
+        return queryId;
+    }
+
+    /**
+     * Claims a single batch of due outbox entries and dispatches them. Blocks until every dispatch of the batch is
+     * either done or failed.
+     *
+     * @return The number of claimed entries.
+     */
+    public int dispatchDueEntries() {
+        var entries = outboxEntryRepository.claimDueEntries(batchSize, (int) lease.toSeconds());
+        Flux.fromIterable(entries)
+                .flatMap(entry -> Mono.defer(() -> queryDispatcher.dispatchEnqueuedQuery(entry.getQueryId(),
+                                entry.getBrokerType()))
+                        .then(Mono.fromRunnable(() -> outboxEntryRepository.delete(entry)))
+                        .onErrorResume(e -> Mono.fromRunnable(() -> handleFailedDispatch(entry, e))))
+                .blockLast();
+        return entries.size();
+    }
+
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        worker = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "query-dispatch-outbox"));
+        worker.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (dispatchDueEntries() == batchSize && !Thread.currentThread().isInterrupted()) {
+                log.debug("dispatch outbox batch was full, claiming the next batch immediately");
+            }
+        } catch (Exception e) {
+            // Never let an exception escape since this cancels all subsequent executions of the worker.
+            log.error("failed to drain the query dispatch outbox", e);
+        }
+    }
+
+    private void handleFailedDispatch(QueryDispatchOutboxEntry entry, Throwable e) {
+        entry.setLastError(e.getMessage());
+        if (entry.getAttempts() >= maxAttempts) {
+            log.error("giving up dispatch of query '%s' with broker type '%s' after %d attempts"
+                    .formatted(entry.getQueryId(), entry.getBrokerType(), entry.getAttempts()), e);
+            entry.setStatus(QueryDispatchOutboxStatus.FAILED);
+        } else {
+            var backoff = backoffFor(entry.getAttempts());
+            log.warn("dispatch of query '%s' with broker type '%s' failed (attempt %d). Retrying in %s"
+                    .formatted(entry.getQueryId(), entry.getBrokerType(), entry.getAttempts(), backoff));
+            entry.setNextAttemptAt(Timestamp.from(Instant.now().plus(backoff)));
+        }
+        outboxEntryRepository.save(entry);
+    }
+
+    Duration backoffFor(int attempts) {
+        var exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        var backoff = backoffBase.multipliedBy(1L << exponent);
+        return backoff.compareTo(backoffMax) > 0 ? backoffMax : backoff;
+    }
+}
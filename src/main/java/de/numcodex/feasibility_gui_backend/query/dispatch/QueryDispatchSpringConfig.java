@@ -2,20 +2,78 @@ package de.numcodex.feasibility_gui_backend.query.dispatch;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.hash.Hashing;
+import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
+import de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxEntryRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslationComponent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.AKTIN;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DIRECT;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DSF;
 
 @Configuration
 public class QueryDispatchSpringConfig {
 
+    @Value("${app.dispatch.threadCap:10}")
+    private int dispatchThreadCap;
+
+    @Value("${app.dispatch.queuedTaskCap:100}")
+    private int dispatchQueuedTaskCap;
+
+    @Value("${app.dispatch.brokerTimeoutSeconds:60}")
+    private int brokerDispatchTimeoutSeconds;
+
+    @Value("${app.dispatch.requiredFormats.aktin:}")
+    private String aktinRequiredFormats;
+
+    @Value("${app.dispatch.requiredFormats.dsf:}")
+    private String dsfRequiredFormats;
+
+    @Value("${app.dispatch.requiredFormats.direct:}")
+    private String directRequiredFormats;
+
+    @Value("${app.dispatch.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${app.dispatch.outbox.batchSize:20}")
+    private int outboxBatchSize;
+
+    @Value("${app.dispatch.outbox.pollIntervalSeconds:5}")
+    private int outboxPollIntervalSeconds;
+
+    @Value("${app.dispatch.outbox.leaseSeconds:300}")
+    private int outboxLeaseSeconds;
+
+    @Value("${app.dispatch.outbox.maxAttempts:10}")
+    private int outboxMaxAttempts;
+
+    @Value("${app.dispatch.outbox.backoffBaseSeconds:5}")
+    private int outboxBackoffBaseSeconds;
+
+    @Value("${app.dispatch.outbox.backoffMaxSeconds:600}")
+    private int outboxBackoffMaxSeconds;
+
     // Keep the dispatcher a singleton instance since it uses a task executor.
     // Without this you may use more threads than intended.
     @Bean
@@ -26,9 +84,49 @@ public class QueryDispatchSpringConfig {
             @Qualifier("translation") ObjectMapper jsonUtil,
             QueryRepository queryRepository,
             QueryContentRepository queryContentRepository,
-            QueryDispatchRepository queryDispatchRepository) {
+            QueryDispatchRepository queryDispatchRepository,
+            @Qualifier("dispatch") Scheduler dispatchScheduler,
+            ObjectProvider<MeterRegistry> meterRegistry) {
         return new QueryDispatcher(queryBrokerClients, queryTranslationComponent, queryHashCalculator, jsonUtil, queryRepository,
-                queryContentRepository, queryDispatchRepository);
+                queryContentRepository, queryDispatchRepository, dispatchScheduler,
+                Duration.ofSeconds(brokerDispatchTimeoutSeconds), meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                createRequiredQueryFormats());
+    }
+
+    // Brokers without configured formats are left out and thus require all formats of the query translation.
+    private Map<BrokerClientType, Set<QueryMediaType>> createRequiredQueryFormats() {
+        var requiredQueryFormats = new EnumMap<BrokerClientType, Set<QueryMediaType>>(BrokerClientType.class);
+        Map.of(AKTIN, aktinRequiredFormats, DSF, dsfRequiredFormats, DIRECT, directRequiredFormats)
+                .forEach((brokerType, formats) -> {
+                    if (!formats.isBlank()) {
+                        requiredQueryFormats.put(brokerType, Arrays.stream(formats.split(","))
+                                .map(String::trim)
+                                .map(QueryMediaType::valueOf)
+                                .collect(Collectors.toUnmodifiableSet()));
+                    }
+                });
+        return requiredQueryFormats;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Qualifier("dispatch")
+    public Scheduler createDispatchScheduler() {
+        return Schedulers.newBoundedElastic(dispatchThreadCap, dispatchQueuedTaskCap, "query-dispatch");
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public QueryDispatchOutbox createQueryDispatchOutbox(
+            QueryDispatcher queryDispatcher,
+            QueryDispatchOutboxEntryRepository outboxEntryRepository,
+            @Qualifier("brokerClients") List<BrokerClient> queryBrokerClients) {
+        var brokerTypes = queryBrokerClients.stream()
+                .map(BrokerClient::getBrokerType)
+                .distinct()
+                .toList();
+        return new QueryDispatchOutbox(queryDispatcher, outboxEntryRepository, brokerTypes, outboxEnabled,
+                outboxBatchSize, Duration.ofSeconds(outboxPollIntervalSeconds), Duration.ofSeconds(outboxLeaseSeconds),
+                outboxMaxAttempts, Duration.ofSeconds(outboxBackoffBaseSeconds),
+                Duration.ofSeconds(outboxBackoffMaxSeconds));
     }
 
     @Bean
@@ -5,27 +5,35 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.feasibility_gui_backend.query.broker.BrokerClient;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.UnsupportedMediaTypeException;
 import de.numcodex.feasibility_gui_backend.query.persistence.*;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatch.QueryDispatchId;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslationComponent;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslationException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import jakarta.transaction.Transactional;
 import java.io.IOException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Centralized component to enqueue and dispatch (publish) a {@link StructuredQuery}.
@@ -35,6 +43,8 @@ import java.util.function.Predicate;
 @RequiredArgsConstructor
 public class QueryDispatcher {
 
+    static final String DISPATCH_TIMER_NAME = "app.query.dispatch";
+
     @NonNull
     private List<BrokerClient> queryBrokerClients;
 
@@ -56,6 +66,19 @@ public class QueryDispatcher {
     @NonNull
     private QueryDispatchRepository queryDispatchRepository;
 
+    @NonNull
+    private Scheduler dispatchScheduler;
+
+    @NonNull
+    private Duration brokerDispatchTimeout;
+
+    @NonNull
+    private MeterRegistry meterRegistry;
+
+    // Brokers without an entry require all formats of the query translation.
+    @NonNull
+    private Map<BrokerClientType, Set<QueryMediaType>> requiredQueryFormats;
+
     /**
      * Enqueues a {@link StructuredQuery}, allowing it to be published afterwards. Enqueued queries are stored within
      * the database as a side effect.
@@ -83,7 +106,14 @@ public class QueryDispatcher {
 
     /**
      * Dispatches (publishes) an already enqueued query in a broadcast fashion using all configured {@link BrokerClient}s.
-     * The dispatch is designed to happen asynchronously (but not in parallel).
+     * The dispatch happens asynchronously and in parallel. Every broker is contacted on the dispatch scheduler and has
+     * to finish within the configured broker dispatch timeout. A broker exceeding the timeout counts as a failed
+     * dispatch for this broker only. Successful dispatches are persisted in a single step once the outcomes of all
+     * brokers are known. A broker that still publishes the query after its timeout gets its dispatch persisted once it
+     * is done, so that a retry does not publish the query again.
+     * <p>
+     * If partial translations are allowed, each broker gets dispatched as soon as the formats it requires have been
+     * translated instead of waiting for all formats. It is then only given the formats it requires.
      *
      * @param queryId Identifies the backend query that shall be dispatched.
      * @return A {@link Mono} in complete state if at least a single broker managed to publish the query. If all brokers
@@ -91,62 +121,230 @@ public class QueryDispatcher {
      */
     // TODO: Pass in audit information! (actor)
     public Mono<Void> dispatchEnqueuedQuery(Long queryId) {
-        try {
-            var enqueuedQuery = getEnqueuedQuery(queryId);
-            var deserializedQueryBody = getStructuredQueryFromEnqueuedQuery(enqueuedQuery);
-            var translatedQueryBodyFormats = translateQueryIntoTargetFormats(deserializedQueryBody);
-
-            var dispatchable = new Dispatchable(enqueuedQuery, translatedQueryBodyFormats);
-
-            var dispatches = queryBrokerClients.stream()
-                    .map(c -> dispatchAsynchronously(dispatchable, c)).toList();
-
-            return Mono.zip(dispatches, dispatchResults -> Arrays.stream(dispatchResults)
-                            .allMatch(Predicate.isEqual(false)))
-                    .flatMap(allDispatchesFailed -> {
-                        if (allDispatchesFailed) {
-                            return Mono.error(new QueryDispatchException(("cannot dispatch query with id '%s'. " +
-                                    "Dispatch failed for all brokers").formatted(queryId)));
-                        } else {
-                            return Mono.empty();
-                        }
-                    })
-                    .then();
-        } catch (QueryDispatchException e) {
-            log.error("dispatch of query with id '%s' failed".formatted(queryId), e);
-            return Mono.error(new QueryDispatchException("dispatch of query with id '%s' failed".formatted(queryId), e));
+        var dispatching = queryTranslationComponent.isPartialTranslationAllowed()
+                ? dispatchAsSoonAsTranslated(queryId, queryBrokerClients, false)
+                : createDispatchable(queryId)
+                        .flatMap(dispatchable -> dispatchToAll(dispatchable.query, queryBrokerClients.stream()
+                                .map(c -> dispatchAsynchronously(dispatchable, c)).toList()));
+
+        return dispatching
+                .flatMap(persistedDispatches -> {
+                    if (persistedDispatches == 0) {
+                        return Mono.error(new QueryDispatchException(("cannot dispatch query with id '%s'. " +
+                                "Dispatch failed for all brokers").formatted(queryId)));
+                    } else {
+                        return Mono.empty();
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Dispatches (publishes) an already enqueued query using the configured {@link BrokerClient} of the given type only.
+     * The dispatch is skipped if the query has already been dispatched using a broker of this type. This makes it safe
+     * to retry a dispatch that may or may not have happened before. If the broker exceeds the dispatch timeout, the
+     * outcome is only reported once the broker is done, so that the query is not retried while it may still get
+     * published.
+     *
+     * @param queryId    Identifies the backend query that shall be dispatched.
+     * @param brokerType Type of the broker that shall publish the query.
+     * @return A {@link Mono} in complete state if the broker managed to publish the query or if the query has already
+     * been published by a broker of this type. Otherwise, a {@link Mono} in an error state is returned.
+     */
+    public Mono<Void> dispatchEnqueuedQuery(Long queryId, BrokerClientType brokerType) {
+        var broker = queryBrokerClients.stream()
+                .filter(c -> c.getBrokerType() == brokerType)
+                .findFirst();
+        if (broker.isEmpty()) {
+            return Mono.error(new QueryDispatchException("cannot dispatch query with id '%s'. No broker of type '%s' configured"
+                    .formatted(queryId, brokerType)));
+        }
+        if (queryDispatchRepository.existsByQueryIdAndBrokerType(queryId, brokerType)) {
+            log.info("query '%s' has already been dispatched with broker type '%s'".formatted(queryId, brokerType));
+            return Mono.empty();
         }
+
+        var dispatching = queryTranslationComponent.isPartialTranslationAllowed()
+                ? dispatchAsSoonAsTranslated(queryId, List.of(broker.get()), true)
+                : createDispatchable(queryId)
+                        .flatMap(dispatchable -> awaitLateCompletion(dispatchAsynchronously(dispatchable, broker.get()))
+                                .map(publication -> persistDispatchedQueries(dispatchable.query, List.of(publication))));
+
+        // A broker that timed out may have published the query afterwards. Its dispatch has been persisted then.
+        return dispatching
+                .flatMap(persistedDispatches -> persistedDispatches > 0
+                        || queryDispatchRepository.existsByQueryIdAndBrokerType(queryId, brokerType)
+                        ? Mono.<Void>empty()
+                        : Mono.error(new QueryDispatchException("cannot dispatch query with id '%s' with broker type '%s'"
+                                .formatted(queryId, brokerType))));
     }
 
     /**
      * Dispatches a single dispatchable entity (query) using the specified broker.
-     * Dispatching happens in an asynchronous fashion.
+     * Dispatching happens in an asynchronous fashion on the dispatch scheduler. The time spent for each dispatch is
+     * recorded per broker type and outcome. The dispatch is not persisted here, unless the broker publishes the query
+     * after the dispatch has already timed out. The broker call keeps running on the dispatch scheduler in that case and
+     * its dispatch gets persisted as soon as it is done.
+     * <p>
+     * Brokers publish whatever query formats they are given. Hence, the broker is not contacted at all if any format it
+     * requires is missing from the (partial) translation of the query.
      *
      * @param dispatchable This is going to be dispatched.
      * @param broker       This actually dispatches the dispatchable entity.
-     * @return A {@link Mono} holding the completion status of the dispatch operation that is either true
-     * (dispatch was successful) or false (dispatch failed).
+     * @return A {@link Mono} holding the {@link Publication} of the dispatch operation. The publication holds no
+     * broker query ID if the dispatch failed or timed out. A timed out publication tells when the broker call is done.
      */
-    private Mono<Boolean> dispatchAsynchronously(Dispatchable dispatchable, BrokerClient broker) {
-        return Mono.fromCallable(() -> {
-            try {
-                var brokerQueryId = broker.createQuery(dispatchable.query.getId());
-
-                for (Entry<QueryMediaType, String> queryBodyFormats : dispatchable.serializedQueryByFormat.entrySet()) {
-                    broker.addQueryDefinition(brokerQueryId, queryBodyFormats.getKey(),
-                            queryBodyFormats.getValue());
-                }
-                broker.publishQuery(brokerQueryId);
-                persistDispatchedQuery(dispatchable.query, brokerQueryId, broker.getBrokerType());
-                log.info("dispatched query '%s' as '%s' with broker type '%s'".formatted(dispatchable.query.getId(),
-                        brokerQueryId, broker.getBrokerType()));
-                return true;
-            } catch (UnsupportedMediaTypeException | QueryNotFoundException | IOException e) {
-                log.error("failed to dispatch query '%s' with broker type '%s'"
-                        .formatted(dispatchable.query.getId(), broker.getBrokerType()));
-                return false;
+    private Mono<Publication> dispatchAsynchronously(Dispatchable dispatchable, BrokerClient broker) {
+        var brokerType = String.valueOf(broker.getBrokerType());
+        var missingQueryFormats = getMissingQueryFormats(dispatchable, broker.getBrokerType());
+        if (!missingQueryFormats.isEmpty()) {
+            log.error("failed to dispatch query '%s' with broker type '%s' since the required formats %s are missing"
+                    .formatted(dispatchable.query.getId(), brokerType, missingQueryFormats));
+            return Mono.just(Publication.failed(broker.getBrokerType()));
+        }
+        return Mono.defer(() -> {
+                    var brokerCall = Mono.fromCallable(() -> publish(dispatchable, broker))
+                            .subscribeOn(dispatchScheduler)
+                            .toFuture();
+                    // Timing out only cancels the copy, so that the broker call itself keeps running.
+                    return Mono.fromFuture(brokerCall.copy())
+                            .timeout(brokerDispatchTimeout)
+                            .onErrorResume(TimeoutException.class, e -> {
+                                log.error("failed to dispatch query '%s' with broker type '%s' within %s"
+                                        .formatted(dispatchable.query.getId(), brokerType, brokerDispatchTimeout));
+                                return Mono.just(Publication.timedOut(broker.getBrokerType(), brokerCall.thenAccept(
+                                        latePublication -> persistLateDispatch(dispatchable.query, latePublication))));
+                            });
+                })
+                .elapsed()
+                .map(timedDispatch -> {
+                    meterRegistry.timer(DISPATCH_TIMER_NAME, "broker", brokerType,
+                                    "outcome", timedDispatch.getT2().succeeded() ? "success" : "failure")
+                            .record(Duration.ofMillis(timedDispatch.getT1()));
+                    return timedDispatch.getT2();
+                });
+    }
+
+    /**
+     * Dispatches an already enqueued query using the given brokers, each of them as soon as the formats it requires have
+     * been translated. A broker requiring a format whose translation failed counts as a failed dispatch.
+     *
+     * @param queryId                 Identifies the backend query that shall be dispatched.
+     * @param brokers                 The brokers that shall publish the query.
+     * @param awaitTimedOutDispatches Whether to wait for brokers that timed out to be done.
+     * @return A {@link Mono} holding the number of persisted dispatches.
+     */
+    private Mono<Integer> dispatchAsSoonAsTranslated(Long queryId, List<BrokerClient> brokers,
+                                                     boolean awaitTimedOutDispatches) {
+        Query enqueuedQuery;
+        Map<QueryMediaType, Mono<String>> translations;
+        try {
+            enqueuedQuery = getEnqueuedQuery(queryId);
+            translations = queryTranslationComponent.translateEachReactively(
+                    getStructuredQueryFromEnqueuedQuery(enqueuedQuery), enqueuedQuery.getQueryContent().getHash());
+        } catch (QueryDispatchException e) {
+            log.error("dispatch of query with id '%s' failed".formatted(queryId), e);
+            return Mono.error(new QueryDispatchException("dispatch of query with id '%s' failed".formatted(queryId), e));
+        }
+
+        return dispatchToAll(enqueuedQuery, brokers.stream()
+                .map(broker -> {
+                    var dispatch = createDispatchable(enqueuedQuery, translations, broker.getBrokerType())
+                            .flatMap(dispatchable -> dispatchAsynchronously(dispatchable, broker))
+                            .onErrorResume(e -> {
+                                log.error(("failed to dispatch query '%s' with broker type '%s' since its required " +
+                                        "formats could not be translated").formatted(queryId, broker.getBrokerType()));
+                                return Mono.just(Publication.failed(broker.getBrokerType()));
+                            });
+                    return awaitTimedOutDispatches ? awaitLateCompletion(dispatch) : dispatch;
+                })
+                .toList());
+    }
+
+    // Waits for the translations of the formats required by the broker only.
+    private Mono<Dispatchable> createDispatchable(Query enqueuedQuery, Map<QueryMediaType, Mono<String>> translations,
+                                                  BrokerClientType brokerType) {
+        return Flux.fromIterable(requiredQueryFormats.getOrDefault(brokerType, translations.keySet()))
+                .flatMap(format -> translations.getOrDefault(format, Mono.error(new QueryTranslationException(
+                                "query format '%s' is not configured for translation".formatted(format))))
+                        .map(translationResult -> Map.entry(format, translationResult)))
+                .collectMap(Entry::getKey, Entry::getValue)
+                .map(translationResults -> new Dispatchable(enqueuedQuery, Map.copyOf(translationResults)));
+    }
+
+    private Mono<Integer> dispatchToAll(Query query, List<Mono<Publication>> dispatches) {
+        return Mono.zip(dispatches, dispatchResults -> Arrays.stream(dispatchResults)
+                        .map(Publication.class::cast)
+                        .toList())
+                .map(publications -> persistDispatchedQueries(query, publications));
+    }
+
+    private Publication publish(Dispatchable dispatchable, BrokerClient broker) {
+        var brokerType = String.valueOf(broker.getBrokerType());
+        try {
+            var brokerQueryId = broker.createQuery(dispatchable.query.getId());
+
+            for (Entry<QueryMediaType, String> queryBodyFormats : dispatchable.serializedQueryByFormat.entrySet()) {
+                broker.addQueryDefinition(brokerQueryId, queryBodyFormats.getKey(),
+                        queryBodyFormats.getValue());
             }
-        });
+            broker.publishQuery(brokerQueryId);
+            log.info("published query '%s' as '%s' with broker type '%s'".formatted(dispatchable.query.getId(),
+                    brokerQueryId, brokerType));
+            return new Publication(broker.getBrokerType(), brokerQueryId);
+        } catch (UnsupportedMediaTypeException | QueryNotFoundException | QueryDefinitionNotFoundException
+                 | IOException e) {
+            log.error("failed to dispatch query '%s' with broker type '%s'"
+                    .formatted(dispatchable.query.getId(), brokerType));
+            return Publication.failed(broker.getBrokerType());
+        }
+    }
+
+    private void persistLateDispatch(Query query, Publication latePublication) {
+        if (!latePublication.succeeded()) {
+            return;
+        }
+        log.warn("query '%s' got published with broker type '%s' after its dispatch timed out"
+                .formatted(query.getId(), latePublication.brokerType()));
+        try {
+            persistDispatchedQueries(query, List.of(latePublication));
+        } catch (RuntimeException e) {
+            log.error("failed to persist late dispatch of query '%s' with broker type '%s'"
+                    .formatted(query.getId(), latePublication.brokerType()), e);
+        }
+    }
+
+    // Delays the publication of a timed out dispatch until the broker call is done, whatever its outcome.
+    private Mono<Publication> awaitLateCompletion(Mono<Publication> dispatch) {
+        return dispatch.flatMap(publication -> Mono.fromFuture(publication.lateCompletion())
+                .onErrorResume(e -> Mono.empty())
+                .thenReturn(publication));
+    }
+
+    private Set<QueryMediaType> getMissingQueryFormats(Dispatchable dispatchable, BrokerClientType brokerType) {
+        var missingQueryFormats = EnumSet.noneOf(QueryMediaType.class);
+        missingQueryFormats.addAll(requiredQueryFormats.getOrDefault(brokerType,
+                queryTranslationComponent.getTranslationFormats()));
+        missingQueryFormats.removeAll(dispatchable.serializedQueryByFormat.keySet());
+        return missingQueryFormats;
+    }
+
+    // The enqueued query is loaded eagerly (within the transaction). Only the translation happens asynchronously.
+    private Mono<Dispatchable> createDispatchable(Long queryId) {
+        try {
+            var enqueuedQuery = getEnqueuedQuery(queryId);
+            var deserializedQueryBody = getStructuredQueryFromEnqueuedQuery(enqueuedQuery);
+
+            return translateQueryIntoTargetFormats(deserializedQueryBody, enqueuedQuery.getQueryContent().getHash())
+                    .map(translatedQueryBodyFormats -> new Dispatchable(enqueuedQuery, translatedQueryBodyFormats))
+                    .onErrorMap(QueryDispatchException.class, e -> {
+                        log.error("dispatch of query with id '%s' failed".formatted(queryId), e);
+                        return new QueryDispatchException("dispatch of query with id '%s' failed".formatted(queryId), e);
+                    });
+        } catch (QueryDispatchException e) {
+            log.error("dispatch of query with id '%s' failed".formatted(queryId), e);
+            return Mono.error(new QueryDispatchException("dispatch of query with id '%s' failed".formatted(queryId), e));
+        }
     }
 
     private String serializedStructuredQuery(StructuredQuery query) throws QueryDispatchException {
@@ -165,7 +363,28 @@ public class QueryDispatcher {
         return queryRepository.save(feasibilityQuery).getId();
     }
 
-    private void persistDispatchedQuery(Query query, String brokerInternalId, BrokerClientType brokerType) {
+    /**
+     * Persists the successful publications of a query in a single step.
+     *
+     * @param query        The query that got published.
+     * @param publications The outcomes of the dispatches to all contacted brokers.
+     * @return The number of persisted dispatches.
+     */
+    private int persistDispatchedQueries(Query query, List<Publication> publications) {
+        var dispatchedQueries = publications.stream()
+                .filter(Publication::succeeded)
+                .map(publication -> createDispatchedQuery(query, publication.brokerQueryId(), publication.brokerType()))
+                .toList();
+        if (!dispatchedQueries.isEmpty()) {
+            queryDispatchRepository.saveAll(dispatchedQueries);
+            dispatchedQueries.forEach(dispatchedQuery -> log.info("dispatched query '%s' as '%s' with broker type '%s'"
+                    .formatted(query.getId(), dispatchedQuery.getId().getExternalId(),
+                            dispatchedQuery.getId().getBrokerType())));
+        }
+        return dispatchedQueries.size();
+    }
+
+    private QueryDispatch createDispatchedQuery(Query query, String brokerInternalId, BrokerClientType brokerType) {
         var queryDispatchId = new QueryDispatchId();
         queryDispatchId.setQueryId(query.getId());
         queryDispatchId.setExternalId(brokerInternalId);
@@ -175,7 +394,7 @@ public class QueryDispatcher {
         dispatchedQuery.setId(queryDispatchId);
         dispatchedQuery.setQuery(query);
         dispatchedQuery.setDispatchedAt(Timestamp.from(Instant.now()));
-        queryDispatchRepository.save(dispatchedQuery);
+        return dispatchedQuery;
     }
 
     private Query getEnqueuedQuery(Long queryId) throws QueryDispatchException {
@@ -192,13 +411,11 @@ public class QueryDispatcher {
         }
     }
 
-    private Map<QueryMediaType, String> translateQueryIntoTargetFormats(StructuredQuery query)
-            throws QueryDispatchException {
-        try {
-            return queryTranslationComponent.translate(query);
-        } catch (QueryTranslationException e) {
-            throw new QueryDispatchException("cannot translate enqueued query body into configured formats", e);
-        }
+    private Mono<Map<QueryMediaType, String>> translateQueryIntoTargetFormats(StructuredQuery query,
+                                                                            String queryContentHash) {
+        return queryTranslationComponent.translateReactively(query, queryContentHash)
+                .onErrorMap(QueryTranslationException.class, e ->
+                        new QueryDispatchException("cannot translate enqueued query body into configured formats", e));
     }
 
     @Getter
@@ -211,4 +428,32 @@ public class QueryDispatcher {
         @NonNull
         private Map<QueryMediaType, String> serializedQueryByFormat;
     }
+
+    /**
+     * Outcome of publishing a query using a single broker.
+     *
+     * @param brokerType     Type of the broker that was contacted.
+     * @param brokerQueryId  Identifies the query within the broker. Is null if publishing the query failed.
+     * @param lateCompletion Completes once the broker call is done and a late dispatch has been persisted. Is already
+     *                       completed unless the dispatch timed out.
+     */
+    private record Publication(BrokerClientType brokerType, String brokerQueryId,
+                               CompletableFuture<Void> lateCompletion) {
+
+        Publication(BrokerClientType brokerType, String brokerQueryId) {
+            this(brokerType, brokerQueryId, CompletableFuture.completedFuture(null));
+        }
+
+        static Publication failed(BrokerClientType brokerType) {
+            return new Publication(brokerType, null);
+        }
+
+        static Publication timedOut(BrokerClientType brokerType, CompletableFuture<Void> lateCompletion) {
+            return new Publication(brokerType, null, lateCompletion);
+        }
+
+        boolean succeeded() {
+            return brokerQueryId != null;
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "dsf_query_result")
+public class DSFQueryResultEntry {
+
+    @EmbeddedId
+    private DSFQueryResultEntryId id;
+
+    @Column(name = "measure_count", nullable = false)
+    private int measureCount;
+
+    @Column(name = "received_at", nullable = false)
+    private Timestamp receivedAt;
+
+    @Data
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DSFQueryResultEntryId implements Serializable {
+        @Column(name = "broker_query_id")
+        private String brokerQueryId;
+
+        @Column(name = "site_id")
+        private String siteId;
+    }
+}
@@ -0,0 +1,35 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntry.DSFQueryResultEntryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface DSFQueryResultEntryRepository extends JpaRepository<DSFQueryResultEntry, DSFQueryResultEntryId> {
+
+    @Query("SELECT COUNT(r) > 0 FROM DSFQueryResultEntry r WHERE r.id.brokerQueryId = ?1")
+    boolean existsByBrokerQueryId(String brokerQueryId);
+
+    @Query("SELECT r.id.siteId FROM DSFQueryResultEntry r WHERE r.id.brokerQueryId = ?1 ORDER BY r.receivedAt, r.id.siteId")
+    List<String> findSiteIdsByBrokerQueryId(String brokerQueryId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DSFQueryResultEntry r WHERE r.id.brokerQueryId = ?1")
+    int deleteByBrokerQueryId(String brokerQueryId);
+
+    /**
+     * Deletes all results that were received before the given point in time.
+     *
+     * @param receivedBefore Results received before this point in time are deleted.
+     * @return The number of deleted results.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM DSFQueryResultEntry r WHERE r.receivedAt < ?1")
+    int deleteReceivedBefore(Timestamp receivedBefore);
+}
@@ -0,0 +1,8 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+/**
+ * Associates a query with the ID of the user who created it.
+ */
+public record QueryAuthor(Long queryId, String authorId) {
+
+}
@@ -0,0 +1,31 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface QueryDispatchOutboxEntryRepository extends JpaRepository<QueryDispatchOutboxEntry, Long> {
+
+    /**
+     * Claims a batch of pending entries that are due for a dispatch attempt. Claimed entries get their attempt counter
+     * increased and are hidden from other claims until the lease expires. Entries claimed concurrently by another
+     * instance are skipped.
+     *
+     * @param batchSize    Maximum number of entries to claim.
+     * @param leaseSeconds Seconds until a claimed entry becomes due again if it is not updated in the meantime.
+     * @return The claimed entries.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE query_dispatch_outbox_entry
+            SET attempts = attempts + 1, next_attempt_at = CURRENT_TIMESTAMP + make_interval(secs => ?2)
+            WHERE id IN (SELECT id FROM query_dispatch_outbox_entry
+                         WHERE status = 'PENDING' AND next_attempt_at <= CURRENT_TIMESTAMP
+                         ORDER BY id
+                         LIMIT ?1
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING *""", nativeQuery = true)
+    List<QueryDispatchOutboxEntry> claimDueEntries(int batchSize, int leaseSeconds);
+}
@@ -0,0 +1,6 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+public enum QueryDispatchOutboxStatus {
+    PENDING,
+    FAILED
+}
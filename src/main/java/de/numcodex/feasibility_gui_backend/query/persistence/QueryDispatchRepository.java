@@ -12,4 +12,7 @@ public interface QueryDispatchRepository extends JpaRepository<QueryDispatch, Qu
 
     @Query("SELECT qd FROM QueryDispatch qd WHERE qd.id.queryId = ?1 AND qd.id.brokerType = ?2")
     Optional<QueryDispatch> findByQueryIdAndBrokerType(String internalId, BrokerClientType brokerType);
+
+    @Query("SELECT COUNT(qd) > 0 FROM QueryDispatch qd WHERE qd.id.queryId = ?1 AND qd.id.brokerType = ?2")
+    boolean existsByQueryIdAndBrokerType(Long queryId, BrokerClientType brokerType);
 }
@@ -1,5 +1,6 @@
 package de.numcodex.feasibility_gui_backend.query.persistence;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,6 +16,9 @@ public interface QueryRepository extends JpaRepository<Query, Long> {
   @org.springframework.data.jpa.repository.Query("SELECT t.createdBy FROM Query t WHERE t.id = ?1")
   Optional<String> getAuthor(Long queryId);
 
+  @org.springframework.data.jpa.repository.Query("SELECT new de.numcodex.feasibility_gui_backend.query.persistence.QueryAuthor(t.id, t.createdBy) FROM Query t WHERE t.id IN ?1")
+  List<QueryAuthor> getAuthors(Collection<Long> queryIds);
+
   @org.springframework.data.jpa.repository.Query(value = """
     SELECT count (*) FROM query WHERE created_by = ?1 AND created_at > (current_timestamp - (?2 * interval '1 minute'))""", nativeQuery = true)
   Long countQueriesByAuthorInTheLastNMinutes(String authorId, int minutes);
@@ -0,0 +1,44 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@Table(name = "query_result_line")
+public class QueryResultLineEntry {
+
+    @EmbeddedId
+    private QueryResultLineEntryId id;
+
+    @Convert(converter = ResultTypeConverter.class)
+    @Column(name = "result_type", nullable = false)
+    private ResultType resultType;
+
+    @Column(name = "result", nullable = false)
+    private long result;
+
+    @Column(name = "received_at", insertable = false, updatable = false)
+    private Timestamp receivedAt;
+
+    @Data
+    @Embeddable
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueryResultLineEntryId implements Serializable {
+        @Column(name = "query_id")
+        private Long queryId;
+
+        @Column(name = "site_name")
+        private String siteName;
+    }
+}
@@ -0,0 +1,54 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntry.QueryResultLineEntryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+public interface QueryResultLineEntryRepository extends JpaRepository<QueryResultLineEntry, QueryResultLineEntryId> {
+
+    @Query("SELECT r FROM QueryResultLineEntry r WHERE r.id.queryId = ?1 ORDER BY r.receivedAt, r.id.siteName")
+    List<QueryResultLineEntry> findByQueryId(Long queryId);
+
+    /**
+     * Inserts a batch of result lines using a single statement. The n-th element of each list belongs to the n-th
+     * result line. Result lines of sites that already have a result line for the same query are skipped, so that only
+     * the first result per site is kept. Result lines of queries that no longer exist are skipped as well instead of
+     * failing the whole batch.
+     *
+     * @param queryIds    IDs of the queries the result lines belong to.
+     * @param siteNames   Names of the sites that reported the result lines.
+     * @param resultTypes Shortcodes of the {@link ResultType}s of the result lines.
+     * @param results     Number of patients of the result lines.
+     * @return The number of inserted result lines.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO query_result_line (query_id, site_name, result_type, result)
+            SELECT l.* FROM unnest(CAST(ARRAY[:queryIds] AS INTEGER[]), CAST(ARRAY[:siteNames] AS TEXT[]),
+                                   CAST(ARRAY[:resultTypes] AS TEXT[]), CAST(ARRAY[:results] AS BIGINT[]))
+                            AS l(query_id, site_name, result_type, result)
+            WHERE EXISTS (SELECT 1 FROM query q WHERE q.id = l.query_id)
+            ON CONFLICT DO NOTHING""", nativeQuery = true)
+    int insertAllIgnoringExisting(@Param("queryIds") List<Long> queryIds,
+                                  @Param("siteNames") List<String> siteNames,
+                                  @Param("resultTypes") List<String> resultTypes,
+                                  @Param("results") List<Long> results);
+
+    /**
+     * Deletes all result lines that were received before the given point in time.
+     *
+     * @param receivedBefore Result lines received before this point in time are deleted.
+     * @return The number of deleted result lines.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM QueryResultLineEntry r WHERE r.receivedAt < ?1")
+    int deleteReceivedBefore(Timestamp receivedBefore);
+}
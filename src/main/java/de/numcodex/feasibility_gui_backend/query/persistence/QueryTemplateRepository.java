@@ -1,11 +1,35 @@
 package de.numcodex.feasibility_gui_backend.query.persistence;
 
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface QueryTemplateRepository extends JpaRepository<QueryTemplate, Long> {
 
   @Query("SELECT qt FROM QueryTemplate qt left join Query q ON qt.query.id = q.id WHERE q.createdBy = ?1")
   List<QueryTemplate> findByAuthor(String authorId);
+
+  /**
+   * Finds the templates of an author whose id is greater than {@code afterId}, ordered by their id. Used for walking
+   * through all templates of an author chunk by chunk, with the size of a chunk given by {@code pageable}.
+   */
+  @Query("SELECT qt.id AS id, qt.label AS label, qt.comment AS comment, qt.lastModified AS lastModified, "
+      + "q.createdBy AS createdBy, qc.queryContent AS queryContent "
+      + "FROM QueryTemplate qt JOIN qt.query q JOIN q.queryContent qc "
+      + "WHERE q.createdBy = :authorId AND qt.id > :afterId ORDER BY qt.id")
+  List<QueryTemplateWithContent> findWithContentByAuthor(@Param("authorId") String authorId,
+      @Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * Finds the templates of all authors whose id is greater than {@code afterId}, ordered by their id.
+   *
+   * @see #findWithContentByAuthor(String, Long, Pageable)
+   */
+  @Query("SELECT qt.id AS id, qt.label AS label, qt.comment AS comment, qt.lastModified AS lastModified, "
+      + "q.createdBy AS createdBy, qc.queryContent AS queryContent "
+      + "FROM QueryTemplate qt JOIN qt.query q JOIN q.queryContent qc "
+      + "WHERE qt.id > :afterId ORDER BY qt.id")
+  List<QueryTemplateWithContent> findWithContent(@Param("afterId") Long afterId, Pageable pageable);
 }
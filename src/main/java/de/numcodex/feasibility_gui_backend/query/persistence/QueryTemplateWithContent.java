@@ -0,0 +1,13 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import java.sql.Timestamp;
+
+/**
+ * Read-only projection of a {@link QueryTemplate} together with the serialized content of its query.
+ */
+public interface QueryTemplateWithContent extends StoredQueryWithContent {
+
+  String getComment();
+
+  Timestamp getLastModified();
+}
@@ -1,11 +1,24 @@
 package de.numcodex.feasibility_gui_backend.query.persistence;
 
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SavedQueryRepository extends JpaRepository<SavedQuery, Long> {
 
   @Query("SELECT sq FROM SavedQuery sq left join Query q ON sq.query.id = q.id WHERE q.id = ?1")
   Optional<SavedQuery> findByQueryId(Long queryId);
+
+  /**
+   * Finds the saved queries of all authors that are not deleted and whose id is greater than {@code afterId}, ordered
+   * by their id. Used for walking through all saved queries chunk by chunk, with the size of a chunk given by
+   * {@code pageable}.
+   */
+  @Query("SELECT sq.id AS id, sq.label AS label, q.createdBy AS createdBy, qc.queryContent AS queryContent "
+      + "FROM SavedQuery sq JOIN sq.query q JOIN q.queryContent qc "
+      + "WHERE sq.deleted IS NULL AND sq.id > :afterId ORDER BY sq.id")
+  List<StoredQueryWithContent> findWithContent(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,19 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+/**
+ * Read-only projection of a stored query (e.g. a {@link QueryTemplate} or a {@link SavedQuery}) together with the
+ * serialized content of its query.
+ * <p>
+ * Projections are not managed by the persistence context, so loading many of them does not keep their contents
+ * around for the rest of the transaction.
+ */
+public interface StoredQueryWithContent {
+
+  Long getId();
+
+  String getLabel();
+
+  String getCreatedBy();
+
+  String getQueryContent();
+}
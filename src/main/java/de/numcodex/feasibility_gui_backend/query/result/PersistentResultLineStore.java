@@ -0,0 +1,170 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntryRepository;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persists {@link ResultLine result lines} in the database behind the back of
+ * the {@link ResultService}.
+ * <p>
+ * Result lines scheduled for writing are collected and inserted in batches,
+ * each using a single statement. A batch is written once it is full or the
+ * flush interval has passed. Result lines of queries that no longer exist are
+ * dropped. The result lines of a failed batch are retried with the next flush
+ * until they ran out of attempts. Result lines received longer ago than the
+ * retention are deleted regularly. The background worker runs between
+ * {@link #start()} and {@link #close()}.
+ */
+@Slf4j
+public class PersistentResultLineStore implements AutoCloseable {
+
+  static final int MAX_WRITE_ATTEMPTS = 3;
+
+  private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+  private final QueryResultLineEntryRepository resultLineRepository;
+  private final int batchSize;
+  private final Duration flushInterval;
+  private final Duration retention;
+  private final ConcurrentLinkedQueue<PendingResultLine> pendingResultLines;
+  private volatile ScheduledExecutorService worker;
+
+  /**
+   * Creates a new PersistentResultLineStore.
+   *
+   * @param resultLineRepository repository holding the result lines
+   * @param batchSize            maximum number of result lines inserted using
+   *                             a single statement
+   * @param flushInterval        interval in which pending result lines get
+   *                             written even if the batch is not full
+   * @param retention            time after receiving a result line until it
+   *                             gets deleted
+   */
+  public PersistentResultLineStore(QueryResultLineEntryRepository resultLineRepository,
+      int batchSize, Duration flushInterval, Duration retention) {
+    this.resultLineRepository = resultLineRepository;
+    this.batchSize = batchSize;
+    this.flushInterval = flushInterval;
+    this.retention = retention;
+    this.pendingResultLines = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Schedules writing a result line of a query.
+   *
+   * @param queryId    the query id
+   * @param resultLine the result line to write
+   */
+  public void scheduleWrite(long queryId, ResultLine resultLine) {
+    pendingResultLines.add(new PendingResultLine(queryId, resultLine, 0));
+    if (worker != null && pendingResultLines.size() >= batchSize) {
+      worker.execute(this::flush);
+    }
+  }
+
+  /**
+   * Finds all persisted result lines of a query in the order they were
+   * received.
+   *
+   * @param queryId the query id
+   * @return the result lines of the query, empty if there are none
+   */
+  public List<ResultLine> findByQuery(long queryId) {
+    return resultLineRepository.findByQueryId(queryId).stream()
+        .map(entry -> new ResultLine(entry.getId().getSiteName(), entry.getResultType(),
+            entry.getResult()))
+        .toList();
+  }
+
+  /**
+   * Writes all result lines whose writing is pending. Result lines of failed
+   * batches are scheduled again unless they ran out of attempts.
+   */
+  public synchronized void flush() {
+    var failedResultLines = new ArrayList<PendingResultLine>();
+    List<PendingResultLine> batch;
+    while (!(batch = nextBatch()).isEmpty()) {
+      try {
+        resultLineRepository.insertAllIgnoringExisting(
+            batch.stream().map(PendingResultLine::queryId).toList(),
+            batch.stream().map(pending -> pending.resultLine().siteName()).toList(),
+            batch.stream().map(pending -> pending.resultLine().type().getShortcode()).toList(),
+            batch.stream().map(pending -> pending.resultLine().result()).toList());
+      } catch (Exception e) {
+        // Never let an exception escape since this cancels all subsequent executions of the worker.
+        log.error("failed to persist {} query result lines: {}", batch.size(), e.getMessage(), e);
+        failedResultLines.addAll(batch);
+      }
+    }
+    // Only scheduled again after the loop, so failing batches are not retried right away within this flush.
+    for (var failedResultLine : failedResultLines) {
+      if (failedResultLine.attempts() + 1 < MAX_WRITE_ATTEMPTS) {
+        pendingResultLines.add(failedResultLine.nextAttempt());
+      } else {
+        log.error("giving up persisting result line of site '{}' for query with ID '{}' after {} attempts",
+            failedResultLine.resultLine().siteName(), failedResultLine.queryId(), MAX_WRITE_ATTEMPTS);
+      }
+    }
+  }
+
+  /**
+   * Deletes all result lines that were received longer ago than the retention.
+   *
+   * @return the number of deleted result lines
+   */
+  public int purgeExpiredResultLines() {
+    return resultLineRepository.deleteReceivedBefore(Timestamp.from(Instant.now().minus(retention)));
+  }
+
+  public void start() {
+    worker = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "query-result-persistence"));
+    worker.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+    worker.scheduleWithFixedDelay(this::purge, 0, PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() {
+    if (worker != null) {
+      worker.shutdown();
+    }
+    flush();
+  }
+
+  private List<PendingResultLine> nextBatch() {
+    var batch = new ArrayList<PendingResultLine>(batchSize);
+    PendingResultLine pendingResultLine;
+    while (batch.size() < batchSize && (pendingResultLine = pendingResultLines.poll()) != null) {
+      batch.add(pendingResultLine);
+    }
+    return batch;
+  }
+
+  private void purge() {
+    try {
+      var purgedResultLines = purgeExpiredResultLines();
+      if (purgedResultLines > 0) {
+        log.info("purged {} expired query result lines", purgedResultLines);
+      }
+    } catch (Exception e) {
+      // Never let an exception escape since this cancels all subsequent executions of the worker.
+      log.error("failed to purge expired query result lines", e);
+    }
+  }
+
+  private record PendingResultLine(long queryId, ResultLine resultLine, int attempts) {
+
+    PendingResultLine nextAttempt() {
+      return new PendingResultLine(queryId, resultLine, attempts + 1);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.ResultType;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+
+/**
+ * Synchronizes results between backend instances sharing a PostgreSQL
+ * database using {@code LISTEN}/{@code NOTIFY}.
+ * <p>
+ * Each persisted result line triggers a notification carrying the result line
+ * and the ID of its query once it is committed (see migration V10). This
+ * synchronizer listens for those notifications on a dedicated connection and
+ * passes the result lines on. The connection is held for as long as the
+ * synchronizer runs, so it should not be taken from a connection pool.
+ * Notifications sent while the connection is lost can not be received. Hence,
+ * the connection is re-established in the background and all results held in
+ * memory get refreshed once listening again.
+ */
+@Slf4j
+public class PostgresResultSynchronizer implements ResultSynchronizer {
+
+  static final String CHANNEL = "query_result_line_inserted";
+
+  private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+  private final DataSource dataSource;
+  private final BiConsumer<Long, ResultLine> resultLineHandler;
+  private final Runnable listeningHandler;
+  private final Thread listener;
+  private volatile boolean running;
+
+  /**
+   * Creates a new PostgresResultSynchronizer.
+   *
+   * @param dataSource        data source of the shared database providing
+   *                          unpooled connections
+   * @param resultLineHandler gets called with the ID of a query and the result
+   *                          line each time a result of that query has been
+   *                          persisted, including results persisted by this
+   *                          instance
+   * @param listeningHandler  gets called each time the synchronizer
+   *                          (re-)started listening, so that results missed in
+   *                          the meantime can be caught up on
+   */
+  public PostgresResultSynchronizer(DataSource dataSource, BiConsumer<Long, ResultLine> resultLineHandler,
+      Runnable listeningHandler) {
+    this.dataSource = dataSource;
+    this.resultLineHandler = resultLineHandler;
+    this.listeningHandler = listeningHandler;
+    this.listener = new Thread(this::listen, "query-result-synchronizer");
+    this.listener.setDaemon(true);
+  }
+
+  public void start() {
+    running = true;
+    listener.start();
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    listener.interrupt();
+  }
+
+  private void listen() {
+    while (running) {
+      try (var connection = dataSource.getConnection()) {
+        try (var statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        log.debug("listening for results received by other backend instances");
+        listeningHandler.run();
+
+        var pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          var notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+          if (notifications != null) {
+            for (var notification : notifications) {
+              handleResultLine(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        if (running) {
+          log.warn("lost connection for receiving results of other backend instances, reconnecting in {}: {}",
+              RECONNECT_DELAY, e.getMessage());
+          sleepBeforeReconnect();
+        }
+      }
+    }
+  }
+
+  private void handleResultLine(String payload) {
+    try {
+      // The site name comes last since it may contain commas.
+      var fields = payload.split(",", 4);
+      var resultLine = new ResultLine(fields[3], ResultType.fromShortcode(fields[1]), Long.parseLong(fields[2]));
+      resultLineHandler.accept(Long.parseLong(fields[0]), resultLine);
+    } catch (Exception e) {
+      log.error("failed to handle persisted result '{}': {}", payload, e.getMessage());
+    }
+  }
+
+  private void sleepBeforeReconnect() {
+    try {
+      Thread.sleep(RECONNECT_DELAY.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -7,9 +7,12 @@ import de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.ResultType;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.aktin.broker.client2.BrokerAdmin2;
@@ -22,6 +25,13 @@ import org.slf4j.LoggerFactory;
  * Query results are stored in form of {@link ResultLine result lines}, one for
  * each site per query. All results of a query are cleared after a configurable
  * duration. Only the first result per query will be kept.
+ * <p>
+ * If a {@link PersistentResultLineStore} is given, result lines are
+ * additionally written to the database in the background. Results of queries
+ * that are not held in memory, e.g. after a restart, are then loaded from the
+ * database. Loaded results are held in memory like any other results, even if
+ * there are none, so the database is asked at most once per query until they
+ * expire again.
  */
 @Slf4j
 public class ResultService {
@@ -30,6 +40,7 @@ public class ResultService {
 
   private final Cache<Long, QueryResult> queryResultCache;
   private final BrokerAdmin2 aktinBrokerClient;
+  private final PersistentResultLineStore persistentResultLineStore;
 
   @NonNull
   private final QueryDispatchRepository queryDispatchRepository;
@@ -42,23 +53,46 @@ public class ResultService {
    */
   public ResultService(Duration resultExpiry, BrokerAdmin2 aktinBrokerClient,
       QueryDispatchRepository queryDispatchRepository) {
+    this(resultExpiry, aktinBrokerClient, queryDispatchRepository, null);
+  }
+
+  /**
+   * Creates a new ResultService that persists results.
+   *
+   * @param resultExpiry              the duration after which a result
+   *                                  shouldn't be available in memory anymore
+   * @param persistentResultLineStore the store persisting results or
+   *                                  {@code null} if results shall be kept in
+   *                                  memory only
+   */
+  public ResultService(Duration resultExpiry, BrokerAdmin2 aktinBrokerClient,
+      QueryDispatchRepository queryDispatchRepository,
+      PersistentResultLineStore persistentResultLineStore) {
     this.queryDispatchRepository = queryDispatchRepository;
     this.aktinBrokerClient = aktinBrokerClient;
+    this.persistentResultLineStore = persistentResultLineStore;
     this.queryResultCache = Caffeine.newBuilder()
         .expireAfterWrite(resultExpiry)
-        .removalListener((key, value, cause) -> onRemoval(key, cause))
+        .removalListener((key, value, cause) -> onRemoval(key, value, cause))
         .build();
   }
 
   /**
    * Deletes Query from AKTIN broker if the query has been dispatched to AKTIN
    * Broker.
+   * <p>
+   * Only queries that received results while held in memory are deleted.
+   * Results that have merely been loaded from the database are skipped, since
+   * their query has already been deleted when its results expired for the
+   * first time.
    *
-   * @param key the query id as saved in the cache
+   * @param key   the query id as saved in the cache
+   * @param value the results of the query as saved in the cache
    */
-  private void onRemoval(Object key, Object cause) {
+  private void onRemoval(Object key, QueryResult value, Object cause) {
 
-    if (this.aktinBrokerClient == null || ! cause.equals(RemovalCause.EXPIRED)) {
+    if (this.aktinBrokerClient == null || ! cause.equals(RemovalCause.EXPIRED)
+        || value == null || !value.received) {
       return;
     }
 
@@ -95,12 +129,46 @@ public class ResultService {
    * ResultType#SUCCESS success}
    */
   public List<ResultLine> findSuccessfulByQuery(long queryId) {
-    return queryResultCache.asMap().getOrDefault(queryId, QueryResult.EMPTY)
-        .resultsBySite()
-        .values().stream()
+    var queryResult = lookupQueryResult(queryId);
+    if (queryResult == null) {
+      return List.of();
+    }
+    return queryResult.resultsBySite.values().stream()
         .filter(resultLine -> resultLine.type() == ResultType.SUCCESS).toList();
   }
 
+  /**
+   * Gets the {@link ResultSummary summary} of all results of a query.
+   * <p>
+   * The summary is maintained while results get added, so this does not
+   * iterate over the results of the query. In case the query is not found, an
+   * {@link ResultSummary#EMPTY empty} summary is returned.
+   *
+   * @param queryId the query id
+   * @return the summary of all results for the given {@code queryId}
+   */
+  public ResultSummary getSummaryByQuery(long queryId) {
+    var queryResult = lookupQueryResult(queryId);
+    return queryResult == null ? ResultSummary.EMPTY : queryResult.summary.get();
+  }
+
+  /**
+   * Gets the {@link ResultSummary summaries} of all results of several queries
+   * at once.
+   *
+   * @param queryIds the query ids
+   * @return the summaries mapped by their query id, containing an
+   * {@link ResultSummary#EMPTY empty} summary for each query that is not found
+   * @see #getSummaryByQuery(long)
+   */
+  public Map<Long, ResultSummary> getSummariesByQueries(Collection<Long> queryIds) {
+    var summaries = new HashMap<Long, ResultSummary>();
+    for (var queryId : queryIds) {
+      summaries.put(queryId, getSummaryByQuery(queryId));
+    }
+    return summaries;
+  }
+
   /**
    * Adds {@code result} to the results of the query with {@code queryId}.
    * <p>
@@ -111,44 +179,144 @@ public class ResultService {
    * @param result  the {@link ResultLine result} from a site
    */
   public void addResultLine(Long queryId, ResultLine result) {
-    queryResultCache.asMap()
-        .merge(queryId, QueryResult.ofResultLine(result), QueryResult::merge);
+    var queryResult = queryResultCache.get(queryId, id -> new QueryResult());
+    queryResult.received = true;
+    if (queryResult.add(result)) {
+      // Renews the expiry of the query's results like any other write.
+      queryResultCache.put(queryId, queryResult);
+      if (persistentResultLineStore != null) {
+        persistentResultLineStore.scheduleWrite(queryId, result);
+      }
+    }
     resultLogger.info("{};{};{}", queryId, result.siteName(), result.result());
   }
 
   /**
-   * Holds all submitted {@link ResultLine results} from sites to a query.
+   * Adds a persisted result line of a query to the results held in memory, e.g.
+   * after another backend instance received it.
+   * <p>
+   * Queries whose results are not held in memory are left alone since their
+   * persisted results get loaded on their next lookup anyway. Result lines
+   * received by this instance itself are already present and get discarded.
+   *
+   * @param queryId    the query id
+   * @param resultLine the persisted result line
+   * @return {@code true} if the result line was added, {@code false} otherwise
    */
-  private record QueryResult(Map<String, ResultLine> resultsBySite) {
+  public boolean addPersistedResultLine(long queryId, ResultLine resultLine) {
+    var queryResult = queryResultCache.getIfPresent(queryId);
+    if (queryResult == null || !queryResult.add(resultLine)) {
+      return false;
+    }
+    queryResultCache.put(queryId, queryResult);
+    return true;
+  }
 
-    private static final QueryResult EMPTY = new QueryResult(Map.of());
+  /**
+   * Adds the persisted results of a query to the results held in memory, e.g.
+   * after another backend instance received new results of that query.
+   * <p>
+   * Queries whose results are not held in memory are left alone since their
+   * persisted results get loaded on their next lookup anyway.
+   *
+   * @param queryId the query id
+   * @return {@code true} if a result line was added, {@code false} otherwise
+   */
+  public boolean refreshFromPersistence(long queryId) {
+    var queryResult = queryResultCache.getIfPresent(queryId);
+    if (queryResult == null || persistentResultLineStore == null) {
+      return false;
+    }
 
-    private QueryResult {
-      resultsBySite = Map.copyOf(resultsBySite);
+    var added = false;
+    for (var persistedResultLine : persistentResultLineStore.findByQuery(queryId)) {
+      added |= queryResult.add(persistedResultLine);
     }
+    if (added) {
+      queryResultCache.put(queryId, queryResult);
+    }
+    return added;
+  }
 
-    private static QueryResult ofResultLine(ResultLine resultLine) {
-      return new QueryResult(Map.of(resultLine.siteName(), resultLine));
+  /**
+   * Refreshes the results of all queries held in memory with their persisted
+   * results.
+   *
+   * @see #refreshFromPersistence(long)
+   */
+  public void refreshAllFromPersistence() {
+    for (var queryId : List.copyOf(queryResultCache.asMap().keySet())) {
+      try {
+        refreshFromPersistence(queryId);
+      } catch (Exception e) {
+        log.error("Could not refresh results of query with ID {}: {}", queryId, e.getMessage());
+      }
     }
+  }
+
+  /**
+   * Looks up the results of a query in memory, falling back to the persisted
+   * results if there are none in memory. Persisted results are kept in memory
+   * afterwards, even if there are none. Hence, repeated lookups of a query
+   * without results do not hit the database again until the empty results
+   * expire. Results of such a query received by other instances get added by
+   * {@link #refreshFromPersistence(long)}.
+   *
+   * @param queryId the query id
+   * @return the results of the query or {@code null} if there are none in
+   * memory and none could be loaded
+   */
+  private QueryResult lookupQueryResult(long queryId) {
+    var queryResult = queryResultCache.getIfPresent(queryId);
+    if (queryResult != null || persistentResultLineStore == null) {
+      return queryResult;
+    }
+
+    List<ResultLine> persistedResultLines;
+    try {
+      persistedResultLines = persistentResultLineStore.findByQuery(queryId);
+    } catch (Exception e) {
+      log.error("Could not load persisted results of query with ID {}: {}", queryId,
+          e.getMessage());
+      return null;
+    }
+
+    var persistedQueryResult = new QueryResult();
+    persistedResultLines.forEach(persistedQueryResult::add);
+    var presentQueryResult = queryResultCache.asMap().putIfAbsent(queryId, persistedQueryResult);
+    return presentQueryResult == null ? persistedQueryResult : presentQueryResult;
+  }
+
+  /**
+   * Holds all submitted {@link ResultLine results} from sites to a query
+   * together with their {@link ResultSummary summary}.
+   * <p>
+   * Adding a result line neither copies the already present result lines nor
+   * takes a lock. The summary is replaced atomically, so readers always see a
+   * consistent summary.
+   */
+  private static final class QueryResult {
+
+    private final Map<String, ResultLine> resultsBySite = new ConcurrentHashMap<>();
+    private final AtomicReference<ResultSummary> summary = new AtomicReference<>(
+        ResultSummary.EMPTY);
+    // Whether results have been received while held in memory, as opposed to only being loaded from the database.
+    private volatile boolean received;
 
     /**
-     * Merges the result lines of {@code this} and the {@code other} query
-     * result, returning a new query result.
-     * <p>
-     * Prioritises result lines of {@code this} query result over the ones of
-     * the {@code other} query result in a way that result lines of a site
-     * already present in {@code this} query result will not be overwritten with
-     * ones from the {@code other} query result.
+     * Adds a result line unless a result line of the same site is already
+     * present.
      *
-     * @param other the query result to merge into this query result
-     * @return a new query result containing the result lines from this query
-     * result and result lines from new sites of the other query result
+     * @param resultLine the result line to add
+     * @return {@code true} if the result line was added, {@code false} if it
+     * was discarded
      */
-    private QueryResult merge(QueryResult other) {
-      Map<String, ResultLine> mergedResultsBySite = new HashMap<>(
-          resultsBySite);
-      other.resultsBySite.forEach(mergedResultsBySite::putIfAbsent);
-      return new QueryResult(mergedResultsBySite);
+    private boolean add(ResultLine resultLine) {
+      if (resultsBySite.putIfAbsent(resultLine.siteName(), resultLine) != null) {
+        return false;
+      }
+      summary.updateAndGet(current -> current.add(resultLine));
+      return true;
     }
   }
 }
@@ -1,21 +1,34 @@
 package de.numcodex.feasibility_gui_backend.query.result;
 
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntryRepository;
 import java.net.URI;
 import java.net.http.WebSocket.Builder;
 import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aktin.broker.client2.AuthFilter;
 import org.aktin.broker.client2.BrokerAdmin2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 
 @Configuration
 @Slf4j
 public class ResultServiceSpringConfig {
 
+  private static final int RESULT_UPDATE_NOTIFICATION_QUEUE_CAPACITY = 1000;
+
   @Value("${app.broker.aktin.enabled}")
   private boolean aktinEnabled;
 
@@ -25,9 +38,13 @@ public class ResultServiceSpringConfig {
   @Value("${app.broker.aktin.broker.apiKey}")
   private String brokerApiKey;
 
+  @Value("${app.queryResultPersistence.enabled:false}")
+  private boolean persistenceEnabled;
+
   @Bean
   public ResultService createResultService(
-      @Value("${app.queryResultExpiryMinutes}") int resultExpiry, QueryDispatchRepository queryDispatchRepository) {
+      @Value("${app.queryResultExpiryMinutes}") int resultExpiry, QueryDispatchRepository queryDispatchRepository,
+      ObjectProvider<PersistentResultLineStore> persistentResultLineStore) {
 
     BrokerAdmin2 client = null;
 
@@ -37,7 +54,69 @@ public class ResultServiceSpringConfig {
     }
 
     log.info("Create ResultService with result TTL of {} minutes", resultExpiry);
-    return new ResultService(Duration.ofMinutes(resultExpiry), client, queryDispatchRepository);
+    return new ResultService(Duration.ofMinutes(resultExpiry), client, queryDispatchRepository,
+        persistenceEnabled ? persistentResultLineStore.getObject() : null);
+  }
+
+  @Bean(destroyMethod = "close")
+  @Lazy
+  public PersistentResultLineStore createPersistentResultLineStore(
+      QueryResultLineEntryRepository resultLineRepository,
+      @Value("${app.queryResultPersistence.batchSize:50}") int batchSize,
+      @Value("${app.queryResultPersistence.flushIntervalSeconds:5}") int flushIntervalSeconds,
+      @Value("${app.queryResultPersistence.retentionDays:1}") int retentionDays) {
+    log.info("Persist query results with a retention of {} days", retentionDays);
+    var store = new PersistentResultLineStore(resultLineRepository, batchSize,
+        Duration.ofSeconds(flushIntervalSeconds), Duration.ofDays(retentionDays));
+    store.start();
+    return store;
+  }
+
+  @Bean
+  public ResultUpdatePublisher createResultUpdatePublisher(
+      @Qualifier("resultUpdateNotification") ExecutorService notificationExecutor) {
+    return new ResultUpdatePublisher(notificationExecutor);
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  @Qualifier("resultUpdateNotification")
+  public ExecutorService createResultUpdateNotificationExecutor(
+      @Value("${app.queryResultStreamNotificationThreads:2}") int threads) {
+    var threadCount = new AtomicInteger();
+    return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(RESULT_UPDATE_NOTIFICATION_QUEUE_CAPACITY), r -> {
+          var thread = new Thread(r, "result-update-notification-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  @Bean(destroyMethod = "close")
+  public ResultSynchronizer createResultSynchronizer(
+      @Value("${app.queryResultPersistence.sharing:none}") String sharing,
+      ObjectProvider<DataSourceProperties> dataSourceProperties, ResultService resultService,
+      ResultUpdatePublisher resultUpdatePublisher) {
+    return switch (sharing) {
+      case "none" -> ResultSynchronizer.NONE;
+      case "postgres" -> {
+        if (!persistenceEnabled) {
+          throw new IllegalArgumentException("sharing query results requires the query result persistence to be enabled");
+        }
+        // Not pooled, since listening occupies the connection for the lifetime of the synchronizer.
+        var listenerDataSource = dataSourceProperties.getObject().initializeDataSourceBuilder()
+            .type(SimpleDriverDataSource.class)
+            .build();
+        var synchronizer = new PostgresResultSynchronizer(listenerDataSource, (queryId, resultLine) -> {
+          if (resultService.addPersistedResultLine(queryId, resultLine)) {
+            resultUpdatePublisher.publish(queryId);
+          }
+        }, resultService::refreshAllFromPersistence);
+        synchronizer.start();
+        yield synchronizer;
+      }
+      default -> throw new IllegalArgumentException("unknown query result sharing '%s'. Possible values are 'none' and 'postgres'"
+          .formatted(sharing));
+    };
   }
 
   @AllArgsConstructor
@@ -0,0 +1,26 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.ResultType;
+
+/**
+ * Aggregate of all {@link ResultLine results} of a query.
+ * <p>
+ * The version starts at 0 for a query without any results and increases with
+ * every result line that got added to the query.
+ *
+ * @param version               number of result lines added to the query
+ * @param successfulSites       number of sites that reported a successful result
+ * @param totalNumberOfPatients sum of the number of patients of all successful
+ *                              results
+ */
+public record ResultSummary(long version, int successfulSites, long totalNumberOfPatients) {
+
+  public static final ResultSummary EMPTY = new ResultSummary(0, 0, 0);
+
+  ResultSummary add(ResultLine resultLine) {
+    return resultLine.type() == ResultType.SUCCESS
+        ? new ResultSummary(version + 1, successfulSites + 1,
+        totalNumberOfPatients + resultLine.result())
+        : new ResultSummary(version + 1, successfulSites, totalNumberOfPatients);
+  }
+}
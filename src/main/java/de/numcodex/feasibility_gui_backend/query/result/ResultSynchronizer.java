@@ -0,0 +1,19 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+/**
+ * Keeps the results held in memory by the {@link ResultService} of this
+ * backend instance in sync with results received by other backend instances.
+ * <p>
+ * A synchronizer runs from its creation until it gets closed.
+ */
+public interface ResultSynchronizer extends AutoCloseable {
+
+  /**
+   * Synchronizer of a backend instance that does not share results.
+   */
+  ResultSynchronizer NONE = () -> {
+  };
+
+  @Override
+  void close();
+}
@@ -0,0 +1,97 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Notifies interested parties about new site results of a query.
+ * <p>
+ * Subscribers are registered per query and get notified each time a site result
+ * of that query has been added to the {@link ResultService}. Notifications do
+ * not carry the result itself, subscribers are expected to look it up when
+ * needed.
+ * <p>
+ * Results are published by the threads ingesting them. Subscribers may block,
+ * e.g. while sending an event to a slow client, so they are notified using a
+ * separate executor instead.
+ */
+@Slf4j
+public class ResultUpdatePublisher {
+
+  private final Map<Long, Set<Runnable>> subscribersByQuery = new ConcurrentHashMap<>();
+  private final Executor notificationExecutor;
+
+  /**
+   * Creates a new ResultUpdatePublisher.
+   *
+   * @param notificationExecutor the executor notifying subscribers, should be
+   *                             bounded
+   */
+  public ResultUpdatePublisher(Executor notificationExecutor) {
+    this.notificationExecutor = notificationExecutor;
+  }
+
+  /**
+   * Registers a subscriber that gets notified about new results of a query.
+   *
+   * @param queryId    the query id
+   * @param subscriber the subscriber to notify
+   */
+  public void subscribe(long queryId, Runnable subscriber) {
+    subscribersByQuery.computeIfAbsent(queryId, id -> ConcurrentHashMap.newKeySet())
+        .add(subscriber);
+  }
+
+  /**
+   * Removes a previously registered subscriber. Removing a subscriber that is
+   * not registered has no effect.
+   *
+   * @param queryId    the query id
+   * @param subscriber the subscriber to remove
+   */
+  public void unsubscribe(long queryId, Runnable subscriber) {
+    subscribersByQuery.computeIfPresent(queryId, (id, subscribers) -> {
+      subscribers.remove(subscriber);
+      return subscribers.isEmpty() ? null : subscribers;
+    });
+  }
+
+  /**
+   * Notifies all subscribers of a query about a new result without waiting
+   * for them.
+   * <p>
+   * A failing subscriber does not prevent the remaining ones from being
+   * notified. If the notification executor is saturated, the notification of
+   * a subscriber is dropped. Since notifications do not carry the result, the
+   * subscriber catches up with the next one.
+   *
+   * @param queryId the query id
+   */
+  public void publish(long queryId) {
+    var subscribers = subscribersByQuery.get(queryId);
+    if (subscribers == null) {
+      return;
+    }
+    for (var subscriber : subscribers) {
+      try {
+        notificationExecutor.execute(() -> notify(queryId, subscriber));
+      } catch (RejectedExecutionException e) {
+        log.warn("dropped notification of subscriber about new result of query '{}': {}", queryId,
+            e.getMessage());
+      }
+    }
+  }
+
+  private static void notify(long queryId, Runnable subscriber) {
+    try {
+      subscriber.run();
+    } catch (Exception e) {
+      log.warn("failed to notify subscriber about new result of query '{}': {}", queryId,
+          e.getMessage());
+    }
+  }
+}
@@ -2,6 +2,8 @@ package de.numcodex.feasibility_gui_backend.query.templates;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.query.api.InvalidStoredQuery;
 import de.numcodex.feasibility_gui_backend.query.api.QueryTemplate;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.feasibility_gui_backend.query.dispatch.QueryHashCalculator;
@@ -10,20 +12,30 @@ import de.numcodex.feasibility_gui_backend.query.persistence.QueryContent;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplateRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.SavedQueryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.StoredQueryWithContent;
+import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import jakarta.transaction.Transactional;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 @Slf4j
 @Transactional
 @RequiredArgsConstructor
 public class QueryTemplateHandler {
 
+  static final int VALIDATION_CHUNK_SIZE = 100;
+
   @NonNull
   private QueryHashCalculator queryHashCalculator;
 
@@ -39,6 +51,12 @@ public class QueryTemplateHandler {
   @NonNull
   private QueryTemplateRepository queryTemplateRepository;
 
+  @NonNull
+  private SavedQueryRepository savedQueryRepository;
+
+  @NonNull
+  private TermCodeValidation termCodeValidation;
+
   public Long storeTemplate(QueryTemplate queryTemplateApi, String userId)
       throws QueryTemplateException {
 
@@ -57,8 +75,101 @@ public class QueryTemplateHandler {
     return new ArrayList<>();
   }
 
-  public List<QueryTemplate> validateTemplates() {
-    return new ArrayList<>();
+  /**
+   * Validates the term codes of all query templates of an author against the current ontology.
+   * <p>
+   * Templates are loaded and validated in chunks, so only the contents of a single chunk are held in memory at a time.
+   * The contents of a chunk are parsed in parallel and all their term codes are validated at once. Templates whose
+   * content cannot be parsed are skipped.
+   *
+   * @param authorId the author of the templates
+   * @return the validated templates without their content, ordered by their id
+   */
+  public List<QueryTemplate> validateTemplates(String authorId) {
+    var validatedTemplates = new ArrayList<QueryTemplate>();
+    validateInChunks(
+        (afterId, pageable) -> queryTemplateRepository.findWithContentByAuthor(authorId, afterId, pageable),
+        (template, invalidTerms) -> validatedTemplates.add(new QueryTemplate(template.getId(),
+            null,
+            template.getLabel(),
+            template.getComment(),
+            template.getLastModified() == null ? null : template.getLastModified().toString(),
+            template.getCreatedBy(),
+            invalidTerms,
+            invalidTerms.isEmpty())));
+    return validatedTemplates;
+  }
+
+  /**
+   * Validates the term codes of all query templates and saved queries of all authors against the current ontology.
+   * <p>
+   * Works chunk by chunk like {@link #validateTemplates(String)}, so it can be run over the whole database after an
+   * ontology update.
+   *
+   * @return the templates and saved queries that contain at least one invalid term code, templates first, each ordered
+   * by their id
+   */
+  public List<InvalidStoredQuery> findInvalidStoredQueries() {
+    var invalidQueries = new ArrayList<InvalidStoredQuery>();
+    validateInChunks(queryTemplateRepository::findWithContent,
+        collectInvalid(InvalidStoredQuery.Type.TEMPLATE, invalidQueries));
+    validateInChunks(savedQueryRepository::findWithContent,
+        collectInvalid(InvalidStoredQuery.Type.SAVED_QUERY, invalidQueries));
+    return invalidQueries;
+  }
+
+  private static <T extends StoredQueryWithContent> BiConsumer<T, List<TermCode>> collectInvalid(
+      InvalidStoredQuery.Type type, List<InvalidStoredQuery> invalidQueries) {
+    return (storedQuery, invalidTerms) -> {
+      if (!invalidTerms.isEmpty()) {
+        invalidQueries.add(new InvalidStoredQuery(type, storedQuery.getId(), storedQuery.getLabel(),
+            storedQuery.getCreatedBy(), invalidTerms));
+      }
+    };
+  }
+
+  /**
+   * Loads stored queries chunk by chunk using keyset pagination on their id and hands each parsable one over to
+   * {@code consumer} together with its invalid term codes.
+   */
+  private <T extends StoredQueryWithContent> void validateInChunks(BiFunction<Long, Pageable, List<T>> loader,
+      BiConsumer<T, List<TermCode>> consumer) {
+    var afterId = Long.MIN_VALUE;
+    List<T> chunk;
+    do {
+      chunk = loader.apply(afterId, PageRequest.ofSize(VALIDATION_CHUNK_SIZE));
+      validateChunk(chunk, consumer);
+      if (!chunk.isEmpty()) {
+        afterId = chunk.get(chunk.size() - 1).getId();
+      }
+    } while (chunk.size() == VALIDATION_CHUNK_SIZE);
+  }
+
+  private <T extends StoredQueryWithContent> void validateChunk(List<T> chunk,
+      BiConsumer<T, List<TermCode>> consumer) {
+    var parsedQueries = chunk.parallelStream()
+        .map(this::parseContent)
+        .filter(Objects::nonNull)
+        .toList();
+    var invalidTermCodes = termCodeValidation.getInvalidTermCodes(
+        parsedQueries.stream().map(ParsedQuery::content).toList());
+
+    for (int i = 0; i < parsedQueries.size(); i++) {
+      consumer.accept(parsedQueries.get(i).storedQuery(), invalidTermCodes.get(i));
+    }
+  }
+
+  private <T extends StoredQueryWithContent> ParsedQuery<T> parseContent(T storedQuery) {
+    try {
+      return new ParsedQuery<>(storedQuery,
+          jsonUtil.readValue(storedQuery.getQueryContent(), StructuredQuery.class));
+    } catch (JsonProcessingException e) {
+      log.error("Error converting stored query '%s'".formatted(storedQuery.getId()), e);
+      return null;
+    }
+  }
+
+  private record ParsedQuery<T extends StoredQueryWithContent>(T storedQuery, StructuredQuery content) {
   }
 
   public Long storeNewQuery(StructuredQuery query, String userId) throws QueryTemplateException {
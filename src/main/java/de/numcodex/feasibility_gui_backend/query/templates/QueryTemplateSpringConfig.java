@@ -5,6 +5,8 @@ import de.numcodex.feasibility_gui_backend.query.dispatch.QueryHashCalculator;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplateRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.SavedQueryRepository;
+import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,8 +20,10 @@ public class QueryTemplateSpringConfig {
       @Qualifier("translation") ObjectMapper jsonUtil,
       QueryRepository queryRepository,
       QueryContentRepository queryContentRepository,
-      QueryTemplateRepository queryTemplateRepository) {
+      QueryTemplateRepository queryTemplateRepository,
+      SavedQueryRepository savedQueryRepository,
+      TermCodeValidation termCodeValidation) {
     return new QueryTemplateHandler(queryHashCalculator, jsonUtil,
-        queryRepository, queryContentRepository, queryTemplateRepository);
+        queryRepository, queryContentRepository, queryTemplateRepository, savedQueryRepository, termCodeValidation);
   }
 }
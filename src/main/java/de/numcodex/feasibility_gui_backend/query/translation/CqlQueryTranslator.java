@@ -1,6 +1,5 @@
 package de.numcodex.feasibility_gui_backend.query.translation;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.sq2cql.Translator;
@@ -19,14 +18,16 @@ class CqlQueryTranslator implements QueryTranslator {
     @NonNull
     private final ObjectMapper jsonUtil;
 
+    // Both models share the same JSON representation. Converting the query via Jackson's token buffer saves us from
+    // writing it to and parsing it from a string on every translation.
     @Override
     public String translate(StructuredQuery query) throws QueryTranslationException {
         de.numcodex.sq2cql.model.structured_query.StructuredQuery structuredQuery;
         try {
-            structuredQuery = jsonUtil.readValue(jsonUtil.writeValueAsString(query),
+            structuredQuery = jsonUtil.convertValue(query,
                     de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
-        } catch (JsonProcessingException e) {
-            throw new QueryTranslationException("cannot encode/decode structured query as JSON", e);
+        } catch (IllegalArgumentException e) {
+            throw new QueryTranslationException("cannot convert structured query into the sq2cql model", e);
         }
 
         try {
@@ -5,52 +5,54 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
 
 /**
  * A translator for translating a {@link StructuredQuery} into its FHIR search query format.
  */
 @RequiredArgsConstructor
-class FhirQueryTranslator implements QueryTranslator {
+class FhirQueryTranslator implements ReactiveQueryTranslator {
 
     private static final String FLARE_QUERY_TRANSLATE_ENDPOINT_PATH = "/query/translate";
     private static final String FLARE_QUERY_TRANSLATE_CONTENT_TYPE = "application/json";
     private static final String FLARE_QUERY_TRANSLATE_ACCEPT = "CSQ";
 
-    // TODO: this one should be replaced with a WebClient instance for asynchronous translation support.
-    //       However, this will require changes to the interface as well. Additional changes will propagate
-    //       upstream. This would be too big of a change. Because of this and Flare being rewritten and potentially
-    //       being present as a library (no client needed anymore), we don't pursue this change.
     @NonNull
-    private final RestTemplate client;
+    private final WebClient client;
 
     @NonNull
     private final ObjectMapper jsonUtil;
 
-    @Override
-    public String translate(StructuredQuery query) throws QueryTranslationException {
-        HttpHeaders requestHeaders = new HttpHeaders();
-        requestHeaders.putAll(Map.of(
-                // TODO: Resolve this with the Flare team. This is NOT the header to be used.
-                //       The accept encoding header should not change the content itself.
-                //       Thus, it's mainly used for compression algorithms.
-                HttpHeaders.ACCEPT_ENCODING, List.of(FLARE_QUERY_TRANSLATE_ACCEPT),
-                HttpHeaders.CONTENT_TYPE, List.of(FLARE_QUERY_TRANSLATE_CONTENT_TYPE)
-        ));
+    @NonNull
+    private final Duration requestTimeout;
 
+    @Override
+    public Mono<String> translateReactively(StructuredQuery query) {
+        String serializedQuery;
         try {
-            HttpEntity<String> request = new HttpEntity<>(jsonUtil.writeValueAsString(query), requestHeaders);
-            return client.postForObject(FLARE_QUERY_TRANSLATE_ENDPOINT_PATH, request, String.class);
+            serializedQuery = jsonUtil.writeValueAsString(query);
         } catch (JsonProcessingException e) {
-            throw new QueryTranslationException("cannot encode structured query as JSON", e);
-        } catch (RestClientException e) {
-            throw new QueryTranslationException("cannot translate structured query in FHIR search format using Flare", e);
+            return Mono.error(new QueryTranslationException("cannot encode structured query as JSON", e));
         }
+
+        return client.post()
+                .uri(FLARE_QUERY_TRANSLATE_ENDPOINT_PATH)
+                // TODO: Resolve this with the Flare team. This is NOT the header to be used.
+                //       The accept encoding header should not change the content itself.
+                //       Thus, it's mainly used for compression algorithms.
+                .header(HttpHeaders.ACCEPT_ENCODING, FLARE_QUERY_TRANSLATE_ACCEPT)
+                .header(HttpHeaders.CONTENT_TYPE, FLARE_QUERY_TRANSLATE_CONTENT_TYPE)
+                .bodyValue(serializedQuery)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(requestTimeout)
+                .onErrorMap(e -> new QueryTranslationException(
+                        "cannot translate structured query in FHIR search format using Flare", e))
+                .switchIfEmpty(Mono.error(() -> new QueryTranslationException(
+                        "cannot translate structured query in FHIR search format using Flare. Got an empty response")));
     }
 }
@@ -0,0 +1,56 @@
+package de.numcodex.feasibility_gui_backend.query.translation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-memory cache of translation results.
+ * <p>
+ * Entries are keyed by the hash of the serialized query content together with a translation version. The translation
+ * version identifies the ontology (mappings and concept tree) as well as the enabled formats, so a changed ontology
+ * never yields translations made with an outdated one.
+ */
+public class QueryTranslationCache {
+
+    private final Cache<String, Map<QueryMediaType, String>> translations;
+
+    private final String translationVersion;
+
+    public QueryTranslationCache(long maximumSize, @NonNull Duration expiry, @NonNull String translationVersion) {
+        this.translations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expiry)
+                .build();
+        this.translationVersion = translationVersion;
+    }
+
+    /**
+     * Gets the cached translations of a query content.
+     *
+     * @param queryContentHash Hash of the serialized query content.
+     * @return The cached translations mapped to their media type or an empty {@link Optional} if there are none.
+     */
+    public Optional<Map<QueryMediaType, String>> get(@NonNull String queryContentHash) {
+        return Optional.ofNullable(translations.getIfPresent(cacheKey(queryContentHash)));
+    }
+
+    /**
+     * Caches the translations of a query content.
+     *
+     * @param queryContentHash Hash of the serialized query content.
+     * @param translationResults The translations mapped to their media type.
+     */
+    public void put(@NonNull String queryContentHash, @NonNull Map<QueryMediaType, String> translationResults) {
+        translations.put(cacheKey(queryContentHash), Map.copyOf(translationResults));
+    }
+
+    private String cacheKey(String queryContentHash) {
+        return translationVersion + ":" + queryContentHash;
+    }
+}
@@ -4,14 +4,29 @@ import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import lombok.extern.slf4j.Slf4j;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Provides functions for translating {@link StructuredQuery} into different formats.
+ * <p>
+ * All configured translators run concurrently on the translation scheduler and each of them has to finish within the
+ * translation timeout. By default, a translation fails as soon as a single translator fails, since brokers publish
+ * whatever formats they are given. Only if partial translations are allowed, a failing translator does not affect the
+ * others. Its format is simply missing from the translation results, so that brokers which do not require this format
+ * can still be used. In that case, the translation into each format can also be obtained on its own, so that brokers
+ * only have to wait for the formats they require.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -20,21 +35,196 @@ public class QueryTranslationComponent {
     @NonNull
     private final Map<QueryMediaType, QueryTranslator> translators;
 
+    @NonNull
+    private final QueryTranslationCache translationCache;
+
+    @NonNull
+    private final Scheduler translationScheduler;
+
+    @NonNull
+    private final Duration translationTimeout;
+
+    private final boolean partialTranslationAllowed;
+
+    /**
+     * Gets the formats that queries get translated into.
+     *
+     * @return The media types of all configured translators.
+     */
+    public Set<QueryMediaType> getTranslationFormats() {
+        return Set.copyOf(translators.keySet());
+    }
+
+    /**
+     * Tells whether translations may lack the formats whose translators failed.
+     *
+     * @return {@code true} if partial translations are allowed, {@code false} otherwise.
+     */
+    public boolean isPartialTranslationAllowed() {
+        return partialTranslationAllowed;
+    }
+
     /**
      * Translates a {@link StructuredQuery} into different formats using the configured translators.
      *
      * @param query The query that shall be translated.
-     * @return The query translated into different formats mapped to their corresponding media type.
-     * @throws QueryTranslationException If any translation fails.
+     * @return The query translated into different formats mapped to their corresponding media type. Formats whose
+     * translation failed are not part of the result if partial translations are allowed.
+     * @throws QueryTranslationException If all translations fail or if any translation fails and partial translations
+     *                                   are not allowed.
      */
     public Map<QueryMediaType, String> translate(StructuredQuery query) throws QueryTranslationException {
-        var translationResults = new HashMap<QueryMediaType, String>();
-        for (Entry<QueryMediaType, QueryTranslator> translatorMapping : translators.entrySet()) {
-            var translation = translatorMapping.getValue().translate(query);
-            log.debug(translation);
-            translationResults.put(translatorMapping.getKey(), translation);
+        return block(translateReactively(query, null));
+    }
+
+    /**
+     * Translates a {@link StructuredQuery} into different formats using the configured translators. Translations of
+     * the same query content are only computed once and cached afterwards. Translations are only cached if all
+     * configured translators succeeded.
+     *
+     * @param query            The query that shall be translated.
+     * @param queryContentHash Hash of the serialized query. Translations are not cached if this is {@code null}.
+     * @return The query translated into different formats mapped to their corresponding media type. Formats whose
+     * translation failed are not part of the result if partial translations are allowed.
+     * @throws QueryTranslationException If all translations fail or if any translation fails and partial translations
+     *                                   are not allowed.
+     */
+    public Map<QueryMediaType, String> translate(StructuredQuery query, String queryContentHash)
+            throws QueryTranslationException {
+        return block(translateReactively(query, queryContentHash));
+    }
+
+    /**
+     * Translates a {@link StructuredQuery} into different formats using the configured translators without blocking
+     * the calling thread. Translations of the same query content are only computed once and cached afterwards.
+     * Translations are only cached if all configured translators succeeded.
+     *
+     * @param query            The query that shall be translated.
+     * @param queryContentHash Hash of the serialized query. Translations are not cached if this is {@code null}.
+     * @return A {@link Mono} holding the query translated into different formats mapped to their corresponding media
+     * type. Formats whose translation failed are not part of the result if partial translations are allowed. If all
+     * translations fail or if any translation fails and partial translations are not allowed then a {@link Mono} in an
+     * error state holding a {@link QueryTranslationException} is returned.
+     */
+    public Mono<Map<QueryMediaType, String>> translateReactively(StructuredQuery query, String queryContentHash) {
+        if (queryContentHash == null) {
+            return collectTranslations(translateEach(query)).map(Translation::translationResults);
+        }
+
+        var cachedTranslationResults = translationCache.get(queryContentHash);
+        if (cachedTranslationResults.isPresent()) {
+            log.debug("using cached translations of query content '%s'".formatted(queryContentHash));
+            return Mono.just(cachedTranslationResults.get());
+        }
+
+        return collectTranslations(translateEach(query))
+                .doOnNext(translation -> cacheIfComplete(queryContentHash, translation))
+                .map(Translation::translationResults);
+    }
+
+    /**
+     * Translates a {@link StructuredQuery} into each of the configured formats separately without blocking the calling
+     * thread. All translators start right away. Each translation is only computed once, no matter how often its
+     * {@link Mono} gets subscribed to, so that callers can wait for just the formats they need. Translations of the same
+     * query content are cached once all configured translators succeeded.
+     *
+     * @param query            The query that shall be translated.
+     * @param queryContentHash Hash of the serialized query. Translations are not cached if this is {@code null}.
+     * @return A {@link Mono} per configured format holding the query translated into this format. The {@link Mono} is
+     * in an error state if the translation into this format failed.
+     */
+    public Map<QueryMediaType, Mono<String>> translateEachReactively(StructuredQuery query, String queryContentHash) {
+        if (queryContentHash != null) {
+            var cachedTranslationResults = translationCache.get(queryContentHash);
+            if (cachedTranslationResults.isPresent()) {
+                log.debug("using cached translations of query content '%s'".formatted(queryContentHash));
+                var translations = new EnumMap<QueryMediaType, Mono<String>>(QueryMediaType.class);
+                cachedTranslationResults.get().forEach((format, translationResult) ->
+                        translations.put(format, Mono.just(translationResult)));
+                return translations;
+            }
+        }
+
+        var translations = translateEach(query);
+        collectTranslations(translations)
+                .subscribe(translation -> {
+                    if (queryContentHash != null) {
+                        cacheIfComplete(queryContentHash, translation);
+                    }
+                }, e -> log.debug("query content '%s' is not cached since its translation failed"
+                        .formatted(queryContentHash)));
+        return translations;
+    }
+
+    private void cacheIfComplete(String queryContentHash, Translation translation) {
+        if (translation.complete()) {
+            translationCache.put(queryContentHash, translation.translationResults());
         }
+    }
+
+    private Map<QueryMediaType, Mono<String>> translateEach(StructuredQuery query) {
+        var translations = new EnumMap<QueryMediaType, Mono<String>>(QueryMediaType.class);
+        translators.forEach((format, translator) -> translations.put(format, translateInto(query, translator)
+                .doOnError(e -> log.error("failed to translate query into format '%s'".formatted(format), e))
+                .cache()));
+        return translations;
+    }
+
+    private Mono<Translation> collectTranslations(Map<QueryMediaType, Mono<String>> translations) {
+        var failures = new CopyOnWriteArrayList<Throwable>();
+        return Flux.fromIterable(translations.entrySet())
+                .flatMap(translation -> translation.getValue()
+                        .map(translationResult -> Map.entry(translation.getKey(), translationResult))
+                        .onErrorResume(e -> {
+                            failures.add(e);
+                            return Mono.empty();
+                        }))
+                .collectMap(Entry::getKey, Entry::getValue)
+                .flatMap(translationResults -> {
+                    if (!translators.isEmpty() && translationResults.isEmpty()) {
+                        return Mono.error(asQueryTranslationException(failures,
+                                "cannot translate query into any of the configured formats"));
+                    }
+                    if (!failures.isEmpty() && !partialTranslationAllowed) {
+                        return Mono.error(asQueryTranslationException(failures,
+                                "cannot translate query into all of the configured formats"));
+                    }
+                    return Mono.just(new Translation(Map.copyOf(translationResults), failures.isEmpty()));
+                });
+    }
+
+    // Reactive translators do not block, so only the others need to be moved onto the translation scheduler.
+    private Mono<String> translateInto(StructuredQuery query, QueryTranslator translator) {
+        var translation = translator instanceof ReactiveQueryTranslator reactiveTranslator
+                ? Mono.defer(() -> reactiveTranslator.translateReactively(query))
+                : Mono.fromCallable(() -> translator.translate(query)).subscribeOn(translationScheduler);
+
+        return translation
+                .timeout(translationTimeout)
+                .doOnNext(log::debug);
+    }
+
+    private Map<QueryMediaType, String> block(Mono<Map<QueryMediaType, String>> translationResults)
+            throws QueryTranslationException {
+        try {
+            return translationResults.block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof QueryTranslationException translationException) {
+                throw translationException;
+            }
+            throw e;
+        }
+    }
+
+    private QueryTranslationException asQueryTranslationException(List<Throwable> failures, String message) {
+        if (failures.size() == 1 && failures.get(0) instanceof QueryTranslationException e) {
+            return e;
+        }
+        var exception = new QueryTranslationException(message);
+        failures.forEach(exception::addSuppressed);
+        return exception;
+    }
 
-        return translationResults;
+    private record Translation(Map<QueryMediaType, String> translationResults, boolean complete) {
     }
 }
@@ -1,24 +1,35 @@
 package de.numcodex.feasibility_gui_backend.query.translation;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.sq2cql.Translator;
 import de.numcodex.sq2cql.model.Mapping;
 import de.numcodex.sq2cql.model.MappingContext;
 import de.numcodex.sq2cql.model.TermCodeNode;
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
@@ -33,6 +44,26 @@ import static java.util.Map.entry;
 @Configuration
 public class QueryTranslatorSpringConfig {
 
+    static final Map<String, String> CQL_CODE_SYSTEM_ALIASES = Map.ofEntries(
+            entry("http://fhir.de/CodeSystem/bfarm/icd-10-gm", "icd10"),
+            entry("mii.abide", "abide"),
+            entry("http://fhir.de/CodeSystem/bfarm/ops", "ops"),
+            entry("http://dicom.nema.org/resources/ontology/DCM", "dcm"),
+            entry("https://www.medizininformatik-initiative.de/fhir/core/modul-person/CodeSystem/Vitalstatus", "vitalstatus"),
+            entry("http://loinc.org", "loinc"),
+            entry("https://fhir.bbmri.de/CodeSystem/SampleMaterialType", "sample"),
+            entry("http://fhir.de/CodeSystem/bfarm/atc", "atc"),
+            entry("http://snomed.info/sct", "snomed"),
+            entry("http://terminology.hl7.org/CodeSystem/condition-ver-status", "cvs"),
+            entry("http://hl7.org/fhir/administrative-gender", "gender"),
+            entry("urn:oid:1.2.276.0.76.5.409", "urn409"),
+            entry("https://www.netzwerk-universitaetsmedizin.de/fhir/CodeSystem/ecrf-parameter-codes", "numecrf"),
+            entry("urn:iso:std:iso:3166", "iso3166"),
+            entry("https://www.netzwerk-universitaetsmedizin.de/fhir/CodeSystem/frailty-score", "frailtyscore"),
+            entry("http://terminology.hl7.org/CodeSystem/consentcategorycodes", "consentcategory"),
+            entry("urn:oid:2.16.840.1.113883.3.1937.777.24.5.3", "consent"),
+            entry("http://hl7.org/fhir/consent-provision-type", "provisiontype"));
+
     @Value("${app.mappingsFile}")
     private String mappingsFile;
 
@@ -42,12 +73,33 @@ public class QueryTranslatorSpringConfig {
     @Value("${app.flare.baseUrl}")
     private String flareBaseUrl;
 
+    @Value("${app.flare.readTimeout:20000}")
+    private int flareReadTimeout;
+
+    @Value("${app.flare.connectTimeout:2000}")
+    private int flareConnectTimeout;
+
+    @Value("${app.flare.maxConnections:50}")
+    private int flareMaxConnections;
+
     @Value("${app.cqlTranslationEnabled}")
     private boolean cqlTranslationEnabled;
 
     @Value("${app.fhirTranslationEnabled}")
     private boolean fhirTranslationEnabled;
 
+    @Value("${app.translationTimeoutSeconds:30}")
+    private int translationTimeoutSeconds;
+
+    @Value("${app.partialTranslationAllowed:false}")
+    private boolean partialTranslationAllowed;
+
+    @Value("${app.translationCache.maximumSize:1000}")
+    private long translationCacheMaximumSize;
+
+    @Value("${app.translationCache.expiryMinutes:1440}")
+    private int translationCacheExpiryMinutes;
+
     private final ApplicationContext appContext;
 
     public QueryTranslatorSpringConfig(ApplicationContext appContext) {
@@ -60,7 +112,9 @@ public class QueryTranslatorSpringConfig {
     }
 
     @Bean
-    QueryTranslationComponent createQueryTranslationService(@Qualifier("json") QueryTranslator jsonQueryTranslator) {
+    QueryTranslationComponent createQueryTranslationService(@Qualifier("json") QueryTranslator jsonQueryTranslator,
+                                                            QueryTranslationCache queryTranslationCache,
+                                                            @Qualifier("translation") Scheduler translationScheduler) {
         var queryTranslators = new HashMap<QueryMediaType, QueryTranslator>();
         queryTranslators.put(STRUCTURED_QUERY, jsonQueryTranslator);
 
@@ -71,39 +125,59 @@ public class QueryTranslatorSpringConfig {
         if (cqlTranslationEnabled) {
             queryTranslators.put(CQL, getQueryTranslatorByQualifier("cql"));
         }
-        return new QueryTranslationComponent(queryTranslators);
+        return new QueryTranslationComponent(queryTranslators, queryTranslationCache, translationScheduler,
+                Duration.ofSeconds(translationTimeoutSeconds), partialTranslationAllowed);
+    }
+
+    @Qualifier("translation")
+    @Bean(destroyMethod = "dispose")
+    Scheduler createTranslationScheduler() {
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "query-translation");
+    }
+
+    @Bean
+    QueryTranslationCache createQueryTranslationCache() throws IOException {
+        return new QueryTranslationCache(translationCacheMaximumSize,
+                Duration.ofMinutes(translationCacheExpiryMinutes), calculateTranslationVersion());
+    }
+
+    // Identifies everything a translation result depends on besides the query itself. Changing the ontology files or
+    // the enabled formats leads to a different version and thus to fresh translations.
+    private String calculateTranslationVersion() throws IOException {
+        var hasher = Hashing.sha256().newHasher()
+                .putBoolean(cqlTranslationEnabled)
+                .putBoolean(fhirTranslationEnabled);
+        for (String ontologyFile : List.of(mappingsFile, conceptTreeFile)) {
+            var ontologyFilePath = Path.of(ontologyFile);
+            if (Files.isRegularFile(ontologyFilePath)) {
+                hasher.putBytes(Files.readAllBytes(ontologyFilePath));
+            } else {
+                hasher.putString(ontologyFile, StandardCharsets.UTF_8);
+            }
+        }
+        return hasher.hash().toString();
     }
 
     @Lazy
     @Bean
     Translator createCqlTranslator(@Qualifier("translation") ObjectMapper jsonUtil) throws IOException {
-        var mappings = jsonUtil.readValue(new File(mappingsFile), Mapping[].class);
-        var conceptTree = jsonUtil.readValue(new File(conceptTreeFile), TermCodeNode.class);
+        return loadCqlTranslator(jsonUtil, new File(mappingsFile), new File(conceptTreeFile));
+    }
+
+    /**
+     * Creates a sq2cql {@link Translator} using the given ontology files. Kept separate from the bean definition so
+     * that the translator can be created outside a Spring context as well (e.g. in benchmarks).
+     */
+    static Translator loadCqlTranslator(ObjectMapper jsonUtil, File mappingsFile, File conceptTreeFile)
+            throws IOException {
+        var mappings = jsonUtil.readValue(mappingsFile, Mapping[].class);
+        var conceptTree = jsonUtil.readValue(conceptTreeFile, TermCodeNode.class);
         return Translator.of(MappingContext.of(
                 Stream.of(mappings)
                         .collect(Collectors.toMap(Mapping::key, Function.identity(), (a, b) -> a)),
                 conceptTree,
-            Map.ofEntries(entry("http://fhir.de/CodeSystem/bfarm/icd-10-gm", "icd10"),
-                entry("mii.abide", "abide"),
-                entry("http://fhir.de/CodeSystem/bfarm/ops", "ops"),
-                entry("http://dicom.nema.org/resources/ontology/DCM", "dcm"),
-                entry("https://www.medizininformatik-initiative.de/fhir/core/modul-person/CodeSystem/Vitalstatus", "vitalstatus"),
-                entry("http://loinc.org", "loinc"),
-                entry("https://fhir.bbmri.de/CodeSystem/SampleMaterialType", "sample"),
-                entry("http://fhir.de/CodeSystem/bfarm/atc", "atc"),
-                entry("http://snomed.info/sct", "snomed"),
-                entry("http://terminology.hl7.org/CodeSystem/condition-ver-status", "cvs"),
-                entry("http://hl7.org/fhir/administrative-gender", "gender"),
-                entry("urn:oid:1.2.276.0.76.5.409", "urn409"),
-                entry(
-                    "https://www.netzwerk-universitaetsmedizin.de/fhir/CodeSystem/ecrf-parameter-codes",
-                    "numecrf"),
-                entry("urn:iso:std:iso:3166", "iso3166"),
-                entry("https://www.netzwerk-universitaetsmedizin.de/fhir/CodeSystem/frailty-score",
-                    "frailtyscore"),
-                entry("http://terminology.hl7.org/CodeSystem/consentcategorycodes", "consentcategory"),
-                entry("urn:oid:2.16.840.1.113883.3.1937.777.24.5.3", "consent"),
-                entry("http://hl7.org/fhir/consent-provision-type", "provisiontype"))));
+                CQL_CODE_SYSTEM_ALIASES));
     }
 
     @Qualifier("cql")
@@ -119,9 +193,9 @@ public class QueryTranslatorSpringConfig {
     @Lazy
     @Bean
     QueryTranslator createFhirQueryBuilder(
-            @Qualifier("flare") RestTemplate flareWebClient,
+            @Qualifier("flare") WebClient flareWebClient,
             @Qualifier("translation") ObjectMapper jsonUtil) {
-        return new FhirQueryTranslator(flareWebClient, jsonUtil);
+        return new FhirQueryTranslator(flareWebClient, jsonUtil, Duration.ofMillis(flareReadTimeout));
     }
 
     @Qualifier("json")
@@ -130,11 +204,28 @@ public class QueryTranslatorSpringConfig {
         return new JsonQueryTranslator(jsonUtil);
     }
 
+    // Connections to Flare are pooled and kept alive between translations. The pool is closed on shutdown.
     @Qualifier("flare")
+    @Lazy
+    @Bean(destroyMethod = "dispose")
+    ConnectionProvider createFlareConnectionProvider() {
+        return ConnectionProvider.builder("flare")
+                .maxConnections(flareMaxConnections)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Qualifier("flare")
+    @Lazy
     @Bean
-    RestTemplate createFlareWebClient() {
-        return new RestTemplateBuilder()
-                .rootUri(flareBaseUrl)
+    WebClient createFlareWebClient(@Qualifier("flare") ConnectionProvider connectionProvider) {
+        var httpClient = HttpClient.create(connectionProvider)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, flareConnectTimeout)
+                .responseTimeout(Duration.ofMillis(flareReadTimeout));
+        return WebClient.builder()
+                .baseUrl(flareBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 
@@ -0,0 +1,40 @@
+package de.numcodex.feasibility_gui_backend.query.translation;
+
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+/**
+ * Describes a {@link QueryTranslator} that is capable of translating a {@link StructuredQuery} without blocking the
+ * calling thread, e.g. because it relies on an external translation service.
+ */
+public interface ReactiveQueryTranslator extends QueryTranslator {
+
+    /**
+     * Translates a given {@link StructuredQuery} into another format without blocking.
+     *
+     * @param query The structured query that gets translated.
+     * @return A {@link Mono} holding the string representation of the translated structured query in the targeted
+     * format or a {@link QueryTranslationException} if the translation fails.
+     */
+    Mono<String> translateReactively(StructuredQuery query);
+
+    /**
+     * Translates a given {@link StructuredQuery} into another format, blocking until the translation is done.
+     *
+     * @param query The structured query that gets translated.
+     * @return A string representation of the translated structured query in the targeted format.
+     * @throws QueryTranslationException If the translation fails.
+     */
+    @Override
+    default String translate(StructuredQuery query) throws QueryTranslationException {
+        try {
+            return translateReactively(query).block();
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof QueryTranslationException translationException) {
+                throw translationException;
+            }
+            throw e;
+        }
+    }
+}
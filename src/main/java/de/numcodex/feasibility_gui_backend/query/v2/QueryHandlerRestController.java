@@ -6,10 +6,12 @@ import de.numcodex.feasibility_gui_backend.config.WebSecurityConfig;
 import de.numcodex.feasibility_gui_backend.query.QueryHandlerService;
 import de.numcodex.feasibility_gui_backend.query.QueryHandlerService.ResultDetail;
 import de.numcodex.feasibility_gui_backend.query.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.api.InvalidStoredQuery;
 import de.numcodex.feasibility_gui_backend.query.api.Query;
 import de.numcodex.feasibility_gui_backend.query.api.QueryListEntry;
 import de.numcodex.feasibility_gui_backend.query.api.QueryResult;
 import de.numcodex.feasibility_gui_backend.query.api.QueryResultRateLimit;
+import de.numcodex.feasibility_gui_backend.query.api.QuerySummaryResult;
 import de.numcodex.feasibility_gui_backend.query.api.SavedQuery;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.feasibility_gui_backend.query.api.status.FeasibilityIssue;
@@ -19,12 +21,14 @@ import de.numcodex.feasibility_gui_backend.query.persistence.UserBlacklistReposi
 import de.numcodex.feasibility_gui_backend.query.ratelimiting.AuthenticationHelper;
 import de.numcodex.feasibility_gui_backend.query.ratelimiting.InvalidAuthenticationException;
 import de.numcodex.feasibility_gui_backend.query.ratelimiting.RateLimitingService;
+import de.numcodex.feasibility_gui_backend.query.result.ResultUpdatePublisher;
 import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.core.Context;
 import java.net.URI;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -34,6 +38,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -45,6 +50,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
@@ -64,7 +70,10 @@ public class QueryHandlerRestController {
   private final RateLimitingService rateLimitingService;
   private final UserBlacklistRepository userBlacklistRepository;
   private final AuthenticationHelper authenticationHelper;
+  private final ResultUpdatePublisher resultUpdatePublisher;
   private final String apiBaseUrl;
+  private final Duration resultStreamTimeout;
+  private final ResultStreamLimiter resultStreamLimiter;
 
   @Value("${app.keycloakAdminRole}")
   private String keycloakAdminRole;
@@ -89,18 +98,27 @@ public class QueryHandlerRestController {
   @Value("${app.privacy.threshold.results}")
   private int privacyThresholdResults;
 
+  @Value("${app.queryResultBulkMaximumSize:100}")
+  private int queryResultBulkMaximumSize;
+
   public QueryHandlerRestController(QueryHandlerService queryHandlerService,
       RateLimitingService rateLimitingService,
       TermCodeValidation termCodeValidation,
       UserBlacklistRepository userBlacklistRepository,
       AuthenticationHelper authenticationHelper,
-      @Value("${app.apiBaseUrl}") String apiBaseUrl) {
+      ResultUpdatePublisher resultUpdatePublisher,
+      @Value("${app.apiBaseUrl}") String apiBaseUrl,
+      @Value("${app.queryResultStreamTimeoutMinutes:5}") int resultStreamTimeoutMinutes,
+      @Value("${app.queryResultStreamMaximumPerUser:5}") int resultStreamMaximumPerUser) {
     this.queryHandlerService = queryHandlerService;
     this.rateLimitingService = rateLimitingService;
     this.termCodeValidation = termCodeValidation;
     this.userBlacklistRepository = userBlacklistRepository;
     this.authenticationHelper = authenticationHelper;
+    this.resultUpdatePublisher = resultUpdatePublisher;
     this.apiBaseUrl = apiBaseUrl;
+    this.resultStreamTimeout = Duration.ofMinutes(resultStreamTimeoutMinutes);
+    this.resultStreamLimiter = new ResultStreamLimiter(resultStreamMaximumPerUser);
   }
 
   @PostMapping
@@ -218,6 +236,11 @@ public class QueryHandlerRestController {
     return queryHandlerService.convertQueriesToQueryListEntries(queryList);
   }
 
+  @GetMapping(WebSecurityConfig.PATH_INVALID_STORED)
+  public List<InvalidStoredQuery> getInvalidStoredQueries() {
+    return queryHandlerService.findInvalidStoredQueries();
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<Object> getQuery(@PathVariable("id") Long queryId,
       Authentication authentication) throws JsonProcessingException {
@@ -285,14 +308,77 @@ public class QueryHandlerRestController {
     }
     var queryResult = queryHandlerService.getQueryResult(queryId,
         ResultDetail.SUMMARY);
+    return new ResponseEntity<>(presentSummaryResult(queryResult), HttpStatus.OK);
+  }
+
+  /*
+  Streams the summary result as server-sent events. A new event is only sent when a site result changed the
+  summary result, so clients do not need to poll the summary result endpoint. Since streams are exempt from rate
+  limiting, the number of streams a user may have open at the same time is limited instead.
+  */
+  @GetMapping(value = "/{id}" + WebSecurityConfig.PATH_SUMMARY_RESULT + WebSecurityConfig.PATH_STREAM,
+      produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamSummaryQueryResult(
+      @PathVariable("id") Long queryId,
+      Authentication authentication) {
+    if (!hasAccess(queryId, authentication)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    var userId = authentication.getName();
+    if (!resultStreamLimiter.tryOpen(userId)) {
+      return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+    }
+    var emitter = new SseEmitter(resultStreamTimeout.toMillis());
+    var stream = new SummaryResultStream(emitter,
+        () -> queryHandlerService.getQueryResult(queryId, ResultDetail.SUMMARY),
+        this::presentSummaryResult);
+
+    resultUpdatePublisher.subscribe(queryId, stream);
+    emitter.onCompletion(() -> {
+      resultUpdatePublisher.unsubscribe(queryId, stream);
+      resultStreamLimiter.close(userId);
+    });
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(e -> resultUpdatePublisher.unsubscribe(queryId, stream));
+
+    stream.run();
+    return new ResponseEntity<>(emitter, HttpStatus.OK);
+  }
+
+  /*
+  Gets the summary results of several queries at once, e.g. for showing a list of queries. The same privacy
+  restrictions as for the summary result of a single query apply to each query.
+  */
+  @GetMapping(WebSecurityConfig.PATH_SUMMARY_RESULT)
+  public ResponseEntity<Object> getSummaryQueryResults(
+      @RequestParam("id") List<Long> queryIds,
+      Authentication authentication) {
+    var distinctQueryIds = queryIds.stream().distinct().toList();
+    if (distinctQueryIds.size() > queryResultBulkMaximumSize) {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    if (!hasAccess(distinctQueryIds, authentication)) {
+      return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+    }
+    var summaryResults = queryHandlerService.getSummaryQueryResults(distinctQueryIds).stream()
+        .map(queryResult -> queryResult.totalNumberOfPatients() < privacyThresholdResults
+            ? QuerySummaryResult.builder()
+                .queryId(queryResult.queryId())
+                .issues(List.of(FeasibilityIssue.PRIVACY_RESTRICTION_RESULT_SIZE))
+                .build()
+            : QuerySummaryResult.builder()
+                .queryId(queryResult.queryId())
+                .totalNumberOfPatients(queryResult.totalNumberOfPatients())
+                .build())
+        .toList();
+    return new ResponseEntity<>(summaryResults, HttpStatus.OK);
+  }
 
+  private Object presentSummaryResult(QueryResult queryResult) {
     if (queryResult.totalNumberOfPatients() < privacyThresholdResults) {
-      FeasibilityIssues issues = new FeasibilityIssues(List.of(FeasibilityIssue.PRIVACY_RESTRICTION_RESULT_SIZE));
-      return new ResponseEntity<>(
-          issues,
-          HttpStatus.OK);
+      return new FeasibilityIssues(List.of(FeasibilityIssue.PRIVACY_RESTRICTION_RESULT_SIZE));
     }
-    return new ResponseEntity<>(queryResult, HttpStatus.OK);
+    return queryResult;
   }
 
   @GetMapping("/{id}" + WebSecurityConfig.PATH_CONTENT)
@@ -315,15 +401,27 @@ public class QueryHandlerRestController {
   }
 
   private boolean hasAccess(Long queryId, Authentication authentication) {
-    Set<String> roles = authentication.getAuthorities().stream()
-        .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-
     try {
-      return (roles.contains(keycloakAdminRole)
+      return (isAdmin(authentication)
           || queryHandlerService.getAuthorId(queryId)
           .equalsIgnoreCase(authentication.getName()));
     } catch (QueryNotFoundException e) {
       return false;
     }
   }
+
+  private boolean hasAccess(List<Long> queryIds, Authentication authentication) {
+    if (isAdmin(authentication)) {
+      return true;
+    }
+    var authorIds = queryHandlerService.getAuthorIds(queryIds);
+    return queryIds.stream()
+        .allMatch(queryId -> authentication.getName().equalsIgnoreCase(authorIds.get(queryId)));
+  }
+
+  private boolean isAdmin(Authentication authentication) {
+    Set<String> roles = authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+    return roles.contains(keycloakAdminRole);
+  }
 }
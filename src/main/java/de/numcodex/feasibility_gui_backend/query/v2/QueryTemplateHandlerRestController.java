@@ -130,30 +130,8 @@ public class QueryTemplateHandlerRestController {
 
   @GetMapping(path = "/validate")
   public ResponseEntity<Object> validateTemplates(Principal principal) {
-
-    var queries = queryHandlerService.getQueryTemplatesForAuthor(principal.getName());
-    var ret = new ArrayList<QueryTemplate>();
-    queries.forEach(q -> {
-      try {
-        QueryTemplate convertedQuery = queryHandlerService.convertTemplatePersistenceToApi(q);
-        List<TermCode> invalidTermCodes = termCodeValidation.getInvalidTermCodes(
-            convertedQuery.content());
-        QueryTemplate convertedQueryWithoutContent = new QueryTemplate(
-            convertedQuery.id(),
-            null,
-            convertedQuery.label(),
-            convertedQuery.comment(),
-            convertedQuery.lastModified(),
-            convertedQuery.createdBy(),
-            convertedQuery.invalidTerms(),
-            invalidTermCodes.isEmpty()
-        );
-        ret.add(convertedQueryWithoutContent);
-      } catch (JsonProcessingException e) {
-        log.error("Error converting query");
-      }
-    });
-    return new ResponseEntity<>(ret, HttpStatus.OK);
+    var validatedTemplates = queryHandlerService.validateQueryTemplatesForAuthor(principal.getName());
+    return new ResponseEntity<>(validatedTemplates, HttpStatus.OK);
   }
 
 }
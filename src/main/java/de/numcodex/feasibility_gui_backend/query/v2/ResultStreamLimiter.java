@@ -0,0 +1,50 @@
+package de.numcodex.feasibility_gui_backend.query.v2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the number of result streams a single user may have open at the same time.
+ * <p>
+ * Result streams are long-lived and therefore exempt from rate limiting. Without a limit, a single user could keep an
+ * arbitrary number of connections and subscriptions open.
+ */
+class ResultStreamLimiter {
+
+  private final int maximumStreamsPerUser;
+  private final Map<String, Integer> openStreamsByUser = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new ResultStreamLimiter.
+   *
+   * @param maximumStreamsPerUser the maximum number of streams a single user may have open at the same time
+   */
+  ResultStreamLimiter(int maximumStreamsPerUser) {
+    this.maximumStreamsPerUser = maximumStreamsPerUser;
+  }
+
+  /**
+   * Opens a stream for a user unless the user already reached the maximum number of open streams.
+   *
+   * @param userId the user opening the stream
+   * @return whether the stream may be opened, in which case it has to be closed using {@link #close(String)}
+   */
+  boolean tryOpen(String userId) {
+    var opened = new boolean[1];
+    openStreamsByUser.compute(userId, (id, openStreams) -> {
+      var current = openStreams == null ? 0 : openStreams;
+      opened[0] = current < maximumStreamsPerUser;
+      return opened[0] ? current + 1 : openStreams;
+    });
+    return opened[0];
+  }
+
+  /**
+   * Closes a stream previously opened for a user.
+   *
+   * @param userId the user whose stream is closed
+   */
+  void close(String userId) {
+    openStreamsByUser.computeIfPresent(userId, (id, openStreams) -> openStreams > 1 ? openStreams - 1 : null);
+  }
+}
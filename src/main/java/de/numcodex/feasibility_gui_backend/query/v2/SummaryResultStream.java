@@ -0,0 +1,62 @@
+package de.numcodex.feasibility_gui_backend.query.v2;
+
+import de.numcodex.feasibility_gui_backend.query.api.QueryResult;
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams the summary result of a query to a client using server-sent events.
+ * <p>
+ * Each time it gets run, the current summary result is looked up and sent as a
+ * new event, unless the total number of patients did not change since the last
+ * event. Hence, clients only receive an event when a site result changed the
+ * aggregate.
+ */
+@Slf4j
+class SummaryResultStream implements Runnable {
+
+  static final String EVENT_NAME = "summary-result";
+
+  private final SseEmitter emitter;
+  private final Supplier<QueryResult> summaryResultSupplier;
+  private final Function<QueryResult, Object> summaryResultPresenter;
+  private Long lastTotalNumberOfPatients;
+
+  /**
+   * Creates a new SummaryResultStream.
+   *
+   * @param emitter                the emitter sending events to the client
+   * @param summaryResultSupplier  looks up the current summary result
+   * @param summaryResultPresenter converts a summary result into the payload of
+   *                               an event, e.g. applying privacy restrictions
+   */
+  SummaryResultStream(SseEmitter emitter, Supplier<QueryResult> summaryResultSupplier,
+      Function<QueryResult, Object> summaryResultPresenter) {
+    this.emitter = emitter;
+    this.summaryResultSupplier = summaryResultSupplier;
+    this.summaryResultPresenter = summaryResultPresenter;
+  }
+
+  @Override
+  public synchronized void run() {
+    var summaryResult = summaryResultSupplier.get();
+    if (lastTotalNumberOfPatients != null
+        && lastTotalNumberOfPatients == summaryResult.totalNumberOfPatients()) {
+      return;
+    }
+    try {
+      emitter.send(SseEmitter.event()
+          .name(EVENT_NAME)
+          .data(summaryResultPresenter.apply(summaryResult), MediaType.APPLICATION_JSON));
+      lastTotalNumberOfPatients = summaryResult.totalNumberOfPatients();
+    } catch (IOException | IllegalStateException e) {
+      log.debug("closing summary result stream of query '{}': {}", summaryResult.queryId(),
+          e.getMessage());
+      emitter.completeWithError(e);
+    }
+  }
+}
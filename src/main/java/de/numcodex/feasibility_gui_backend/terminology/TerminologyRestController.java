@@ -40,8 +40,9 @@ public class TerminologyRestController {
 
     @GetMapping("selectable-entries")
     public List<TerminologyEntry> getSelectableEntries(@RequestParam("query") String query,
-                                                       @RequestParam(value = "categoryId", required = false) UUID categoryId) {
-        return terminologyService.getSelectableEntries(query, categoryId);
+                                                       @RequestParam(value = "categoryId", required = false) UUID categoryId,
+                                                       @RequestParam(value = "searchMode", required = false, defaultValue = "PREFIX") TerminologySearchMode searchMode) {
+        return terminologyService.getSelectableEntries(query, categoryId, searchMode);
     }
 
     @GetMapping(value = "ui_profile", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -0,0 +1,268 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+import de.numcodex.feasibility_gui_backend.terminology.api.TerminologyEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable prefix index over selectable {@link TerminologyEntry terminology entries}.
+ * <p>
+ * An entry matches a search term if its display, any word of its display or any of its term codes starts with the
+ * search term. Displays are matched case-insensitively, term codes case-sensitively. Entries are ranked by the length
+ * of their display, so shorter (i.e. more general) entries come first.
+ * <p>
+ * All keys are kept in sorted arrays. A lookup is a binary search for the first key starting with the search term
+ * followed by a scan over all keys sharing this prefix. Matching entries are collected by rank, so that the best
+ * entries can be taken without sorting the matches.
+ * <p>
+ * Additionally, the index supports a fuzzy search ranking all entries by the dice coefficient of their display and the
+ * search term (see {@link TerminologyService#diceCoefficientOptimized(String, String)}). The sorted bigrams of every
+ * display and of every word of a display are computed once when building the index. Only the best entries are kept
+ * in a bounded heap while scoring, and large indices are scored in parallel.
+ */
+final class TerminologySearchIndex {
+
+  private static final Comparator<TerminologyEntry> RANKING = Comparator
+      .comparingInt((TerminologyEntry entry) -> displayOf(entry).length())
+      .thenComparing(TerminologySearchIndex::displayOf);
+
+  // Below this size, splitting the scoring into parallel tasks costs more than it saves.
+  private static final int PARALLEL_SCORING_THRESHOLD = 10_000;
+
+  private final TerminologyEntry[] entriesByRank;
+  private final BigramSignature[] signaturesByRank;
+  private final String[] displayKeys;
+  private final int[] displayKeyRanks;
+  private final String[] codeKeys;
+  private final int[] codeKeyRanks;
+
+  private TerminologySearchIndex(TerminologyEntry[] entriesByRank, List<Key> displayKeys, List<Key> codeKeys) {
+    this.entriesByRank = entriesByRank;
+    this.signaturesByRank = Arrays.stream(entriesByRank)
+        .map(entry -> BigramSignature.of(displayOf(entry).toLowerCase()))
+        .toArray(BigramSignature[]::new);
+    this.displayKeys = displayKeys.stream().map(Key::key).toArray(String[]::new);
+    this.displayKeyRanks = displayKeys.stream().mapToInt(Key::rank).toArray();
+    this.codeKeys = codeKeys.stream().map(Key::key).toArray(String[]::new);
+    this.codeKeyRanks = codeKeys.stream().mapToInt(Key::rank).toArray();
+  }
+
+  /**
+   * Builds an index over the given entries.
+   *
+   * @param entries the entries to index, equal entries are only indexed once
+   * @return the index
+   */
+  static TerminologySearchIndex of(Collection<TerminologyEntry> entries) {
+    var entriesByRank = new HashSet<>(entries).stream()
+        .sorted(RANKING)
+        .toArray(TerminologyEntry[]::new);
+
+    var displayKeys = new ArrayList<Key>();
+    var codeKeys = new ArrayList<Key>();
+    for (int rank = 0; rank < entriesByRank.length; rank++) {
+      var display = displayOf(entriesByRank[rank]).toLowerCase();
+      displayKeys.add(new Key(display, rank));
+      for (var word : new HashSet<>(List.of(display.split(" ")))) {
+        if (!word.equals(display)) {
+          displayKeys.add(new Key(word, rank));
+        }
+      }
+      for (var termCode : entriesByRank[rank].getTermCodes()) {
+        if (termCode != null && termCode.code() != null) {
+          codeKeys.add(new Key(termCode.code(), rank));
+        }
+      }
+    }
+    displayKeys.sort(Comparator.comparing(Key::key));
+    codeKeys.sort(Comparator.comparing(Key::key));
+    return new TerminologySearchIndex(entriesByRank, displayKeys, codeKeys);
+  }
+
+  /**
+   * Searches for the best entries matching the given search term.
+   *
+   * @param searchTerm the search term
+   * @param limit      the maximum number of entries to return
+   * @return the matching entries ordered by their rank
+   */
+  List<TerminologyEntry> search(String searchTerm, int limit) {
+    var matchingRanks = new BitSet(entriesByRank.length);
+    collectPrefixMatches(displayKeys, displayKeyRanks, searchTerm.toLowerCase(), matchingRanks);
+    collectPrefixMatches(codeKeys, codeKeyRanks, searchTerm, matchingRanks);
+
+    var matches = new ArrayList<TerminologyEntry>(Math.min(limit, matchingRanks.cardinality()));
+    for (int rank = matchingRanks.nextSetBit(0); rank >= 0 && matches.size() < limit;
+        rank = matchingRanks.nextSetBit(rank + 1)) {
+      matches.add(entriesByRank[rank]);
+    }
+    return matches;
+  }
+
+  /**
+   * Searches for the entries whose display is most similar to the given search term.
+   * <p>
+   * Entries are ordered by their dice coefficient. Entries with the same coefficient are ordered by their rank.
+   *
+   * @param searchTerm the search term
+   * @param limit      the maximum number of entries to return
+   * @return the most similar entries, best first
+   */
+  List<TerminologyEntry> fuzzySearch(String searchTerm, int limit) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    var searchTermSignature = BigramSignature.of(searchTerm.toLowerCase());
+    var ranks = IntStream.range(0, entriesByRank.length);
+    if (entriesByRank.length >= PARALLEL_SCORING_THRESHOLD) {
+      ranks = ranks.parallel();
+    }
+    var bestMatches = ranks.collect(() -> new BestMatches(limit),
+        (matches, rank) -> matches.offer(new ScoredRank(signaturesByRank[rank].similarity(searchTermSignature), rank)),
+        BestMatches::addAll);
+
+    return bestMatches.bestFirst().stream()
+        .map(scoredRank -> entriesByRank[scoredRank.rank()])
+        .toList();
+  }
+
+  int size() {
+    return entriesByRank.length;
+  }
+
+  private static void collectPrefixMatches(String[] keys, int[] ranks, String prefix, BitSet matchingRanks) {
+    for (int i = firstIndexNotBefore(keys, prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+      matchingRanks.set(ranks[i]);
+    }
+  }
+
+  // Arrays.binarySearch does not guarantee to find the first of several equal keys.
+  private static int firstIndexNotBefore(String[] keys, String prefix) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].compareTo(prefix) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static String displayOf(TerminologyEntry entry) {
+    return entry.getDisplay() == null ? "" : entry.getDisplay();
+  }
+
+  private record Key(String key, int rank) {
+  }
+
+  private record ScoredRank(double score, int rank) {
+  }
+
+  /**
+   * Keeps the best {@link ScoredRank scored ranks} offered to it using a bounded heap with the worst kept one on top.
+   */
+  private static final class BestMatches {
+
+    private static final Comparator<ScoredRank> WORST_FIRST = Comparator.comparingDouble(ScoredRank::score)
+        .thenComparing(Comparator.comparingInt(ScoredRank::rank).reversed());
+
+    private final int limit;
+    private final PriorityQueue<ScoredRank> heap;
+
+    private BestMatches(int limit) {
+      this.limit = limit;
+      this.heap = new PriorityQueue<>(limit, WORST_FIRST);
+    }
+
+    private void offer(ScoredRank scoredRank) {
+      if (heap.size() < limit) {
+        heap.add(scoredRank);
+      } else if (WORST_FIRST.compare(scoredRank, heap.peek()) > 0) {
+        heap.poll();
+        heap.add(scoredRank);
+      }
+    }
+
+    private void addAll(BestMatches other) {
+      other.heap.forEach(this::offer);
+    }
+
+    private List<ScoredRank> bestFirst() {
+      var scoredRanks = new ArrayList<>(heap);
+      scoredRanks.sort(WORST_FIRST.reversed());
+      return scoredRanks;
+    }
+  }
+
+  /**
+   * Precomputed sorted bigrams of a lowercased display and of each of its words. Each bigram is encoded as a single
+   * {@code int} holding both characters.
+   * <p>
+   * {@link #similarity(BigramSignature)} yields the same results as
+   * {@link TerminologyService#diceCoefficientOptimized(String, String)} without lowercasing, splitting and sorting on
+   * every comparison.
+   */
+  private record BigramSignature(String text, int[] bigrams, BigramSignature[] words) {
+
+    private static final BigramSignature[] NO_WORDS = new BigramSignature[0];
+
+    private static BigramSignature of(String text) {
+      var words = text.split(" ");
+      return new BigramSignature(text, bigramsOf(text), words.length > 1
+          ? Arrays.stream(words).map(word -> new BigramSignature(word, bigramsOf(word), NO_WORDS))
+          .toArray(BigramSignature[]::new)
+          : NO_WORDS);
+    }
+
+    private static int[] bigramsOf(String text) {
+      if (text.length() < 2) {
+        return new int[0];
+      }
+      var bigrams = new int[text.length() - 1];
+      for (int i = 0; i < bigrams.length; i++) {
+        bigrams[i] = text.charAt(i) << 16 | text.charAt(i + 1);
+      }
+      Arrays.sort(bigrams);
+      return bigrams;
+    }
+
+    private double similarity(BigramSignature other) {
+      if (text.equals(other.text)) {
+        return 1;
+      }
+      if (text.length() < 2 || other.text.length() < 2) {
+        return 0;
+      }
+
+      double result = 0;
+      for (var word : words) {
+        result = Math.max(result, word.similarity(other));
+      }
+
+      int matches = 0, i = 0, j = 0;
+      while (i < bigrams.length && j < other.bigrams.length) {
+        if (bigrams[i] == other.bigrams[j]) {
+          matches += 2;
+          i++;
+          j++;
+        } else if (bigrams[i] < other.bigrams[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      return Math.max(result, (double) matches / (bigrams.length + other.bigrams.length));
+    }
+  }
+}
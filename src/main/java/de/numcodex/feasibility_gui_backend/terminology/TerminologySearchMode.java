@@ -0,0 +1,15 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+/**
+ * Determines how selectable terminology entries are matched against a search term.
+ */
+public enum TerminologySearchMode {
+  /**
+   * Entries whose display, any word of their display or any of their term codes starts with the search term.
+   */
+  PREFIX,
+  /**
+   * Entries whose display is most similar to the search term, regardless of whether they actually contain it.
+   */
+  FUZZY
+}
@@ -2,9 +2,9 @@ package de.numcodex.feasibility_gui_backend.terminology;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
 import de.numcodex.feasibility_gui_backend.terminology.api.CategoryEntry;
 import de.numcodex.feasibility_gui_backend.terminology.api.TerminologyEntry;
-import de.numcodex.feasibility_gui_backend.terminology.db.UiProfileRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,21 +22,25 @@ import java.util.stream.Stream;
 public class TerminologyService {
 
   @Autowired
-  private UiProfileRepository uiProfileRepository;
+  private UiProfileCache uiProfileCache;
 
   private String uiProfilePath;
   private static final List<String> SORTED_CATEGORIES = List.of("Einwilligung", "Bioproben",
       "Diagnose", "Fall", "Laboruntersuchung", "Medikamentenverabreichungen", "Person", "Prozedur", "GECCO");
+  private static final int MAX_SELECTABLE_ENTRIES = 20;
   private Map<UUID, TerminologyEntry> terminologyEntries = new HashMap<>();
   private List<CategoryEntry> categoryEntries = new ArrayList<>();
   private Map<UUID, TerminologyEntry> terminologyEntriesWithOnlyDirectChildren = new HashMap<>();
   private Map<UUID, Set<TerminologyEntry>> selectableEntriesByCategory = new HashMap<>();
+  private Map<UUID, TerminologySearchIndex> searchIndexByCategory = new HashMap<>();
+  private TerminologySearchIndex searchIndex;
 
   public TerminologyService(@Value("${app.ontologyFolder}") String uiProfilePath) {
     this.uiProfilePath = uiProfilePath;
     readInTerminologyEntries();
     generateTerminologyEntriesWithoutDirectChildren();
     generateSelectableEntriesByCategory();
+    generateSearchIndices();
   }
 
   private void readInTerminologyEntries() {
@@ -107,6 +111,16 @@ public class TerminologyService {
     }
   }
 
+  private void generateSearchIndices() {
+    var allSelectableEntries = new ArrayList<TerminologyEntry>();
+    selectableEntriesByCategory.forEach((categoryId, selectableEntries) -> {
+      searchIndexByCategory.put(categoryId, TerminologySearchIndex.of(selectableEntries));
+      allSelectableEntries.addAll(selectableEntries);
+    });
+    searchIndex = TerminologySearchIndex.of(allSelectableEntries);
+    log.info("Indexed {} selectable terminology entries for search", searchIndex.size());
+  }
+
   //TODO: Unknown key!
   public TerminologyEntry getEntry(UUID nodeId) {
     return terminologyEntriesWithOnlyDirectChildren.get(nodeId);
@@ -119,64 +133,35 @@ public class TerminologyService {
   }
 
   public List<TerminologyEntry> getSelectableEntries(String query, UUID categoryId) {
-    if (categoryId != null) {
-      return selectableEntriesByCategory.get(categoryId).stream()
-          .filter((terminologyEntry -> matchesQuery(query, terminologyEntry))).sorted((Comparator
-              .comparingInt(val -> val.getDisplay().length()))).limit(20)
-          .collect(Collectors.toList());
-    } else {
-      Set<TerminologyEntry> allSelectableEntries = new HashSet<>();
-      for (var selectableEntries : selectableEntriesByCategory.values()) {
-        allSelectableEntries.addAll(selectableEntries);
-      }
-      System.out.println(allSelectableEntries.size());
-      return allSelectableEntries.stream()
-          .filter((terminologyEntry -> matchesQuery(query, terminologyEntry))).sorted((Comparator
-              .comparingInt(val -> val.getDisplay().length()))).limit(20)
-          .collect(Collectors.toList());
-    }
+    return getSelectableEntries(query, categoryId, TerminologySearchMode.PREFIX);
   }
 
-  public List<TerminologyEntry> getSelectableEntries2(String query, UUID categoryId) {
-    if (categoryId != null) {
-      return selectableEntriesByCategory.get(categoryId).stream()
-          .sorted(Comparator
-              .comparingDouble(
-                  (TerminologyEntry val) -> diceCoefficientOptimized(val.getDisplay(), query))
-              .reversed()).limit(20)
-          .collect(Collectors.toList());
-    } else {
-      Set<TerminologyEntry> allSelectableEntries = new HashSet<>();
-      for (var selectableEntries : selectableEntriesByCategory.values()) {
-        allSelectableEntries.addAll(selectableEntries);
-      }
-      System.out.println(allSelectableEntries.size());
-      return allSelectableEntries.stream()
-          .sorted(Comparator
-              .comparingDouble(
-                  (TerminologyEntry val) -> diceCoefficientOptimized(val.getDisplay(), query))
-              .reversed()).limit(20)
-          .collect(Collectors.toList());
+  public List<TerminologyEntry> getSelectableEntries(String query, UUID categoryId,
+      TerminologySearchMode searchMode) {
+    var categorySearchIndex = categoryId == null ? searchIndex : searchIndexByCategory.get(categoryId);
+    if (categorySearchIndex == null) {
+      return List.of();
     }
+    return switch (searchMode) {
+      case PREFIX -> categorySearchIndex.search(query, MAX_SELECTABLE_ENTRIES);
+      case FUZZY -> categorySearchIndex.fuzzySearch(query, MAX_SELECTABLE_ENTRIES);
+    };
   }
 
   public String getUiProfile(String system, String code, String version)
       throws NullPointerException {
-    if (Objects.nonNull(version)) {
-      if (uiProfileRepository.findUiProfileByCoding(system, code, version).size() > 0) {
-        return uiProfileRepository.findUiProfileByCoding(system, code, version).get(0)
-            .getUiProfile();
-      } else {
-        throw new NullPointerException("UI Profile not found");
-      }
-    } else {
-      if (uiProfileRepository.findUiProfileByCoding(system, code).size() > 0) {
-        return uiProfileRepository.findUiProfileByCoding(system, code).get(0).getUiProfile();
-      } else {
-        throw new NullPointerException("UI Profile not found");
-      }
-    }
+    return uiProfileCache.get(system, code, version)
+        .orElseThrow(() -> new NullPointerException("UI Profile not found"));
+  }
 
+  /**
+   * Finds all term codes without a UI profile, resolving all of them at once.
+   *
+   * @param termCodes the term codes to check
+   * @return the term codes without a UI profile in their given order, including duplicates
+   */
+  public List<TermCode> getTermCodesWithoutUiProfile(List<TermCode> termCodes) {
+    return uiProfileCache.findTermCodesWithoutUiProfile(termCodes);
   }
 
   public static double diceCoefficientOptimized(String s, String t) {
@@ -283,13 +268,4 @@ public class TerminologyService {
     return Arrays.stream(numbers)
         .min().orElse(Integer.MAX_VALUE);
   }
-
-
-  private boolean matchesQuery(String query, TerminologyEntry terminologyEntry) {
-    return terminologyEntry.getDisplay().toLowerCase().startsWith(query.toLowerCase()) ||
-        Arrays.stream(terminologyEntry.getDisplay().toLowerCase().split(" "))
-            .anyMatch(var -> var.startsWith(query.toLowerCase())) ||
-        (terminologyEntry.getTermCodes().stream().anyMatch(termCode -> termCode.code()
-            .startsWith(query)));
-  }
 }
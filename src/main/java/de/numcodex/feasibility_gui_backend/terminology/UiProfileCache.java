@@ -0,0 +1,160 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.terminology.db.UiProfileContent;
+import de.numcodex.feasibility_gui_backend.terminology.db.UiProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of UI profiles keyed by the coding (system, code and optional version) they belong to.
+ * <p>
+ * UI profiles are only loaded by database migrations, so they do not change while the backend is running. Hence,
+ * absent UI profiles are cached as well, though for a shorter duration. Once the application is ready, the cache is
+ * warmed with all UI profiles of the database.
+ */
+@Component
+@Slf4j
+public class UiProfileCache {
+
+  private final UiProfileRepository uiProfileRepository;
+  private final Cache<UiProfileKey, Optional<String>> uiProfiles;
+  private final boolean warmUpEnabled;
+
+  public UiProfileCache(UiProfileRepository uiProfileRepository,
+      @Value("${app.uiProfileCache.maximumSize:10000}") long maximumSize,
+      @Value("${app.uiProfileCache.expiryMinutes:1440}") long expiryMinutes,
+      @Value("${app.uiProfileCache.negativeExpiryMinutes:5}") long negativeExpiryMinutes,
+      @Value("${app.uiProfileCache.warmUp:true}") boolean warmUpEnabled) {
+    this.uiProfileRepository = uiProfileRepository;
+    this.warmUpEnabled = warmUpEnabled;
+    this.uiProfiles = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new UiProfileExpiry(Duration.ofMinutes(expiryMinutes),
+            Duration.ofMinutes(negativeExpiryMinutes)))
+        .build();
+  }
+
+  /**
+   * Gets the UI profile of a coding. If no version is given, the UI profile of any version of the coding is returned.
+   *
+   * @param system  the system of the coding
+   * @param code    the code of the coding
+   * @param version the version of the coding, may be {@code null}
+   * @return the UI profile or an empty {@link Optional} if there is none
+   */
+  public Optional<String> get(String system, String code, String version) {
+    return uiProfiles.get(new UiProfileKey(system, code, version), this::load);
+  }
+
+  /**
+   * Finds all term codes without a UI profile. Term codes are matched like in {@link #get(String, String, String)}.
+   * Term codes whose UI profiles are not cached yet are resolved at once using a single database query.
+   *
+   * @param termCodes the term codes to check
+   * @return the term codes without a UI profile in their given order, including duplicates
+   */
+  public List<TermCode> findTermCodesWithoutUiProfile(List<TermCode> termCodes) {
+    var uiProfilesByKey = uiProfiles.getAll(termCodes.stream().map(UiProfileKey::of).toList(), this::loadAll);
+    return termCodes.stream()
+        .filter(termCode -> uiProfilesByKey.get(UiProfileKey.of(termCode)).isEmpty())
+        .toList();
+  }
+
+  private Map<UiProfileKey, Optional<String>> loadAll(Set<? extends UiProfileKey> keys) {
+    var uiProfilesByKey = new HashMap<UiProfileKey, Optional<String>>();
+    keys.forEach(key -> uiProfilesByKey.put(key, Optional.empty()));
+
+    var codes = keys.stream()
+        .map(UiProfileKey::code)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    if (codes.isEmpty()) {
+      return uiProfilesByKey;
+    }
+
+    for (var uiProfileContent : uiProfileRepository.findUiProfilesByCodes(codes)) {
+      var uiProfile = Optional.of(uiProfileContent.getUiProfile());
+      uiProfilesByKey.computeIfPresent(new UiProfileKey(uiProfileContent.getSystem(), uiProfileContent.getCode(),
+          uiProfileContent.getVersion()), (key, absent) -> uiProfile);
+      uiProfilesByKey.computeIfPresent(new UiProfileKey(uiProfileContent.getSystem(), uiProfileContent.getCode(),
+          null), (key, previous) -> previous.isPresent() ? previous : uiProfile);
+    }
+    return uiProfilesByKey;
+  }
+
+  private Optional<String> load(UiProfileKey key) {
+    var uiProfileContents = key.version() == null
+        ? uiProfileRepository.findUiProfileByCoding(key.system(), key.code())
+        : uiProfileRepository.findUiProfileByCoding(key.system(), key.code(), key.version());
+    return uiProfileContents.stream()
+        .findFirst()
+        .map(UiProfileContent::getUiProfile);
+  }
+
+  /**
+   * Loads all UI profiles of the database into the cache.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    if (!warmUpEnabled) {
+      return;
+    }
+    try {
+      var uiProfileContents = uiProfileRepository.findAll();
+      for (var uiProfileContent : uiProfileContents) {
+        var uiProfile = Optional.of(uiProfileContent.getUiProfile());
+        uiProfiles.put(new UiProfileKey(uiProfileContent.getSystem(), uiProfileContent.getCode(),
+            uiProfileContent.getVersion()), uiProfile);
+        uiProfiles.asMap().putIfAbsent(new UiProfileKey(uiProfileContent.getSystem(), uiProfileContent.getCode(),
+            null), uiProfile);
+      }
+      log.info("Warmed UI profile cache with {} UI profiles", uiProfileContents.size());
+    } catch (RuntimeException e) {
+      log.error("Could not warm UI profile cache. UI profiles will be loaded on demand", e);
+    }
+  }
+
+  private record UiProfileKey(String system, String code, String version) {
+
+    private static UiProfileKey of(TermCode termCode) {
+      return new UiProfileKey(termCode.system(), termCode.code(), termCode.version());
+    }
+  }
+
+  private record UiProfileExpiry(Duration expiry, Duration negativeExpiry)
+      implements Expiry<UiProfileKey, Optional<String>> {
+
+    @Override
+    public long expireAfterCreate(UiProfileKey key, Optional<String> uiProfile, long currentTime) {
+      return (uiProfile.isPresent() ? expiry : negativeExpiry).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(UiProfileKey key, Optional<String> uiProfile, long currentTime,
+        long currentDuration) {
+      return expireAfterCreate(key, uiProfile, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(UiProfileKey key, Optional<String> uiProfile, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package de.numcodex.feasibility_gui_backend.terminology.db;
 
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,4 +13,7 @@ public interface UiProfileRepository extends JpaRepository<UiProfileContent, Lon
 
     @Query("from UI_PROFILE u where u.system = :system and u.code = :code")
     List<UiProfileContent> findUiProfileByCoding(@Param("system") String system, @Param("code") String code);
+
+    @Query("from UI_PROFILE u where u.code in :codes")
+    List<UiProfileContent> findUiProfilesByCodes(@Param("codes") Collection<String> codes);
 }
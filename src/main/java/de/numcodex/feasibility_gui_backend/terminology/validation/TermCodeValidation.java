@@ -4,9 +4,11 @@ import de.numcodex.feasibility_gui_backend.common.api.Criterion;
 import de.numcodex.feasibility_gui_backend.common.api.TermCode;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.feasibility_gui_backend.terminology.TerminologyService;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,38 +35,43 @@ public class TermCodeValidation {
    * @return a list of term codes that are no longer valid (or have never been)
    */
   public List<TermCode> getInvalidTermCodes(StructuredQuery structuredQuery) {
-    var invalidTermCodes = new ArrayList<TermCode>();
+    return getInvalidTermCodes(List.of(structuredQuery)).get(0);
+  }
 
-    List<List<Criterion>> combinedCriteria;
+  /**
+   * Check several structured queries for invalid/outdated termcodes at once.
+   *
+   * The term codes of all queries are resolved together, so that validating many stored queries
+   * does not cost more lookups than validating a single large one.
+   *
+   * @param structuredQueries the structured queries to check
+   * @return for each of the given queries, in the same order, the list of term codes that are no
+   * longer valid (or have never been)
+   */
+  public List<List<TermCode>> getInvalidTermCodes(List<StructuredQuery> structuredQueries) {
+    var termCodesByQuery = structuredQueries.stream()
+        .map(this::getTermCodes)
+        .toList();
 
-    if (structuredQuery.exclusionCriteria() != null && !structuredQuery.exclusionCriteria().isEmpty()) {
-      combinedCriteria = Stream.of(
-          structuredQuery.inclusionCriteria(),
-          structuredQuery.exclusionCriteria()).flatMap(
-          Collection::stream).toList();
-    } else {
-      combinedCriteria = structuredQuery.inclusionCriteria();
-    }
+    // Term codes are compared by identity since their equality ignores the version.
+    var invalidTermCodes = Collections.newSetFromMap(new IdentityHashMap<TermCode, Boolean>());
+    invalidTermCodes.addAll(terminologyService.getTermCodesWithoutUiProfile(
+        termCodesByQuery.stream().flatMap(List::stream).toList()));
+    invalidTermCodes.forEach(termCode -> log.debug("termcode invalid: {} - {} - {}",
+        termCode.system(), termCode.code(), termCode.version()));
 
-    for (List<Criterion> criterionList : combinedCriteria) {
-      for (Criterion criterion : criterionList) {
-        for (TermCode termCode : criterion.termCodes()) {
-          try {
-            terminologyService.getUiProfile(termCode.system(),
-                termCode.code(),
-                termCode.version());
-            log.trace("termcode ok: {} - {} - {}", termCode.system(), termCode.code(),
-                termCode.version());
-          } catch (NullPointerException e) {
-            // currently, terminology service throws a NPE when the code is not found
-            log.debug("termcode invalid: {} - {} - {}", termCode.system(), termCode.code(),
-                termCode.version());
-            invalidTermCodes.add(termCode);
-          }
-        }
-      }
-    }
+    return termCodesByQuery.stream()
+        .map(termCodes -> termCodes.stream().filter(invalidTermCodes::contains).toList())
+        .toList();
+  }
 
-    return invalidTermCodes;
+  private List<TermCode> getTermCodes(StructuredQuery structuredQuery) {
+    return Stream.of(structuredQuery.inclusionCriteria(), structuredQuery.exclusionCriteria())
+        .filter(Objects::nonNull)
+        .flatMap(Collection::stream)
+        .flatMap(Collection::stream)
+        .map(Criterion::termCodes)
+        .flatMap(Collection::stream)
+        .toList();
   }
 }
@@ -0,0 +1,18 @@
+-- Lets backend instances sharing the database learn about results received by other instances. Notifications are
+-- only delivered once the inserting transaction commits. They carry the persisted result line as
+-- "<query_id>,<result_type>,<result>,<site_name>", so that receivers don't have to load it again. The site name comes
+-- last since it may contain commas.
+CREATE FUNCTION notify_query_result_line_inserted() RETURNS trigger AS
+$$
+BEGIN
+    PERFORM pg_notify('query_result_line_inserted',
+                      concat_ws(',', NEW.query_id, NEW.result_type, NEW.result, NEW.site_name));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER query_result_line_inserted
+    AFTER INSERT
+    ON query_result_line
+    FOR EACH ROW
+EXECUTE FUNCTION notify_query_result_line_inserted();
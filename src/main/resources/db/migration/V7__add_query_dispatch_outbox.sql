@@ -0,0 +1,14 @@
+CREATE TABLE query_dispatch_outbox_entry
+(
+    id              SERIAL PRIMARY KEY,
+    query_id        INTEGER   NOT NULL REFERENCES query (id) ON DELETE CASCADE,
+    broker_type     TEXT      NOT NULL,
+    status          TEXT      NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER   NOT NULL DEFAULT 0,
+    next_attempt_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error      TEXT,
+    created_at      timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (query_id, broker_type)
+);
+
+CREATE INDEX query_dispatch_outbox_entry_due_idx ON query_dispatch_outbox_entry (status, next_attempt_at);
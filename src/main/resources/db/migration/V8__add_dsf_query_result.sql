@@ -0,0 +1,10 @@
+CREATE TABLE dsf_query_result
+(
+    broker_query_id TEXT      NOT NULL,
+    site_id         TEXT      NOT NULL,
+    measure_count   INTEGER   NOT NULL,
+    received_at     timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (broker_query_id, site_id)
+);
+
+CREATE INDEX dsf_query_result_received_at_idx ON dsf_query_result (received_at);
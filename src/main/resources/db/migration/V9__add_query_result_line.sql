@@ -0,0 +1,13 @@
+-- Results are only persisted if explicitly enabled, see app.queryResultPersistence. Otherwise, they are kept in
+-- memory only as introduced by V5__remove_result_and_site.sql.
+CREATE TABLE query_result_line
+(
+    query_id    INTEGER   NOT NULL REFERENCES query (id) ON DELETE CASCADE,
+    site_name   TEXT      NOT NULL,
+    result_type TEXT      NOT NULL,
+    result      BIGINT    NOT NULL,
+    received_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (query_id, site_name)
+);
+
+CREATE INDEX query_result_line_received_at_idx ON query_result_line (received_at);
@@ -13,16 +13,24 @@ import de.numcodex.feasibility_gui_backend.query.result.ResultService;
 import de.numcodex.feasibility_gui_backend.query.result.ResultServiceSpringConfig;
 import de.numcodex.feasibility_gui_backend.query.templates.QueryTemplateHandler;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslatorSpringConfig;
+import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import java.util.List;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import static de.numcodex.feasibility_gui_backend.query.QueryHandlerService.ResultDetail.DETAILED;
 import static de.numcodex.feasibility_gui_backend.query.QueryHandlerService.ResultDetail.DETAILED_OBFUSCATED;
@@ -58,6 +66,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 @Testcontainers
 public class QueryHandlerServiceIT {
 
+    // Dispatch on the test thread so that dispatches take part in the test transaction.
+    @TestConfiguration
+    static class ImmediateDispatchConfig {
+
+        @Bean
+        @Primary
+        @Qualifier("dispatch")
+        Scheduler immediateDispatchScheduler() {
+            return Schedulers.immediate();
+        }
+    }
+
     public static final String SITE_NAME_1 = "site-name-114606";
     public static final String SITE_NAME_2 = "site-name-114610";
     public static final String CREATOR = "creator-114634";
@@ -75,6 +95,9 @@ public class QueryHandlerServiceIT {
     @Autowired
     private ResultService resultService;
 
+    @MockBean
+    private TermCodeValidation termCodeValidation;
+
     @Test
     public void testRunQuery() {
         var testStructuredQuery = new StructuredQuery(null, List.of(List.of()), List.of(List.of()), null);
@@ -0,0 +1,46 @@
+package de.numcodex.feasibility_gui_backend.query.api.validation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("query")
+@Tag("api")
+@Tag("validation")
+public class JsonSchemaSubjectTest {
+
+  @Test
+  public void testOf_ConvertsTreeIntoEquivalentJsonObject() throws JsonProcessingException {
+    var json = """
+        {"version": "http://to_be_decided.com/draft-2/schema#", "value": 50.5, "count": 3, "flag": true,
+         "missing": null, "criteria": [[{"code": "27113001"}], []]}
+        """;
+
+    var subject = JsonSchemaSubject.of(new ObjectMapper().readTree(json));
+
+    var jsonObject = assertInstanceOf(JSONObject.class, subject);
+    assertTrue(jsonObject.similar(new JSONObject(json)));
+  }
+
+  @Test
+  public void testOf_ConvertsTopLevelArray() throws JsonProcessingException {
+    var subject = JsonSchemaSubject.of(new ObjectMapper().readTree("[1, \"a\"]"));
+
+    var jsonArray = assertInstanceOf(JSONArray.class, subject);
+    assertEquals(2, jsonArray.length());
+    assertEquals(1, jsonArray.get(0));
+    assertEquals("a", jsonArray.get(1));
+  }
+
+  @Test
+  public void testOf_ConvertsNullIntoJsonNull() {
+    assertEquals(JSONObject.NULL, JsonSchemaSubject.of(null));
+  }
+}
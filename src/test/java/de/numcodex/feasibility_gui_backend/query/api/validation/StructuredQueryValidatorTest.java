@@ -7,6 +7,7 @@ import de.numcodex.feasibility_gui_backend.common.api.Unit;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
 import de.numcodex.feasibility_gui_backend.query.api.TimeRestriction;
 import de.numcodex.feasibility_gui_backend.query.api.ValueFilter;
+import org.everit.json.schema.Schema;
 import org.everit.json.schema.loader.SchemaLoader;
 import org.json.JSONObject;
 import org.json.JSONTokener;
@@ -18,7 +19,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import jakarta.validation.ConstraintValidatorContext;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
@@ -27,6 +27,10 @@ import static de.numcodex.feasibility_gui_backend.common.api.Comparator.GREATER_
 import static de.numcodex.feasibility_gui_backend.query.api.ValueFilterType.QUANTITY_COMPARATOR;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @Tag("query")
 @Tag("api")
@@ -39,8 +43,11 @@ public class StructuredQueryValidatorTest {
   private ConstraintValidatorContext constraintValidatorContext;
 
   @BeforeAll
-  public static void setUp() throws IOException {
-    var jsonUtil = new ObjectMapper();
+  public static void setUp() {
+    validator = new StructuredQueryValidator(loadSchema(), new ObjectMapper(), 0);
+  }
+
+  private static Schema loadSchema() {
     InputStream inputStream = StructuredQueryValidator.class.getResourceAsStream(
         "/de/numcodex/feasibility_gui_backend/query/api/validation/query-schema.json");
     var jsonSchema = new JSONObject(new JSONTokener(inputStream));
@@ -48,8 +55,7 @@ public class StructuredQueryValidatorTest {
         .schemaJson(jsonSchema)
         .draftV7Support()
         .build();
-    var schema = loader.load().build();
-    validator = new StructuredQueryValidator(schema, jsonUtil);
+    return loader.load().build();
   }
 
   @Test
@@ -89,6 +95,38 @@ public class StructuredQueryValidatorTest {
         validator.isValid(queryWithTimeRestrictionsWithoutDates, constraintValidatorContext));
   }
 
+  @Test
+  public void testValidate_repeatedQueryIsOnlyValidatedOnce() {
+    var schema = mock(Schema.class);
+    var cachingValidator = new StructuredQueryValidator(schema, new ObjectMapper(), 10);
+
+    assertTrue(cachingValidator.isValid(buildValidQuery(), constraintValidatorContext));
+    assertTrue(cachingValidator.isValid(buildValidQuery(), constraintValidatorContext));
+    verify(schema, times(1)).validate(any());
+
+    cachingValidator.isValid(buildInvalidQueryWithoutVersion(), constraintValidatorContext);
+    verify(schema, times(2)).validate(any());
+  }
+
+  @Test
+  public void testValidate_repeatedQueryIsValidatedAgainWithoutCache() {
+    var schema = mock(Schema.class);
+    var nonCachingValidator = new StructuredQueryValidator(schema, new ObjectMapper(), 0);
+
+    assertTrue(nonCachingValidator.isValid(buildValidQuery(), constraintValidatorContext));
+    assertTrue(nonCachingValidator.isValid(buildValidQuery(), constraintValidatorContext));
+    verify(schema, times(2)).validate(any());
+  }
+
+  @Test
+  public void testValidate_cachedResultOfInvalidQueryStaysInvalid() {
+    var cachingValidator = new StructuredQueryValidator(loadSchema(), new ObjectMapper(), 10);
+
+    assertFalse(cachingValidator.isValid(buildInvalidQueryWithEmptyTermCodeDisplays(), constraintValidatorContext));
+    assertFalse(cachingValidator.isValid(buildInvalidQueryWithEmptyTermCodeDisplays(), constraintValidatorContext));
+    assertTrue(cachingValidator.isValid(buildValidQuery(), constraintValidatorContext));
+  }
+
   private StructuredQuery buildValidQuery() {
     var bodyWeightTermCode = new TermCode("27113001", "http://snomed.info/sct", "v1", "Body weight (observable entity)");
     var kgUnit = new Unit("kg", "kilogram");
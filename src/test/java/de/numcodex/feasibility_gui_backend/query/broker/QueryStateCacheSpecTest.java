@@ -0,0 +1,51 @@
+package de.numcodex.feasibility_gui_backend.query.broker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class QueryStateCacheSpecTest {
+
+  @Test
+  void testBuild_IsBoundedBySize() {
+    var meterRegistry = new SimpleMeterRegistry();
+    var cache = new QueryStateCacheSpec(Duration.ofMinutes(10), 10, meterRegistry).<Integer, Integer>build("test");
+
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, i);
+    }
+    cache.cleanUp();
+
+    assertEquals(10, cache.estimatedSize());
+    var evictions = meterRegistry.find("cache.evictions").tag("cache", "test").functionCounter();
+    assertNotNull(evictions);
+    assertEquals(90, evictions.count());
+  }
+
+  @Test
+  void testBuild_IsSafeForConcurrentUse() throws InterruptedException {
+    var cache = new QueryStateCacheSpec(Duration.ofMinutes(10), 1000, new SimpleMeterRegistry())
+        .<Integer, Integer>build("test").asMap();
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      for (int i = 0; i < 10_000; i++) {
+        var key = i % 100;
+        executor.submit(() -> cache.merge(key, 1, Integer::sum));
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    assertEquals(100, cache.size());
+    cache.values().forEach(count -> assertEquals(100, count));
+  }
+}
@@ -1,16 +1,27 @@
 package de.numcodex.feasibility_gui_backend.query.broker.aktin;
 
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aktin.broker.client2.BrokerAdmin2;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 
@@ -20,9 +31,16 @@ public class AktinBrokerClientTest {
     @Mock
     private BrokerAdmin2 delegate;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
     private AktinBrokerClient client;
 
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        client = new AktinBrokerClient(delegate, new QueryStateCacheSpec(Duration.ofMinutes(10), 1000, meterRegistry));
+    }
+
     @Test
     public void testGetResultFeasibility_ReturnsActualPeerResultIfParsable() throws IOException {
         when(delegate.getResultString(anyInt(), anyInt())).thenReturn("5");
@@ -38,4 +56,31 @@ public class AktinBrokerClientTest {
         var result = assertDoesNotThrow(() -> client.getResultFeasibility("1", "1"));
         assertEquals(0, result);
     }
+
+    @Test
+    public void testBackendQueryIds_AreSafeForConcurrentUse() throws IOException, InterruptedException {
+        var requestIds = new AtomicInteger();
+        when(delegate.createRequest()).thenAnswer(invocation -> requestIds.incrementAndGet());
+
+        Map<String, Long> backendQueryIds = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (long i = 0; i < 500; i++) {
+                var backendQueryId = i;
+                executor.submit(() -> backendQueryIds.put(assertDoesNotThrow(() -> client.createQuery(backendQueryId)),
+                        backendQueryId));
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(500, backendQueryIds.size());
+        backendQueryIds.forEach((brokerQueryId, backendQueryId) ->
+                assertEquals(backendQueryId, client.getBackendQueryId(brokerQueryId)));
+        var hits = meterRegistry.find("cache.gets").tag("cache", "aktin.backendQueryIds").tag("result", "hit")
+                .functionCounter();
+        assertNotNull(hits);
+        assertEquals(500, hits.count());
+    }
 }
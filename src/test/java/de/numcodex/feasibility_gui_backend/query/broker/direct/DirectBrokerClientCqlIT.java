@@ -12,10 +12,13 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.rest.client.api.IGenericClient;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.stream.Stream;
 import org.hl7.fhir.r4.model.Enumerations.AdministrativeGender;
 import org.hl7.fhir.r4.model.Patient;
@@ -52,14 +55,15 @@ class DirectBrokerClientCqlIT {
     private final FhirContext fhirContext = FhirContext.forR4();
 
     @BeforeAll
-    void setUp() {
+    void setUp() throws IOException {
         blaze.start();
         fhirContext.getRestfulClientFactory().setSocketTimeout(200 * 1000);
         IGenericClient fhirClient = fhirContext.newRestfulGenericClient(
             format("http://localhost:%d/fhir", blaze.getFirstMappedPort()));
         FhirConnector fhirConnector = new FhirConnector(fhirClient);
         FhirHelper fhirHelper = new FhirHelper(fhirContext);
-        client = new DirectBrokerClientCql(fhirConnector, false, fhirHelper);
+        client = new DirectBrokerClientCql(fhirConnector, false, fhirHelper,
+                new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
 
         Stream.of(
             new Patient().setGender(AdministrativeGender.MALE),
@@ -15,10 +15,13 @@ import static org.mockito.Mockito.when;
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.time.Duration;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.MeasureReport;
 import org.junit.jupiter.api.BeforeEach;
@@ -47,7 +50,8 @@ class DirectBrokerClientCqlTest {
 
     @BeforeEach
     void setUp() {
-        client = new DirectBrokerClientCql(fhirConnector, false, fhirHelper);
+        client = new DirectBrokerClientCql(fhirConnector, false, fhirHelper,
+                new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -96,15 +100,6 @@ class DirectBrokerClientCqlTest {
         assertThrows(QueryDefinitionNotFoundException.class, () -> client.publishQuery(queryId));
     }
 
-    @Test
-    void testPublishExistingQueryWithIOExceptionInCreateBundle() throws Exception {
-        var queryId = client.createQuery(TEST_BACKEND_QUERY_ID);
-        client.addQueryDefinition(queryId, QueryMediaType.CQL, EXAMPLE_CQL);
-        when(fhirHelper.createBundle(eq(EXAMPLE_CQL), any(String.class), any(String.class))).thenThrow(IOException.class);
-
-        assertThrows(IOException.class, () -> client.publishQuery(queryId));
-    }
-
     @Test
     void testPublishExistingQueryWithIOExceptionInTransmitBundle() throws Exception {
         var queryId = client.createQuery(TEST_BACKEND_QUERY_ID);
@@ -2,9 +2,11 @@ package de.numcodex.feasibility_gui_backend.query.broker.direct;
 
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -16,6 +18,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Duration;
 
 import static de.numcodex.feasibility_gui_backend.query.QueryMediaType.STRUCTURED_QUERY;
 import static de.numcodex.feasibility_gui_backend.query.collect.QueryStatus.COMPLETED;
@@ -41,7 +44,7 @@ class DirectBrokerClientFlareIT {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
         webClient = WebClient.create(mockWebServer.url("/").toString());
-        client = new DirectBrokerClientFlare(webClient, false);
+        client = new DirectBrokerClientFlare(webClient, false, new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
     }
 
     @AfterEach
@@ -2,7 +2,10 @@ package de.numcodex.feasibility_gui_backend.query.broker.direct;
 
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +13,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,11 +29,13 @@ class DirectBrokerClientFlareTest {
     @Mock
     WebClient webClient;
 
+    SimpleMeterRegistry meterRegistry;
     DirectBrokerClientFlare client;
 
     @BeforeEach
     void setUp() {
-        client = new DirectBrokerClientFlare(webClient, false);
+        meterRegistry = new SimpleMeterRegistry();
+        client = new DirectBrokerClientFlare(webClient, false, new QueryStateCacheSpec(Duration.ofMinutes(10), 1000, meterRegistry));
 
     }
 
@@ -82,4 +92,29 @@ class DirectBrokerClientFlareTest {
 
         assertTrue(resultSiteIds.isEmpty());
     }
+
+    @Test
+    void testQueryState_IsSafeForConcurrentUse() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (long i = 0; i < 500; i++) {
+                var backendQueryId = i;
+                executor.submit(() -> {
+                    var queryId = client.createQuery(backendQueryId);
+                    assertDoesNotThrow(() -> client.addQueryDefinition(queryId, QueryMediaType.STRUCTURED_QUERY, "{}"));
+                    assertDoesNotThrow(() -> assertEquals(backendQueryId, client.findQuery(queryId).getBackendQueryId()));
+                    assertDoesNotThrow(() -> client.closeQuery(queryId));
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, client.brokerQueries.estimatedSize());
+        var hits = meterRegistry.find("cache.gets").tag("cache", "direct.brokerQueries").tag("result", "hit")
+                .functionCounter();
+        assertNotNull(hits);
+        assertEquals(1000, hits.count());
+    }
 }
@@ -1,7 +1,9 @@
 package de.numcodex.feasibility_gui_backend.query.broker.direct;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import ca.uhn.fhir.context.FhirContext;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Library;
@@ -21,7 +23,7 @@ public class FhirHelperTest {
   FhirHelper fhirHelper;
 
   @BeforeEach
-  void setUp() {
+  void setUp() throws IOException {
 
     FhirContext fhirContext = FhirContext.forR4();
     this.fhirHelper = new FhirHelper(fhirContext);
@@ -40,4 +42,18 @@ public class FhirHelperTest {
     assertEquals(CQL_STRING, s);
   }
 
+  @Test
+  void testCreateBundleDoesNotShareTemplates() {
+    Bundle first = fhirHelper.createBundle(CQL_STRING, LIBRARY_URI, MEASURE_URI);
+    Bundle second = fhirHelper.createBundle("other-cql-string", "uri:2-library", "uri:2-measure");
+
+    Library firstLibrary = (Library) first.getEntry().get(0).getResource();
+    Measure firstMeasure = (Measure) first.getEntry().get(1).getResource();
+    assertNotSame(firstLibrary, second.getEntry().get(0).getResource());
+    assertNotSame(firstMeasure, second.getEntry().get(1).getResource());
+    assertEquals(LIBRARY_URI, firstLibrary.getUrl());
+    assertEquals(1, firstMeasure.getLibrary().size());
+    assertEquals(CQL_STRING, new String(firstLibrary.getContentFirstRep().getData(), StandardCharsets.UTF_8));
+  }
+
 }
@@ -1,22 +1,38 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(MockitoExtension.class)
 public class DSFBrokerClientTest {
 
-    @InjectMocks
+    @Mock
+    private QueryManager queryManager;
+
+    @Mock
+    private QueryResultCollector queryResultCollector;
+
     private DSFBrokerClient client;
 
+    @BeforeEach
+    public void setUp() {
+        client = new DSFBrokerClient(queryManager, queryResultCollector,
+                new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"my-site", "something", "identity", "Site 1"})
     public void testGetSiteName_IsIdentity(String siteId) throws SiteNotFoundException {
@@ -0,0 +1,74 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import ca.uhn.fhir.context.FhirContext;
+import org.highmed.fhir.client.FhirWebserviceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DSFFhirWebClientProviderTest {
+
+    @Mock
+    private FhirSecurityContextProvider securityContextProvider;
+
+    private DSFFhirWebClientProvider webClientProvider;
+
+    @BeforeEach
+    public void setUp() {
+        webClientProvider = new DSFFhirWebClientProvider(FhirContext.forR4(), "https://localhost/fhir", 1000, 1000,
+                "wss://localhost/fhir/ws", securityContextProvider, new FhirProxyContext(null, null, null));
+    }
+
+    @Test
+    public void testProvideFhirWebserviceClient_IsShared() throws Exception {
+        when(securityContextProvider.provideSecurityContext()).thenReturn(createSecurityContext());
+
+        var tasks = new ArrayList<Callable<FhirWebserviceClient>>();
+        for (int i = 0; i < 16; i++) {
+            tasks.add(webClientProvider::provideFhirWebserviceClient);
+        }
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var clients = executor.invokeAll(tasks);
+            var expectedClient = webClientProvider.provideFhirWebserviceClient();
+            for (var client : clients) {
+                assertSame(expectedClient, client.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(securityContextProvider, times(1)).provideSecurityContext();
+    }
+
+    @Test
+    public void testProvideFhirWebserviceClient_IsRetriedAfterFailure() throws Exception {
+        when(securityContextProvider.provideSecurityContext())
+                .thenThrow(new FhirSecurityContextProvisionException(new RuntimeException("keystore unavailable")))
+                .thenReturn(createSecurityContext());
+
+        assertThrows(FhirWebClientProvisionException.class, webClientProvider::provideFhirWebserviceClient);
+        assertSame(webClientProvider.provideFhirWebserviceClient(), webClientProvider.provideFhirWebserviceClient());
+    }
+
+    private FhirSecurityContext createSecurityContext() throws Exception {
+        var keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        var trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        return new FhirSecurityContext(keyStore, trustStore, new char[0]);
+    }
+}
@@ -0,0 +1,162 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import org.highmed.fhir.client.FhirWebserviceClient;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.MeasureReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static de.numcodex.feasibility_gui_backend.query.broker.dsf.DSFMeasureReportCleaner.MAX_DELETION_ATTEMPTS;
+import static org.hl7.fhir.r4.model.Bundle.BundleType.BATCH;
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.DELETE;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DSFMeasureReportCleanerTest {
+
+    @Mock
+    private FhirWebClientProvider fhirWebClientProvider;
+
+    @Mock
+    private FhirWebserviceClient fhirWebserviceClient;
+
+    @Captor
+    private ArgumentCaptor<Bundle> bundleCaptor;
+
+    private DSFMeasureReportCleaner cleaner;
+
+    @BeforeEach
+    public void setUp() throws FhirWebClientProvisionException {
+        lenient().when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirWebserviceClient);
+        cleaner = new DSFMeasureReportCleaner(fhirWebClientProvider, 2, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cleaner.close();
+    }
+
+    @Test
+    public void testFlush_DeletesPendingMeasureReportsUsingBatches() {
+        when(fhirWebserviceClient.postBundle(any())).thenAnswer(invocation -> batchResponse(invocation.getArgument(0)));
+        cleaner.scheduleDeletion("a");
+        cleaner.scheduleDeletion("b");
+        cleaner.scheduleDeletion("c");
+
+        cleaner.flush();
+
+        verify(fhirWebserviceClient, times(2)).postBundle(bundleCaptor.capture());
+        var batches = bundleCaptor.getAllValues();
+        assertEquals(BATCH, batches.get(0).getType());
+        assertEquals(List.of("MeasureReport/a", "MeasureReport/b"), deletedUrls(batches.get(0)));
+        assertEquals(List.of("MeasureReport/c"), deletedUrls(batches.get(1)));
+        verify(fhirWebserviceClient).deletePermanently(MeasureReport.class, "a");
+        verify(fhirWebserviceClient).deletePermanently(MeasureReport.class, "b");
+        verify(fhirWebserviceClient).deletePermanently(MeasureReport.class, "c");
+    }
+
+    @Test
+    public void testFlush_WithoutPendingMeasureReportsDoesNothing() {
+        cleaner.flush();
+
+        verify(fhirWebserviceClient, never()).postBundle(any());
+    }
+
+    @Test
+    public void testFlush_FailingBatchDoesNotThrow() {
+        when(fhirWebserviceClient.postBundle(any())).thenThrow(new RuntimeException("server unavailable"));
+        cleaner.scheduleDeletion("a");
+
+        assertDoesNotThrow(() -> cleaner.flush());
+        verify(fhirWebserviceClient, never()).deletePermanently(MeasureReport.class, "a");
+    }
+
+    @Test
+    public void testFlush_RetriesOnlyFailedDeletionsWithNextFlush() {
+        when(fhirWebserviceClient.postBundle(any()))
+                .thenAnswer(invocation -> batchResponse(invocation.getArgument(0), "204 No Content", "500 Server Error"))
+                .thenAnswer(invocation -> batchResponse(invocation.getArgument(0)));
+        cleaner.scheduleDeletion("a");
+        cleaner.scheduleDeletion("b");
+
+        cleaner.flush();
+        cleaner.flush();
+
+        verify(fhirWebserviceClient, times(2)).postBundle(bundleCaptor.capture());
+        assertEquals(List.of("MeasureReport/b"), deletedUrls(bundleCaptor.getAllValues().get(1)));
+        verify(fhirWebserviceClient).deletePermanently(MeasureReport.class, "a");
+        verify(fhirWebserviceClient).deletePermanently(MeasureReport.class, "b");
+    }
+
+    @Test
+    public void testFlush_TreatsUnknownMeasureReportsAsDeleted() {
+        when(fhirWebserviceClient.postBundle(any()))
+                .thenAnswer(invocation -> batchResponse(invocation.getArgument(0), "404 Not Found", "410 Gone"));
+        cleaner.scheduleDeletion("a");
+        cleaner.scheduleDeletion("b");
+
+        cleaner.flush();
+        cleaner.flush();
+
+        verify(fhirWebserviceClient, times(1)).postBundle(any());
+    }
+
+    @Test
+    public void testFlush_GivesUpAfterMaxDeletionAttempts() {
+        when(fhirWebserviceClient.postBundle(any())).thenThrow(new RuntimeException("server unavailable"));
+        cleaner.scheduleDeletion("a");
+
+        for (int i = 0; i < MAX_DELETION_ATTEMPTS + 1; i++) {
+            cleaner.flush();
+        }
+
+        verify(fhirWebserviceClient, times(MAX_DELETION_ATTEMPTS)).postBundle(any());
+    }
+
+    @Test
+    public void testScheduleDeletion_FullBatchIsDeletedInBackground() {
+        when(fhirWebserviceClient.postBundle(any())).thenAnswer(invocation -> batchResponse(invocation.getArgument(0)));
+        cleaner.start();
+
+        cleaner.scheduleDeletion("a");
+        cleaner.scheduleDeletion("b");
+
+        verify(fhirWebserviceClient, timeout(5000)).postBundle(any());
+        verify(fhirWebserviceClient, timeout(5000)).deletePermanently(MeasureReport.class, "b");
+    }
+
+    private static Bundle batchResponse(Bundle batch, String... statuses) {
+        var entryStatuses = statuses.length > 0 ? Arrays.asList(statuses)
+                : batch.getEntry().stream().map(entry -> "204 No Content").toList();
+        var response = new Bundle().setType(Bundle.BundleType.BATCHRESPONSE);
+        entryStatuses.forEach(status -> response.addEntry().getResponse().setStatus(status));
+        return response;
+    }
+
+    private List<String> deletedUrls(Bundle batch) {
+        return batch.getEntry().stream()
+                .map(BundleEntryComponent::getRequest)
+                .peek(request -> assertEquals(DELETE, request.getMethod()))
+                .map(request -> request.getUrl())
+                .toList();
+    }
+}
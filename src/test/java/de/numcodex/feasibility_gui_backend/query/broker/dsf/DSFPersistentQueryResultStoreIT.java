@@ -0,0 +1,120 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntry.DSFQueryResultEntryId;
+import de.numcodex.feasibility_gui_backend.query.persistence.DSFQueryResultEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("query")
+@Tag("broker")
+@Tag("peristence")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@SuppressWarnings("NewClassNamingConvention")
+public class DSFPersistentQueryResultStoreIT {
+
+    @Autowired
+    private DSFQueryResultEntryRepository resultRepository;
+
+    private DSFPersistentQueryResultStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new DSFPersistentQueryResultStore(resultRepository, Duration.ofHours(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void testStoreFurtherResultsForQuery() throws QueryNotFoundException, SiteNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        store.storeResult(new DSFQueryResult("foo", "baz", 11));
+
+        assertEquals(1, store.getMeasureCount("foo", "bar"));
+        assertEquals(11, store.getMeasureCount("foo", "baz"));
+    }
+
+    @Test
+    public void testStoreResultOverwritesPreviousResultOfSite() throws QueryNotFoundException, SiteNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        store.storeResult(new DSFQueryResult("foo", "bar", 2));
+
+        assertEquals(2, store.getMeasureCount("foo", "bar"));
+        assertEquals(List.of("bar"), store.getSiteIdsWithResult("foo"));
+    }
+
+    @Test
+    public void testResultsAreVisibleToOtherStoreInstances() throws QueryNotFoundException, SiteNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+
+        var restartedStore = new DSFPersistentQueryResultStore(resultRepository, Duration.ofHours(1),
+                Duration.ofMinutes(10));
+
+        assertEquals(1, restartedStore.getMeasureCount("foo", "bar"));
+    }
+
+    @Test
+    public void testGetMeasureCountButQueryDoesNotExist() {
+        assertThrows(QueryNotFoundException.class, () -> store.getMeasureCount("not-existing-query", "bar"));
+    }
+
+    @Test
+    public void testGetMeasureCountButQueryHasNoClientResultYet() {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        assertThrows(SiteNotFoundException.class, () -> store.getMeasureCount("foo", "not-existing-client"));
+    }
+
+    @Test
+    public void testGetSiteIdsWithResultButQueryDoesNotExist() {
+        assertThrows(QueryNotFoundException.class, () -> store.getSiteIdsWithResult("not-existing-query"));
+    }
+
+    @Test
+    public void testGetSiteIdsWithResult() throws QueryNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        store.storeResult(new DSFQueryResult("foo", "baz", 11));
+        store.storeResult(new DSFQueryResult("other", "qux", 7));
+
+        assertEquals(List.of("bar", "baz"), store.getSiteIdsWithResult("foo").stream().sorted().toList());
+    }
+
+    @Test
+    public void testRemoveResultButQueryDoesNotExist() {
+        assertThrows(QueryNotFoundException.class, () -> store.removeResult("not-existing-query"));
+    }
+
+    @Test
+    public void testRemoveResult() throws QueryNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        store.removeResult("foo");
+
+        assertThrows(QueryNotFoundException.class, () -> store.getSiteIdsWithResult("foo"));
+    }
+
+    @Test
+    public void testPurgeExpiredResults() throws QueryNotFoundException, SiteNotFoundException {
+        store.storeResult(new DSFQueryResult("foo", "bar", 1));
+        store.storeResult(new DSFQueryResult("foo", "baz", 11));
+        var expiredResult = resultRepository.findById(new DSFQueryResultEntryId("foo", "bar")).orElseThrow();
+        expiredResult.setReceivedAt(Timestamp.from(Instant.now().minus(Duration.ofHours(2))));
+        resultRepository.save(expiredResult);
+
+        assertEquals(1, store.purgeExpiredResults());
+        assertThrows(SiteNotFoundException.class, () -> store.getMeasureCount("foo", "bar"));
+        assertEquals(11, store.getMeasureCount("foo", "baz"));
+    }
+}
@@ -0,0 +1,69 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import org.hl7.fhir.r4.model.Attachment;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Library;
+import org.hl7.fhir.r4.model.Measure;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hl7.fhir.r4.model.Bundle.BundleType.TRANSACTION;
+import static org.hl7.fhir.r4.model.Bundle.HTTPVerb.POST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DSFQueryBundleFactoryTest {
+
+    private final DSFQueryBundleFactory bundleFactory = new DSFQueryBundleFactory("ZARS");
+
+    @Test
+    public void testCreateQueryBundle_ContainsTaskLibraryAndMeasure() {
+        Bundle bundle = bundleFactory.createQueryBundle("query-id", Map.of("text/cql", "library Retrieve"),
+                URI.create("https://zars/fhir/"));
+
+        assertEquals(TRANSACTION, bundle.getType());
+        assertEquals(3, bundle.getEntry().size());
+        bundle.getEntry().forEach(entry -> assertEquals(POST, entry.getRequest().getMethod()));
+        assertEquals("Task", bundle.getEntry().get(0).getRequest().getUrl());
+        assertEquals("Library", bundle.getEntry().get(1).getRequest().getUrl());
+        assertEquals("Measure", bundle.getEntry().get(2).getRequest().getUrl());
+    }
+
+    @Test
+    public void testCreateQueryBundle_ResourcesReferenceEachOther() {
+        Bundle bundle = bundleFactory.createQueryBundle("query-id", Map.of("text/cql", "library Retrieve"),
+                URI.create("https://zars/fhir/"));
+
+        var task = (Task) bundle.getEntry().get(0).getResource();
+        var library = (Library) bundle.getEntry().get(1).getResource();
+        var measure = (Measure) bundle.getEntry().get(2).getResource();
+
+        var measureReference = (Reference) task.getInput().stream()
+                .filter(input -> input.getType().getCodingFirstRep().getCode().equals("measure-reference"))
+                .findFirst().orElseThrow().getValue();
+        assertEquals(bundle.getEntry().get(2).getFullUrl(), measureReference.getReference());
+        assertEquals(library.getUrl(), measure.getLibrary().get(0).getValue());
+        assertTrue(measure.getUrl().startsWith("https://zars/fhir/Measure/"));
+        assertEquals("ZARS", task.getRequester().getIdentifier().getValue());
+        assertEquals("ALL", library.getMeta().getTagFirstRep().getCode());
+        assertEquals("ALL", measure.getMeta().getTagFirstRep().getCode());
+    }
+
+    @Test
+    public void testCreateQueryBundle_LibraryHoldsAllQueryContents() {
+        Bundle bundle = bundleFactory.createQueryBundle("query-id",
+                Map.of("text/cql", "library Retrieve", "application/json", "{}"), URI.create("https://zars/fhir/"));
+
+        var library = (Library) bundle.getEntry().get(1).getResource();
+        var contentsByType = library.getContent().stream()
+                .collect(Collectors.toMap(Attachment::getContentType,
+                        attachment -> new String(attachment.getData(), StandardCharsets.UTF_8)));
+        assertEquals(Map.of("text/cql", "library Retrieve", "application/json", "{}"), contentsByType);
+    }
+}
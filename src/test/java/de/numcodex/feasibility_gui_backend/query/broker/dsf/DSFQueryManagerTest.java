@@ -2,7 +2,9 @@ package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 import de.numcodex.feasibility_gui_backend.query.broker.QueryDefinitionNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.UnsupportedMediaTypeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.highmed.fhir.client.FhirWebserviceClient;
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
@@ -18,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -51,7 +54,8 @@ public class DSFQueryManagerTest {
     @BeforeEach
     public void setUp() {
         var dsfMediaTypeTranslator = new DSFMediaTypeTranslator();
-        this.queryHandler = new DSFQueryManager(fhirWebClientProvider, dsfMediaTypeTranslator, ORGANIZATION);
+        this.queryHandler = new DSFQueryManager(fhirWebClientProvider, dsfMediaTypeTranslator, ORGANIZATION,
+                new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
         this.unknownQueryId = UUID.randomUUID().toString();
     }
 
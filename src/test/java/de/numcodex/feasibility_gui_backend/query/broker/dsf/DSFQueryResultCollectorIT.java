@@ -2,9 +2,12 @@ package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.parser.IParser;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.highmed.fhir.client.FhirWebserviceClient;
 import org.highmed.fhir.client.WebsocketClient;
+import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.DomainResource;
@@ -16,13 +19,17 @@ import org.hl7.fhir.r4.model.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -32,6 +39,12 @@ import static org.hl7.fhir.r4.model.Task.TaskIntent.ORDER;
 import static org.hl7.fhir.r4.model.Task.TaskStatus.COMPLETED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,17 +62,22 @@ public class DSFQueryResultCollectorIT {
     @Mock
     private FhirWebClientProvider fhirWebClientProvider;
 
+    @Mock
+    private DSFMeasureReportCleaner measureReportCleaner;
+
     private WebsocketClientMock websocketClient;
     private QueryResultCollector resultCollector;
 
     @BeforeEach
     public void setUp() {
         FhirContext fhirCtx = FhirContext.forR4();
-        DSFQueryResultStore resultStore = new DSFQueryResultStore();
-        DSFQueryResultHandler resultHandler = new DSFQueryResultHandler(fhirWebClientProvider);
+        DSFQueryResultStore resultStore = new DSFQueryResultStore(
+                new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
+        DSFQueryResultHandler resultHandler = new DSFQueryResultHandler(fhirWebClientProvider, measureReportCleaner);
 
         websocketClient = new WebsocketClientMock();
-        resultCollector = new DSFQueryResultCollector(resultStore, fhirCtx, fhirWebClientProvider, resultHandler);
+        resultCollector = new DSFQueryResultCollector(resultStore, fhirCtx, fhirWebClientProvider, resultHandler,
+                new WebsocketReconnectBackoff(Duration.ofMillis(10), Duration.ofMillis(100)), Runnable::run);
     }
 
     private Task createTestTask(String brokerQueryId, String siteId, String measureReportReference, String profile) {
@@ -135,7 +153,7 @@ public class DSFQueryResultCollectorIT {
         int measureCount = 5;
         MeasureReport measureReport = createTestMeasureReport(measureCount);
 
-        when(fhirWebClientProvider.provideFhirWebsocketClient()).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(any())).thenReturn(websocketClient);
         when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
         when(fhirClient.read(MeasureReport.class, measureReportId)).thenReturn(measureReport);
 
@@ -165,7 +183,7 @@ public class DSFQueryResultCollectorIT {
         int measureCount = 5;
         MeasureReport measureReport = createTestMeasureReport(measureCount);
 
-        when(fhirWebClientProvider.provideFhirWebsocketClient()).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(any())).thenReturn(websocketClient);
         when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
         when(fhirClient.read(MeasureReport.class, measureReportId)).thenReturn(measureReport);
 
@@ -192,7 +210,7 @@ public class DSFQueryResultCollectorIT {
         int measureCount = 5;
         MeasureReport measureReport = createTestMeasureReport(measureCount);
 
-        when(fhirWebClientProvider.provideFhirWebsocketClient()).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(any())).thenReturn(websocketClient);
         when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
         when(fhirClient.read(MeasureReport.class, measureReportId)).thenReturn(measureReport);
 
@@ -214,12 +232,76 @@ public class DSFQueryResultCollectorIT {
         String measureReportId = UUID.randomUUID().toString();
         Task task = createTestTask(UUID.randomUUID().toString(), "DIC", "MeasureReport/" + measureReportId, "other-profile");
 
-        when(fhirWebClientProvider.provideFhirWebsocketClient()).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(any())).thenReturn(websocketClient);
         resultCollector.addResultListener(brokerClient, (backendQueryId, statusUpdate) -> fail());
 
         websocketClient.fakeIncomingMessage(task);
     }
 
+    @Test
+    public void testMissedResultsAreCaughtUpAfterReconnect() throws Exception {
+        String brokerQueryId = UUID.randomUUID().toString();
+        String measureReportId = UUID.randomUUID().toString();
+        Task missedTask = createTestTask(brokerQueryId, "DIC", "MeasureReport/" + measureReportId,
+                SINGLE_DIC_RESULT_PROFILE);
+        var missedTasks = new Bundle().setType(Bundle.BundleType.SEARCHSET);
+        missedTasks.addEntry().setResource(missedTask);
+
+        var reconnector = ArgumentCaptor.forClass(Runnable.class);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(reconnector.capture())).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
+        when(fhirClient.searchWithStrictHandling(eq(Task.class), anyMap())).thenReturn(missedTasks);
+        when(fhirClient.read(MeasureReport.class, measureReportId)).thenReturn(createTestMeasureReport(5));
+
+        var notifiedBrokerQueryId = new CompletableFuture<String>();
+        resultCollector.addResultListener(brokerClient, (backendQueryId, statusUpdate) ->
+                notifiedBrokerQueryId.complete(statusUpdate.brokerQueryId()));
+
+        reconnector.getValue().run();
+
+        assertEquals(brokerQueryId, notifiedBrokerQueryId.get(5, TimeUnit.SECONDS));
+        assertEquals(5, resultCollector.getResultFeasibility(brokerQueryId, "DIC"));
+        verify(fhirWebClientProvider, timeout(5000).times(2)).provideFhirWebsocketClient(any());
+    }
+
+    @Test
+    public void testReconnectIsRetriedUntilItSucceeds() throws Exception {
+        var reconnector = ArgumentCaptor.forClass(Runnable.class);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(reconnector.capture()))
+                .thenReturn(websocketClient)
+                .thenThrow(new FhirWebClientProvisionException(new RuntimeException("server unavailable")))
+                .thenThrow(new FhirWebClientProvisionException(new RuntimeException("server unavailable")))
+                .thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
+        when(fhirClient.searchWithStrictHandling(eq(Task.class), anyMap()))
+                .thenReturn(new Bundle().setType(Bundle.BundleType.SEARCHSET));
+
+        resultCollector.addResultListener(brokerClient, (backendQueryId, statusUpdate) -> fail());
+        reconnector.getValue().run();
+
+        verify(fhirWebClientProvider, timeout(5000).times(4)).provideFhirWebsocketClient(any());
+        verify(fhirClient, timeout(5000)).searchWithStrictHandling(eq(Task.class), anyMap());
+    }
+
+    @Test
+    public void testConnectionLossOfReplacedClientIsIgnored() throws Exception {
+        var reconnector = ArgumentCaptor.forClass(Runnable.class);
+        when(fhirWebClientProvider.provideFhirWebsocketClient(reconnector.capture())).thenReturn(websocketClient);
+        when(fhirWebClientProvider.provideFhirWebserviceClient()).thenReturn(fhirClient);
+        when(fhirClient.searchWithStrictHandling(eq(Task.class), anyMap()))
+                .thenReturn(new Bundle().setType(Bundle.BundleType.SEARCHSET));
+
+        resultCollector.addResultListener(brokerClient, (backendQueryId, statusUpdate) -> fail());
+        var firstReconnector = reconnector.getValue();
+        firstReconnector.run();
+        verify(fhirClient, timeout(5000)).searchWithStrictHandling(eq(Task.class), anyMap());
+
+        firstReconnector.run();
+
+        Thread.sleep(200);
+        verify(fhirWebClientProvider, times(2)).provideFhirWebsocketClient(any());
+    }
+
     private static class WebsocketClientMock implements WebsocketClient {
 
         private Consumer<DomainResource> consumer;
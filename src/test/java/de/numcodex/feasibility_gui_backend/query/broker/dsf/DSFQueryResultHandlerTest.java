@@ -23,6 +23,9 @@ import static org.hl7.fhir.r4.model.Task.TaskStatus.COMPLETED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +37,9 @@ public class DSFQueryResultHandlerTest {
     @Mock
     FhirWebClientProvider fhirWebClientProvider;
 
+    @Mock
+    DSFMeasureReportCleaner measureReportCleaner;
+
     @InjectMocks
     DSFQueryResultHandler handler;
 
@@ -86,6 +92,7 @@ public class DSFQueryResultHandlerTest {
 
         Optional<DSFQueryResult> dsfQueryResult = handler.onResult(task);
         assertFalse(dsfQueryResult.isPresent());
+        verify(measureReportCleaner, never()).scheduleDeletion(any());
     }
 
     @Test
@@ -135,5 +142,7 @@ public class DSFQueryResultHandlerTest {
         assertEquals("1234567890", dsfQueryResult.get().getQueryId());
         assertEquals("DIC", dsfQueryResult.get().getSiteId());
         assertEquals(10, dsfQueryResult.get().getMeasureCount());
+        verify(measureReportCleaner).scheduleDeletion("dfd68241-224d-4fd8-bd1a-7675682fa608");
+        verify(client, never()).delete(MeasureReport.class, "dfd68241-224d-4fd8-bd1a-7675682fa608");
     }
 }
@@ -1,14 +1,21 @@
 package de.numcodex.feasibility_gui_backend.query.broker.dsf;
 
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DSFQueryResultStoreTest {
 
@@ -16,7 +23,7 @@ public class DSFQueryResultStoreTest {
 
     @BeforeEach
     public void setUp() {
-        store = new DSFQueryResultStore();
+        store = new DSFQueryResultStore(new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
     }
 
     @Test
@@ -78,4 +85,31 @@ public class DSFQueryResultStoreTest {
 
         assertThrows(QueryNotFoundException.class, () -> store.getSiteIdsWithResult("foo"));
     }
+
+    @Test
+    public void testStoreResultsConcurrently() throws Exception {
+        var queryCount = 20;
+        var siteCount = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int site = 0; site < siteCount; site++) {
+                for (int query = 0; query < queryCount; query++) {
+                    var queryId = "query-" + query;
+                    var siteId = "site-" + site;
+                    var measureCount = site;
+                    executor.submit(() -> store.storeResult(new DSFQueryResult(queryId, siteId, measureCount)));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        for (int query = 0; query < queryCount; query++) {
+            assertEquals(siteCount, store.getSiteIdsWithResult("query-" + query).size());
+            for (int site = 0; site < siteCount; site++) {
+                assertEquals(site, store.getMeasureCount("query-" + query, "site-" + site));
+            }
+        }
+    }
 }
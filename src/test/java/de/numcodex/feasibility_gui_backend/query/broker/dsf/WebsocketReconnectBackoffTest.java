@@ -0,0 +1,31 @@
+package de.numcodex.feasibility_gui_backend.query.broker.dsf;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WebsocketReconnectBackoffTest {
+
+    private final WebsocketReconnectBackoff backoff = new WebsocketReconnectBackoff(Duration.ofSeconds(1),
+            Duration.ofSeconds(60));
+
+    @Test
+    public void testDelayOf_FirstAttemptUsesInitialDelay() {
+        assertEquals(Duration.ofSeconds(1), backoff.delayOf(0));
+    }
+
+    @Test
+    public void testDelayOf_DoublesWithEveryFailedAttempt() {
+        assertEquals(Duration.ofSeconds(2), backoff.delayOf(1));
+        assertEquals(Duration.ofSeconds(4), backoff.delayOf(2));
+        assertEquals(Duration.ofSeconds(32), backoff.delayOf(5));
+    }
+
+    @Test
+    public void testDelayOf_IsBoundedByMaximumDelay() {
+        assertEquals(Duration.ofSeconds(60), backoff.delayOf(6));
+        assertEquals(Duration.ofSeconds(60), backoff.delayOf(Integer.MAX_VALUE));
+    }
+}
@@ -1,12 +1,16 @@
 package de.numcodex.feasibility_gui_backend.query.broker.mock;
 
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusListener;
 import de.numcodex.feasibility_gui_backend.query.collect.QueryStatusUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static de.numcodex.feasibility_gui_backend.query.collect.QueryStatus.COMPLETED;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -22,7 +26,7 @@ public class MockBrokerClientIT {
 
     @BeforeEach
     void setUp() {
-        client = new MockBrokerClient();
+        client = new MockBrokerClient(new QueryStateCacheSpec(Duration.ofMinutes(10), 100, new SimpleMeterRegistry()));
     }
 
 
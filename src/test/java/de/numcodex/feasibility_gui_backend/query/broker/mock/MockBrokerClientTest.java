@@ -2,21 +2,31 @@ package de.numcodex.feasibility_gui_backend.query.broker.mock;
 
 import de.numcodex.feasibility_gui_backend.query.QueryMediaType;
 import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
+import de.numcodex.feasibility_gui_backend.query.broker.QueryStateCacheSpec;
 import de.numcodex.feasibility_gui_backend.query.broker.SiteNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class MockBrokerClientTest {
 
     private static final Long TEST_BACKEND_QUERY_ID = 1L;
 
+    SimpleMeterRegistry meterRegistry;
     MockBrokerClient client;
 
     @BeforeEach
     void setUp() {
-        client = new MockBrokerClient();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new MockBrokerClient(new QueryStateCacheSpec(Duration.ofMinutes(10), 1000, meterRegistry));
     }
 
     @Test
@@ -65,6 +75,32 @@ class MockBrokerClientTest {
         assertTrue(resultSiteIds.isEmpty());
     }
 
+    @Test
+    void testQueryState_IsSafeForConcurrentUse() throws InterruptedException {
+        var queryIds = ConcurrentHashMap.<String>newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (long i = 0; i < 500; i++) {
+                var backendQueryId = i;
+                executor.submit(() -> {
+                    var queryId = client.createQuery(backendQueryId);
+                    assertDoesNotThrow(() -> assertTrue(client.getResultSiteIds(queryId).isEmpty()));
+                    assertDoesNotThrow(() -> client.closeQuery(queryId));
+                    queryIds.add(queryId);
+                });
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(500, queryIds.size());
+        var hits = meterRegistry.find("cache.gets").tag("cache", "mock.brokerQueries").tag("result", "hit")
+                .functionCounter();
+        assertNotNull(hits);
+        assertEquals(500, hits.count());
+    }
+
     @Test
     void testGetSiteName() {
         assertEquals("Lübeck", client.getSiteName("2"));
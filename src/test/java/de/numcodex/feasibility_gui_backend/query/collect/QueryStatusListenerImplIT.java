@@ -44,6 +44,9 @@ class QueryStatusListenerImplIT {
     @Autowired
     private QueryRepository queryRepository;
 
+    @Autowired
+    private QueryDispatchRepository queryDispatchRepository;
+
     @Autowired
     private ResultService resultService;
 
@@ -108,6 +111,35 @@ class QueryStatusListenerImplIT {
         assertEquals(TEST_MATCHES_IN_POPULATION, registeredResults.get(0).result());
     }
 
+    @Test
+    public void testPersistResult_UnknownBackendQueryIdIsResolvedUsingTheQueryDispatch() {
+        var queryDispatchId = new QueryDispatch.QueryDispatchId();
+        queryDispatchId.setQueryId(testBackendQueryId);
+        queryDispatchId.setExternalId(BROKER_QUERY_ID);
+        queryDispatchId.setBrokerType(FAKE_BROKER_CLIENT_TYPE);
+        var queryDispatch = new QueryDispatch();
+        queryDispatch.setId(queryDispatchId);
+        queryDispatch.setQuery(queryRepository.getReferenceById(testBackendQueryId));
+        queryDispatchRepository.save(queryDispatch);
+        var fakeBrokerClient = new FakeBrokerClient();
+
+        var statusUpdate = new QueryStatusUpdate(fakeBrokerClient, BROKER_QUERY_ID, TEST_SITE_NAME, COMPLETED);
+        assertDoesNotThrow(() -> queryStatusListener.onClientUpdate(null, statusUpdate));
+
+        var registeredResults = resultService.findSuccessfulByQuery(testBackendQueryId);
+        assertEquals(1, registeredResults.size());
+        assertEquals(TEST_MATCHES_IN_POPULATION, registeredResults.get(0).result());
+    }
+
+    @Test
+    public void testPersistResult_UnknownBackendQueryIdWithoutQueryDispatchDoesNotLeadToPersistedResult() {
+        var fakeBrokerClient = new FakeBrokerClient();
+
+        var statusUpdate = new QueryStatusUpdate(fakeBrokerClient, BROKER_QUERY_ID, TEST_SITE_NAME, COMPLETED);
+        assertDoesNotThrow(() -> queryStatusListener.onClientUpdate(null, statusUpdate));
+        assertEquals(0, resultService.findSuccessfulByQuery(testBackendQueryId).size());
+    }
+
     @Test
     public void testPersistResult_FailedStatusLeadsToNoSuccessfulQueryResult() {
         var fakeBrokerClient = new FakeBrokerClient();
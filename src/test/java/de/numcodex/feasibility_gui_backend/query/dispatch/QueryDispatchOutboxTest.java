@@ -0,0 +1,134 @@
+package de.numcodex.feasibility_gui_backend.query.dispatch;
+
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxEntry;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxEntryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchOutboxStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.AKTIN;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DSF;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@Tag("query")
+@Tag("dispatch")
+@ExtendWith(MockitoExtension.class)
+public class QueryDispatchOutboxTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private QueryDispatcher queryDispatcher;
+
+    @Mock
+    private QueryDispatchOutboxEntryRepository outboxEntryRepository;
+
+    private QueryDispatchOutbox createQueryDispatchOutbox() {
+        return new QueryDispatchOutbox(queryDispatcher, outboxEntryRepository, List.of(AKTIN, DSF), true, 10,
+                Duration.ofSeconds(5), Duration.ofSeconds(300), MAX_ATTEMPTS, Duration.ofSeconds(5),
+                Duration.ofSeconds(60));
+    }
+
+    private QueryDispatchOutboxEntry createEntry(int attempts) {
+        var entry = new QueryDispatchOutboxEntry();
+        entry.setId(1L);
+        entry.setQueryId(99999L);
+        entry.setBrokerType(DSF);
+        entry.setStatus(QueryDispatchOutboxStatus.PENDING);
+        entry.setAttempts(attempts);
+        return entry;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEnqueueNewQuery_CreatesPendingEntryPerBrokerType() throws QueryDispatchException {
+        var query = new StructuredQuery(null, null, null, null);
+        doReturn(99999L).when(queryDispatcher).enqueueNewQuery(query, "test");
+
+        var queryId = createQueryDispatchOutbox().enqueueNewQuery(query, "test");
+
+        var entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(outboxEntryRepository).saveAll(entriesCaptor.capture());
+        List<QueryDispatchOutboxEntry> entries = entriesCaptor.getValue();
+
+        assertEquals(99999L, queryId);
+        assertEquals(2, entries.size());
+        assertEquals(List.of(AKTIN, DSF), entries.stream().map(QueryDispatchOutboxEntry::getBrokerType).toList());
+        assertTrue(entries.stream().allMatch(e -> e.getStatus() == QueryDispatchOutboxStatus.PENDING));
+        assertTrue(entries.stream().allMatch(e -> e.getQueryId() == 99999L));
+    }
+
+    @Test
+    public void testEnqueueNewQuery_DoesNotCreateEntriesIfQueryCannotBeEnqueued() throws QueryDispatchException {
+        var query = new StructuredQuery(null, null, null, null);
+        doThrow(QueryDispatchException.class).when(queryDispatcher).enqueueNewQuery(query, "test");
+
+        assertThrows(QueryDispatchException.class, () -> createQueryDispatchOutbox().enqueueNewQuery(query, "test"));
+        verify(outboxEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testDispatchDueEntries_RemovesEntryOnSuccessfulDispatch() {
+        var entry = createEntry(1);
+        doReturn(List.of(entry)).when(outboxEntryRepository).claimDueEntries(anyInt(), anyInt());
+        doReturn(Mono.empty()).when(queryDispatcher).dispatchEnqueuedQuery(99999L, DSF);
+
+        assertEquals(1, createQueryDispatchOutbox().dispatchDueEntries());
+        verify(outboxEntryRepository).delete(entry);
+        verify(outboxEntryRepository, never()).save(any());
+    }
+
+    @Test
+    public void testDispatchDueEntries_ReschedulesEntryOnFailedDispatch() {
+        var entry = createEntry(1);
+        doReturn(List.of(entry)).when(outboxEntryRepository).claimDueEntries(anyInt(), anyInt());
+        doReturn(Mono.error(new QueryDispatchException("failed"))).when(queryDispatcher)
+                .dispatchEnqueuedQuery(99999L, DSF);
+
+        var beforeDispatch = Instant.now();
+        createQueryDispatchOutbox().dispatchDueEntries();
+
+        verify(outboxEntryRepository, never()).delete(any());
+        verify(outboxEntryRepository).save(entry);
+        assertEquals(QueryDispatchOutboxStatus.PENDING, entry.getStatus());
+        assertEquals("failed", entry.getLastError());
+        assertFalse(entry.getNextAttemptAt().toInstant().isBefore(beforeDispatch.plusSeconds(5)));
+    }
+
+    @Test
+    public void testDispatchDueEntries_GivesUpAfterMaxAttempts() {
+        var entry = createEntry(MAX_ATTEMPTS);
+        doReturn(List.of(entry)).when(outboxEntryRepository).claimDueEntries(anyInt(), anyInt());
+        doReturn(Mono.error(new QueryDispatchException("failed"))).when(queryDispatcher)
+                .dispatchEnqueuedQuery(99999L, DSF);
+
+        createQueryDispatchOutbox().dispatchDueEntries();
+
+        verify(outboxEntryRepository).save(entry);
+        assertEquals(QueryDispatchOutboxStatus.FAILED, entry.getStatus());
+    }
+
+    @Test
+    public void testBackoffFor_GrowsExponentiallyUpToMaximum() {
+        var outbox = createQueryDispatchOutbox();
+
+        assertEquals(Duration.ofSeconds(5), outbox.backoffFor(1));
+        assertEquals(Duration.ofSeconds(10), outbox.backoffFor(2));
+        assertEquals(Duration.ofSeconds(40), outbox.backoffFor(4));
+        assertEquals(Duration.ofSeconds(60), outbox.backoffFor(5));
+        assertEquals(Duration.ofSeconds(60), outbox.backoffFor(100));
+    }
+}
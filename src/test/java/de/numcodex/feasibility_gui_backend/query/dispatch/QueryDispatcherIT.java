@@ -19,8 +19,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.net.URI;
@@ -53,6 +58,18 @@ import static org.junit.jupiter.api.Assertions.*;
 @SuppressWarnings("NewClassNamingConvention")
 public class QueryDispatcherIT {
 
+    // Dispatch on the test thread so that dispatches take part in the test transaction.
+    @TestConfiguration
+    static class ImmediateDispatchConfig {
+
+        @Bean
+        @Primary
+        @Qualifier("dispatch")
+        Scheduler immediateDispatchScheduler() {
+            return Schedulers.immediate();
+        }
+    }
+
     @Autowired
     private QueryDispatcher queryDispatcher;
 
@@ -10,22 +10,31 @@ import de.numcodex.feasibility_gui_backend.query.broker.QueryNotFoundException;
 import de.numcodex.feasibility_gui_backend.query.persistence.*;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslationComponent;
 import de.numcodex.feasibility_gui_backend.query.translation.QueryTranslationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @Tag("query")
@@ -51,9 +60,21 @@ public class QueryDispatcherTest {
     @Mock
     private QueryDispatchRepository queryDispatchRepository;
 
+    private SimpleMeterRegistry meterRegistry;
+
     private QueryDispatcher createQueryDispatcher(List<BrokerClient> brokerClients) {
+        return createQueryDispatcher(brokerClients, Duration.ofSeconds(10));
+    }
+
+    private QueryDispatcher createQueryDispatcher(List<BrokerClient> brokerClients, Duration brokerDispatchTimeout) {
+        return createQueryDispatcher(brokerClients, brokerDispatchTimeout, new EnumMap<>(BrokerClientType.class));
+    }
+
+    private QueryDispatcher createQueryDispatcher(List<BrokerClient> brokerClients, Duration brokerDispatchTimeout,
+                                                  Map<BrokerClientType, Set<QueryMediaType>> requiredQueryFormats) {
         return new QueryDispatcher(brokerClients, queryTranslationComponent, queryHashCalculator,
-                jsonUtil, queryRepository, queryContentRepository, queryDispatchRepository);
+                jsonUtil, queryRepository, queryContentRepository, queryDispatchRepository,
+                Schedulers.boundedElastic(), brokerDispatchTimeout, meterRegistry, requiredQueryFormats);
     }
 
 
@@ -61,6 +82,7 @@ public class QueryDispatcherTest {
     public void resetMocks() {
         Mockito.reset(queryTranslationComponent, queryHashCalculator, jsonUtil, queryRepository, queryContentRepository,
                 queryDispatchRepository);
+        meterRegistry = new SimpleMeterRegistry();
     }
 
     @Test
@@ -104,7 +126,8 @@ public class QueryDispatcherTest {
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
         doReturn(structuredQuery).when(jsonUtil).readValue(testQueryContent.getQueryContent(), StructuredQuery.class);
-        doThrow(QueryTranslationException.class).when(queryTranslationComponent).translate(structuredQuery);
+        doReturn(Mono.error(new QueryTranslationException("failed"))).when(queryTranslationComponent)
+                .translateReactively(structuredQuery, null);
 
 
         var queryDispatcher = createQueryDispatcher(List.of());
@@ -127,7 +150,7 @@ public class QueryDispatcherTest {
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
         doReturn(structuredQuery).when(jsonUtil).readValue(testQueryContent.getQueryContent(), StructuredQuery.class);
-        doReturn(Map.of()).when(queryTranslationComponent).translate(structuredQuery);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent).translateReactively(structuredQuery, null);
         doThrow(IOException.class).when(failingBrokerClient).createQuery(testQueryId);
 
         var queryDispatcher = createQueryDispatcher(List.of(failingBrokerClient));
@@ -153,7 +176,8 @@ public class QueryDispatcherTest {
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
         doReturn(structuredQuery).when(jsonUtil).readValue(testQueryContent.getQueryContent(), StructuredQuery.class);
-        doReturn(translationResult).when(queryTranslationComponent).translate(structuredQuery);
+        doReturn(Mono.just(translationResult)).when(queryTranslationComponent)
+                .translateReactively(structuredQuery, null);
         doReturn("1").when(failingBrokerClient).createQuery(testQueryId);
         doThrow(IOException.class).when(failingBrokerClient).publishQuery("1");
 
@@ -177,6 +201,8 @@ public class QueryDispatcherTest {
         testQuery.setQueryContent(testQueryContent);
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
         doReturn("1").when(failingBrokerClient).createQuery(testQueryId);
         doReturn("1").when(succeedingBrokerClient).createQuery(testQueryId);
         doThrow(IOException.class).when(failingBrokerClient).publishQuery(anyString());
@@ -204,6 +230,8 @@ public class QueryDispatcherTest {
         testQuery.setQueryContent(testQueryContent);
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
         doReturn("1").when(succeedingBrokerClient).createQuery(testQueryId);
         doReturn("1").when(failingBrokerClient).createQuery(testQueryId);
         doThrow(IOException.class).when(failingBrokerClient).publishQuery(anyString());
@@ -231,6 +259,8 @@ public class QueryDispatcherTest {
         testQuery.setQueryContent(testQueryContent);
 
         doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
         doReturn("1").when(failingBrokerClient).createQuery(testQueryId);
         doReturn("1").when(anotherFailingBrokerClient).createQuery(testQueryId);
         doThrow(IOException.class).when(failingBrokerClient).publishQuery(anyString());
@@ -242,4 +272,308 @@ public class QueryDispatcherTest {
         verify(failingBrokerClient, times(1)).publishQuery("1");
         verify(anotherFailingBrokerClient, times(1)).publishQuery("1");
     }
+
+    @Test
+    public void testDispatchEnqueuedQuery_DoesNotFailOnSingleBrokerTimeout()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var slowBrokerClient = mock(BrokerClient.class);
+        var succeedingBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(slowBrokerClient, succeedingBrokerClient),
+                Duration.ofMillis(200));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "1";
+        }).when(slowBrokerClient).createQuery(testQueryId);
+        doReturn("2").when(succeedingBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        verify(succeedingBrokerClient, times(1)).publishQuery("2");
+        verify(slowBrokerClient, never()).publishQuery(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDispatchEnqueuedQuery_PersistsDispatchOfTimedOutBrokerOnceItIsDone()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var slowBrokerClient = mock(BrokerClient.class);
+        var succeedingBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(slowBrokerClient, succeedingBrokerClient),
+                Duration.ofMillis(200));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.AKTIN).when(slowBrokerClient).getBrokerType();
+        doReturn(BrokerClientType.DSF).when(succeedingBrokerClient).getBrokerType();
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doAnswer(invocation -> {
+            Thread.sleep(500);
+            return "1";
+        }).when(slowBrokerClient).createQuery(testQueryId);
+        doReturn("2").when(succeedingBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        // the slow broker still publishes its query after the timeout
+        verify(slowBrokerClient, timeout(2000)).publishQuery("1");
+
+        var dispatchesCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(queryDispatchRepository, timeout(2000).times(2)).saveAll(dispatchesCaptor.capture());
+        assertThat(dispatchesCaptor.getAllValues())
+                .map(dispatches -> ((Iterable<QueryDispatch>) dispatches).iterator().next().getId().getBrokerType())
+                .containsExactly(BrokerClientType.DSF, BrokerClientType.AKTIN);
+    }
+
+    @Test
+    public void testDispatchEnqueuedQuery_DoesFailIfAllBrokersTimeOut() throws IOException {
+        var slowBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(slowBrokerClient), Duration.ofMillis(200));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "1";
+        }).when(slowBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectError(QueryDispatchException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void testDispatchEnqueuedQuery_SkipsBrokerMissingRequiredFormat()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var cqlBrokerClient = mock(BrokerClient.class);
+        var structuredQueryBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(cqlBrokerClient, structuredQueryBrokerClient),
+                Duration.ofSeconds(10), new EnumMap<>(Map.of(
+                        BrokerClientType.DIRECT, Set.of(QueryMediaType.CQL),
+                        BrokerClientType.DSF, Set.of(QueryMediaType.STRUCTURED_QUERY))));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.DIRECT).when(cqlBrokerClient).getBrokerType();
+        doReturn(BrokerClientType.DSF).when(structuredQueryBrokerClient).getBrokerType();
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of(QueryMediaType.STRUCTURED_QUERY, "{}"))).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doReturn("1").when(structuredQueryBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectComplete()
+                .verify();
+        verify(cqlBrokerClient, never()).createQuery(anyLong());
+        verify(structuredQueryBrokerClient, times(1)).publishQuery("1");
+    }
+
+    @Test
+    public void testDispatchEnqueuedQuery_BrokerWithoutConfiguredFormatsRequiresAllTranslationFormats()
+        throws IOException {
+        var brokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(brokerClient));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.AKTIN).when(brokerClient).getBrokerType();
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Set.of(QueryMediaType.STRUCTURED_QUERY, QueryMediaType.CQL)).when(queryTranslationComponent)
+                .getTranslationFormats();
+        doReturn(Mono.just(Map.of(QueryMediaType.STRUCTURED_QUERY, "{}"))).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectError(QueryDispatchException.class)
+                .verify();
+        verify(brokerClient, never()).createQuery(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDispatchEnqueuedQuery_DispatchesBrokerAsSoonAsItsRequiredFormatsAreTranslated()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var cqlBrokerClient = mock(BrokerClient.class);
+        var structuredQueryBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(cqlBrokerClient, structuredQueryBrokerClient),
+                Duration.ofSeconds(10), new EnumMap<>(Map.of(
+                        BrokerClientType.DIRECT, Set.of(QueryMediaType.CQL),
+                        BrokerClientType.DSF, Set.of(QueryMediaType.STRUCTURED_QUERY))));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.DIRECT).when(cqlBrokerClient).getBrokerType();
+        doReturn(BrokerClientType.DSF).when(structuredQueryBrokerClient).getBrokerType();
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(true).when(queryTranslationComponent).isPartialTranslationAllowed();
+        doReturn(Map.of(
+                QueryMediaType.CQL, Mono.just("cql"),
+                QueryMediaType.STRUCTURED_QUERY, Mono.delay(Duration.ofSeconds(1))
+                        .then(Mono.error(new QueryTranslationException("timed out")))))
+                .when(queryTranslationComponent).translateEachReactively(any(StructuredQuery.class), isNull());
+        doReturn("1").when(cqlBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                // the CQL broker does not wait for the structured query translation
+                .then(() -> verify(cqlBrokerClient, timeout(500)).publishQuery("1"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        verify(cqlBrokerClient).addQueryDefinition("1", QueryMediaType.CQL, "cql");
+        verify(cqlBrokerClient, never()).addQueryDefinition(anyString(), eq(QueryMediaType.STRUCTURED_QUERY),
+                anyString());
+        verify(structuredQueryBrokerClient, never()).createQuery(anyLong());
+
+        var dispatchesCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(queryDispatchRepository, times(1)).saveAll(dispatchesCaptor.capture());
+        assertThat((Iterable<QueryDispatch>) dispatchesCaptor.getValue())
+                .extracting(dispatch -> dispatch.getId().getBrokerType())
+                .containsExactly(BrokerClientType.DIRECT);
+    }
+
+    @Test
+    public void testDispatchEnqueuedQuery_RecordsDispatchDurationPerOutcome()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var failingBrokerClient = mock(BrokerClient.class);
+        var succeedingBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(failingBrokerClient, succeedingBrokerClient));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doReturn("1").when(failingBrokerClient).createQuery(testQueryId);
+        doReturn("1").when(succeedingBrokerClient).createQuery(testQueryId);
+        doThrow(IOException.class).when(failingBrokerClient).publishQuery(anyString());
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId))
+                .expectComplete()
+                .verify();
+
+        assertEquals(1, meterRegistry.get(QueryDispatcher.DISPATCH_TIMER_NAME).tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(QueryDispatcher.DISPATCH_TIMER_NAME).tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testDispatchEnqueuedQueryWithBrokerType_OnlyUsesBrokerOfGivenType()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var aktinBrokerClient = mock(BrokerClient.class);
+        var dsfBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(aktinBrokerClient, dsfBrokerClient));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.AKTIN).when(aktinBrokerClient).getBrokerType();
+        doReturn(BrokerClientType.DSF).when(dsfBrokerClient).getBrokerType();
+        doReturn(false).when(queryDispatchRepository).existsByQueryIdAndBrokerType(testQueryId, BrokerClientType.DSF);
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doReturn("1").when(dsfBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId, BrokerClientType.DSF))
+                .expectComplete()
+                .verify();
+        verify(dsfBrokerClient, times(1)).publishQuery("1");
+        verify(aktinBrokerClient, never()).createQuery(anyLong());
+    }
+
+    @Test
+    public void testDispatchEnqueuedQueryWithBrokerType_WaitsForTimedOutBrokerAndSucceedsOnLatePublication()
+        throws IOException, QueryNotFoundException, QueryDefinitionNotFoundException {
+        var slowBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(slowBrokerClient), Duration.ofMillis(200));
+
+        var testQueryId = 99999L;
+        var testQuery = new Query();
+        testQuery.setId(testQueryId);
+        var testQueryContent = new QueryContent(jsonUtil.writeValueAsString(new StructuredQuery(null, null, null, null)));
+        testQuery.setQueryContent(testQueryContent);
+
+        doReturn(BrokerClientType.AKTIN).when(slowBrokerClient).getBrokerType();
+        doReturn(false, true).when(queryDispatchRepository)
+                .existsByQueryIdAndBrokerType(testQueryId, BrokerClientType.AKTIN);
+        doReturn(Optional.of(testQuery)).when(queryRepository).findById(testQueryId);
+        doReturn(Mono.just(Map.of())).when(queryTranslationComponent)
+                .translateReactively(any(StructuredQuery.class), isNull());
+        doAnswer(invocation -> {
+            Thread.sleep(500);
+            return "1";
+        }).when(slowBrokerClient).createQuery(testQueryId);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId, BrokerClientType.AKTIN))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        // the late publication has been persisted before the dispatch completed, so a retry skips the query
+        verify(slowBrokerClient, times(1)).publishQuery("1");
+        verify(queryDispatchRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    public void testDispatchEnqueuedQueryWithBrokerType_SkipsAlreadyDispatchedQuery() throws IOException {
+        var dsfBrokerClient = mock(BrokerClient.class);
+        var queryDispatcher = createQueryDispatcher(List.of(dsfBrokerClient));
+        var testQueryId = 99999L;
+
+        doReturn(BrokerClientType.DSF).when(dsfBrokerClient).getBrokerType();
+        doReturn(true).when(queryDispatchRepository).existsByQueryIdAndBrokerType(testQueryId, BrokerClientType.DSF);
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(testQueryId, BrokerClientType.DSF))
+                .expectComplete()
+                .verify();
+        verify(dsfBrokerClient, never()).createQuery(anyLong());
+    }
+
+    @Test
+    public void testDispatchEnqueuedQueryWithBrokerType_FailsWithoutBrokerOfGivenType() {
+        var queryDispatcher = createQueryDispatcher(List.of());
+
+        StepVerifier.create(queryDispatcher.dispatchEnqueuedQuery(99999L, BrokerClientType.DSF))
+                .expectError(QueryDispatchException.class)
+                .verify();
+    }
 }
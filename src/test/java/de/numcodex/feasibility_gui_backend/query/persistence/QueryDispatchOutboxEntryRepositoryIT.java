@@ -0,0 +1,162 @@
+package de.numcodex.feasibility_gui_backend.query.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.AKTIN;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DIRECT;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.DSF;
+import static de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType.MOCK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("query")
+@Tag("dispatch")
+@Tag("peristence")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+// Claims of concurrent instances run in their own transactions.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@SuppressWarnings("NewClassNamingConvention")
+public class QueryDispatchOutboxEntryRepositoryIT {
+
+    private static final int LEASE_SECONDS = 60;
+
+    @Autowired
+    private QueryDispatchOutboxEntryRepository outboxEntryRepository;
+
+    @Autowired
+    private QueryContentRepository queryContentRepository;
+
+    @Autowired
+    private QueryRepository queryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private QueryContent queryContent;
+
+    private Query query;
+
+    @BeforeEach
+    public void setUp() {
+        queryContent = new QueryContent("{}");
+        queryContent.setHash("c4289effa");
+        queryContentRepository.save(queryContent);
+
+        query = new Query();
+        query.setQueryContent(queryContent);
+        query.setCreatedBy("testuser");
+        query = queryRepository.save(query);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        outboxEntryRepository.deleteAll();
+        queryRepository.delete(query);
+        queryContentRepository.delete(queryContent);
+    }
+
+    @Test
+    public void testClaimDueEntries_ClaimsDueEntriesAndLeasesThem() {
+        var dueEntry = saveEntry(AKTIN, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+
+        var claimedEntries = outboxEntryRepository.claimDueEntries(10, LEASE_SECONDS);
+
+        assertThat(claimedEntries).singleElement().satisfies(claimedEntry -> {
+            assertThat(claimedEntry.getId()).isEqualTo(dueEntry.getId());
+            assertThat(claimedEntry.getQueryId()).isEqualTo(query.getId());
+            assertThat(claimedEntry.getBrokerType()).isEqualTo(AKTIN);
+            assertThat(claimedEntry.getStatus()).isEqualTo(QueryDispatchOutboxStatus.PENDING);
+            assertThat(claimedEntry.getAttempts()).isEqualTo(1);
+            assertThat(claimedEntry.getNextAttemptAt())
+                    .isAfter(Timestamp.from(Instant.now().plusSeconds(LEASE_SECONDS / 2)));
+        });
+        assertThat(outboxEntryRepository.claimDueEntries(10, LEASE_SECONDS)).isEmpty();
+    }
+
+    @Test
+    public void testClaimDueEntries_ClaimsEntriesAgainOnceTheLeaseExpired() throws InterruptedException {
+        saveEntry(AKTIN, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+
+        assertThat(outboxEntryRepository.claimDueEntries(10, 1)).hasSize(1);
+        Thread.sleep(Duration.ofMillis(1500).toMillis());
+
+        assertThat(outboxEntryRepository.claimDueEntries(10, LEASE_SECONDS)).singleElement()
+                .extracting(QueryDispatchOutboxEntry::getAttempts)
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void testClaimDueEntries_SkipsEntriesThatAreNotDueOrFailed() {
+        saveEntry(AKTIN, QueryDispatchOutboxStatus.PENDING, Instant.now().plusSeconds(LEASE_SECONDS));
+        saveEntry(DSF, QueryDispatchOutboxStatus.FAILED, Instant.now().minusSeconds(1));
+
+        assertThat(outboxEntryRepository.claimDueEntries(10, LEASE_SECONDS)).isEmpty();
+    }
+
+    @Test
+    public void testClaimDueEntries_ClaimsAtMostBatchSizeEntriesInOrder() {
+        var firstEntry = saveEntry(AKTIN, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        var secondEntry = saveEntry(DSF, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        saveEntry(DIRECT, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+
+        assertThat(outboxEntryRepository.claimDueEntries(2, LEASE_SECONDS))
+                .extracting(QueryDispatchOutboxEntry::getId)
+                .containsExactlyInAnyOrder(firstEntry.getId(), secondEntry.getId());
+    }
+
+    @Test
+    public void testClaimDueEntries_ConcurrentClaimsSkipEachOthersEntries() throws Exception {
+        saveEntry(AKTIN, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        saveEntry(DSF, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        saveEntry(DIRECT, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        saveEntry(MOCK, QueryDispatchOutboxStatus.PENDING, Instant.now().minusSeconds(1));
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // The first claim keeps its entries locked until its transaction ends.
+        var concurrentlyClaimedEntries = transactionTemplate.execute(status -> {
+            var firstClaim = outboxEntryRepository.claimDueEntries(2, LEASE_SECONDS);
+            var secondClaim = CompletableFuture
+                    .supplyAsync(() -> outboxEntryRepository.claimDueEntries(10, LEASE_SECONDS))
+                    .orTimeout(10, TimeUnit.SECONDS)
+                    .join();
+            return List.of(firstClaim, secondClaim);
+        });
+
+        assertThat(concurrentlyClaimedEntries.get(0)).hasSize(2);
+        assertThat(concurrentlyClaimedEntries.get(1)).hasSize(2);
+        assertThat(concurrentlyClaimedEntries.get(0))
+                .extracting(QueryDispatchOutboxEntry::getBrokerType)
+                .doesNotContainAnyElementsOf(concurrentlyClaimedEntries.get(1).stream()
+                        .map(QueryDispatchOutboxEntry::getBrokerType)
+                        .toList());
+    }
+
+    private QueryDispatchOutboxEntry saveEntry(BrokerClientType brokerType, QueryDispatchOutboxStatus status,
+                                               Instant nextAttemptAt) {
+        var entry = new QueryDispatchOutboxEntry();
+        entry.setQueryId(query.getId());
+        entry.setBrokerType(brokerType);
+        entry.setStatus(status);
+        entry.setNextAttemptAt(Timestamp.from(nextAttemptAt));
+        return outboxEntryRepository.save(entry);
+    }
+}
@@ -17,6 +17,7 @@ import de.numcodex.feasibility_gui_backend.query.api.validation.StructuredQueryV
 import de.numcodex.feasibility_gui_backend.query.persistence.ResultType;
 import de.numcodex.feasibility_gui_backend.query.persistence.UserBlacklistRepository;
 import de.numcodex.feasibility_gui_backend.query.result.ResultLine;
+import de.numcodex.feasibility_gui_backend.query.result.ResultUpdatePublisher;
 import de.numcodex.feasibility_gui_backend.query.v2.QueryHandlerRestController;
 import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import java.net.URI;
@@ -71,6 +72,9 @@ public class RateLimitingInterceptorIT {
   @MockBean
   private UserBlacklistRepository userBlacklistRepository;
 
+  @MockBean
+  private ResultUpdatePublisher resultUpdatePublisher;
+
   @BeforeEach
   void setupMockBehaviour() throws InvalidAuthenticationException {
     doReturn(true).when(authenticationHelper)
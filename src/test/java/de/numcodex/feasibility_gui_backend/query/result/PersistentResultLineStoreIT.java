@@ -0,0 +1,124 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.ERROR;
+import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.Query;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryContent;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntryRepository;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Tag("query")
+@Tag("result")
+@Tag("peristence")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+@SuppressWarnings("NewClassNamingConvention")
+class PersistentResultLineStoreIT {
+
+  private static final String SITE_NAME_1 = "site-name-143720";
+  private static final String SITE_NAME_2 = "site-name-143723";
+
+  @Autowired
+  private QueryContentRepository queryContentRepository;
+
+  @Autowired
+  private QueryRepository queryRepository;
+
+  @Autowired
+  private QueryResultLineEntryRepository resultLineRepository;
+
+  private PersistentResultLineStore store;
+
+  private long queryId;
+
+  @BeforeEach
+  void setUp() {
+    var content = new QueryContent("{}");
+    content.setHash("a2189dffb");
+    queryContentRepository.save(content);
+
+    var query = new Query();
+    query.setQueryContent(content);
+    query.setCreatedBy("testuser");
+    queryId = queryRepository.save(query).getId();
+
+    store = new PersistentResultLineStore(resultLineRepository, 2, Duration.ofMinutes(10),
+        Duration.ofDays(1));
+  }
+
+  @Test
+  void flush_writesPendingResultLinesInBatches() {
+    var resultLine1 = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    var resultLine2 = new ResultLine(SITE_NAME_2, SUCCESS, 20L);
+    var resultLine3 = new ResultLine("site-name-143730", ERROR, 0L);
+    store.scheduleWrite(queryId, resultLine1);
+    store.scheduleWrite(queryId, resultLine2);
+    store.scheduleWrite(queryId, resultLine3);
+
+    store.flush();
+
+    assertThat(store.findByQuery(queryId)).containsExactlyInAnyOrder(resultLine1, resultLine2,
+        resultLine3);
+  }
+
+  @Test
+  void flush_dropsResultLinesOfQueriesThatNoLongerExist() {
+    var resultLine = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    var deletedQueryId = queryId + 1000;
+    store.scheduleWrite(deletedQueryId, new ResultLine(SITE_NAME_2, SUCCESS, 20L));
+    store.scheduleWrite(queryId, resultLine);
+
+    store.flush();
+
+    assertThat(store.findByQuery(queryId)).singleElement().isEqualTo(resultLine);
+    assertThat(store.findByQuery(deletedQueryId)).isEmpty();
+  }
+
+  @Test
+  void flush_keepsFirstResultLinePerSite() {
+    var resultLine = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    store.scheduleWrite(queryId, resultLine);
+    store.flush();
+
+    store.scheduleWrite(queryId, new ResultLine(SITE_NAME_1, ERROR, 0L));
+    store.flush();
+
+    assertThat(store.findByQuery(queryId)).singleElement().isEqualTo(resultLine);
+  }
+
+  @Test
+  void findByQuery_resultLinesAreVisibleToOtherStoreInstances() {
+    var resultLine = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    store.scheduleWrite(queryId, resultLine);
+    store.flush();
+
+    var restartedStore = new PersistentResultLineStore(resultLineRepository, 2,
+        Duration.ofMinutes(10), Duration.ofDays(1));
+
+    assertThat(restartedStore.findByQuery(queryId)).singleElement().isEqualTo(resultLine);
+  }
+
+  @Test
+  void purgeExpiredResultLines_deletesResultLinesOlderThanTheRetention() {
+    store.scheduleWrite(queryId, new ResultLine(SITE_NAME_1, SUCCESS, 10L));
+    store.flush();
+    var storeWithoutRetention = new PersistentResultLineStore(resultLineRepository, 2,
+        Duration.ofMinutes(10), Duration.ofDays(-1));
+
+    assertThat(store.purgeExpiredResultLines()).isZero();
+    assertThat(storeWithoutRetention.purgeExpiredResultLines()).isOne();
+    assertThat(store.findByQuery(queryId)).isEmpty();
+  }
+}
@@ -0,0 +1,70 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.SUCCESS;
+import static de.numcodex.feasibility_gui_backend.query.result.PersistentResultLineStore.MAX_WRITE_ATTEMPTS;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntryRepository;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@Tag("query")
+@Tag("result")
+@ExtendWith(MockitoExtension.class)
+class PersistentResultLineStoreTest {
+
+  private static final long QUERY_ID = 1L;
+  private static final String SITE_NAME = "site-name-143720";
+
+  @Mock
+  private QueryResultLineEntryRepository resultLineRepository;
+
+  private PersistentResultLineStore store;
+
+  @BeforeEach
+  void setUp() {
+    store = new PersistentResultLineStore(resultLineRepository, 2, Duration.ofMinutes(10),
+        Duration.ofDays(1));
+  }
+
+  @Test
+  void flush_retriesFailedResultLinesWithNextFlush() {
+    when(resultLineRepository.insertAllIgnoringExisting(anyList(), anyList(), anyList(), anyList()))
+        .thenThrow(new RuntimeException("database unavailable"))
+        .thenReturn(1);
+    store.scheduleWrite(QUERY_ID, new ResultLine(SITE_NAME, SUCCESS, 10L));
+
+    store.flush();
+    store.flush();
+    store.flush();
+
+    verify(resultLineRepository, times(2)).insertAllIgnoringExisting(List.of(QUERY_ID),
+        List.of(SITE_NAME), List.of(SUCCESS.getShortcode()), List.of(10L));
+    verifyNoMoreInteractions(resultLineRepository);
+  }
+
+  @Test
+  void flush_givesUpAfterMaxWriteAttempts() {
+    when(resultLineRepository.insertAllIgnoringExisting(anyList(), anyList(), anyList(), anyList()))
+        .thenThrow(new RuntimeException("database unavailable"));
+    store.scheduleWrite(QUERY_ID, new ResultLine(SITE_NAME, SUCCESS, 10L));
+
+    for (int i = 0; i < MAX_WRITE_ATTEMPTS + 1; i++) {
+      store.flush();
+    }
+
+    verify(resultLineRepository, times(MAX_WRITE_ATTEMPTS)).insertAllIgnoringExisting(
+        eq(List.of(QUERY_ID)), anyList(), anyList(), anyList());
+  }
+}
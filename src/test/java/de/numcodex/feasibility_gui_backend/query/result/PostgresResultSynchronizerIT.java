@@ -0,0 +1,131 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.ERROR;
+import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.SUCCESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.zaxxer.hikari.HikariDataSource;
+import de.numcodex.feasibility_gui_backend.query.persistence.Query;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryContent;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryResultLineEntryRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Tag("query")
+@Tag("result")
+@Tag("peristence")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers
+// Notifications are only delivered for committed transactions.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@SuppressWarnings("NewClassNamingConvention")
+class PostgresResultSynchronizerIT {
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private DataSourceProperties dataSourceProperties;
+
+  @Autowired
+  private QueryContentRepository queryContentRepository;
+
+  @Autowired
+  private QueryRepository queryRepository;
+
+  @Autowired
+  private QueryResultLineEntryRepository resultLineRepository;
+
+  private final BlockingQueue<Map.Entry<Long, ResultLine>> persistedResultLines = new LinkedBlockingQueue<>();
+
+  private final CountDownLatch listening = new CountDownLatch(1);
+
+  private PostgresResultSynchronizer synchronizer;
+
+  private QueryContent queryContent;
+
+  private Query query;
+
+  @BeforeEach
+  void setUp() throws InterruptedException {
+    queryContent = new QueryContent("{}");
+    queryContent.setHash("b3189dffc");
+    queryContentRepository.save(queryContent);
+
+    query = new Query();
+    query.setQueryContent(queryContent);
+    query.setCreatedBy("testuser");
+    query = queryRepository.save(query);
+
+    var listenerDataSource = dataSourceProperties.initializeDataSourceBuilder()
+        .type(SimpleDriverDataSource.class)
+        .build();
+    synchronizer = new PostgresResultSynchronizer(listenerDataSource,
+        (queryId, resultLine) -> persistedResultLines.add(Map.entry(queryId, resultLine)), listening::countDown);
+    synchronizer.start();
+    assertThat(listening.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @AfterEach
+  void tearDown() {
+    synchronizer.close();
+    queryRepository.delete(query);
+    queryContentRepository.delete(queryContent);
+  }
+
+  @Test
+  void listeningDoesNotHoldPooledConnection() {
+    assertThat(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections()).isZero();
+  }
+
+  @Test
+  void persistedResultLinesNotifyAboutThemselves() throws InterruptedException {
+    resultLineRepository.insertAllIgnoringExisting(List.of(query.getId()), List.of("site-name-143720"),
+        List.of("S"), List.of(10L));
+
+    assertThat(persistedResultLines.poll(10, TimeUnit.SECONDS))
+        .isEqualTo(entry(query.getId(), new ResultLine("site-name-143720", SUCCESS, 10L)));
+  }
+
+  @Test
+  void persistedResultLinesNotifyAboutSiteNamesContainingCommas() throws InterruptedException {
+    resultLineRepository.insertAllIgnoringExisting(List.of(query.getId()), List.of("site, name"),
+        List.of("E"), List.of(0L));
+
+    assertThat(persistedResultLines.poll(10, TimeUnit.SECONDS))
+        .isEqualTo(entry(query.getId(), new ResultLine("site, name", ERROR, 0L)));
+  }
+
+  @Test
+  void skippedResultLinesDoNotNotify() throws InterruptedException {
+    resultLineRepository.insertAllIgnoringExisting(List.of(query.getId()), List.of("site-name-143720"),
+        List.of("S"), List.of(10L));
+    assertThat(persistedResultLines.poll(10, TimeUnit.SECONDS)).isNotNull();
+
+    resultLineRepository.insertAllIgnoringExisting(List.of(query.getId()), List.of("site-name-143720"),
+        List.of("E"), List.of(0L));
+
+    assertThat(persistedResultLines.poll(2, TimeUnit.SECONDS)).isNull();
+  }
+}
@@ -3,10 +3,24 @@ package de.numcodex.feasibility_gui_backend.query.result;
 import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.ERROR;
 import static de.numcodex.feasibility_gui_backend.query.persistence.ResultType.SUCCESS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
+import de.numcodex.feasibility_gui_backend.query.persistence.BrokerClientType;
 import de.numcodex.feasibility_gui_backend.query.persistence.QueryDispatchRepository;
 import java.net.URI;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 import org.aktin.broker.client2.BrokerAdmin2;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -103,4 +117,208 @@ class ResultServiceTest {
     assertThat(resultLines1).singleElement().isEqualTo(resultLine);
     assertThat(resultLines2).singleElement().isEqualTo(resultLine);
   }
+
+  @Test
+  void getSummaryByQuery_unknownQuery() {
+    assertThat(resultService.getSummaryByQuery(QUERY_ID)).isEqualTo(ResultSummary.EMPTY);
+  }
+
+  @Test
+  void getSummaryByQuery_aggregatesSuccessfulResultLines() {
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME_1, SUCCESS, 10L));
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME_2, SUCCESS, 32L));
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME, ERROR, 0L));
+
+    var summary = resultService.getSummaryByQuery(QUERY_ID);
+
+    assertThat(summary).isEqualTo(new ResultSummary(3, 2, 42L));
+  }
+
+  @Test
+  void getSummaryByQuery_ignoresDiscardedResultLines() {
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME, SUCCESS, 10L));
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME, SUCCESS, 20L));
+
+    var summary = resultService.getSummaryByQuery(QUERY_ID);
+
+    assertThat(summary).isEqualTo(new ResultSummary(1, 1, 10L));
+  }
+
+  @Test
+  void getSummariesByQueries() {
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME_1, SUCCESS, 10L));
+    resultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME_2, SUCCESS, 32L));
+    resultService.addResultLine(QUERY_ID + 1, new ResultLine(SITE_NAME, SUCCESS, 5L));
+
+    var summaries = resultService.getSummariesByQueries(List.of(QUERY_ID, QUERY_ID + 1, QUERY_ID + 2));
+
+    assertThat(summaries).containsOnly(
+        entry(QUERY_ID, new ResultSummary(2, 2, 42L)),
+        entry(QUERY_ID + 1, new ResultSummary(1, 1, 5L)),
+        entry(QUERY_ID + 2, ResultSummary.EMPTY));
+  }
+
+  @Test
+  void getSummaryByQuery_concurrentlyAddedResultLines() throws Exception {
+    var sites = 64;
+    var executor = Executors.newFixedThreadPool(8);
+    try {
+      var tasks = IntStream.range(0, sites)
+          .mapToObj(site -> (Callable<Void>) () -> {
+            resultService.addResultLine(QUERY_ID, new ResultLine("site-" + site, SUCCESS, 1L));
+            return null;
+          })
+          .toList();
+      for (var future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(resultService.getSummaryByQuery(QUERY_ID)).isEqualTo(new ResultSummary(sites, sites, sites));
+    assertThat(resultService.findSuccessfulByQuery(QUERY_ID)).hasSize(sites);
+  }
+
+  @Test
+  void addResultLine_schedulesWriteOfAddedResultLinesOnly() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine = new ResultLine(SITE_NAME, SUCCESS, 10L);
+
+    persistingResultService.addResultLine(QUERY_ID, resultLine);
+    persistingResultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME, ERROR, 0L));
+
+    verify(persistentResultLineStore).scheduleWrite(QUERY_ID, resultLine);
+    verifyNoMoreInteractions(persistentResultLineStore);
+  }
+
+  @Test
+  void findSuccessfulByQuery_loadsPersistedResultLinesOnce() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine = new ResultLine(SITE_NAME, SUCCESS, 10L);
+    when(persistentResultLineStore.findByQuery(QUERY_ID)).thenReturn(List.of(resultLine));
+
+    var resultLines = persistingResultService.findSuccessfulByQuery(QUERY_ID);
+    var summary = persistingResultService.getSummaryByQuery(QUERY_ID);
+
+    assertThat(resultLines).singleElement().isEqualTo(resultLine);
+    assertThat(summary).isEqualTo(new ResultSummary(1, 1, 10L));
+    verify(persistentResultLineStore, times(1)).findByQuery(QUERY_ID);
+  }
+
+  @Test
+  void refreshFromPersistence_addsResultLinesReceivedByOtherInstances() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine1 = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    var resultLine2 = new ResultLine(SITE_NAME_2, SUCCESS, 32L);
+    persistingResultService.addResultLine(QUERY_ID, resultLine1);
+    when(persistentResultLineStore.findByQuery(QUERY_ID)).thenReturn(List.of(resultLine1, resultLine2));
+
+    assertThat(persistingResultService.refreshFromPersistence(QUERY_ID)).isTrue();
+    assertThat(persistingResultService.refreshFromPersistence(QUERY_ID)).isFalse();
+    assertThat(persistingResultService.findSuccessfulByQuery(QUERY_ID))
+        .containsExactlyInAnyOrder(resultLine1, resultLine2);
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(new ResultSummary(2, 2, 42L));
+  }
+
+  @Test
+  void addPersistedResultLine_addsResultLineReceivedByOtherInstance() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine1 = new ResultLine(SITE_NAME_1, SUCCESS, 10L);
+    var resultLine2 = new ResultLine(SITE_NAME_2, SUCCESS, 32L);
+    persistingResultService.addResultLine(QUERY_ID, resultLine1);
+
+    assertThat(persistingResultService.addPersistedResultLine(QUERY_ID, resultLine2)).isTrue();
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(new ResultSummary(2, 2, 42L));
+    verify(persistentResultLineStore, times(1)).scheduleWrite(QUERY_ID, resultLine1);
+    verifyNoMoreInteractions(persistentResultLineStore);
+  }
+
+  @Test
+  void addPersistedResultLine_discardsResultLineReceivedByThisInstance() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine = new ResultLine(SITE_NAME, SUCCESS, 10L);
+    persistingResultService.addResultLine(QUERY_ID, resultLine);
+
+    assertThat(persistingResultService.addPersistedResultLine(QUERY_ID, resultLine)).isFalse();
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(new ResultSummary(1, 1, 10L));
+  }
+
+  @Test
+  void addPersistedResultLine_ignoresQueriesNotHeldInMemory() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+
+    assertThat(persistingResultService.addPersistedResultLine(QUERY_ID,
+        new ResultLine(SITE_NAME, SUCCESS, 10L))).isFalse();
+    verifyNoMoreInteractions(persistentResultLineStore);
+  }
+
+  @Test
+  void refreshFromPersistence_ignoresQueriesNotHeldInMemory() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+
+    assertThat(persistingResultService.refreshFromPersistence(QUERY_ID)).isFalse();
+    verifyNoMoreInteractions(persistentResultLineStore);
+  }
+
+  @Test
+  void getSummaryByQuery_loadsQueryWithoutPersistedResultLinesOnce() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    when(persistentResultLineStore.findByQuery(QUERY_ID)).thenReturn(List.of());
+
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(ResultSummary.EMPTY);
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(ResultSummary.EMPTY);
+
+    verify(persistentResultLineStore, times(1)).findByQuery(QUERY_ID);
+  }
+
+  @Test
+  void refreshFromPersistence_addsResultLinesToQueryLoadedWithoutResultLines() {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, null, queryDispatchRepository,
+        persistentResultLineStore);
+    var resultLine = new ResultLine(SITE_NAME, SUCCESS, 10L);
+    when(persistentResultLineStore.findByQuery(QUERY_ID)).thenReturn(List.of(), List.of(resultLine));
+
+    persistingResultService.getSummaryByQuery(QUERY_ID);
+
+    assertThat(persistingResultService.refreshFromPersistence(QUERY_ID)).isTrue();
+    assertThat(persistingResultService.getSummaryByQuery(QUERY_ID)).isEqualTo(new ResultSummary(1, 1, 10L));
+  }
+
+  @Test
+  void expiry_deletesQueryFromAktinBrokerOnlyIfResultsHaveBeenReceived() throws Exception {
+    var persistentResultLineStore = mock(PersistentResultLineStore.class);
+    var persistingResultService = new ResultService(expiryTime, mock(BrokerAdmin2.class), queryDispatchRepository,
+        persistentResultLineStore);
+    when(persistentResultLineStore.findByQuery(QUERY_ID_1))
+        .thenReturn(List.of(new ResultLine(SITE_NAME, SUCCESS, 10L)));
+    persistingResultService.addResultLine(QUERY_ID_2, new ResultLine(SITE_NAME, SUCCESS, 10L));
+    persistingResultService.getSummaryByQuery(QUERY_ID_1);
+    Thread.sleep(expiryTime.plusMillis(250).toMillis());
+
+    // Triggers the removal of expired results.
+    persistingResultService.addResultLine(QUERY_ID, new ResultLine(SITE_NAME, SUCCESS, 10L));
+
+    verify(queryDispatchRepository, timeout(1000)).findByQueryIdAndBrokerType(
+        Long.toString(QUERY_ID_2), BrokerClientType.AKTIN);
+    verify(queryDispatchRepository, after(250).never()).findByQueryIdAndBrokerType(
+        Long.toString(QUERY_ID_1), BrokerClientType.AKTIN);
+  }
 }
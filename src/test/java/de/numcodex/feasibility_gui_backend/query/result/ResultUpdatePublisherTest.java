@@ -0,0 +1,86 @@
+package de.numcodex.feasibility_gui_backend.query.result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("query")
+@Tag("result")
+class ResultUpdatePublisherTest {
+
+  private static final long QUERY_ID = 1L;
+  private static final long OTHER_QUERY_ID = 2L;
+
+  private final ResultUpdatePublisher publisher = new ResultUpdatePublisher(Runnable::run);
+
+  @Test
+  void publish_NotifiesSubscribersOfTheQueryOnly() {
+    var notifications = new AtomicInteger();
+    var otherNotifications = new AtomicInteger();
+    publisher.subscribe(QUERY_ID, notifications::incrementAndGet);
+    publisher.subscribe(OTHER_QUERY_ID, otherNotifications::incrementAndGet);
+
+    publisher.publish(QUERY_ID);
+
+    assertThat(notifications).hasValue(1);
+    assertThat(otherNotifications).hasValue(0);
+  }
+
+  @Test
+  void publish_DoesNotNotifyUnsubscribedSubscribers() {
+    var notifications = new AtomicInteger();
+    Runnable subscriber = notifications::incrementAndGet;
+    publisher.subscribe(QUERY_ID, subscriber);
+
+    publisher.unsubscribe(QUERY_ID, subscriber);
+    publisher.publish(QUERY_ID);
+
+    assertThat(notifications).hasValue(0);
+  }
+
+  @Test
+  void publish_FailingSubscriberDoesNotPreventOtherNotifications() {
+    var notifications = new AtomicInteger();
+    publisher.subscribe(QUERY_ID, () -> {
+      throw new IllegalStateException("emitter already completed");
+    });
+    publisher.subscribe(QUERY_ID, notifications::incrementAndGet);
+
+    assertThatNoException().isThrownBy(() -> publisher.publish(QUERY_ID));
+    assertThat(notifications).hasValue(1);
+  }
+
+  @Test
+  void publish_HandsNotificationsOffToTheExecutor() {
+    var pendingNotifications = new ArrayList<Runnable>();
+    var publisher = new ResultUpdatePublisher(pendingNotifications::add);
+    var notifications = new AtomicInteger();
+    publisher.subscribe(QUERY_ID, notifications::incrementAndGet);
+
+    publisher.publish(QUERY_ID);
+
+    assertThat(notifications).hasValue(0);
+    pendingNotifications.forEach(Runnable::run);
+    assertThat(notifications).hasValue(1);
+  }
+
+  @Test
+  void publish_SaturatedExecutorDoesNotThrow() {
+    var publisher = new ResultUpdatePublisher(notification -> {
+      throw new RejectedExecutionException("queue full");
+    });
+    publisher.subscribe(QUERY_ID, () -> {});
+
+    assertThatNoException().isThrownBy(() -> publisher.publish(QUERY_ID));
+  }
+
+  @Test
+  void unsubscribe_UnknownSubscriberHasNoEffect() {
+    assertThatNoException().isThrownBy(() -> publisher.unsubscribe(QUERY_ID, () -> {}));
+  }
+}
@@ -0,0 +1,224 @@
+package de.numcodex.feasibility_gui_backend.query.templates;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.common.api.Criterion;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.query.api.InvalidStoredQuery;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import de.numcodex.feasibility_gui_backend.query.dispatch.QueryHashCalculator;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryContentRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplateRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplateWithContent;
+import de.numcodex.feasibility_gui_backend.query.persistence.SavedQueryRepository;
+import de.numcodex.feasibility_gui_backend.query.persistence.StoredQueryWithContent;
+import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.net.URI;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static de.numcodex.feasibility_gui_backend.query.templates.QueryTemplateHandler.VALIDATION_CHUNK_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Tag("query")
+@Tag("template")
+@ExtendWith(MockitoExtension.class)
+public class QueryTemplateHandlerTest {
+
+  private static final String AUTHOR = "author-151523";
+  private static final TermCode TERM_CODE = new TermCode("LL2191-6", "http://loinc.org", null, "Geschlecht");
+
+  @Mock
+  private QueryHashCalculator queryHashCalculator;
+
+  @Mock
+  private QueryRepository queryRepository;
+
+  @Mock
+  private QueryContentRepository queryContentRepository;
+
+  @Mock
+  private QueryTemplateRepository queryTemplateRepository;
+
+  @Mock
+  private SavedQueryRepository savedQueryRepository;
+
+  @Mock
+  private TermCodeValidation termCodeValidation;
+
+  private String queryContent;
+
+  private QueryTemplateHandler queryTemplateHandler;
+
+  @BeforeEach
+  public void setUp() throws JsonProcessingException {
+    var jsonUtil = new ObjectMapper();
+    queryContent = jsonUtil.writeValueAsString(new StructuredQuery(
+        URI.create("http://to_be_decided.com/draft-2/schema#"),
+        List.of(List.of(new Criterion(List.of(TERM_CODE), null, null, null))), null, null));
+    queryTemplateHandler = new QueryTemplateHandler(queryHashCalculator, jsonUtil, queryRepository,
+        queryContentRepository, queryTemplateRepository, savedQueryRepository, termCodeValidation);
+  }
+
+  private List<QueryTemplateWithContent> createTemplates(long firstId, long lastId) {
+    return LongStream.rangeClosed(firstId, lastId)
+        .mapToObj(id -> (QueryTemplateWithContent) new TestQueryTemplate(id, queryContent))
+        .toList();
+  }
+
+  @Test
+  public void testValidateTemplates_validatesEachChunkAtOnce() {
+    doReturn(createTemplates(1, VALIDATION_CHUNK_SIZE))
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(createTemplates(VALIDATION_CHUNK_SIZE + 1, VALIDATION_CHUNK_SIZE + 2))
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq((long) VALIDATION_CHUNK_SIZE),
+            any(Pageable.class));
+    doAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(query -> List.of()).toList())
+        .when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var validatedTemplates = queryTemplateHandler.validateTemplates(AUTHOR);
+
+    assertEquals(VALIDATION_CHUNK_SIZE + 2, validatedTemplates.size());
+    assertEquals(LongStream.rangeClosed(1, VALIDATION_CHUNK_SIZE + 2).boxed().toList(),
+        validatedTemplates.stream().map(template -> template.id()).toList());
+    assertTrue(validatedTemplates.stream().allMatch(template -> template.isValid()));
+    assertTrue(validatedTemplates.stream().allMatch(template -> template.content() == null));
+    verify(queryTemplateRepository, times(2)).findWithContentByAuthor(eq(AUTHOR), anyLong(), any(Pageable.class));
+    verify(termCodeValidation, times(2)).getInvalidTermCodes(anyList());
+  }
+
+  @Test
+  public void testValidateTemplates_reportsInvalidTermCodes() {
+    doReturn(createTemplates(1, 1))
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of(List.of(TERM_CODE))).when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var validatedTemplates = queryTemplateHandler.validateTemplates(AUTHOR);
+
+    assertEquals(1, validatedTemplates.size());
+    assertFalse(validatedTemplates.get(0).isValid());
+    assertEquals(List.of(TERM_CODE), validatedTemplates.get(0).invalidTerms());
+  }
+
+  @Test
+  public void testValidateTemplates_skipsTemplatesWithJsonErrors() {
+    doReturn(List.of(new TestQueryTemplate(1L, "{invalid"), new TestQueryTemplate(2L, queryContent)))
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of(List.of())).when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var validatedTemplates = queryTemplateHandler.validateTemplates(AUTHOR);
+
+    assertEquals(1, validatedTemplates.size());
+    assertEquals(2L, validatedTemplates.get(0).id());
+  }
+
+  @Test
+  public void testValidateTemplates_emptyListWithoutTemplates() {
+    doReturn(List.of())
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of()).when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var validatedTemplates = queryTemplateHandler.validateTemplates(AUTHOR);
+
+    assertTrue(validatedTemplates.isEmpty());
+  }
+
+  @Test
+  public void testValidateTemplates_keepsMissingLastModified() {
+    doReturn(List.of(new TestQueryTemplate(1L, queryContent, null)))
+        .when(queryTemplateRepository).findWithContentByAuthor(eq(AUTHOR), eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of(List.of())).when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var validatedTemplates = queryTemplateHandler.validateTemplates(AUTHOR);
+
+    assertNull(validatedTemplates.get(0).lastModified());
+  }
+
+  @Test
+  public void testFindInvalidStoredQueries_reportsOnlyInvalidTemplatesAndSavedQueries() {
+    doReturn(createTemplates(1, 2))
+        .when(queryTemplateRepository).findWithContent(eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of(new TestSavedQuery(3L, queryContent)))
+        .when(savedQueryRepository).findWithContent(eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of(List.of(), List.of(TERM_CODE)), List.of(List.of(TERM_CODE)))
+        .when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var invalidQueries = queryTemplateHandler.findInvalidStoredQueries();
+
+    assertEquals(List.of(
+            new InvalidStoredQuery(InvalidStoredQuery.Type.TEMPLATE, 2L, "label-2", AUTHOR, List.of(TERM_CODE)),
+            new InvalidStoredQuery(InvalidStoredQuery.Type.SAVED_QUERY, 3L, "saved-3", AUTHOR, List.of(TERM_CODE))),
+        invalidQueries);
+  }
+
+  @Test
+  public void testFindInvalidStoredQueries_walksAllChunks() {
+    doReturn(createTemplates(1, VALIDATION_CHUNK_SIZE))
+        .when(queryTemplateRepository).findWithContent(eq(Long.MIN_VALUE), any(Pageable.class));
+    doReturn(List.of())
+        .when(queryTemplateRepository).findWithContent(eq((long) VALIDATION_CHUNK_SIZE), any(Pageable.class));
+    doReturn(List.of())
+        .when(savedQueryRepository).findWithContent(eq(Long.MIN_VALUE), any(Pageable.class));
+    doAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream().map(query -> List.of()).toList())
+        .when(termCodeValidation).getInvalidTermCodes(anyList());
+
+    var invalidQueries = queryTemplateHandler.findInvalidStoredQueries();
+
+    assertTrue(invalidQueries.isEmpty());
+    verify(queryTemplateRepository, times(2)).findWithContent(anyLong(), any(Pageable.class));
+    verify(savedQueryRepository).findWithContent(anyLong(), any(Pageable.class));
+  }
+
+  private record TestSavedQuery(Long getId, String getQueryContent) implements StoredQueryWithContent {
+
+    @Override
+    public String getLabel() {
+      return "saved-" + getId;
+    }
+
+    @Override
+    public String getCreatedBy() {
+      return AUTHOR;
+    }
+  }
+
+  private record TestQueryTemplate(Long getId, String getQueryContent, Timestamp getLastModified)
+      implements QueryTemplateWithContent {
+
+    private TestQueryTemplate(Long id, String queryContent) {
+      this(id, queryContent, new Timestamp(System.currentTimeMillis()));
+    }
+
+    @Override
+    public String getLabel() {
+      return "label-" + getId;
+    }
+
+    @Override
+    public String getComment() {
+      return null;
+    }
+
+    @Override
+    public String getCreatedBy() {
+      return AUTHOR;
+    }
+  }
+}
@@ -38,25 +38,24 @@ public class CqlQueryTranslatorTest {
     private CqlQueryTranslator cqlQueryTranslator;
 
     @Test
-    public void testTranslate_ModelConversionFailsDuringEncoding() throws JsonProcessingException {
+    public void testTranslate_ModelConversionFails() {
         var testQuery = new StructuredQuery(null, null, null, null);
-        doThrow(JsonProcessingException.class).when(jsonUtil).writeValueAsString(testQuery);
+        doThrow(IllegalArgumentException.class).when(jsonUtil).convertValue(testQuery,
+                de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
 
         assertThrows(QueryTranslationException.class, () -> cqlQueryTranslator.translate(testQuery));
-        verify(jsonUtil, never()).readValue(anyString(), eq(de.numcodex.sq2cql.model.structured_query.StructuredQuery.class));
+        verify(jsonUtil).convertValue(testQuery, de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
         verifyNoInteractions(translator);
     }
 
     @Test
-    public void testTranslate_ModelConversionFailsDuringDecoding() throws JsonProcessingException {
+    public void testTranslate_ModelConversionDoesNotSerializeQuery() throws JsonProcessingException {
         var testQuery = new StructuredQuery(null, null, null, null);
-        doReturn("foo").when(jsonUtil).writeValueAsString(testQuery);
-        doThrow(JsonProcessingException.class).when(jsonUtil).readValue("foo",
-                de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
 
+        // The translator mock does not yield a library, thus the translation itself fails in any case.
         assertThrows(QueryTranslationException.class, () -> cqlQueryTranslator.translate(testQuery));
-        verify(jsonUtil).readValue("foo", de.numcodex.sq2cql.model.structured_query.StructuredQuery.class);
-        verifyNoInteractions(translator);
+        verify(jsonUtil, never()).writeValueAsString(any());
+        verify(jsonUtil, never()).readValue(anyString(), eq(de.numcodex.sq2cql.model.structured_query.StructuredQuery.class));
     }
 
     @Disabled("Needs to be enabled if the new version of sq2cl is available and compatible with structured query v2.")
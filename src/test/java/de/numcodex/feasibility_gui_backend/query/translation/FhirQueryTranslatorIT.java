@@ -16,8 +16,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.wait.strategy.Wait;
@@ -26,6 +26,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 import static de.numcodex.feasibility_gui_backend.common.api.Comparator.GREATER_EQUAL;
@@ -78,11 +79,9 @@ public class FhirQueryTranslatorIT {
                 .build()
                 .toString();
 
-        var client = new RestTemplateBuilder()
-                .rootUri(flareRootUri)
-                .build();
+        var client = WebClient.create(flareRootUri);
 
-        fhirQueryTranslator = new FhirQueryTranslator(client, jsonUtil);
+        fhirQueryTranslator = new FhirQueryTranslator(client, jsonUtil, Duration.ofSeconds(20));
     }
 
     @Test
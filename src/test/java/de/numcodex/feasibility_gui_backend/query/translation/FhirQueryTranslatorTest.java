@@ -4,35 +4,46 @@ package de.numcodex.feasibility_gui_backend.query.translation;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.*;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @Tag("query")
 @Tag("translation")
-@ExtendWith(MockitoExtension.class)
 public class FhirQueryTranslatorTest {
 
-    @Mock
-    private RestTemplate client;
+    private MockWebServer flare;
 
-    @Spy
     private ObjectMapper jsonUtil;
 
-    @InjectMocks
     private FhirQueryTranslator fhirQueryTranslator;
 
-    @Captor
-    private ArgumentCaptor<HttpEntity<String>> requestCaptor;
+    @BeforeEach
+    public void setUp() throws IOException {
+        flare = new MockWebServer();
+        flare.start();
+        jsonUtil = spy(new ObjectMapper());
+        fhirQueryTranslator = new FhirQueryTranslator(WebClient.create(flare.url("/").toString()), jsonUtil,
+                Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        flare.shutdown();
+    }
 
     @Test
     public void testTranslate_EncodingStructuredQueryForRequestFails() throws JsonProcessingException {
@@ -41,33 +52,45 @@ public class FhirQueryTranslatorTest {
 
         assertThrows(QueryTranslationException.class, () -> fhirQueryTranslator.translate(testQuery));
         verify(jsonUtil).writeValueAsString(testQuery);
-        verifyNoInteractions(client);
+        assertEquals(0, flare.getRequestCount());
     }
 
     @Test
     public void testTranslate_RequestToExternalTranslationServiceFails() throws JsonProcessingException {
         var testQuery = new StructuredQuery(null, null, null, null);
         doReturn("foo").when(jsonUtil).writeValueAsString(testQuery);
-        doThrow(RestClientException.class).when(client)
-                .postForObject(anyString(), any(), eq(String.class));
+        flare.enqueue(new MockResponse().setResponseCode(500));
 
         assertThrows(QueryTranslationException.class, () -> fhirQueryTranslator.translate(testQuery));
         verify(jsonUtil).writeValueAsString(testQuery);
-        verify(client).postForObject(anyString(), any(), eq(String.class));
+        assertEquals(1, flare.getRequestCount());
+    }
+
+    @Test
+    public void testTranslate_RequestToExternalTranslationServiceTimesOut() {
+        var testQuery = new StructuredQuery(null, null, null, null);
+        flare.enqueue(new MockResponse().setBody("bar").setBodyDelay(5, TimeUnit.SECONDS));
+
+        StepVerifier.create(fhirQueryTranslator.translateReactively(testQuery))
+                .expectError(QueryTranslationException.class)
+                .verify(Duration.ofSeconds(2));
     }
 
     @Test
-    public void testTranslate_EverythingSucceeds() throws JsonProcessingException, QueryTranslationException {
+    public void testTranslate_EverythingSucceeds() throws JsonProcessingException, QueryTranslationException,
+            InterruptedException {
         var testQuery = new StructuredQuery(null, null, null, null);
         doReturn("foo").when(jsonUtil).writeValueAsString(testQuery);
-        when(client.postForObject(eq("/query/translate"), requestCaptor.capture(), eq(String.class)))
-                .thenReturn("bar");
+        flare.enqueue(new MockResponse().setBody("bar"));
 
         var translationResult = fhirQueryTranslator.translate(testQuery);
+        var request = flare.takeRequest();
+
         assertEquals("bar", translationResult);
-        assertEquals("foo", requestCaptor.getValue().getBody());
-        assertEquals("CSQ", requestCaptor.getValue().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
-        assertNotNull(requestCaptor.getValue().getHeaders().getContentType());
-        assertEquals("application/json", requestCaptor.getValue().getHeaders().getContentType().toString());
+        assertEquals("POST", request.getMethod());
+        assertEquals("/query/translate", request.getPath());
+        assertEquals("foo", request.getBody().readUtf8());
+        assertEquals("CSQ", request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals("application/json", request.getHeader(HttpHeaders.CONTENT_TYPE));
     }
 }
@@ -9,9 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 import static de.numcodex.feasibility_gui_backend.query.QueryMediaType.CQL;
 import static de.numcodex.feasibility_gui_backend.query.QueryMediaType.STRUCTURED_QUERY;
@@ -42,7 +46,13 @@ public class QueryTranslationComponentTest {
     }
 
     private QueryTranslationComponent setUpComponent(Map<QueryMediaType, QueryTranslator> translators) {
-        return new QueryTranslationComponent(translators);
+        return setUpComponent(translators, false);
+    }
+
+    private QueryTranslationComponent setUpComponent(Map<QueryMediaType, QueryTranslator> translators,
+                                                     boolean partialTranslationAllowed) {
+        return new QueryTranslationComponent(translators, new QueryTranslationCache(100, Duration.ofMinutes(1), "v1"),
+                Schedulers.boundedElastic(), Duration.ofSeconds(1), partialTranslationAllowed);
     }
 
     @Test
@@ -53,16 +63,75 @@ public class QueryTranslationComponentTest {
     }
 
     @Test
-    public void testTranslate_TranslationStopsOnFirstException() throws QueryTranslationException {
+    public void testTranslate_TranslationFailsIfAllTranslatorsFail() throws QueryTranslationException {
         var translators = new LinkedHashMap<QueryMediaType, QueryTranslator>();
         translators.put(STRUCTURED_QUERY, firstQueryTranslator);
         translators.put(CQL, secondQueryTranslator);
         var queryTranslationComponent = setUpComponent(translators);
         doThrow(QueryTranslationException.class).when(firstQueryTranslator).translate(testQuery);
+        doThrow(QueryTranslationException.class).when(secondQueryTranslator).translate(testQuery);
 
         assertThrows(QueryTranslationException.class, () -> queryTranslationComponent.translate(testQuery));
         verify(firstQueryTranslator).translate(testQuery);
-        verifyNoInteractions(secondQueryTranslator);
+        verify(secondQueryTranslator).translate(testQuery);
+    }
+
+    @Test
+    public void testTranslate_TranslationFailsIfAnyTranslatorFails() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(
+                STRUCTURED_QUERY, firstQueryTranslator,
+                CQL, secondQueryTranslator
+        ));
+        doThrow(QueryTranslationException.class).when(firstQueryTranslator).translate(testQuery);
+        doReturn("bar").when(secondQueryTranslator).translate(testQuery);
+
+        assertThrows(QueryTranslationException.class, () -> queryTranslationComponent.translate(testQuery));
+    }
+
+    @Test
+    public void testTranslate_FailingTranslatorDoesNotAffectOtherTranslatorsIfPartialTranslationIsAllowed()
+            throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(
+                STRUCTURED_QUERY, firstQueryTranslator,
+                CQL, secondQueryTranslator
+        ), true);
+        doThrow(QueryTranslationException.class).when(firstQueryTranslator).translate(testQuery);
+        doReturn("bar").when(secondQueryTranslator).translate(testQuery);
+
+        var translationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery));
+        assertEquals(Map.of(CQL, "bar"), translationResults);
+    }
+
+    @Test
+    public void testTranslate_SlowTranslatorTimesOut() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(
+                STRUCTURED_QUERY, firstQueryTranslator,
+                CQL, secondQueryTranslator
+        ), true);
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "foo";
+        }).when(firstQueryTranslator).translate(testQuery);
+        doReturn("bar").when(secondQueryTranslator).translate(testQuery);
+
+        var translationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery));
+        assertEquals(Map.of(CQL, "bar"), translationResults);
+    }
+
+    @Test
+    public void testTranslate_IncompleteTranslationsAreNotCached() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(
+                STRUCTURED_QUERY, firstQueryTranslator,
+                CQL, secondQueryTranslator
+        ), true);
+        doThrow(QueryTranslationException.class).doReturn("foo").when(firstQueryTranslator).translate(testQuery);
+        doReturn("bar").when(secondQueryTranslator).translate(testQuery);
+
+        var firstTranslationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, "hash"));
+        var secondTranslationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, "hash"));
+
+        assertEquals(Map.of(CQL, "bar"), firstTranslationResults);
+        assertEquals(Map.of(STRUCTURED_QUERY, "foo", CQL, "bar"), secondTranslationResults);
     }
 
     @Test
@@ -84,4 +153,77 @@ public class QueryTranslationComponentTest {
         assertTrue(translationsResults.containsKey(CQL));
         assertEquals("bar", translationsResults.get(CQL));
     }
+
+    @Test
+    public void testTranslate_TranslationsOfSameQueryContentAreCached() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(STRUCTURED_QUERY, firstQueryTranslator));
+        doReturn("foo").when(firstQueryTranslator).translate(testQuery);
+
+        var firstTranslationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, "hash"));
+        var secondTranslationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, "hash"));
+
+        verify(firstQueryTranslator, times(1)).translate(testQuery);
+        assertEquals(Map.of(STRUCTURED_QUERY, "foo"), firstTranslationResults);
+        assertEquals(firstTranslationResults, secondTranslationResults);
+    }
+
+    @Test
+    public void testTranslate_TranslationsWithoutQueryContentHashAreNotCached() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(STRUCTURED_QUERY, firstQueryTranslator));
+        doReturn("foo").when(firstQueryTranslator).translate(testQuery);
+
+        assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, null));
+        assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, null));
+
+        verify(firstQueryTranslator, times(2)).translate(testQuery);
+    }
+
+    @Test
+    public void testTranslate_FailedTranslationsAreNotCached() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(STRUCTURED_QUERY, firstQueryTranslator));
+        doThrow(QueryTranslationException.class).doReturn("foo").when(firstQueryTranslator).translate(testQuery);
+
+        assertThrows(QueryTranslationException.class, () -> queryTranslationComponent.translate(testQuery, "hash"));
+        var translationResults = assertDoesNotThrow(() -> queryTranslationComponent.translate(testQuery, "hash"));
+
+        assertEquals(Map.of(STRUCTURED_QUERY, "foo"), translationResults);
+    }
+
+    @Test
+    public void testTranslateEachReactively_FastFormatDoesNotWaitForSlowFormat() throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(
+                STRUCTURED_QUERY, firstQueryTranslator,
+                CQL, secondQueryTranslator
+        ), true);
+        doAnswer(invocation -> {
+            Thread.sleep(5000);
+            return "foo";
+        }).when(firstQueryTranslator).translate(testQuery);
+        doReturn("bar").when(secondQueryTranslator).translate(testQuery);
+
+        var translations = queryTranslationComponent.translateEachReactively(testQuery, null);
+
+        StepVerifier.create(translations.get(CQL))
+                .expectNext("bar")
+                .expectComplete()
+                .verify(Duration.ofMillis(500));
+        StepVerifier.create(translations.get(STRUCTURED_QUERY))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    public void testTranslateEachReactively_TranslatesEachFormatOnceAndCachesCompleteTranslations()
+            throws QueryTranslationException {
+        var queryTranslationComponent = setUpComponent(Map.of(STRUCTURED_QUERY, firstQueryTranslator), true);
+        doReturn("foo").when(firstQueryTranslator).translate(testQuery);
+
+        var translations = queryTranslationComponent.translateEachReactively(testQuery, "hash");
+        StepVerifier.create(translations.get(STRUCTURED_QUERY)).expectNext("foo").verifyComplete();
+        StepVerifier.create(translations.get(STRUCTURED_QUERY)).expectNext("foo").verifyComplete();
+        var cachedTranslations = queryTranslationComponent.translateEachReactively(testQuery, "hash");
+        StepVerifier.create(cachedTranslations.get(STRUCTURED_QUERY)).expectNext("foo").verifyComplete();
+
+        verify(firstQueryTranslator, times(1)).translate(testQuery);
+    }
 }
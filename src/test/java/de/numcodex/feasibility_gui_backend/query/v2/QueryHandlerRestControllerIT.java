@@ -16,10 +16,15 @@ import de.numcodex.feasibility_gui_backend.query.ratelimiting.AuthenticationHelp
 import de.numcodex.feasibility_gui_backend.query.ratelimiting.RateLimitingInterceptor;
 import de.numcodex.feasibility_gui_backend.query.ratelimiting.RateLimitingServiceSpringConfig;
 import de.numcodex.feasibility_gui_backend.query.result.ResultLine;
+import de.numcodex.feasibility_gui_backend.query.result.ResultUpdatePublisher;
 import de.numcodex.feasibility_gui_backend.terminology.validation.TermCodeValidation;
 import java.sql.Timestamp;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import org.everit.json.schema.Schema;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -31,6 +36,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -43,6 +49,7 @@ import reactor.core.publisher.Mono;
 import java.net.URI;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
@@ -61,7 +68,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(
         controllers = QueryHandlerRestController.class,
         properties = {
-                "app.enableQueryValidation=true"
+                "app.enableQueryValidation=true",
+                "app.queryResultStreamMaximumPerUser=2"
         }
 )
 @SuppressWarnings("NewClassNamingConvention")
@@ -88,6 +96,12 @@ public class QueryHandlerRestControllerIT {
     @MockBean
     private AuthenticationHelper authenticationHelper;
 
+    @MockBean
+    private ResultUpdatePublisher resultUpdatePublisher;
+
+    @SpyBean(name = "createQueryValidatorJsonSchema")
+    private Schema queryValidationSchema;
+
     @Value("${app.privacy.quota.soft.create.amount}")
     private int quotaSoftCreateAmount;
 
@@ -187,6 +201,25 @@ public class QueryHandlerRestControllerIT {
             .andExpect(status().isNoContent());
     }
 
+    @Test
+    @WithMockUser(roles = "FEASIBILITY_TEST_USER", username = "test")
+    public void testValidateQueryEndpoint_ValidatesRepeatedQueryAgainstSchemaOnce() throws Exception {
+        var validQuery = createValidStructuredQuery();
+        var testQuery = new StructuredQuery(validQuery.version(), validQuery.inclusionCriteria(),
+                validQuery.exclusionCriteria(), "repeated-query-151204");
+
+        doReturn(List.of()).when(termCodeValidation).getInvalidTermCodes(any(StructuredQuery.class));
+
+        for (var i = 0; i < 2; i++) {
+            mockMvc.perform(post(URI.create("/api/v2/query/validate")).with(csrf())
+                    .contentType(APPLICATION_JSON)
+                    .content(jsonUtil.writeValueAsString(testQuery)))
+                .andExpect(status().isNoContent());
+        }
+
+        verify(queryValidationSchema, times(1)).validate(any());
+    }
+
     @Test
     @WithMockUser(roles = "FEASIBILITY_TEST_USER")
     public void testValidateQueryEndpoint_FailsOnInvalidStructuredQueryWith400() throws Exception {
@@ -300,6 +333,27 @@ public class QueryHandlerRestControllerIT {
                 .andExpect(jsonPath("$[0]").doesNotExist());
     }
 
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_ADMIN"}, username = "test")
+    public void testGetInvalidStoredQueries_SucceedsAsAdmin() throws Exception {
+        var termCode = new TermCode("LL2191-6", "http://loinc.org", null, "Geschlecht");
+        doReturn(List.of(new InvalidStoredQuery(InvalidStoredQuery.Type.SAVED_QUERY, 1L, "label", "user1",
+                List.of(termCode)))).when(queryHandlerService).findInvalidStoredQueries();
+
+        mockMvc.perform(get(URI.create("/api/v2/query/invalid-stored")).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("SAVED_QUERY"))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].invalidTerms[0].code").value("LL2191-6"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testGetInvalidStoredQueries_FailsAsUser() throws Exception {
+        mockMvc.perform(get(URI.create("/api/v2/query/invalid-stored")).with(csrf()))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
     public void testGetQuery_succeeds() throws Exception {
@@ -460,6 +514,102 @@ public class QueryHandlerRestControllerIT {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testStreamSummaryResult_succeedsAndSendsCurrentSummary() throws Exception {
+        doReturn("test").when(queryHandlerService).getAuthorId(any(Long.class));
+        doReturn(createTestQueryResult(QueryHandlerService.ResultDetail.SUMMARY)).when(queryHandlerService)
+                .getQueryResult(any(Long.class), eq(QueryHandlerService.ResultDetail.SUMMARY));
+
+        mockMvc.perform(get(URI.create("/api/v2/query/1" + WebSecurityConfig.PATH_SUMMARY_RESULT
+                        + WebSecurityConfig.PATH_STREAM)).with(csrf()))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().string(containsString("event:summary-result")))
+                .andExpect(content().string(containsString("\"totalNumberOfPatients\":123")));
+        verify(resultUpdatePublisher).subscribe(eq(1L), any(Runnable.class));
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "stream-limit-user")
+    public void testStreamSummaryResult_failsOnTooManyOpenStreamsWith429() throws Exception {
+        doReturn("stream-limit-user").when(queryHandlerService).getAuthorId(any(Long.class));
+        doReturn(createTestQueryResult(QueryHandlerService.ResultDetail.SUMMARY)).when(queryHandlerService)
+                .getQueryResult(any(Long.class), eq(QueryHandlerService.ResultDetail.SUMMARY));
+        var streamUri = URI.create("/api/v2/query/1" + WebSecurityConfig.PATH_SUMMARY_RESULT
+                + WebSecurityConfig.PATH_STREAM);
+
+        mockMvc.perform(get(streamUri).with(csrf())).andExpect(request().asyncStarted());
+        mockMvc.perform(get(streamUri).with(csrf())).andExpect(request().asyncStarted());
+        mockMvc.perform(get(streamUri).with(csrf()))
+                .andExpect(status().is(HttpStatus.TOO_MANY_REQUESTS.value()));
+        verify(resultUpdatePublisher, times(2)).subscribe(eq(1L), any(Runnable.class));
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testStreamSummaryResult_failsOnWrongAuthorWith403() throws Exception {
+        doReturn("some-other-user").when(queryHandlerService).getAuthorId(any(Long.class));
+
+        mockMvc.perform(get(URI.create("/api/v2/query/1" + WebSecurityConfig.PATH_SUMMARY_RESULT
+                        + WebSecurityConfig.PATH_STREAM)).with(csrf()))
+                .andExpect(status().isForbidden());
+        verify(resultUpdatePublisher, never()).subscribe(any(Long.class), any(Runnable.class));
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testGetSummaryResults_succeedsAndAppliesPrivacyThreshold() throws Exception {
+        doReturn(Map.of(1L, "test", 2L, "test")).when(queryHandlerService).getAuthorIds(List.of(1L, 2L));
+        doReturn(List.of(
+                QueryResult.builder().queryId(1L).totalNumberOfPatients(123L).resultLines(List.of()).build(),
+                QueryResult.builder().queryId(2L).totalNumberOfPatients(2L).resultLines(List.of()).build()))
+                .when(queryHandlerService).getSummaryQueryResults(List.of(1L, 2L));
+
+        mockMvc.perform(get(URI.create("/api/v2/query" + WebSecurityConfig.PATH_SUMMARY_RESULT + "?id=1&id=2&id=1"))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].queryId").value(1))
+                .andExpect(jsonPath("$[0].totalNumberOfPatients").value(123))
+                .andExpect(jsonPath("$[0].issues").doesNotExist())
+                .andExpect(jsonPath("$[1].queryId").value(2))
+                .andExpect(jsonPath("$[1].totalNumberOfPatients").doesNotExist())
+                .andExpect(jsonPath("$[1].issues[0].code").value(
+                        FeasibilityIssue.PRIVACY_RESTRICTION_RESULT_SIZE.code()));
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testGetSummaryResults_failsIfAnyQueryIsOfAnotherAuthorWith403() throws Exception {
+        doReturn(Map.of(1L, "test", 2L, "some-other-user")).when(queryHandlerService).getAuthorIds(List.of(1L, 2L));
+
+        mockMvc.perform(get(URI.create("/api/v2/query" + WebSecurityConfig.PATH_SUMMARY_RESULT + "?id=1,2"))
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+        verify(queryHandlerService, never()).getSummaryQueryResults(any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testGetSummaryResults_failsOnUnknownQueryWith403() throws Exception {
+        doReturn(Map.of(1L, "test")).when(queryHandlerService).getAuthorIds(List.of(1L, 2L));
+
+        mockMvc.perform(get(URI.create("/api/v2/query" + WebSecurityConfig.PATH_SUMMARY_RESULT + "?id=1,2"))
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"FEASIBILITY_TEST_USER"}, username = "test")
+    public void testGetSummaryResults_failsOnTooManyQueriesWith400() throws Exception {
+        var queryIds = LongStream.rangeClosed(1, 101).mapToObj(Long::toString).collect(Collectors.joining(","));
+
+        mockMvc.perform(get(URI.create("/api/v2/query" + WebSecurityConfig.PATH_SUMMARY_RESULT + "?id=" + queryIds))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+        verify(queryHandlerService, never()).getAuthorIds(any());
+    }
+
     @NotNull
     private static StructuredQuery createValidStructuredQuery() {
         var termCode = new TermCode("LL2191-6", "http://loinc.org", null, "Geschlecht");
@@ -183,14 +183,13 @@ public class QueryTemplateHandlerRestControllerIT {
     @WithMockUser(roles = "FEASIBILITY_TEST_USER")
     public void testValidateTemplates_succeedsWithoutValidationErrors() throws Exception {
         int listSize = 5;
-        doReturn(createValidPersistenceQueryTemplateListToGet(listSize)).when(queryHandlerService).getQueryTemplatesForAuthor(any(String.class));
-        doReturn(createValidApiQueryTemplateToGet(ThreadLocalRandom.current().nextInt())).when(queryHandlerService).convertTemplatePersistenceToApi(any(de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplate.class));
-        doReturn(List.of()).when(termCodeValidation).getInvalidTermCodes(any(StructuredQuery.class));
+        doReturn(createValidatedApiQueryTemplateListToGet(listSize, List.of())).when(queryHandlerService).validateQueryTemplatesForAuthor(any(String.class));
 
         mockMvc.perform(get(URI.create("/api/v2/query/template/validate")).with(csrf()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(listSize))
                 .andExpect(jsonPath("$.[*].id").exists())
+                .andExpect(jsonPath("$.[*].content").doesNotExist())
                 .andExpect(jsonPath("$.[*].isValid", Matchers.not(Matchers.contains(false))));
     }
 
@@ -198,22 +197,18 @@ public class QueryTemplateHandlerRestControllerIT {
     @WithMockUser(roles = "FEASIBILITY_TEST_USER")
     public void testValidateTemplates_succeedsWithValidationErrors() throws Exception {
         int listSize = 5;
-        doReturn(createValidPersistenceQueryTemplateListToGet(listSize)).when(queryHandlerService).getQueryTemplatesForAuthor(any(String.class));
-        doReturn(createValidApiQueryTemplateToGet(ThreadLocalRandom.current().nextInt())).when(queryHandlerService).convertTemplatePersistenceToApi(any(de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplate.class));
-        doReturn(List.of(createTermCode())).when(termCodeValidation).getInvalidTermCodes(any(StructuredQuery.class));
+        doReturn(createValidatedApiQueryTemplateListToGet(listSize, List.of(createTermCode()))).when(queryHandlerService).validateQueryTemplatesForAuthor(any(String.class));
 
         mockMvc.perform(get(URI.create("/api/v2/query/template/validate")).with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(listSize));
+                .andExpect(jsonPath("$.length()").value(listSize))
+                .andExpect(jsonPath("$.[*].isValid", Matchers.not(Matchers.contains(true))));
     }
 
     @Test
     @WithMockUser(roles = "FEASIBILITY_TEST_USER")
-    public void testValidateTemplates_emptyListOnJsonErrors() throws Exception {
-        int listSize = 5;
-        doReturn(createValidPersistenceQueryTemplateListToGet(listSize)).when(queryHandlerService).getQueryTemplatesForAuthor(any(String.class));
-        doThrow(JsonProcessingException.class).when(queryHandlerService).convertTemplatePersistenceToApi(any(de.numcodex.feasibility_gui_backend.query.persistence.QueryTemplate.class));
-        doReturn(List.of(createTermCode())).when(termCodeValidation).getInvalidTermCodes(any(StructuredQuery.class));
+    public void testValidateTemplates_emptyListWithoutTemplates() throws Exception {
+        doReturn(List.of()).when(queryHandlerService).validateQueryTemplatesForAuthor(any(String.class));
 
         mockMvc.perform(get(URI.create("/api/v2/query/template/validate")).with(csrf()))
                 .andExpect(status().isOk())
@@ -264,6 +259,22 @@ public class QueryTemplateHandlerRestControllerIT {
                 true);
     }
 
+    @NotNull
+    private static List<QueryTemplate> createValidatedApiQueryTemplateListToGet(int entries, List<TermCode> invalidTerms) {
+        var queryTemplateList = new ArrayList<QueryTemplate>();
+        for (int i = 0; i < entries; ++i) {
+            queryTemplateList.add(new QueryTemplate(i,
+                    null,
+                    "TestLabel",
+                    "TestComment",
+                    new Timestamp(new java.util.Date().getTime()).toString(),
+                    "someone",
+                    invalidTerms,
+                    invalidTerms.isEmpty()));
+        }
+        return queryTemplateList;
+    }
+
     @NotNull
     private static StructuredQuery createValidStructuredQuery() {
         var termCode = new TermCode("LL2191-6", "http://loinc.org", null, "Geschlecht");
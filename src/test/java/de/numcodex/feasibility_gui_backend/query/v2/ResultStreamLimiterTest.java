@@ -0,0 +1,41 @@
+package de.numcodex.feasibility_gui_backend.query.v2;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag("query")
+class ResultStreamLimiterTest {
+
+  private final ResultStreamLimiter limiter = new ResultStreamLimiter(2);
+
+  @Test
+  void tryOpen_FailsOnceTheUserReachedTheMaximum() {
+    assertTrue(limiter.tryOpen("user-1"));
+    assertTrue(limiter.tryOpen("user-1"));
+
+    assertFalse(limiter.tryOpen("user-1"));
+    assertTrue(limiter.tryOpen("user-2"));
+  }
+
+  @Test
+  void close_AllowsOpeningAnotherStream() {
+    limiter.tryOpen("user-1");
+    limiter.tryOpen("user-1");
+
+    limiter.close("user-1");
+
+    assertTrue(limiter.tryOpen("user-1"));
+  }
+
+  @Test
+  void close_UnknownUserHasNoEffect() {
+    limiter.close("user-1");
+
+    assertTrue(limiter.tryOpen("user-1"));
+    assertTrue(limiter.tryOpen("user-1"));
+    assertFalse(limiter.tryOpen("user-1"));
+  }
+}
@@ -0,0 +1,63 @@
+package de.numcodex.feasibility_gui_backend.query.v2;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import de.numcodex.feasibility_gui_backend.query.api.QueryResult;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+@Tag("query")
+@ExtendWith(MockitoExtension.class)
+class SummaryResultStreamTest {
+
+  @Mock
+  private SseEmitter emitter;
+
+  private final AtomicLong totalNumberOfPatients = new AtomicLong();
+
+  private SummaryResultStream stream;
+
+  @BeforeEach
+  void setUp() {
+    stream = new SummaryResultStream(emitter,
+        () -> QueryResult.builder()
+            .queryId(1L)
+            .totalNumberOfPatients(totalNumberOfPatients.get())
+            .resultLines(List.of())
+            .build(),
+        Function.identity());
+  }
+
+  @Test
+  void run_SendsEventOnlyWhenTheSummaryChanged() throws IOException {
+    stream.run();
+    stream.run();
+    totalNumberOfPatients.set(42);
+    stream.run();
+
+    verify(emitter, times(2)).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  void run_CompletesEmitterIfSendingFails() throws IOException {
+    var error = new IOException("connection reset by peer");
+    doThrow(error).when(emitter).send(any(SseEventBuilder.class));
+
+    stream.run();
+
+    verify(emitter).completeWithError(error);
+  }
+}
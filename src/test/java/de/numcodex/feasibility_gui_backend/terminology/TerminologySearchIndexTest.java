@@ -0,0 +1,149 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.terminology.api.TerminologyEntry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("terminology")
+public class TerminologySearchIndexTest {
+
+  private static TerminologyEntry createEntry(String display, String code) {
+    var entry = new TerminologyEntry();
+    entry.setDisplay(display);
+    entry.setSelectable(true);
+    entry.setTermCodes(List.of(new TermCode(code, "http://fhir.de/CodeSystem/bfarm/icd-10-gm", null, display)));
+    return entry;
+  }
+
+  private static final TerminologyEntry DIABETES_TYPE_1 = createEntry("Diabetes mellitus, Typ 1", "E10");
+  private static final TerminologyEntry DIABETES_TYPE_2 = createEntry("Diabetes mellitus, Typ 2", "E11");
+  private static final TerminologyEntry HYPERTENSION = createEntry("Essentielle Hypertonie", "I10");
+  private static final TerminologyEntry CHRONIC_HEPATITIS = createEntry("Chronische Virushepatitis", "B18");
+
+  private static final TerminologySearchIndex INDEX = TerminologySearchIndex.of(
+      List.of(DIABETES_TYPE_2, DIABETES_TYPE_1, HYPERTENSION, CHRONIC_HEPATITIS));
+
+  @Test
+  public void testSearch_MatchesDisplayPrefixCaseInsensitive() {
+    assertEquals(List.of(DIABETES_TYPE_1, DIABETES_TYPE_2), INDEX.search("diab", 20));
+  }
+
+  @Test
+  public void testSearch_MatchesPrefixOfAnyWordOfTheDisplay() {
+    assertEquals(List.of(HYPERTENSION), INDEX.search("Hyper", 20));
+    assertEquals(List.of(DIABETES_TYPE_1, DIABETES_TYPE_2), INDEX.search("mell", 20));
+  }
+
+  @Test
+  public void testSearch_MatchesDisplayPrefixSpanningSeveralWords() {
+    assertEquals(List.of(CHRONIC_HEPATITIS), INDEX.search("chronische v", 20));
+    assertTrue(INDEX.search("virushepatitis chronische", 20).isEmpty());
+  }
+
+  @Test
+  public void testSearch_MatchesTermCodePrefixCaseSensitive() {
+    assertEquals(List.of(DIABETES_TYPE_1, DIABETES_TYPE_2), INDEX.search("E1", 20));
+    assertTrue(INDEX.search("e1", 20).isEmpty());
+  }
+
+  @Test
+  public void testSearch_RanksShorterDisplaysFirstAndRespectsLimit() {
+    assertEquals(List.of(HYPERTENSION, DIABETES_TYPE_1), INDEX.search("", 2));
+  }
+
+  @Test
+  public void testSearch_IndexesEqualEntriesOnlyOnce() {
+    var index = TerminologySearchIndex.of(List.of(HYPERTENSION, createEntry("Essentielle Hypertonie", "I10")));
+
+    assertEquals(1, index.size());
+    assertEquals(List.of(HYPERTENSION), index.search("ess", 20));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "a", "Diab", "chronische v", "covid", "U07", "xyz"})
+  public void testSearch_FindsSameEntriesAsFullScanOverUiProfiles(String searchTerm) throws IOException {
+    var jsonUtil = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    var gecco = jsonUtil.readValue(new File("./ontology/ui_profiles/GECCO.json"), TerminologyEntry.class);
+    var selectableEntries = new ArrayList<TerminologyEntry>();
+    collectSelectableEntries(gecco, selectableEntries);
+
+    var expected = new HashSet<>(selectableEntries).stream()
+        .filter(entry -> matchesByFullScan(searchTerm, entry))
+        .sorted(Comparator.comparingInt((TerminologyEntry entry) -> entry.getDisplay().length())
+            .thenComparing(TerminologyEntry::getDisplay))
+        .limit(20)
+        .map(TerminologyEntry::getDisplay)
+        .toList();
+
+    var actual = TerminologySearchIndex.of(selectableEntries).search(searchTerm, 20).stream()
+        .map(TerminologyEntry::getDisplay)
+        .toList();
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testFuzzySearch_RanksExactMatchFirst() {
+    var matches = INDEX.fuzzySearch("diabetes mellitus, typ 2", 2);
+
+    assertEquals(List.of(DIABETES_TYPE_2, DIABETES_TYPE_1), matches);
+  }
+
+  @Test
+  public void testFuzzySearch_ReturnsDissimilarEntriesAsWellUpToTheLimit() {
+    assertEquals(4, INDEX.fuzzySearch("hepatitis", 20).size());
+    assertEquals(List.of(CHRONIC_HEPATITIS), INDEX.fuzzySearch("hepatitis", 1));
+    assertTrue(INDEX.fuzzySearch("hepatitis", 0).isEmpty());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"a", "Diab", "diabetes typ", "chronische hepatits", "covid-19", "xyz"})
+  public void testFuzzySearch_ScoresLikeDiceCoefficientOverUiProfiles(String searchTerm) throws IOException {
+    var jsonUtil = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    var gecco = jsonUtil.readValue(new File("./ontology/ui_profiles/GECCO.json"), TerminologyEntry.class);
+    var selectableEntries = new ArrayList<TerminologyEntry>();
+    collectSelectableEntries(gecco, selectableEntries);
+
+    var expectedScores = new HashSet<>(selectableEntries).stream()
+        .map(entry -> TerminologyService.diceCoefficientOptimized(entry.getDisplay(), searchTerm))
+        .sorted(Comparator.reverseOrder())
+        .limit(20)
+        .toList();
+
+    var actualScores = TerminologySearchIndex.of(selectableEntries).fuzzySearch(searchTerm, 20).stream()
+        .map(entry -> TerminologyService.diceCoefficientOptimized(entry.getDisplay(), searchTerm))
+        .toList();
+
+    assertEquals(expectedScores, actualScores);
+  }
+
+  private static void collectSelectableEntries(TerminologyEntry entry, List<TerminologyEntry> selectableEntries) {
+    if (entry.isSelectable()) {
+      selectableEntries.add(entry);
+    }
+    entry.getChildren().forEach(child -> collectSelectableEntries(child, selectableEntries));
+  }
+
+  private static boolean matchesByFullScan(String query, TerminologyEntry entry) {
+    return entry.getDisplay().toLowerCase().startsWith(query.toLowerCase()) ||
+        Arrays.stream(entry.getDisplay().toLowerCase().split(" "))
+            .anyMatch(word -> word.startsWith(query.toLowerCase())) ||
+        entry.getTermCodes().stream().anyMatch(termCode -> termCode.code().startsWith(query));
+  }
+}
@@ -0,0 +1,122 @@
+package de.numcodex.feasibility_gui_backend.terminology;
+
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.terminology.db.UiProfileContent;
+import de.numcodex.feasibility_gui_backend.terminology.db.UiProfileRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@Tag("terminology")
+@ExtendWith(MockitoExtension.class)
+public class UiProfileCacheTest {
+
+  private static final String SYSTEM = "http://loinc.org";
+  private static final String CODE = "30525-0";
+  private static final String VERSION = "2.71";
+  private static final String UI_PROFILE = "{\"name\": \"Alter\"}";
+
+  @Mock
+  private UiProfileRepository uiProfileRepository;
+
+  private UiProfileCache createUiProfileCache() {
+    return new UiProfileCache(uiProfileRepository, 100, 60, 5, true);
+  }
+
+  private UiProfileContent createUiProfileContent() {
+    var uiProfileContent = new UiProfileContent();
+    uiProfileContent.setSystem(SYSTEM);
+    uiProfileContent.setCode(CODE);
+    uiProfileContent.setVersion(VERSION);
+    uiProfileContent.setUiProfile(UI_PROFILE);
+    return uiProfileContent;
+  }
+
+  @Test
+  public void testGet_LoadsUiProfileOnlyOnce() {
+    doReturn(List.of(createUiProfileContent())).when(uiProfileRepository)
+        .findUiProfileByCoding(SYSTEM, CODE, VERSION);
+    var uiProfileCache = createUiProfileCache();
+
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, VERSION));
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, VERSION));
+    verify(uiProfileRepository, times(1)).findUiProfileByCoding(SYSTEM, CODE, VERSION);
+  }
+
+  @Test
+  public void testGet_CachesAbsentUiProfiles() {
+    doReturn(List.of()).when(uiProfileRepository).findUiProfileByCoding(SYSTEM, "unknown", VERSION);
+    var uiProfileCache = createUiProfileCache();
+
+    assertEquals(Optional.empty(), uiProfileCache.get(SYSTEM, "unknown", VERSION));
+    assertEquals(Optional.empty(), uiProfileCache.get(SYSTEM, "unknown", VERSION));
+    verify(uiProfileRepository, times(1)).findUiProfileByCoding(SYSTEM, "unknown", VERSION);
+  }
+
+  @Test
+  public void testGet_LooksUpAnyVersionWithoutVersion() {
+    doReturn(List.of(createUiProfileContent())).when(uiProfileRepository).findUiProfileByCoding(SYSTEM, CODE);
+    var uiProfileCache = createUiProfileCache();
+
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, null));
+    verify(uiProfileRepository, never()).findUiProfileByCoding(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void testFindTermCodesWithoutUiProfile_ResolvesMissesUsingSingleQuery() {
+    doReturn(List.of(createUiProfileContent())).when(uiProfileRepository)
+        .findUiProfilesByCodes(Set.of(CODE, "unknown"));
+    var uiProfileCache = createUiProfileCache();
+    var withVersion = new TermCode(CODE, SYSTEM, VERSION, "Alter");
+    var withoutVersion = new TermCode(CODE, SYSTEM, null, "Alter");
+    var withOtherVersion = new TermCode(CODE, SYSTEM, "2.0", "Alter");
+    var unknown = new TermCode("unknown", SYSTEM, null, "Unknown");
+
+    var termCodesWithoutUiProfile = uiProfileCache.findTermCodesWithoutUiProfile(
+        List.of(withVersion, unknown, withoutVersion, withOtherVersion, unknown));
+
+    assertEquals(List.of(unknown, withOtherVersion, unknown), termCodesWithoutUiProfile);
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, null));
+    verify(uiProfileRepository, times(1)).findUiProfilesByCodes(Set.of(CODE, "unknown"));
+    verify(uiProfileRepository, never()).findUiProfileByCoding(anyString(), anyString());
+  }
+
+  @Test
+  public void testWarmUp_LoadsAllUiProfilesWithAndWithoutVersion() {
+    doReturn(List.of(createUiProfileContent())).when(uiProfileRepository).findAll();
+    var uiProfileCache = createUiProfileCache();
+
+    uiProfileCache.warmUp();
+
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, VERSION));
+    assertEquals(Optional.of(UI_PROFILE), uiProfileCache.get(SYSTEM, CODE, null));
+    verify(uiProfileRepository, never()).findUiProfileByCoding(anyString(), anyString());
+    verify(uiProfileRepository, never()).findUiProfileByCoding(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  public void testWarmUp_IgnoresDatabaseErrors() {
+    doThrow(new IllegalStateException("database unavailable")).when(uiProfileRepository).findAll();
+    var uiProfileCache = createUiProfileCache();
+
+    assertDoesNotThrow(uiProfileCache::warmUp);
+  }
+
+  @Test
+  public void testWarmUp_CanBeDisabled() {
+    new UiProfileCache(uiProfileRepository, 100, 60, 5, false).warmUp();
+
+    verifyNoInteractions(uiProfileRepository);
+  }
+}
@@ -0,0 +1,71 @@
+package de.numcodex.feasibility_gui_backend.terminology.validation;
+
+import de.numcodex.feasibility_gui_backend.common.api.Criterion;
+import de.numcodex.feasibility_gui_backend.common.api.TermCode;
+import de.numcodex.feasibility_gui_backend.query.api.StructuredQuery;
+import de.numcodex.feasibility_gui_backend.terminology.TerminologyService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@Tag("terminology")
+@ExtendWith(MockitoExtension.class)
+public class TermCodeValidationTest {
+
+  private static final URI QUERY_VERSION = URI.create("http://to_be_decided.com/draft-2/schema#");
+
+  @Mock
+  private TerminologyService terminologyService;
+
+  @InjectMocks
+  private TermCodeValidation termCodeValidation;
+
+  private static StructuredQuery createQuery(List<TermCode> inclusionTermCodes, List<TermCode> exclusionTermCodes) {
+    return new StructuredQuery(QUERY_VERSION,
+        List.of(List.of(new Criterion(inclusionTermCodes, null, null, null))),
+        exclusionTermCodes == null ? null : List.of(List.of(new Criterion(exclusionTermCodes, null, null, null))),
+        null);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetInvalidTermCodes_ResolvesTermCodesOfAllQueriesAtOnce() {
+    var age = new TermCode("30525-0", "http://loinc.org", null, "Alter");
+    var dementia = new TermCode("F00", "http://fhir.de/CodeSystem/bfarm/icd-10-gm", "2023", "F00");
+    var outdatedDementia = new TermCode("F00", "http://fhir.de/CodeSystem/bfarm/icd-10-gm", "2020", "F00");
+    doReturn(List.of(outdatedDementia)).when(terminologyService).getTermCodesWithoutUiProfile(anyList());
+
+    var invalidTermCodes = termCodeValidation.getInvalidTermCodes(List.of(
+        createQuery(List.of(age), List.of(dementia)),
+        createQuery(List.of(outdatedDementia), null)));
+
+    var termCodesCaptor = ArgumentCaptor.forClass(List.class);
+    verify(terminologyService, times(1)).getTermCodesWithoutUiProfile(termCodesCaptor.capture());
+    assertEquals(3, termCodesCaptor.getValue().size());
+
+    assertEquals(2, invalidTermCodes.size());
+    assertEquals(List.of(), invalidTermCodes.get(0));
+    assertEquals(1, invalidTermCodes.get(1).size());
+    assertSame(outdatedDementia, invalidTermCodes.get(1).get(0));
+  }
+
+  @Test
+  public void testGetInvalidTermCodes_SingleQuery() {
+    var age = new TermCode("30525-0", "http://loinc.org", null, "Alter");
+    doReturn(List.of(age)).when(terminologyService).getTermCodesWithoutUiProfile(List.of(age));
+
+    assertEquals(List.of(age), termCodeValidation.getInvalidTermCodes(createQuery(List.of(age), List.of())));
+  }
+}